@@ -1,10 +1,9 @@
 package com.jjjwelectronics;
 
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 
 import ca.ucalgary.seng300.simulation.InvalidStateSimulationException;
+import ca.ucalgary.seng300.simulation.ListenerRegistry;
 import ca.ucalgary.seng300.simulation.NullPointerSimulationException;
 import powerutility.NoPowerException;
 import powerutility.PowerGrid;
@@ -30,8 +29,9 @@ import powerutility.PowerGrid;
  * @author JJJW Electronics LLP
  */
 public abstract class AbstractDevice<T extends IDeviceListener> implements IDevice<T> {
-	private PowerGrid grid = null;
-	private boolean poweredUp;
+	// isPoweredUp reads these on every operation, without taking the lock
+	private volatile PowerGrid grid = null;
+	private volatile boolean poweredUp;
 
 	@Override
 	public synchronized boolean isPluggedIn() {
@@ -39,7 +39,9 @@ public abstract class AbstractDevice<T extends IDeviceListener> implements IDevi
 	}
 
 	@Override
-	public synchronized boolean isPoweredUp() {
+	public boolean isPoweredUp() {
+		PowerGrid grid = this.grid;
+
 		if(grid != null) {
 			if(poweredUp) {
 				if(grid.hasPower())
@@ -98,14 +100,18 @@ public abstract class AbstractDevice<T extends IDeviceListener> implements IDevi
 			listener.aDeviceHasBeenTurnedOff(this);
 	}
 
-	private ArrayList<T> listeners = new ArrayList<>();
+	private final ListenerRegistry<T> listeners = new ListenerRegistry<>();
 
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The list is a snapshot that is shared rather than copied, so obtaining it
+	 * is cheap enough to do on every notification.
+	 * </p>
+	 */
 	@Override
 	public List<T> listeners() {
-		@SuppressWarnings("unchecked")
-		List<T> clone = (List<T>)listeners.clone();
-
-		return Collections.unmodifiableList(clone);
+		return listeners.snapshot();
 	}
 
 	@Override
@@ -9,6 +9,12 @@ import ca.ucalgary.seng300.simulation.NullPointerSimulationException;
 
 /**
  * Represents the mass of an item, measured in micrograms by default.
+ * <p>
+ * Masses that fit in a <code>long</code> (about 9.2 million tonnes) are held as
+ * a primitive count of micrograms, so that comparing, summing and differencing
+ * them does not allocate big integers. Larger masses fall back to
+ * <code>BigInteger</code>.
+ * </p>
  * 
  * @author JJJW Electronics LLP
  */
@@ -25,7 +31,14 @@ public class Mass {
 	 * Represents a mass of one gram.
 	 */
 	public static final Mass ONE_GRAM = new Mass(MICROGRAMS_PER_GRAM);
-	private BigInteger value;
+	private static final BigInteger BIG_MICROGRAMS_PER_GRAM = BigInteger.valueOf(MICROGRAMS_PER_GRAM);
+	// Below this many micrograms, a double resolves well under a microgram
+	private static final double MAX_FAST_DOUBLE = 0x1p52;
+
+	// The value in micrograms, unless it does not fit in a long
+	private long micrograms;
+	// The value in micrograms if it does not fit in a long, otherwise null
+	private BigInteger big;
 
 	/**
 	 * Constructor from BigInteger.
@@ -45,7 +58,7 @@ public class Mass {
 		if(mass.compareTo(BigInteger.ZERO) < 0)
 			throw new InvalidArgumentSimulationException("The mass cannot be negative.");
 
-		value = mass;
+		assign(mass);
 	}
 
 	/**
@@ -60,11 +73,11 @@ public class Mass {
 		if(mass < 0)
 			throw new InvalidArgumentSimulationException("The mass cannot be negative.");
 
-		value = BigInteger.valueOf(mass);
+		micrograms = mass;
 	}
 
 	/**
-	 * Constructor from BigDecimal.
+	 * Constructor from BigDecimal. Fractions of a microgram are truncated.
 	 * 
 	 * @param mass
 	 *            The value of the mass, in grams. Cannot be null. Must be &gt;
@@ -81,11 +94,11 @@ public class Mass {
 		if(mass.compareTo(BigDecimal.ZERO) < 0)
 			throw new InvalidArgumentSimulationException("The mass cannot be negative.");
 
-		value = mass.toBigInteger().multiply(BigInteger.valueOf(MICROGRAMS_PER_GRAM));
+		assign(mass.movePointRight(6).toBigInteger());
 	}
 
 	/**
-	 * Constructor from double.
+	 * Constructor from double. Fractions of a microgram are truncated.
 	 * 
 	 * @param mass
 	 *            The value of the mass, in grams. Must be &gt; 0.
@@ -93,7 +106,40 @@ public class Mass {
 	 *             If <code>mass</code> &lt; 0.
 	 */
 	public Mass(double mass) {
-		this(BigDecimal.valueOf(mass));
+		if(mass < 0)
+			throw new InvalidArgumentSimulationException("The mass cannot be negative.");
+
+		double scaled = mass * MICROGRAMS_PER_GRAM;
+
+		if(scaled < MAX_FAST_DOUBLE) {
+			// Truncate the decimal the double stands for, as BigDecimal.valueOf would.
+			// A decimal like 1.001 g can scale to a hair below its whole number of
+			// micrograms, and the product can round up past a whole number, so the
+			// candidate is checked by dividing back, which is exact enough here.
+			long nearest = (long)Math.rint(scaled);
+
+			if(nearest / (double)MICROGRAMS_PER_GRAM == mass)
+				micrograms = nearest;
+			else {
+				long truncated = (long)scaled;
+
+				if(truncated / (double)MICROGRAMS_PER_GRAM > mass)
+					truncated--;
+				else if((truncated + 1) / (double)MICROGRAMS_PER_GRAM <= mass)
+					truncated++;
+
+				micrograms = truncated;
+			}
+		}
+		else
+			assign(BigDecimal.valueOf(mass).movePointRight(6).toBigInteger());
+	}
+
+	private void assign(BigInteger mass) {
+		if(mass.bitLength() < Long.SIZE)
+			micrograms = mass.longValue();
+		else
+			big = mass;
 	}
 
 	/**
@@ -114,7 +160,10 @@ public class Mass {
 		if(other == null)
 			throw new NullPointerSimulationException("The mass cannot be non-existent.");
 
-		return value.compareTo(other.value);
+		if(big == null && other.big == null)
+			return Long.compare(micrograms, other.micrograms);
+
+		return inMicrograms().compareTo(other.inMicrograms());
 	}
 
 	/**
@@ -130,7 +179,11 @@ public class Mass {
 		if(other == null)
 			throw new NullPointerSimulationException("The mass cannot be non-existent.");
 
-		return new MassDifference(BigInteger.valueOf(value.longValue() - other.inMicrograms().longValue()));
+		// Both values are non-negative, so subtracting them cannot overflow
+		if(big == null && other.big == null)
+			return new MassDifference(micrograms - other.micrograms);
+
+		return new MassDifference(inMicrograms().subtract(other.inMicrograms()));
 	}
 
 	/**
@@ -146,7 +199,15 @@ public class Mass {
 		if(other == null)
 			throw new NullPointerSimulationException("The mass cannot be non-existent.");
 
-		return new Mass(value.add(other.value));
+		if(big == null && other.big == null) {
+			long sum = micrograms + other.micrograms;
+
+			// The sum of two non-negative longs only goes negative on overflow
+			if(sum >= 0)
+				return new Mass(sum);
+		}
+
+		return new Mass(inMicrograms().add(other.inMicrograms()));
 	}
 
 	/**
@@ -155,16 +216,62 @@ public class Mass {
 	 * @return The value of this mass in micrograms.
 	 */
 	public BigInteger inMicrograms() {
-		return value;
+		if(big != null)
+			return big;
+
+		return BigInteger.valueOf(micrograms);
 	}
 
 	/**
-	 * Obtains the value of this mass in micrograms.
+	 * Obtains the value of this mass in micrograms, without allocating.
 	 * 
 	 * @return The value of this mass in micrograms.
+	 * @throws ArithmeticException
+	 *             If the value does not fit in a long.
+	 */
+	public long inMicrogramsAsLong() {
+		if(big != null)
+			throw new ArithmeticException("The mass is too large to be represented as a long.");
+
+		return micrograms;
+	}
+
+	/**
+	 * Determines whether the value of this mass in micrograms fits in a long, so
+	 * that {@link #inMicrogramsAsLong()} can be used.
+	 * 
+	 * @return true if the value fits in a long; otherwise, false.
+	 */
+	public boolean fitsInLong() {
+		return big == null;
+	}
+
+	/**
+	 * Obtains the value of this mass in grams, including any fraction of a gram.
+	 * 
+	 * @return The value of this mass in grams.
 	 */
 	public BigDecimal inGrams() {
-		return new BigDecimal(value.divide(BigInteger.valueOf(MICROGRAMS_PER_GRAM)));
+		if(big != null)
+			return new BigDecimal(big, 6);
+
+		if(micrograms % MICROGRAMS_PER_GRAM == 0)
+			return BigDecimal.valueOf(micrograms / MICROGRAMS_PER_GRAM);
+
+		return BigDecimal.valueOf(micrograms, 6);
+	}
+
+	/**
+	 * Obtains the value of this mass in grams as a double, without allocating
+	 * when the value fits in a long.
+	 * 
+	 * @return The value of this mass in grams.
+	 */
+	public double inGramsAsDouble() {
+		if(big != null)
+			return inGrams().doubleValue();
+
+		return (double)micrograms / MICROGRAMS_PER_GRAM;
 	}
 
 	@Override
@@ -172,7 +279,11 @@ public class Mass {
 		if(obj instanceof Mass) {
 			Mass mass = (Mass)obj;
 
-			return value.equals(mass.value);
+			// Values that fit in a long are never held as big integers
+			if(big == null && mass.big == null)
+				return micrograms == mass.micrograms;
+
+			return big != null && big.equals(mass.big);
 		}
 
 		return super.equals(obj);
@@ -180,25 +291,38 @@ public class Mass {
 
 	@Override
 	public int hashCode() {
-		return value.hashCode();
+		if(big != null)
+			return big.hashCode();
+
+		return Long.hashCode(micrograms);
 	}
 
 	@Override
 	public String toString() {
 		DecimalFormat formatter = new DecimalFormat("#,###");
-		return formatter.format(value) + " mcg";
+		return formatter.format(big != null ? big : micrograms) + " mcg";
 	}
 
 	/**
 	 * Represents the difference between two masses.
 	 */
 	public static class MassDifference {
-		BigInteger value;
+		// The difference in micrograms, unless it does not fit in a long
+		long value;
+		// The difference in micrograms if it does not fit in a long, otherwise null
+		BigInteger big;
 
-		MassDifference(BigInteger value) {
+		MassDifference(long value) {
 			this.value = value;
 		}
 
+		MassDifference(BigInteger value) {
+			if(value.bitLength() < Long.SIZE)
+				this.value = value.longValue();
+			else
+				big = value;
+		}
+
 		/**
 		 * Compares this difference against another mass.
 		 * 
@@ -213,16 +337,11 @@ public class Mass {
 			if(mass == null)
 				throw new NullPointerSimulationException("The mass cannot be non-existent.");
 
-			long other = mass.inMicrograms().longValue();
-			long thisValue = value.longValue();
-
-			if(thisValue > other)
-				return 1;
+			if(big == null && mass.big == null)
+				return Long.compare(value, mass.micrograms);
 
-			if(thisValue < other)
-				return -1;
-
-			return 0;
+			BigInteger thisValue = big != null ? big : BigInteger.valueOf(value);
+			return thisValue.compareTo(mass.inMicrograms());
 		}
 
 		/**
@@ -231,7 +350,11 @@ public class Mass {
 		 * @return The absolute value.
 		 */
 		public Mass abs() {
-			return new Mass(value.abs());
+			// The difference of two non-negative longs is never Long.MIN_VALUE
+			if(big == null)
+				return new Mass(Math.abs(value));
+
+			return new Mass(big.abs());
 		}
 	}
 }
@@ -0,0 +1,226 @@
+package com.jjjwelectronics;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import ca.ucalgary.seng300.simulation.InvalidStateSimulationException;
+import ca.ucalgary.seng300.simulation.NullPointerSimulationException;
+
+/**
+ * A mutable running total of masses, measured in micrograms. Adding and
+ * subtracting masses does not allocate as long as the total and the masses fit
+ * in a <code>long</code>; outside that range the total falls back to
+ * <code>BigInteger</code>. Unlike {@link Mass}, the total may temporarily be
+ * negative, e.g., while a correction is being applied.
+ * <p>
+ * Instances are not thread-safe.
+ * </p>
+ *
+ * @author JJJW Electronics LLP
+ */
+public class MassAccumulator {
+	private long micrograms;
+	// The total in micrograms if it does not fit in a long, otherwise null
+	private BigInteger big;
+
+	/**
+	 * Creates an accumulator with a total of zero.
+	 */
+	public MassAccumulator() {}
+
+	/**
+	 * Creates an accumulator whose total starts at the indicated mass.
+	 *
+	 * @param initial
+	 *            The initial total. Cannot be null.
+	 * @throws NullPointerSimulationException
+	 *             If <code>initial</code> is null.
+	 */
+	public MassAccumulator(Mass initial) {
+		add(initial);
+	}
+
+	/**
+	 * Adds a mass to the total.
+	 *
+	 * @param mass
+	 *            The mass to add. Cannot be null.
+	 * @return This accumulator.
+	 * @throws NullPointerSimulationException
+	 *             If <code>mass</code> is null.
+	 */
+	public MassAccumulator add(Mass mass) {
+		if(mass == null)
+			throw new NullPointerSimulationException("The mass cannot be non-existent.");
+
+		if(mass.fitsInLong())
+			return add(mass.inMicrogramsAsLong());
+
+		return add(mass.inMicrograms());
+	}
+
+	/**
+	 * Subtracts a mass from the total.
+	 *
+	 * @param mass
+	 *            The mass to subtract. Cannot be null.
+	 * @return This accumulator.
+	 * @throws NullPointerSimulationException
+	 *             If <code>mass</code> is null.
+	 */
+	public MassAccumulator subtract(Mass mass) {
+		if(mass == null)
+			throw new NullPointerSimulationException("The mass cannot be non-existent.");
+
+		if(mass.fitsInLong())
+			return subtract(mass.inMicrogramsAsLong());
+
+		return add(mass.inMicrograms().negate());
+	}
+
+	/**
+	 * Adds a number of micrograms, which may be negative, to the total.
+	 *
+	 * @param delta
+	 *            The number of micrograms to add.
+	 * @return This accumulator.
+	 */
+	public MassAccumulator add(long delta) {
+		if(big == null) {
+			long sum = micrograms + delta;
+
+			// Overflow occurred iff both operands have the opposite sign of the result
+			if(((micrograms ^ sum) & (delta ^ sum)) >= 0) {
+				micrograms = sum;
+				return this;
+			}
+		}
+
+		return add(BigInteger.valueOf(delta));
+	}
+
+	/**
+	 * Subtracts a number of micrograms, which may be negative, from the total.
+	 *
+	 * @param delta
+	 *            The number of micrograms to subtract.
+	 * @return This accumulator.
+	 */
+	public MassAccumulator subtract(long delta) {
+		if(delta == Long.MIN_VALUE)
+			return add(BigInteger.valueOf(delta).negate());
+
+		return add(-delta);
+	}
+
+	private MassAccumulator add(BigInteger delta) {
+		BigInteger sum = (big != null ? big : BigInteger.valueOf(micrograms)).add(delta);
+
+		if(sum.bitLength() < Long.SIZE) {
+			micrograms = sum.longValue();
+			big = null;
+		}
+		else
+			big = sum;
+
+		return this;
+	}
+
+	/**
+	 * Resets the total to zero.
+	 */
+	public void clear() {
+		micrograms = 0;
+		big = null;
+	}
+
+	/**
+	 * Compares the total against a mass.
+	 *
+	 * @param mass
+	 *            The mass to compare against. Cannot be null.
+	 * @return -1, 0 or 1 as the total is less than, equal to, or greater than
+	 *             <code>mass</code>.
+	 * @throws NullPointerSimulationException
+	 *             If <code>mass</code> is null.
+	 */
+	public int compareTo(Mass mass) {
+		if(mass == null)
+			throw new NullPointerSimulationException("The mass cannot be non-existent.");
+
+		if(big == null && mass.fitsInLong())
+			return Long.compare(micrograms, mass.inMicrogramsAsLong());
+
+		return inMicrograms().compareTo(mass.inMicrograms());
+	}
+
+	/**
+	 * Determines whether the total fits in a long, so that
+	 * {@link #inMicrogramsAsLong()} can be used.
+	 *
+	 * @return true if the total fits in a long; otherwise, false.
+	 */
+	public boolean fitsInLong() {
+		return big == null;
+	}
+
+	/**
+	 * Obtains the total in micrograms, without allocating.
+	 *
+	 * @return The total in micrograms.
+	 * @throws ArithmeticException
+	 *             If the total does not fit in a long.
+	 */
+	public long inMicrogramsAsLong() {
+		if(big != null)
+			throw new ArithmeticException("The total is too large to be represented as a long.");
+
+		return micrograms;
+	}
+
+	/**
+	 * Obtains the total in micrograms.
+	 *
+	 * @return The total in micrograms.
+	 */
+	public BigInteger inMicrograms() {
+		if(big != null)
+			return big;
+
+		return BigInteger.valueOf(micrograms);
+	}
+
+	/**
+	 * Obtains the total in grams as a double.
+	 *
+	 * @return The total in grams.
+	 */
+	public double inGramsAsDouble() {
+		if(big != null)
+			return new BigDecimal(big, 6).doubleValue();
+
+		return (double)micrograms / Mass.MICROGRAMS_PER_GRAM;
+	}
+
+	/**
+	 * Obtains the total as a mass.
+	 *
+	 * @return The total.
+	 * @throws InvalidStateSimulationException
+	 *             If the total is negative.
+	 */
+	public Mass toMass() {
+		if(big == null ? micrograms < 0 : big.signum() < 0)
+			throw new InvalidStateSimulationException("The total mass is negative.");
+
+		if(big == null)
+			return new Mass(micrograms);
+
+		return new Mass(big);
+	}
+
+	@Override
+	public String toString() {
+		return inMicrograms() + " mcg";
+	}
+}
@@ -0,0 +1,121 @@
+package com.jjjwelectronics;
+
+/**
+ * Packs short sequences of decimal digits into a single positive long, so that
+ * codes can be hashed and compared without walking an array of numerals. The
+ * digits are appended to a leading 1, which keeps leading zeros significant
+ * ("0012" and "12" pack differently) and guarantees that no packed value is 0.
+ * 
+ * @author JJJW Electronics LLP
+ */
+public final class PackedDigits {
+	/**
+	 * The most digits that can be packed. A leading 1 followed by 18 digits is
+	 * still less than {@link Long#MAX_VALUE}.
+	 */
+	public static final int MAX_DIGITS = 18;
+
+	/**
+	 * The value returned for sequences that cannot be packed.
+	 */
+	public static final long NOT_PACKABLE = -1;
+
+	private PackedDigits() {}
+
+	/**
+	 * Packs a sequence of numerals.
+	 * 
+	 * @param digits
+	 *            The numerals to pack.
+	 * @return The packed value, or {@link #NOT_PACKABLE} if there are more than
+	 *             {@link #MAX_DIGITS} numerals.
+	 */
+	public static long pack(Numeral[] digits) {
+		if(digits.length > MAX_DIGITS)
+			return NOT_PACKABLE;
+
+		long packed = 1;
+
+		for(Numeral digit : digits)
+			packed = packed * 10 + digit.getValue();
+
+		return packed;
+	}
+
+	/**
+	 * Packs a sequence of characters, all of which must be the digits 0-9.
+	 * 
+	 * @param digits
+	 *            The characters to pack.
+	 * @return The packed value, or {@link #NOT_PACKABLE} if the sequence is
+	 *             empty, contains any other character, or is longer than
+	 *             {@link #MAX_DIGITS}.
+	 */
+	public static long pack(CharSequence digits) {
+		int length = digits.length();
+
+		if(length < 1 || length > MAX_DIGITS)
+			return NOT_PACKABLE;
+
+		long packed = 1;
+
+		for(int i = 0; i < length; i++) {
+			char c = digits.charAt(i);
+
+			if(c < '0' || c > '9')
+				return NOT_PACKABLE;
+
+			packed = packed * 10 + (c - '0');
+		}
+
+		return packed;
+	}
+
+	/**
+	 * Unpacks a packed value into its numerals.
+	 * 
+	 * @param packed
+	 *            A value returned by one of the pack methods.
+	 * @return The numerals that were packed.
+	 */
+	public static Numeral[] toNumerals(long packed) {
+		Numeral[] digits = new Numeral[digitCount(packed)];
+
+		for(int i = digits.length - 1; i >= 0; i--) {
+			digits[i] = Numeral.valueOf((byte)(packed % 10));
+			packed /= 10;
+		}
+
+		return digits;
+	}
+
+	/**
+	 * Unpacks a packed value into a string of digits.
+	 * 
+	 * @param packed
+	 *            A value returned by one of the pack methods.
+	 * @return The digits that were packed.
+	 */
+	public static String toString(long packed) {
+		// Drop the leading 1 that marks the start of the digits
+		return Long.toString(packed).substring(1);
+	}
+
+	/**
+	 * Determines the number of digits in a packed value.
+	 * 
+	 * @param packed
+	 *            A value returned by one of the pack methods.
+	 * @return The number of digits that were packed.
+	 */
+	public static int digitCount(long packed) {
+		int count = 0;
+
+		while(packed >= 10) {
+			packed /= 10;
+			count++;
+		}
+
+		return count;
+	}
+}
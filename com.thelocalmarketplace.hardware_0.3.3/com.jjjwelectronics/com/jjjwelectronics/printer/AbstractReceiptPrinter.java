@@ -1,5 +1,7 @@
 package com.jjjwelectronics.printer;
 
+import java.nio.CharBuffer;
+
 import com.jjjwelectronics.AbstractDevice;
 import com.jjjwelectronics.EmptyDevice;
 import com.jjjwelectronics.OverloadedDevice;
@@ -63,12 +65,148 @@ abstract class AbstractReceiptPrinter extends AbstractDevice<ReceiptPrinterListe
 		if(!isPoweredUp())
 			throw new NoPowerException();
 
+		boolean printed = printCharacter(c);
+		charactersPrinted(1);
+
+		if(printed)
+			notifyConsumables();
+	}
+
+	/**
+	 * Prints a line of text to the receipt, followed by '\n'. Each character is
+	 * treated as by {@link #print(char)}, but the printer is checked for power,
+	 * paper, ink and line width once for the whole line, ink is consumed for the
+	 * whole line at once, and the ink and paper events are announced at most once
+	 * per call. Requires power.
+	 * 
+	 * @param line
+	 *            The text of the line.
+	 * @throws EmptyDevice
+	 *             If there is no ink or no paper in the printer.
+	 * @throws OverloadedDevice
+	 *             If the text would spill off the end of the line.
+	 */
+	@Override
+	public synchronized void printLine(CharSequence line) throws EmptyDevice, OverloadedDevice {
+		if(!isPoweredUp())
+			throw new NoPowerException();
+
+		CharBuffer text = CharBuffer.wrap(line);
+		int printedBefore = sb.length();
+		int newline = 0;
+
+		try {
+			printText(text);
+			printCharacter('\n');
+			newline = 1;
+		}
+		finally {
+			charactersPrinted(text.position() + newline);
+
+			if(sb.length() > printedBefore)
+				notifyConsumables();
+		}
+	}
+
+	/**
+	 * Prints the remaining characters of a buffer to the receipt, as though each
+	 * were passed to {@link #print(char)} in turn, but checking the printer once
+	 * per line of text, consuming ink once per line, and announcing the ink and
+	 * paper events at most once per call. The position of the buffer is advanced
+	 * past every character printed. Requires power.
+	 * 
+	 * @param text
+	 *            The characters to print.
+	 * @throws EmptyDevice
+	 *             If there is no ink or no paper in the printer.
+	 * @throws OverloadedDevice
+	 *             If a line of the text would spill off the end of the line.
+	 */
+	@Override
+	public synchronized void print(CharBuffer text) throws EmptyDevice, OverloadedDevice {
+		if(!isPoweredUp())
+			throw new NoPowerException();
+
+		int start = text.position();
+		int printedBefore = sb.length();
+
+		try {
+			printText(text);
+		}
+		finally {
+			charactersPrinted(text.position() - start);
+
+			if(sb.length() > printedBefore)
+				notifyConsumables();
+		}
+	}
+
+	/**
+	 * Prints the remaining characters of the buffer one line at a time. A line
+	 * that fits within the paper, ink and width available is printed in one step;
+	 * otherwise, its characters are printed one by one so that it fails at
+	 * exactly the same character as {@link #print(char)} would have.
+	 */
+	private void printText(CharBuffer text) throws EmptyDevice, OverloadedDevice {
+		while(text.hasRemaining()) {
+			int start = text.position();
+			int end = start;
+			int width = 0;
+			int ink = 0;
+
+			for(; end < text.limit(); end++) {
+				char c = text.get(end);
+
+				if(c == '\n')
+					break;
+				else if(c == ' ')
+					width++;
+				else if(!Character.isWhitespace(c)) {
+					width++;
+					ink++;
+				}
+			}
+
+			if(width == 0 || (charactersOnCurrentLine + width <= CHARACTERS_PER_LINE && linesOfPaperRemaining != 0
+			    && charactersOfInkRemaining >= ink)) {
+				for(int i = start; i < end; i++) {
+					char c = text.get(i);
+
+					if(c == ' ' || !Character.isWhitespace(c))
+						sb.append(c);
+				}
+
+				charactersOnCurrentLine += width;
+				charactersOfInkRemaining -= ink;
+				text.position(end);
+			}
+			else {
+				for(int i = start; i < end; i++) {
+					printCharacter(text.get(i));
+					text.position(i + 1);
+				}
+			}
+
+			if(end < text.limit()) {
+				printCharacter('\n');
+				text.position(end + 1);
+			}
+		}
+	}
+
+	/**
+	 * Prints a single character, without checking for power or announcing any
+	 * events.
+	 * 
+	 * @return false if the character was ignored; otherwise, true.
+	 */
+	private boolean printCharacter(char c) throws EmptyDevice, OverloadedDevice {
 		if(c == '\n') {
 			--linesOfPaperRemaining;
 			charactersOnCurrentLine = 0;
 		}
 		else if(c != ' ' && Character.isWhitespace(c))
-			return;
+			return false;
 		else if(charactersOnCurrentLine == CHARACTERS_PER_LINE)
 			throw new OverloadedDevice("The line is too long. Add a newline");
 		else if(linesOfPaperRemaining == 0)
@@ -84,7 +222,23 @@ abstract class AbstractReceiptPrinter extends AbstractDevice<ReceiptPrinterListe
 		}
 
 		sb.append(c);
+		return true;
+	}
 
+	/**
+	 * Called after characters have been accepted by one of the print methods,
+	 * including any whitespace that was ignored. Models that estimate their
+	 * consumption per character can override this.
+	 * 
+	 * @param count
+	 *            The number of characters accepted.
+	 */
+	protected void charactersPrinted(int count) {}
+
+	/**
+	 * Announces the ink and paper events that the current quantities call for.
+	 */
+	private void notifyConsumables() {
 		if(charactersOfInkRemaining == 0)
 			notifyOutOfInk();
 		else if(charactersOfInkRemaining <= MAXIMUM_INK * 0.1)
@@ -1,5 +1,7 @@
 package com.jjjwelectronics.printer;
 
+import java.nio.CharBuffer;
+
 import com.jjjwelectronics.EmptyDevice;
 import com.jjjwelectronics.IDevice;
 import com.jjjwelectronics.OverloadedDevice;
@@ -24,6 +26,37 @@ public interface IReceiptPrinter extends IDevice<ReceiptPrinterListener> {
 	 */
 	void print(char c) throws EmptyDevice, OverloadedDevice;
 
+	/**
+	 * Prints a line of text to the receipt, followed by '\n'. Each character is
+	 * treated as by {@link #print(char)}, but the printer is checked for power,
+	 * paper, ink and line width once for the whole line rather than once per
+	 * character. Requires power.
+	 * 
+	 * @param line
+	 *            The text of the line.
+	 * @throws EmptyDevice
+	 *             If there is no ink or no paper in the printer.
+	 * @throws OverloadedDevice
+	 *             If the text would spill off the end of the line.
+	 */
+	void printLine(CharSequence line) throws EmptyDevice, OverloadedDevice;
+
+	/**
+	 * Prints the remaining characters of a buffer to the receipt, as though each
+	 * were passed to {@link #print(char)} in turn, but checking the printer once
+	 * per line of text rather than once per character. The position of the buffer
+	 * is advanced past every character printed, so if an exception is thrown, it
+	 * rests on the character that could not be printed. Requires power.
+	 * 
+	 * @param text
+	 *            The characters to print.
+	 * @throws EmptyDevice
+	 *             If there is no ink or no paper in the printer.
+	 * @throws OverloadedDevice
+	 *             If a line of the text would spill off the end of the line.
+	 */
+	void print(CharBuffer text) throws EmptyDevice, OverloadedDevice;
+
 	/**
 	 * The receipt is finished printing, so cut it so that the customer can easily
 	 * remove it. Failure to cut the paper means that the receipt will not be
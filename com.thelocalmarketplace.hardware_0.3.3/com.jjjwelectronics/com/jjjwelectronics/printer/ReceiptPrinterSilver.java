@@ -2,7 +2,6 @@ package com.jjjwelectronics.printer;
 
 import java.util.Random;
 
-import com.jjjwelectronics.EmptyDevice;
 import com.jjjwelectronics.OverloadedDevice;
 
 /**
@@ -31,15 +30,15 @@ public class ReceiptPrinterSilver extends AbstractReceiptPrinter {
 	}
 
 	@Override
-	public synchronized void print(char c) throws EmptyDevice, OverloadedDevice {
-		super.print(c);
-
+	protected void charactersPrinted(int count) {
 		// We'll guess that a line has about 10 characters on it and 7 printing
 		// characters, so there is a 10%
 		// probability that a line is used and a 70% probability that a unit of ink has
 		// been used.
-		paperCount -= pseudorandomNumberGenerator.nextInt(100) > 90 ? 1 : 0;
-		inkCount -= pseudorandomNumberGenerator.nextInt(100) > 70 ? 1 : 0;
+		for(int i = 0; i < count; i++) {
+			paperCount -= pseudorandomNumberGenerator.nextInt(100) > 90 ? 1 : 0;
+			inkCount -= pseudorandomNumberGenerator.nextInt(100) > 70 ? 1 : 0;
+		}
 	}
 
 	@Override
@@ -1,8 +1,9 @@
 package com.jjjwelectronics.scale;
 
-import java.math.BigInteger;
-import java.util.ArrayList;
-import java.util.Random;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
 
 import com.jjjwelectronics.AbstractDevice;
 import com.jjjwelectronics.Item;
@@ -22,12 +23,16 @@ import powerutility.NoPowerException;
  * <p>
  * Different models in our product line have different levels of sensitivity,
  * different mass limits, and different and different precisions.
+ * <p>
+ * The items on the scale are held in an identity-hashed set and the current
+ * mass is kept as a running total, so adding or removing an item costs the same
+ * however many items are already on the scale.
  * 
  * @author JJJW Electronics LLP
  */
 public abstract class AbstractElectronicScale extends AbstractDevice<ElectronicScaleListener>
 	implements IElectronicScale {
-	protected ArrayList<Item> items = new ArrayList<>();
+	protected Set<Item> items = Collections.newSetFromMap(new IdentityHashMap<>());
 	protected Mass massLimit;
 	protected Mass currentMass = Mass.ZERO;
 	private Mass massAtLastEvent = Mass.ZERO;
@@ -70,13 +75,11 @@ public abstract class AbstractElectronicScale extends AbstractDevice<ElectronicS
 		if(item == null)
 			throw new NullPointerSimulationException("item");
 
-		if(items.contains(item))
+		if(!items.add(item))
 			throw new InvalidArgumentSimulationException("The same item cannot be added more than once to the scale.");
 
 		currentMass = currentMass.sum(item.getMass());
 
-		items.add(item);
-
 		if(currentMass.compareTo(massLimit) > 0)
 			notifyOverload();
 
@@ -93,11 +96,9 @@ public abstract class AbstractElectronicScale extends AbstractDevice<ElectronicS
 		if(!items.remove(item))
 			throw new InvalidArgumentSimulationException("The item was not found amongst those on the scale.");
 
-		// To avoid drift in the sum due to round-off error, recalculate the mass.
-		Mass newMass = Mass.ZERO;
-		for(Item itemOnScale : items)
-			newMass = newMass.sum(itemOnScale.getMass());
-
+		// Masses are whole numbers of micrograms, so the running total cannot drift.
+		// The item was part of the total, so the difference is never negative.
+		Mass newMass = currentMass.difference(item.getMass()).abs();
 		currentMass = newMass;
 
 		if(massAtLastEvent.compareTo(massLimit) > 0 && newMass.compareTo(massLimit) <= 0)
@@ -139,10 +140,50 @@ public abstract class AbstractElectronicScale extends AbstractDevice<ElectronicS
 			throw new NoPowerException();
 
 		if(currentMass.compareTo(massLimit) <= 0) {
-			long s = sensitivityLimit.inMicrograms().longValue();
-			return currentMass.sum(new Mass(BigInteger.valueOf(Math.max(new Random().nextLong(s) - s / 2, 0))));
+			long noise = noise();
+
+			if(noise == 0)
+				return currentMass;
+
+			if(currentMass.fitsInLong()) {
+				long reading = currentMass.inMicrogramsAsLong() + noise;
+
+				if(reading >= 0)
+					return new Mass(reading);
+			}
+
+			return currentMass.sum(new Mass(noise));
 		}
 
 		throw new OverloadedDevice();
 	}
+
+	/**
+	 * Gets the current mass on the scale in micrograms, without allocating.
+	 * Requires power.
+	 * 
+	 * @return The current mass, in micrograms.
+	 * @throws OverloadedDevice
+	 *             If the mass has overloaded the scale.
+	 * @throws ArithmeticException
+	 *             If the mass is too large to be represented as a long.
+	 */
+	public synchronized long getCurrentMassInMicrograms() throws OverloadedDevice {
+		if(!isPoweredUp())
+			throw new NoPowerException();
+
+		if(currentMass.compareTo(massLimit) <= 0)
+			return Math.addExact(currentMass.inMicrogramsAsLong(), noise());
+
+		throw new OverloadedDevice();
+	}
+
+	/**
+	 * Simulates the imprecision of the scale: a reading is up to half the
+	 * sensitivity heavier than the true mass, and exact about half the time.
+	 */
+	private long noise() {
+		long s = sensitivityLimit.inMicrogramsAsLong();
+		return Math.max(ThreadLocalRandom.current().nextLong(s) - s / 2, 0);
+	}
 }
\ No newline at end of file
@@ -3,6 +3,7 @@ package com.jjjwelectronics.scanner;
 import java.util.Arrays;
 
 import com.jjjwelectronics.Numeral;
+import com.jjjwelectronics.PackedDigits;
 
 import ca.ucalgary.seng300.simulation.InvalidArgumentSimulationException;
 import ca.ucalgary.seng300.simulation.NullPointerSimulationException;
@@ -16,6 +17,7 @@ import ca.ucalgary.seng300.simulation.SimulationException;
  */
 public class Barcode {
 	private Numeral[] digits;
+	private long packed;
 
 	/**
 	 * Constructs a barcode from an array of numerals.
@@ -48,6 +50,19 @@ public class Barcode {
 
 			digits[i] = code[i];
 		}
+
+		packed = PackedDigits.pack(digits);
+	}
+
+	/**
+	 * Gets this code packed into a single long, for barcodes of up to
+	 * {@link PackedDigits#MAX_DIGITS} digits.
+	 * 
+	 * @return The packed code, or {@link PackedDigits#NOT_PACKABLE} if this
+	 *             barcode is too long to be packed.
+	 */
+	public long getPackedDigits() {
+		return packed;
 	}
 
 	/**
@@ -92,6 +107,9 @@ public class Barcode {
 		if(object instanceof Barcode) {
 			Barcode other = (Barcode)object;
 
+			if(packed != PackedDigits.NOT_PACKABLE || other.packed != PackedDigits.NOT_PACKABLE)
+				return packed == other.packed;
+
 			if(other.digits.length != digits.length)
 				return false;
 
@@ -107,6 +125,9 @@ public class Barcode {
 
 	@Override
 	public int hashCode() {
+		if(packed != PackedDigits.NOT_PACKABLE)
+			return Long.hashCode(packed);
+
 		return Arrays.hashCode(digits);
 	}
 }
\ No newline at end of file
@@ -1,7 +1,6 @@
 package com.tdc;
 
-import java.util.ArrayList;
-
+import ca.ucalgary.seng300.simulation.ListenerRegistry;
 import ca.ucalgary.seng300.simulation.NullPointerSimulationException;
 import powerutility.NoPowerException;
 import powerutility.PowerGrid;
@@ -29,7 +28,8 @@ import powerutility.PowerGrid;
  * @author TDC, Inc.
  */
 public abstract class AbstractComponent<T extends IComponentObserver> implements IComponent<T> {
-	private PowerGrid grid = null;
+	// Read by hasPower without taking the lock
+	private volatile PowerGrid grid = null;
 	private boolean isActivated = false;
 
 	@Override
@@ -44,6 +44,8 @@ public abstract class AbstractComponent<T extends IComponentObserver> implements
 	
 	@Override
 	public boolean hasPower() {
+		PowerGrid grid = this.grid;
+
 		if(grid != null)
 			return grid.hasPower();
 		
@@ -74,9 +76,11 @@ public abstract class AbstractComponent<T extends IComponentObserver> implements
 	}
 
 	/**
-	 * A list of the registered observers on this component.
+	 * The registered observers on this component. Iterating over it visits the
+	 * observers registered when the iteration began, so observers may attach or
+	 * detach others while being notified.
 	 */
-	protected ArrayList<T> observers = new ArrayList<>();
+	protected final ListenerRegistry<T> observers = new ListenerRegistry<>();
 
 	@Override
 	public final synchronized boolean detach(T observer) {
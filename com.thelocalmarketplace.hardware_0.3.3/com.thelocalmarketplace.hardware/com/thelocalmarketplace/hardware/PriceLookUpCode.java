@@ -1,9 +1,8 @@
 package com.thelocalmarketplace.hardware;
 
-import java.util.Arrays;
-
 import com.jjjwelectronics.IllegalDigitException;
 import com.jjjwelectronics.Numeral;
+import com.jjjwelectronics.PackedDigits;
 
 import ca.ucalgary.seng300.simulation.InvalidArgumentSimulationException;
 import ca.ucalgary.seng300.simulation.NullPointerSimulationException;
@@ -16,6 +15,7 @@ import ca.ucalgary.seng300.simulation.SimulationException;
  */
 public class PriceLookUpCode {
 	private Numeral[] numerals;
+	private long packed;
 
 	/**
 	 * Constructs a PLU code from a string of numerals. There must be at least 4
@@ -52,6 +52,18 @@ public class PriceLookUpCode {
 				throw new InvalidArgumentSimulationException("The code must be a string of numerals.");
 			}
 		}
+
+		packed = PackedDigits.pack(numerals);
+	}
+
+	/**
+	 * Gets this code packed into a single long. Every PLU code is short enough to
+	 * be packed.
+	 * 
+	 * @return The packed code.
+	 */
+	public long getPackedDigits() {
+		return packed;
 	}
 
 	/**
@@ -96,14 +108,7 @@ public class PriceLookUpCode {
 		if(object instanceof PriceLookUpCode) {
 			PriceLookUpCode other = (PriceLookUpCode)object;
 
-			if(other.numerals.length != numerals.length)
-				return false;
-
-			for(int i = 0; i < numerals.length; i++)
-				if(!numerals[i].equals(other.numerals[i]))
-					return false;
-
-			return true;
+			return packed == other.packed;
 		}
 
 		return false;
@@ -111,6 +116,6 @@ public class PriceLookUpCode {
 
 	@Override
 	public int hashCode() {
-		return Arrays.hashCode(numerals);
+		return Long.hashCode(packed);
 	}
 }
@@ -1,7 +1,21 @@
 package com.thelocalmarketplace.hardware.external;
 
-import java.util.HashMap;
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
 import com.jjjwelectronics.scanner.Barcode;
 import com.thelocalmarketplace.hardware.BarcodedProduct;
@@ -13,6 +27,20 @@ import com.thelocalmarketplace.hardware.Product;
  * Represents a cheap and dirty version of a set of databases that the
  * simulation can interact with. The databases have to be populated in order to
  * be usable.
+ * <p>
+ * Every mutation of the product databases advances a shared modification
+ * count, so that structures derived from their contents (indices, caches) can
+ * cheaply detect that they have become stale. The keys touched by the most
+ * recent modifications are remembered too, so that such structures can be
+ * brought up to date without being rebuilt from scratch.
+ * </p>
+ * <p>
+ * The databases are safe to read and write from several threads at once, as
+ * many stations may share them. Unlike a hash map, they cannot hold null
+ * keys or values: putting one throws a null pointer exception. Looking up,
+ * testing for or removing a null key still behaves as it would for a hash map
+ * that has no such key.
+ * </p>
  */
 public class ProductDatabases {
 	/**
@@ -20,20 +48,393 @@ public class ProductDatabases {
 	 */
 	private ProductDatabases() {}
 
+	private static final AtomicLong modificationCount = new AtomicLong();
+
+	/**
+	 * How many of the most recent modifications have their keys remembered.
+	 */
+	private static final int JOURNAL_CAPACITY = 4096;
+
+	/**
+	 * Stands in the journal for a modification that may have touched any key.
+	 */
+	private static final Object ANY_KEY = new Object();
+
+	/**
+	 * The keys touched by the most recent modifications, oldest first. The last
+	 * entry belongs to the modification that brought the count to its current
+	 * value. Guarded by itself.
+	 */
+	private static final ArrayDeque<Object> journal = new ArrayDeque<>();
+
 	/**
 	 * The known PLU-coded products, indexed by PLU code.
 	 */
-	public static final Map<PriceLookUpCode, PLUCodedProduct> PLU_PRODUCT_DATABASE = new HashMap<>();
+	public static final Map<PriceLookUpCode, PLUCodedProduct> PLU_PRODUCT_DATABASE = new SharedMap<>(true);
 
 	/**
 	 * The known barcoded products, indexed by barcode.
 	 */
-	public static final Map<Barcode, BarcodedProduct> BARCODED_PRODUCT_DATABASE = new HashMap<>();
+	public static final Map<Barcode, BarcodedProduct> BARCODED_PRODUCT_DATABASE = new SharedMap<>(true);
 
 	/**
 	 * A count of the items of the given product that are known to exist in the
 	 * store. Of course, this does not account for stolen items or items that were
 	 * not correctly recorded, but it helps management to track inventory.
 	 */
-	public static final Map<Product, Integer> INVENTORY = new HashMap<>();
+	public static final Map<Product, Integer> INVENTORY = new SharedMap<>(false);
+
+	/**
+	 * Obtains the number of modifications that have been made to the PLU and
+	 * barcoded product databases. The value only ever increases.
+	 *
+	 * @return The modification count.
+	 */
+	public static long modificationCount() {
+		return modificationCount.get();
+	}
+
+	/**
+	 * Obtains the keys touched by the modifications that advanced the
+	 * modification count from one value to another. A key may appear several
+	 * times; barcodes belong to the barcoded product database and PLU codes to
+	 * the PLU product database.
+	 *
+	 * @param from
+	 *            The modification count before the modifications.
+	 * @param to
+	 *            The modification count after the modifications.
+	 * @return The keys, oldest first, or null if they are no longer remembered
+	 *             or a modification (such as clear) may have touched any key.
+	 */
+	public static List<Object> keysModifiedBetween(long from, long to) {
+		synchronized(journal) {
+			long oldest = modificationCount.get() - journal.size();
+			if(from < oldest || to < from || to > modificationCount.get())
+				return null;
+
+			List<Object> keys = new ArrayList<>((int)(to - from));
+			Iterator<Object> entries = journal.iterator();
+			for(long count = oldest; count < to; count++) {
+				Object key = entries.next();
+				if(count < from)
+					continue;
+				if(key == ANY_KEY)
+					return null;
+				keys.add(key);
+			}
+			return keys;
+		}
+	}
+
+	/**
+	 * Records a modification that touched a key and advances the modification
+	 * count.
+	 */
+	private static void modified(Object key) {
+		synchronized(journal) {
+			if(journal.size() == JOURNAL_CAPACITY)
+				journal.removeFirst();
+			journal.addLast(key);
+			modificationCount.incrementAndGet();
+		}
+	}
+
+	/**
+	 * A concurrent map that answers lookups of a null key as a hash map would. If it is
+	 * journaled, it also journals the key and advances the shared modification count
+	 * whenever it is modified, including through its key set, values, entries and their
+	 * iterators. The count is advanced after the mutation, so anything that observes the new
+	 * count also observes the change. It wraps a concurrent hash map rather than extending
+	 * one, since the views of a concurrent hash map write to it directly.
+	 */
+	private static class SharedMap<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V> {
+		private final ConcurrentHashMap<K, V> map = new ConcurrentHashMap<>();
+		private final boolean journaled;
+		private Set<K> keySet;
+		private Collection<V> values;
+		private Set<Map.Entry<K, V>> entrySet;
+
+		SharedMap(boolean journaled) {
+			this.journaled = journaled;
+		}
+
+		private void modified(Object key) {
+			if(journaled)
+				ProductDatabases.modified(key);
+		}
+
+		@Override
+		public int size() {
+			return map.size();
+		}
+
+		@Override
+		public boolean isEmpty() {
+			return map.isEmpty();
+		}
+
+		@Override
+		public boolean containsKey(Object key) {
+			return key != null && map.containsKey(key);
+		}
+
+		@Override
+		public boolean containsValue(Object value) {
+			return value != null && map.containsValue(value);
+		}
+
+		@Override
+		public V get(Object key) {
+			return key == null ? null : map.get(key);
+		}
+
+		@Override
+		public V getOrDefault(Object key, V defaultValue) {
+			return key == null ? defaultValue : map.getOrDefault(key, defaultValue);
+		}
+
+		@Override
+		public void forEach(BiConsumer<? super K, ? super V> action) {
+			map.forEach(action);
+		}
+
+		@Override
+		public V put(K key, V value) {
+			V result = map.put(key, value);
+			modified(key);
+			return result;
+		}
+
+		@Override
+		public void putAll(Map<? extends K, ? extends V> m) {
+			map.putAll(m);
+			for(K key : m.keySet())
+				modified(key);
+		}
+
+		@Override
+		public V putIfAbsent(K key, V value) {
+			V result = map.putIfAbsent(key, value);
+			modified(key);
+			return result;
+		}
+
+		@Override
+		public V remove(Object key) {
+			if(key == null)
+				return null;
+			V result = map.remove(key);
+			modified(key);
+			return result;
+		}
+
+		@Override
+		public boolean remove(Object key, Object value) {
+			if(key == null || value == null)
+				return false;
+			boolean result = map.remove(key, value);
+			modified(key);
+			return result;
+		}
+
+		@Override
+		public V replace(K key, V value) {
+			V result = map.replace(key, value);
+			modified(key);
+			return result;
+		}
+
+		@Override
+		public boolean replace(K key, V oldValue, V newValue) {
+			boolean result = map.replace(key, oldValue, newValue);
+			modified(key);
+			return result;
+		}
+
+		@Override
+		public void replaceAll(BiFunction<? super K, ? super V, ? extends V> function) {
+			map.replaceAll(function);
+			modified(ANY_KEY);
+		}
+
+		@Override
+		public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+			V result = map.compute(key, remappingFunction);
+			modified(key);
+			return result;
+		}
+
+		@Override
+		public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+			V result = map.computeIfAbsent(key, mappingFunction);
+			modified(key);
+			return result;
+		}
+
+		@Override
+		public V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+			V result = map.computeIfPresent(key, remappingFunction);
+			modified(key);
+			return result;
+		}
+
+		@Override
+		public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+			V result = map.merge(key, value, remappingFunction);
+			modified(key);
+			return result;
+		}
+
+		@Override
+		public void clear() {
+			map.clear();
+			modified(ANY_KEY);
+		}
+
+		@Override
+		public Set<K> keySet() {
+			if(keySet == null)
+				keySet = new AbstractSet<K>() {
+					@Override
+					public Iterator<K> iterator() {
+						return new TrackedIterator<>(Map.Entry::getKey);
+					}
+
+					@Override
+					public int size() {
+						return map.size();
+					}
+
+					@Override
+					public boolean contains(Object key) {
+						return containsKey(key);
+					}
+
+					@Override
+					public boolean remove(Object key) {
+						return SharedMap.this.remove(key) != null;
+					}
+
+					@Override
+					public void clear() {
+						SharedMap.this.clear();
+					}
+				};
+			return keySet;
+		}
+
+		@Override
+		public Collection<V> values() {
+			if(values == null)
+				values = new AbstractCollection<V>() {
+					@Override
+					public Iterator<V> iterator() {
+						return new TrackedIterator<>(Map.Entry::getValue);
+					}
+
+					@Override
+					public int size() {
+						return map.size();
+					}
+
+					@Override
+					public boolean contains(Object value) {
+						return containsValue(value);
+					}
+
+					@Override
+					public void clear() {
+						SharedMap.this.clear();
+					}
+				};
+			return values;
+		}
+
+		@Override
+		public Set<Map.Entry<K, V>> entrySet() {
+			if(entrySet == null)
+				entrySet = new AbstractSet<Map.Entry<K, V>>() {
+					@Override
+					public Iterator<Map.Entry<K, V>> iterator() {
+						return new TrackedIterator<>(entry -> new TrackedEntry(entry.getKey(), entry.getValue()));
+					}
+
+					@Override
+					public int size() {
+						return map.size();
+					}
+
+					@Override
+					public boolean contains(Object o) {
+						if(!(o instanceof Map.Entry))
+							return false;
+						Map.Entry<?, ?> entry = (Map.Entry<?, ?>)o;
+						V value = get(entry.getKey());
+						return value != null && value.equals(entry.getValue());
+					}
+
+					@Override
+					public boolean remove(Object o) {
+						if(!(o instanceof Map.Entry))
+							return false;
+						Map.Entry<?, ?> entry = (Map.Entry<?, ?>)o;
+						return SharedMap.this.remove(entry.getKey(), entry.getValue());
+					}
+
+					@Override
+					public void clear() {
+						SharedMap.this.clear();
+					}
+				};
+			return entrySet;
+		}
+
+		/**
+		 * Iterates over a view of the map; removing through it is journaled.
+		 */
+		private class TrackedIterator<T> implements Iterator<T> {
+			private final Iterator<Map.Entry<K, V>> entries = map.entrySet().iterator();
+			private final Function<Map.Entry<K, V>, T> view;
+			private K last;
+
+			TrackedIterator(Function<Map.Entry<K, V>, T> view) {
+				this.view = view;
+			}
+
+			@Override
+			public boolean hasNext() {
+				return entries.hasNext();
+			}
+
+			@Override
+			public T next() {
+				Map.Entry<K, V> entry = entries.next();
+				last = entry.getKey();
+				return view.apply(entry);
+			}
+
+			@Override
+			public void remove() {
+				entries.remove();
+				modified(last);
+			}
+		}
+
+		/**
+		 * An entry of the map; setting its value is journaled.
+		 */
+		@SuppressWarnings("serial")
+		private class TrackedEntry extends AbstractMap.SimpleEntry<K, V> {
+			TrackedEntry(K key, V value) {
+				super(key, value);
+			}
+
+			@Override
+			public V setValue(V value) {
+				super.setValue(value);
+				return put(getKey(), value);
+			}
+		}
+	}
 }
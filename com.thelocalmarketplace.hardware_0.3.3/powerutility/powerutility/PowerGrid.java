@@ -2,6 +2,10 @@ package powerutility;
 
 import java.lang.Thread.UncaughtExceptionHandler;
 import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Represents the electrical power grid as a Singleton. The grid can experience
@@ -9,11 +13,16 @@ import java.util.Random;
  * functioning and the latter risks to damage them. The grid can be connected to
  * a regular, imperfect source (the mains); a faulty source that constantly
  * surges; or be disconnected completely.
+ * <p>
+ * The state of the grid is published in a single atomic field, so checking for
+ * power on every device operation is one read. Faults are injected by a
+ * simulator that rolls the dice once per tick on a thread of its own: an outage
+ * lasts until power is restored, while a surge of the mains lasts one tick.
+ * </p>
  */
 public class PowerGrid {
-	private final Random pseudorandomNumberGenerator = new Random();
-	private static int probabilityOfPowerFailure = 1;
-	private static int probabilityOfPowerSurge = 5;
+	private static volatile int probabilityOfPowerFailure = 1;
+	private static volatile int probabilityOfPowerSurge = 5;
 
 	/**
 	 * Disconnects from the main power grid, so all power fails.
@@ -21,6 +30,7 @@ public class PowerGrid {
 	public static void disconnect() {
 		probabilityOfPowerFailure = 10000;
 		probabilityOfPowerSurge = 0;
+		instance.state.set(PowerState.OUTAGE);
 	}
 
 	/**
@@ -29,6 +39,7 @@ public class PowerGrid {
 	public static void engageFaultyPowerSource() {
 		probabilityOfPowerFailure = 0;
 		probabilityOfPowerSurge = 10000;
+		instance.state.compareAndSet(PowerState.NORMAL, PowerState.SURGE);
 	}
 
 	/**
@@ -38,6 +49,7 @@ public class PowerGrid {
 	public static void engageUninterruptiblePowerSource() {
 		probabilityOfPowerFailure = 0;
 		probabilityOfPowerSurge = 0;
+		instance.state.compareAndSet(PowerState.SURGE, PowerState.NORMAL);
 	}
 
 	/**
@@ -46,15 +58,19 @@ public class PowerGrid {
 	public static void reconnectToMains() {
 		probabilityOfPowerFailure = 1;
 		probabilityOfPowerSurge = 5;
+		instance.state.compareAndSet(PowerState.SURGE, PowerState.NORMAL);
 	}
 
-	private final long stateCheckInterval = 1000;
+	private static final long TICK_MILLIS = 10;
 
 	enum PowerState {
 		NORMAL, SURGE, OUTAGE
 	}
 
-	private PowerState state = PowerState.NORMAL;
+	private final AtomicReference<PowerState> state = new AtomicReference<>(PowerState.NORMAL);
+	// Only touched by the simulator
+	private final Random pseudorandomNumberGenerator = new Random();
+	private boolean surgeInProgress = false;
 
 	private static PowerGrid instance = new PowerGrid();
 
@@ -62,44 +78,58 @@ public class PowerGrid {
 		UncaughtExceptionHandler h = Thread.currentThread().getUncaughtExceptionHandler();
 		PowerHandler ph = new PowerHandler(h);
 		Thread.currentThread().setUncaughtExceptionHandler(ph);
-		
-		Thread t = new Thread() {
-			@Override
-			public void run() {
-				while(true) {
-					try {
-						Thread.sleep(10);
-					}
-					catch(InterruptedException e) {}
-				
-					hasPower();
-				}
-			};
-		};
-		t.setName("PowerGrid");
-		t.setPriority(Thread.MAX_PRIORITY);
-		t.start();
+
+		ScheduledExecutorService simulator = Executors.newSingleThreadScheduledExecutor(task -> {
+			Thread t = new Thread(task, "PowerGrid");
+			t.setDaemon(true);
+			return t;
+		});
+		simulator.scheduleAtFixedRate(this::simulate, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Advances the simulated source by one tick, possibly causing an outage or a
+	 * surge.
+	 */
+	private void simulate() {
+		if(surgeInProgress) {
+			surgeInProgress = false;
+			state.compareAndSet(PowerState.SURGE, PowerState.NORMAL);
+		}
+
+		int failure = probabilityOfPowerFailure;
+		int surge = probabilityOfPowerSurge;
+
+		if(failure == 0 && surge == 0)
+			return;
+
+		int probability = pseudorandomNumberGenerator.nextInt(10000);
+
+		if(probability < failure)
+			state.set(PowerState.OUTAGE);
+		else if(probability < surge)
+			surgeInProgress = state.compareAndSet(PowerState.NORMAL, PowerState.SURGE);
 	}
 
 	/**
 	 * For testability, forces a power surge to occur.
 	 */
 	public void forcePowerSurge() {
-		state = PowerState.SURGE;
+		state.set(PowerState.SURGE);
 	}
 
 	/**
 	 * For testability, forces a power outage to occur.
 	 */
 	public void forcePowerOutage() {
-		state = PowerState.OUTAGE;
+		state.set(PowerState.OUTAGE);
 	}
 
 	/**
 	 * For testability, forces the power to be restored.
 	 */
 	public void forcePowerRestore() {
-		state = PowerState.NORMAL;
+		state.set(PowerState.NORMAL);
 	}
 
 	/**
@@ -115,29 +145,19 @@ public class PowerGrid {
 	 * Determines whether the power grid currently has power.
 	 * 
 	 * @return true if the grid has power; otherwise, false.
+	 * @throws PowerSurge
+	 *             If the grid is surging.
+	 * @throws NoPowerException
+	 *             If the grid is experiencing an outage.
 	 */
 	public final boolean hasPower() {
-		int probability = pseudorandomNumberGenerator.nextInt(10000);
+		PowerState current = state.get();
 
-		if(state == PowerState.SURGE)
+		if(current == PowerState.NORMAL)
+			return true;
+		else if(current == PowerState.SURGE)
 			throw new PowerSurge();
-		else if(state == PowerState.OUTAGE)
+		else
 			throw new NoPowerException();
-
-		if(probability < probabilityOfPowerFailure) {
-			state = PowerState.OUTAGE;
-			throw new NoPowerException();
-		}
-		else if(probability < probabilityOfPowerSurge) {
-			try {
-				state = PowerState.SURGE;
-				throw new PowerSurge();
-			}
-			finally {
-				state = PowerState.NORMAL;
-			}
-		}
-
-		return true;
 	}
-}
\ No newline at end of file
+}
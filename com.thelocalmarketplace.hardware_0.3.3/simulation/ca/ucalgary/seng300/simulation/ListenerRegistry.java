@@ -0,0 +1,144 @@
+package ca.ucalgary.seng300.simulation;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+
+/**
+ * A registry of listeners that is cheap to notify. The listeners are held in an
+ * immutable array that is replaced whenever a listener is added or removed, so
+ * notifying them takes no lock and copies nothing. A listener that registers or
+ * deregisters listeners while it is being notified does not disturb the
+ * notification in progress; the change applies from the next one.
+ * <p>
+ * As with a list, the same listener may be registered more than once, and
+ * removing it removes one registration.
+ * </p>
+ *
+ * @param <T>
+ *            The type of listeners.
+ */
+public final class ListenerRegistry<T> implements Iterable<T> {
+	private static final Snapshot<?> EMPTY = new Snapshot<>(new Object[0]);
+
+	@SuppressWarnings("unchecked")
+	private volatile Snapshot<T> snapshot = (Snapshot<T>)EMPTY;
+
+	/**
+	 * Registers a listener.
+	 *
+	 * @param listener
+	 *            The listener to add. Cannot be null.
+	 * @throws NullPointerSimulationException
+	 *             If <code>listener</code> is null.
+	 */
+	public synchronized void add(T listener) {
+		if(listener == null)
+			throw new NullPointerSimulationException("listener");
+
+		Object[] current = snapshot.listeners;
+		Object[] next = Arrays.copyOf(current, current.length + 1);
+		next[current.length] = listener;
+		snapshot = new Snapshot<>(next);
+	}
+
+	/**
+	 * Deregisters one registration of a listener.
+	 *
+	 * @param listener
+	 *            The listener to remove.
+	 * @return true if the listener was registered; otherwise, false.
+	 */
+	public synchronized boolean remove(Object listener) {
+		Object[] current = snapshot.listeners;
+
+		for(int i = 0; i < current.length; i++) {
+			if(current[i].equals(listener)) {
+				if(current.length == 1)
+					clear();
+				else {
+					Object[] next = new Object[current.length - 1];
+					System.arraycopy(current, 0, next, 0, i);
+					System.arraycopy(current, i + 1, next, i, next.length - i);
+					snapshot = new Snapshot<>(next);
+				}
+
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Deregisters every listener.
+	 */
+	@SuppressWarnings("unchecked")
+	public synchronized void clear() {
+		snapshot = (Snapshot<T>)EMPTY;
+	}
+
+	/**
+	 * Obtains the listeners registered right now. The list is immutable and is
+	 * not affected by later registrations, so it can be iterated freely.
+	 *
+	 * @return The registered listeners.
+	 */
+	public List<T> snapshot() {
+		return snapshot;
+	}
+
+	/**
+	 * Iterates over the listeners registered when this method is called.
+	 */
+	@Override
+	public Iterator<T> iterator() {
+		return snapshot.iterator();
+	}
+
+	/**
+	 * An immutable list over an array of listeners that is never modified.
+	 */
+	private static final class Snapshot<T> extends AbstractList<T> implements RandomAccess {
+		private final Object[] listeners;
+
+		private Snapshot(Object[] listeners) {
+			this.listeners = listeners;
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		public T get(int index) {
+			return (T)listeners[index];
+		}
+
+		@Override
+		public int size() {
+			return listeners.length;
+		}
+
+		@Override
+		public Iterator<T> iterator() {
+			return new Iterator<T>() {
+				private int next = 0;
+
+				@Override
+				public boolean hasNext() {
+					return next < listeners.length;
+				}
+
+				@SuppressWarnings("unchecked")
+				@Override
+				public T next() {
+					if(next >= listeners.length)
+						throw new NoSuchElementException();
+
+					return (T)listeners[next++];
+				}
+			};
+		}
+	}
+}
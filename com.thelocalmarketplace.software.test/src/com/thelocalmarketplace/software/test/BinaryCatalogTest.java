@@ -0,0 +1,173 @@
+/**
+
+ SENG 300 - ITERATION 3
+ GROUP GOLD {8}
+
+ Name                      UCID
+
+ Yotam Rojnov             30173949
+ Duncan McKay             30177857
+ Mahfuz Alam              30142265
+ Luis Trigueros Granillo  30167989
+ Lilia Skumatova          30187339
+ Abdelrahman Abbas        30110374
+ Talaal Irtija            30169780
+ Alejandro Cardona        30178941
+ Alexandre Duteau         30192082
+ Grace Johnson            30149693
+ Abil Momin               30154771
+ Tara Ghasemi M. Rad      30171212
+ Izabella Mawani          30179738
+ Binish Khalid            30061367
+ Fatima Khalid            30140757
+ Lucas Kasdorf            30173922
+ Emily Garcia-Volk        30140791
+ Yuinikoru Futamata       30173228
+ Joseph Tandyo            30182561
+ Syed Haider              30143096
+ Nami Marwah              30178528
+
+ */
+
+package com.thelocalmarketplace.software.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.jjjwelectronics.Numeral;
+import com.jjjwelectronics.scanner.Barcode;
+
+import com.thelocalmarketplace.hardware.BarcodedProduct;
+import com.thelocalmarketplace.hardware.PLUCodedProduct;
+import com.thelocalmarketplace.hardware.PriceLookUpCode;
+import com.thelocalmarketplace.hardware.external.ProductDatabases;
+
+import com.thelocalmarketplace.software.product.BinaryCatalog;
+import com.thelocalmarketplace.software.product.BinaryCatalogBuilder;
+import com.thelocalmarketplace.software.product.ProductLookup;
+import com.thelocalmarketplace.software.product.ProductSearchIndex;
+
+public class BinaryCatalogTest {
+	private Path csvFile;
+	private Path catalogFile;
+	private BinaryCatalog catalog;
+
+	private static Barcode barcodeOf(String digits) {
+		Numeral[] numerals = new Numeral[digits.length()];
+		for (int i = 0; i < numerals.length; i++)
+			numerals[i] = Numeral.valueOf((byte) (digits.charAt(i) - '0'));
+		return new Barcode(numerals);
+	}
+
+	@Before
+	public void setUp() throws IOException {
+		csvFile = Files.createTempFile("catalog", ".csv");
+		catalogFile = Files.createTempFile("catalog", ".bin");
+		Files.write(csvFile, Arrays.asList(
+				"type,code,price,weight,description",
+				"B,0061234567890,4,1050.5,Orange juice, 1.75L",
+				"B,0012,3,3894,Milk",
+				"# produce",
+				"P,4011,1,,Banana"), StandardCharsets.UTF_8);
+		new BinaryCatalogBuilder().readCsv(csvFile).write(catalogFile);
+		catalog = BinaryCatalog.open(catalogFile);
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		ProductLookup.attachCatalog(null);
+		Files.deleteIfExists(csvFile);
+		Files.deleteIfExists(catalogFile);
+	}
+
+	@Test
+	public void testCounts() {
+		assertEquals(2, catalog.barcodedCount());
+		assertEquals(1, catalog.pluCount());
+	}
+
+	@Test
+	public void testFindsBarcodedProduct() {
+		BarcodedProduct juice = catalog.findBarcodedProduct(barcodeOf("0061234567890"));
+		assertEquals("Orange juice, 1.75L", juice.getDescription());
+		assertEquals(4, juice.getPrice());
+		assertEquals(1050.5, juice.getExpectedWeight(), 0.0001);
+		assertEquals(barcodeOf("0061234567890"), juice.getBarcode());
+		assertSame(juice, catalog.findBarcodedProduct(barcodeOf("0061234567890")));
+		assertNull(catalog.findBarcodedProduct(barcodeOf("12")));
+	}
+
+	@Test
+	public void testFindsPLUCodedProduct() {
+		PLUCodedProduct banana = catalog.findPLUCodedProduct(new PriceLookUpCode("4011"));
+		assertEquals("Banana", banana.getDescription());
+		assertEquals(new PriceLookUpCode("4011"), banana.getPLUCode());
+		assertNull(catalog.findPLUCodedProduct(new PriceLookUpCode("4012")));
+	}
+
+	@Test
+	public void testDatabasesOverrideAttachedCatalog() {
+		ProductDatabases.PLU_PRODUCT_DATABASE.clear();
+		ProductDatabases.BARCODED_PRODUCT_DATABASE.clear();
+		ProductLookup.attachCatalog(catalog);
+		assertEquals("Milk", ProductLookup.findBarcodedProduct(barcodeOf("0012")).getDescription());
+
+		PriceLookUpCode plu = new PriceLookUpCode("4011");
+		PLUCodedProduct onSale = new PLUCodedProduct(plu, "Banana", 1);
+		ProductDatabases.PLU_PRODUCT_DATABASE.put(plu, onSale);
+		assertSame(onSale, ProductLookup.findPLUCodedProduct("4011"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testRejectsDuplicateCodes() throws IOException {
+		new BinaryCatalogBuilder().addPLUCodedProduct(14011, "Banana", 1).addPLUCodedProduct(14011, "Plantain", 2).write(catalogFile);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testRejectsZeroPrice() {
+		new BinaryCatalogBuilder().addPLUCodedProduct(14011, "Banana", 0);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testRejectsZeroWeight() {
+		new BinaryCatalogBuilder().addBarcodedProduct(12, "Milk", 3, 0);
+	}
+
+	@Test
+	public void testRejectsBadLineWhenRead() throws IOException {
+		Files.write(csvFile, Arrays.asList("B,0012,3,-1,Milk"), StandardCharsets.UTF_8);
+		try {
+			new BinaryCatalogBuilder().readCsv(csvFile);
+		} catch (IllegalArgumentException e) {
+			assertTrue(e.getMessage().startsWith("Line 1"));
+			return;
+		}
+		throw new AssertionError("The line was accepted");
+	}
+
+	@Test
+	public void testAttachedCatalogIsSearchable() {
+		ProductDatabases.PLU_PRODUCT_DATABASE.clear();
+		ProductDatabases.BARCODED_PRODUCT_DATABASE.clear();
+		ProductLookup.attachCatalog(catalog);
+		assertEquals(3, ProductLookup.current().products().size());
+		assertSame(catalog.findBarcodedProduct(barcodeOf("0061234567890")), ProductSearchIndex.current().findAll("juice").get(0));
+	}
+
+	@Test(expected = IOException.class)
+	public void testRejectsOtherFiles() throws IOException {
+		BinaryCatalog.open(csvFile);
+	}
+}
@@ -0,0 +1,128 @@
+/**
+
+ SENG 300 - ITERATION 3
+ GROUP GOLD {8}
+
+ Name                      UCID
+
+ Yotam Rojnov             30173949
+ Duncan McKay             30177857
+ Mahfuz Alam              30142265
+ Luis Trigueros Granillo  30167989
+ Lilia Skumatova          30187339
+ Abdelrahman Abbas        30110374
+ Talaal Irtija            30169780
+ Alejandro Cardona        30178941
+ Alexandre Duteau         30192082
+ Grace Johnson            30149693
+ Abil Momin               30154771
+ Tara Ghasemi M. Rad      30171212
+ Izabella Mawani          30179738
+ Binish Khalid            30061367
+ Fatima Khalid            30140757
+ Lucas Kasdorf            30173922
+ Emily Garcia-Volk        30140791
+ Yuinikoru Futamata       30173228
+ Joseph Tandyo            30182561
+ Syed Haider              30143096
+ Nami Marwah              30178528
+
+ */
+
+package com.thelocalmarketplace.software.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.jjjwelectronics.Numeral;
+import com.jjjwelectronics.scanner.Barcode;
+
+import com.thelocalmarketplace.hardware.PLUCodedProduct;
+import com.thelocalmarketplace.hardware.PriceLookUpCode;
+import com.thelocalmarketplace.hardware.external.ProductDatabases;
+
+import com.thelocalmarketplace.software.product.CatalogDelta;
+import com.thelocalmarketplace.software.product.CatalogWatcher;
+import com.thelocalmarketplace.software.product.ProductLookup;
+
+public class CatalogDeltaTest {
+
+	private static Barcode barcodeOf(String digits) {
+		Numeral[] numerals = new Numeral[digits.length()];
+		for (int i = 0; i < numerals.length; i++)
+			numerals[i] = Numeral.valueOf((byte) (digits.charAt(i) - '0'));
+		return new Barcode(numerals);
+	}
+
+	@Before
+	public void setUp() {
+		ProductDatabases.BARCODED_PRODUCT_DATABASE.clear();
+		ProductDatabases.PLU_PRODUCT_DATABASE.clear();
+		PriceLookUpCode plu = new PriceLookUpCode("4011");
+		ProductDatabases.PLU_PRODUCT_DATABASE.put(plu, new PLUCodedProduct(plu, "Banana", 1));
+	}
+
+	@Test
+	public void testAppliesEveryOperation() {
+		CatalogDelta delta = CatalogDelta.parse(Arrays.asList(
+				"# morning update",
+				"ADD,B,0012,3,3894,Milk, 2%",
+				"ADD,P,4131,2,,Apple",
+				"PRICE,P,4131,3",
+				"DELIST,P,4011"));
+		assertEquals(4, delta.size());
+		assertEquals(3, delta.apply());
+
+		assertEquals("Milk, 2%", ProductLookup.findBarcodedProduct(barcodeOf("0012")).getDescription());
+		assertEquals(3, ProductLookup.findPLUCodedProduct("4131").getPrice());
+		assertNull(ProductLookup.findPLUCodedProduct("4011"));
+	}
+
+	@Test
+	public void testRejectedDeltaChangesNothing() {
+		CatalogDelta delta = CatalogDelta.parse(Arrays.asList(
+				"PRICE,P,4011,5",
+				"PRICE,P,9999,5"));
+		assertThrows(IllegalArgumentException.class, delta::apply);
+		assertEquals(1, ProductLookup.findPLUCodedProduct("4011").getPrice());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testMalformedLine() {
+		CatalogDelta.parse(Arrays.asList("RENAME,P,4011,Plantain"));
+	}
+
+	@Test
+	public void testWatcherAppliesDroppedFiles() throws IOException {
+		Path directory = Files.createTempDirectory("deltas");
+		Path good = directory.resolve("1" + CatalogWatcher.DELTA_SUFFIX);
+		Path bad = directory.resolve("2" + CatalogWatcher.DELTA_SUFFIX);
+		Files.write(good, Arrays.asList("PRICE,P,4011,4"), StandardCharsets.UTF_8);
+		Files.write(bad, Arrays.asList("DELIST,X,4011"), StandardCharsets.UTF_8);
+
+		try (CatalogWatcher watcher = new CatalogWatcher(directory)) {
+			watcher.start();
+			assertEquals(1, watcher.getAppliedDeltaCount());
+			assertEquals(1, watcher.getRejectedDeltaCount());
+			assertEquals(1, watcher.getAffectedProductCount());
+			assertTrue(watcher.getLastApplyLatencyNanos() > 0);
+		}
+
+		assertEquals(4, ProductLookup.findPLUCodedProduct("4011").getPrice());
+		assertFalse(Files.exists(good));
+		assertTrue(Files.exists(directory.resolve("1" + CatalogWatcher.DELTA_SUFFIX + CatalogWatcher.APPLIED_SUFFIX)));
+		assertTrue(Files.exists(directory.resolve("2" + CatalogWatcher.DELTA_SUFFIX + CatalogWatcher.REJECTED_SUFFIX)));
+	}
+}
@@ -0,0 +1,284 @@
+/**
+
+ SENG 300 - ITERATION 3
+ GROUP GOLD {8}
+
+ Name                      UCID
+
+ Yotam Rojnov             30173949
+ Duncan McKay             30177857
+ Mahfuz Alam              30142265
+ Luis Trigueros Granillo  30167989
+ Lilia Skumatova          30187339
+ Abdelrahman Abbas        30110374
+ Talaal Irtija            30169780
+ Alejandro Cardona        30178941
+ Alexandre Duteau         30192082
+ Grace Johnson            30149693
+ Abil Momin               30154771
+ Tara Ghasemi M. Rad      30171212
+ Izabella Mawani          30179738
+ Binish Khalid            30061367
+ Fatima Khalid            30140757
+ Lucas Kasdorf            30173922
+ Emily Garcia-Volk        30140791
+ Yuinikoru Futamata       30173228
+ Joseph Tandyo            30182561
+ Syed Haider              30143096
+ Nami Marwah              30178528
+
+ */
+
+package com.thelocalmarketplace.software.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Currency;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.jjjwelectronics.IDevice;
+import com.jjjwelectronics.IDeviceListener;
+import com.jjjwelectronics.Numeral;
+import com.jjjwelectronics.scanner.Barcode;
+import com.jjjwelectronics.scanner.BarcodeScannerListener;
+import com.jjjwelectronics.scanner.IBarcodeScanner;
+import com.tdc.coin.Coin;
+import com.thelocalmarketplace.hardware.SelfCheckoutStationGold;
+import com.thelocalmarketplace.software.DeviceEventPipeline;
+import com.thelocalmarketplace.software.SelfCheckoutStationSoftware;
+
+import powerutility.PowerGrid;
+
+public class DeviceEventPipelineTest {
+
+	private static final Barcode[] BARCODES = new Barcode[10];
+
+	static {
+		Numeral[] digits = Numeral.values();
+		for (int i = 0; i < BARCODES.length; i++)
+			BARCODES[i] = new Barcode(new Numeral[] { digits[i] });
+	}
+
+	private DeviceEventPipeline pipeline;
+
+	@After
+	public void tearDown() {
+		if (pipeline != null)
+			pipeline.close();
+	}
+
+	@Test
+	public void testEventsFromEachDeviceArriveInOrder() throws InterruptedException {
+		pipeline = new DeviceEventPipeline(64);
+		List<String> seen = Collections.synchronizedList(new ArrayList<>());
+		Thread[] devices = new Thread[3];
+		for (int d = 0; d < devices.length; d++) {
+			int device = d;
+			BarcodeScannerListener listener = pipeline.barcodeScannerListener(new Recorder(seen, "d" + device));
+			devices[d] = new Thread(() -> {
+				for (int i = 0; i < 500; i++)
+					listener.aBarcodeHasBeenScanned(null, BARCODES[i % 10]);
+			});
+			devices[d].start();
+		}
+		for (Thread device : devices)
+			device.join();
+
+		assertTrue(pipeline.awaitDelivered(5000));
+		assertEquals(1500, seen.size());
+		assertEquals(0, pipeline.getQueueDepth());
+		assertEquals(1500, pipeline.getDeliveredCount());
+		assertTrue(pipeline.getBatchCount() > 0);
+		assertTrue(pipeline.getMaxLatencyNanos() >= pipeline.getMeanLatencyNanos());
+		for (int d = 0; d < devices.length; d++) {
+			int next = 0;
+			for (String event : seen) {
+				if (event.startsWith("d" + d + ":")) {
+					assertEquals("d" + d + ":" + BARCODES[next % 10], event);
+					next++;
+				}
+			}
+			assertEquals(500, next);
+		}
+	}
+
+	@Test
+	public void testFullRingMakesDevicesWait() {
+		pipeline = new DeviceEventPipeline(2);
+		List<String> seen = Collections.synchronizedList(new ArrayList<>());
+		BarcodeScannerListener listener = pipeline.barcodeScannerListener(new Recorder(seen, "slow") {
+			@Override
+			public void aBarcodeHasBeenScanned(IBarcodeScanner barcodeScanner, Barcode barcode) {
+				try {
+					Thread.sleep(2);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				super.aBarcodeHasBeenScanned(barcodeScanner, barcode);
+			}
+		});
+		for (int i = 0; i < 20; i++)
+			listener.aBarcodeHasBeenScanned(null, BARCODES[i % 10]);
+
+		assertTrue(pipeline.awaitDelivered(5000));
+		assertEquals(20, seen.size());
+		assertTrue(pipeline.getProducerWaitCount() > 0);
+	}
+
+	@Test
+	public void testEventRaisedByAListenerIsDeliveredAtOnce() {
+		pipeline = new DeviceEventPipeline(4);
+		List<String> seen = Collections.synchronizedList(new ArrayList<>());
+		BarcodeScannerListener[] self = new BarcodeScannerListener[1];
+		self[0] = pipeline.barcodeScannerListener(new Recorder(seen, "outer") {
+			@Override
+			public void aBarcodeHasBeenScanned(IBarcodeScanner barcodeScanner, Barcode barcode) {
+				super.aBarcodeHasBeenScanned(barcodeScanner, barcode);
+				if (barcode == BARCODES[0])
+					self[0].aBarcodeHasBeenScanned(barcodeScanner, BARCODES[1]);
+			}
+		});
+		self[0].aBarcodeHasBeenScanned(null, BARCODES[0]);
+
+		assertTrue(pipeline.awaitDelivered(5000));
+		assertEquals(List.of("outer:" + BARCODES[0], "outer:" + BARCODES[1]), seen);
+	}
+
+	@Test
+	public void testFailingListenerGoesToTheErrorHandler() {
+		pipeline = new DeviceEventPipeline(4);
+		List<String> seen = Collections.synchronizedList(new ArrayList<>());
+		List<Throwable> errors = Collections.synchronizedList(new ArrayList<>());
+		pipeline.setErrorHandler(errors::add);
+		BarcodeScannerListener listener = pipeline.barcodeScannerListener(new Recorder(seen, "failing") {
+			@Override
+			public void aBarcodeHasBeenScanned(IBarcodeScanner barcodeScanner, Barcode barcode) {
+				if (barcode == BARCODES[0])
+					throw new IllegalStateException("expected by the test");
+				super.aBarcodeHasBeenScanned(barcodeScanner, barcode);
+			}
+		});
+		listener.aBarcodeHasBeenScanned(null, BARCODES[0]);
+		listener.aBarcodeHasBeenScanned(null, BARCODES[1]);
+
+		assertTrue(pipeline.awaitDelivered(5000));
+		assertEquals(List.of("failing:" + BARCODES[1]), seen);
+		assertEquals(1, errors.size());
+		assertTrue(errors.get(0) instanceof IllegalStateException);
+		assertEquals(1, pipeline.getFailedCount());
+	}
+
+	@Test
+	public void testErrorInAListenerDoesNotStopTheConsumer() {
+		pipeline = new DeviceEventPipeline(4);
+		List<String> seen = Collections.synchronizedList(new ArrayList<>());
+		List<Throwable> errors = Collections.synchronizedList(new ArrayList<>());
+		pipeline.setErrorHandler(errors::add);
+		BarcodeScannerListener listener = pipeline.barcodeScannerListener(new Recorder(seen, "failing") {
+			@Override
+			public void aBarcodeHasBeenScanned(IBarcodeScanner barcodeScanner, Barcode barcode) {
+				if (barcode == BARCODES[0])
+					throw new AssertionError("expected by the test");
+				super.aBarcodeHasBeenScanned(barcodeScanner, barcode);
+			}
+		});
+		listener.aBarcodeHasBeenScanned(null, BARCODES[0]);
+		listener.aBarcodeHasBeenScanned(null, BARCODES[1]);
+
+		assertTrue(pipeline.awaitDelivered(5000));
+		assertEquals(List.of("failing:" + BARCODES[1]), seen);
+		assertTrue(errors.get(0) instanceof AssertionError);
+	}
+
+	@Test
+	public void testEventsPublishedWhileClosingAreDeliveredOnceInOrder() throws InterruptedException {
+		pipeline = new DeviceEventPipeline(8);
+		List<String> seen = Collections.synchronizedList(new ArrayList<>());
+		Thread[] devices = new Thread[4];
+		for (int d = 0; d < devices.length; d++) {
+			BarcodeScannerListener listener = pipeline.barcodeScannerListener(new Recorder(seen, "d" + d));
+			devices[d] = new Thread(() -> {
+				for (int i = 0; i < 2000; i++)
+					listener.aBarcodeHasBeenScanned(null, BARCODES[i % 10]);
+			});
+			devices[d].start();
+		}
+		pipeline.close();
+		for (Thread device : devices) {
+			device.join(10000);
+			assertFalse(device.isAlive());
+		}
+
+		assertEquals(8000, seen.size());
+		for (int d = 0; d < devices.length; d++) {
+			int next = 0;
+			for (String event : seen) {
+				if (event.startsWith("d" + d + ":")) {
+					assertEquals("d" + d + ":" + BARCODES[next % 10], event);
+					next++;
+				}
+			}
+			assertEquals(2000, next);
+		}
+	}
+
+	@Test
+	public void testStationDeliversCoinsThroughThePipeline() throws Exception {
+		PowerGrid.engageUninterruptiblePowerSource();
+		SelfCheckoutStationGold.resetConfigurationToDefaults();
+		SelfCheckoutStationGold.configureCoinDenominations(new BigDecimal[] { new BigDecimal("0.10"), new BigDecimal("0.25") });
+		SelfCheckoutStationGold.configureCurrency(Currency.getInstance("CAD"));
+		SelfCheckoutStationGold hardware = new SelfCheckoutStationGold();
+		hardware.plugIn(PowerGrid.instance());
+		hardware.turnOn();
+		SelfCheckoutStationSoftware station = new SelfCheckoutStationSoftware(hardware);
+		pipeline = station.startEventPipeline(16);
+
+		station.setOrderTotalPrice(0.25);
+		hardware.getCoinSlot().receive(new Coin(Currency.getInstance("CAD"), new BigDecimal("0.10")));
+		assertTrue(pipeline.awaitDelivered(5000));
+		assertEquals(0.15, station.getFunds().getMoneyLeft().doubleValue(), 0);
+		assertTrue(pipeline.getDeliveredCount() > 0);
+
+		station.stopEventPipeline();
+		assertNull(station.getEventPipeline());
+		hardware.getCoinSlot().receive(new Coin(Currency.getInstance("CAD"), new BigDecimal("0.10")));
+		assertEquals(0.05, station.getFunds().getMoneyLeft().doubleValue(), 0);
+	}
+
+	private static class Recorder implements BarcodeScannerListener {
+		private final List<String> seen;
+		private final String name;
+
+		Recorder(List<String> seen, String name) {
+			this.seen = seen;
+			this.name = name;
+		}
+
+		@Override
+		public void aBarcodeHasBeenScanned(IBarcodeScanner barcodeScanner, Barcode barcode) {
+			seen.add(name + ":" + barcode);
+		}
+
+		@Override
+		public void aDeviceHasBeenEnabled(IDevice<? extends IDeviceListener> device) {}
+
+		@Override
+		public void aDeviceHasBeenDisabled(IDevice<? extends IDeviceListener> device) {}
+
+		@Override
+		public void aDeviceHasBeenTurnedOn(IDevice<? extends IDeviceListener> device) {}
+
+		@Override
+		public void aDeviceHasBeenTurnedOff(IDevice<? extends IDeviceListener> device) {}
+	}
+}
@@ -0,0 +1,124 @@
+/**
+
+ SENG 300 - ITERATION 3
+ GROUP GOLD {8}
+
+ Name                      UCID
+
+ Yotam Rojnov             30173949
+ Duncan McKay             30177857
+ Mahfuz Alam              30142265
+ Luis Trigueros Granillo  30167989
+ Lilia Skumatova          30187339
+ Abdelrahman Abbas        30110374
+ Talaal Irtija            30169780
+ Alejandro Cardona        30178941
+ Alexandre Duteau         30192082
+ Grace Johnson            30149693
+ Abil Momin               30154771
+ Tara Ghasemi M. Rad      30171212
+ Izabella Mawani          30179738
+ Binish Khalid            30061367
+ Fatima Khalid            30140757
+ Lucas Kasdorf            30173922
+ Emily Garcia-Volk        30140791
+ Yuinikoru Futamata       30173228
+ Joseph Tandyo            30182561
+ Syed Haider              30143096
+ Nami Marwah              30178528
+
+ */
+
+package com.thelocalmarketplace.software.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.jjjwelectronics.Item;
+import com.jjjwelectronics.Mass;
+import com.jjjwelectronics.OverloadedDevice;
+import com.jjjwelectronics.scale.ElectronicScaleGold;
+
+import ca.ucalgary.seng300.simulation.InvalidArgumentSimulationException;
+import powerutility.PowerGrid;
+
+public class ElectronicScaleTest {
+
+	private ElectronicScaleGold scale;
+	// Half the 100 mg sensitivity of a gold scale
+	private static final long MAX_NOISE = 50_000;
+
+	@Before
+	public void setUp() {
+		PowerGrid.engageUninterruptiblePowerSource();
+		scale = new ElectronicScaleGold();
+		scale.plugIn(PowerGrid.instance());
+		scale.turnOn();
+	}
+
+	@Test
+	public void testRunningTotalWithManyItems() throws OverloadedDevice {
+		List<Item> items = new ArrayList<>();
+		long expected = 0;
+		for (int i = 1; i <= 150; i++) {
+			Item item = new MockItem(new Mass(i * 1_000_000L + 7));
+			items.add(item);
+			scale.addAnItem(item);
+			expected += i * 1_000_000L + 7;
+		}
+		assertReads(expected);
+
+		for (int i = 0; i < items.size(); i += 2) {
+			scale.removeAnItem(items.get(i));
+			expected -= items.get(i).getMass().inMicrogramsAsLong();
+		}
+		assertReads(expected);
+	}
+
+	@Test
+	public void testSameItemCannotBeAddedTwice() {
+		Item item = new MockItem(new Mass(1_000_000));
+		scale.addAnItem(item);
+		assertThrows(InvalidArgumentSimulationException.class, () -> scale.addAnItem(item));
+	}
+
+	@Test
+	public void testItemsAreTrackedByIdentity() throws OverloadedDevice {
+		Item first = new MockItem(new Mass(1_000_000));
+		Item second = new MockItem(new Mass(1_000_000));
+		scale.addAnItem(first);
+		scale.addAnItem(second);
+		scale.removeAnItem(first);
+		assertThrows(InvalidArgumentSimulationException.class, () -> scale.removeAnItem(first));
+		assertReads(1_000_000);
+	}
+
+	@Test
+	public void testOverloadedScaleCannotBeRead() {
+		scale.addAnItem(new MockItem(new Mass(200_000L * Mass.MICROGRAMS_PER_GRAM)));
+		assertThrows(OverloadedDevice.class, () -> scale.getCurrentMassInMicrograms());
+		assertThrows(OverloadedDevice.class, () -> scale.getCurrentMassOnTheScale());
+	}
+
+	private void assertReads(long micrograms) throws OverloadedDevice {
+		for (int i = 0; i < 20; i++) {
+			long reading = scale.getCurrentMassInMicrograms();
+			assertTrue(reading >= micrograms && reading < micrograms + MAX_NOISE);
+			long massReading = scale.getCurrentMassOnTheScale().inMicrogramsAsLong();
+			assertTrue(massReading >= micrograms && massReading < micrograms + MAX_NOISE);
+		}
+	}
+
+	static class MockItem extends Item {
+		public MockItem(Mass mass) {
+			super(mass);
+		}
+	}
+}
@@ -0,0 +1,130 @@
+/**
+
+ SENG 300 - ITERATION 3
+ GROUP GOLD {8}
+
+ Name                      UCID
+
+ Yotam Rojnov             30173949
+ Duncan McKay             30177857
+ Mahfuz Alam              30142265
+ Luis Trigueros Granillo  30167989
+ Lilia Skumatova          30187339
+ Abdelrahman Abbas        30110374
+ Talaal Irtija            30169780
+ Alejandro Cardona        30178941
+ Alexandre Duteau         30192082
+ Grace Johnson            30149693
+ Abil Momin               30154771
+ Tara Ghasemi M. Rad      30171212
+ Izabella Mawani          30179738
+ Binish Khalid            30061367
+ Fatima Khalid            30140757
+ Lucas Kasdorf            30173922
+ Emily Garcia-Volk        30140791
+ Yuinikoru Futamata       30173228
+ Joseph Tandyo            30182561
+ Syed Haider              30143096
+ Nami Marwah              30178528
+
+ */
+
+package com.thelocalmarketplace.software.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.thelocalmarketplace.hardware.PLUCodedProduct;
+import com.thelocalmarketplace.hardware.PriceLookUpCode;
+import com.thelocalmarketplace.hardware.Product;
+import com.thelocalmarketplace.hardware.external.ProductDatabases;
+
+import com.thelocalmarketplace.software.product.FuzzyProductSearch;
+
+public class FuzzyProductSearchTest {
+	private PLUCodedProduct banana;
+	private PLUCodedProduct bananaBread;
+	private PLUCodedProduct chocolateMilk;
+	private PLUCodedProduct wholeMilk;
+
+	private PLUCodedProduct addProduct(String code, String description) {
+		PriceLookUpCode plu = new PriceLookUpCode(code);
+		PLUCodedProduct product = new PLUCodedProduct(plu, description, 1);
+		ProductDatabases.PLU_PRODUCT_DATABASE.put(plu, product);
+		return product;
+	}
+
+	@Before
+	public void setUp() {
+		ProductDatabases.BARCODED_PRODUCT_DATABASE.clear();
+		ProductDatabases.PLU_PRODUCT_DATABASE.clear();
+		bananaBread = addProduct("1001", "Banana Bread");
+		banana = addProduct("4011", "Banana");
+		chocolateMilk = addProduct("1002", "Chocolate Milk");
+		wholeMilk = addProduct("1003", "Whole Milk");
+	}
+
+	@Test
+	public void testToleratesTypos() {
+		List<Product> results = FuzzyProductSearch.current().search("bananna", 10);
+		assertEquals(2, results.size());
+		assertSame(banana, results.get(0));
+		assertSame(bananaBread, results.get(1));
+	}
+
+	@Test
+	public void testExactMatchesRankFirst() {
+		List<Product> results = FuzzyProductSearch.current().search("milk", 10);
+		assertEquals(2, results.size());
+		assertSame(wholeMilk, results.get(0));
+		assertSame(chocolateMilk, results.get(1));
+	}
+
+	@Test
+	public void testEveryKeywordMustMatch() {
+		List<Product> results = FuzzyProductSearch.current().search("choclate milk", 10);
+		assertEquals(1, results.size());
+		assertSame(chocolateMilk, results.get(0));
+	}
+
+	@Test
+	public void testPrefixesAndSubstringsMatch() {
+		assertSame(chocolateMilk, FuzzyProductSearch.current().search("choc", 10).get(0));
+		assertSame(wholeMilk, FuzzyProductSearch.current().search("hole", 10).get(0));
+	}
+
+	@Test
+	public void testResultsAreBoundedByLimit() {
+		List<Product> results = FuzzyProductSearch.current().search("banana", 1);
+		assertEquals(1, results.size());
+		assertSame(banana, results.get(0));
+	}
+
+	@Test
+	public void testUnrelatedTextFindsNothing() {
+		assertTrue(FuzzyProductSearch.current().search("xyzzy", 10).isEmpty());
+		assertTrue(FuzzyProductSearch.current().search("   ", 10).isEmpty());
+	}
+
+	@Test
+	public void testSeesLaterDatabaseChanges() {
+		assertTrue(FuzzyProductSearch.current().search("carrot", 10).isEmpty());
+		PLUCodedProduct carrot = addProduct("4562", "Carrot");
+		assertSame(carrot, FuzzyProductSearch.current().search("carot", 10).get(0));
+	}
+
+	@Test
+	public void testManyCandidatesAcrossKeywords() {
+		for (int i = 0; i < 500; i++)
+			addProduct(Integer.toString(20000 + i), (i % 2 == 0 ? "Organic " : "Frozen ") + "Pea Pack " + i);
+		assertEquals(250, FuzzyProductSearch.current().search("organic pea", 1000).size());
+		assertEquals(500, FuzzyProductSearch.current().search("pack", 1000).size());
+		assertEquals(2, FuzzyProductSearch.current().search("milk", 1000).size());
+	}
+}
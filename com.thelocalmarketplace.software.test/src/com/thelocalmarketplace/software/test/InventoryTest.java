@@ -0,0 +1,188 @@
+/**
+
+ SENG 300 - ITERATION 3
+ GROUP GOLD {8}
+
+ Name                      UCID
+
+ Yotam Rojnov             30173949
+ Duncan McKay             30177857
+ Mahfuz Alam              30142265
+ Luis Trigueros Granillo  30167989
+ Lilia Skumatova          30187339
+ Abdelrahman Abbas        30110374
+ Talaal Irtija            30169780
+ Alejandro Cardona        30178941
+ Alexandre Duteau         30192082
+ Grace Johnson            30149693
+ Abil Momin               30154771
+ Tara Ghasemi M. Rad      30171212
+ Izabella Mawani          30179738
+ Binish Khalid            30061367
+ Fatima Khalid            30140757
+ Lucas Kasdorf            30173922
+ Emily Garcia-Volk        30140791
+ Yuinikoru Futamata       30173228
+ Joseph Tandyo            30182561
+ Syed Haider              30143096
+ Nami Marwah              30178528
+
+ */
+
+package com.thelocalmarketplace.software.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.thelocalmarketplace.hardware.PLUCodedProduct;
+import com.thelocalmarketplace.hardware.PriceLookUpCode;
+import com.thelocalmarketplace.hardware.Product;
+import com.thelocalmarketplace.hardware.external.ProductDatabases;
+
+import com.thelocalmarketplace.software.product.Inventory;
+import com.thelocalmarketplace.software.product.InventoryListener;
+
+public class InventoryTest {
+	private Inventory inventory;
+	private PLUCodedProduct apple;
+	private PLUCodedProduct banana;
+	private List<String> events;
+
+	@Before
+	public void setUp() {
+		ProductDatabases.INVENTORY.clear();
+		apple = new PLUCodedProduct(new PriceLookUpCode("4131"), "Apple", 1);
+		banana = new PLUCodedProduct(new PriceLookUpCode("4011"), "Banana", 1);
+		inventory = new Inventory();
+		inventory.setDefaultThreshold(2);
+		events = new ArrayList<>();
+		inventory.register(new InventoryListener() {
+			@Override
+			public void lowStock(Inventory inventory, Product product, int remaining) {
+				events.add("low " + ((PLUCodedProduct) product).getDescription() + " " + remaining);
+			}
+
+			@Override
+			public void outOfStock(Inventory inventory, Product product) {
+				events.add("out " + ((PLUCodedProduct) product).getDescription());
+			}
+		});
+		inventory.restock(apple, 10);
+		inventory.restock(banana, 3);
+	}
+
+	@Test
+	public void testSaleDecrementsStock() {
+		inventory.sell(Map.of(apple, 4, banana, 1));
+		assertEquals(6, inventory.stockOf(apple));
+		assertEquals(2, inventory.stockOf(banana));
+		assertEquals(6, (int) ProductDatabases.INVENTORY.get(apple));
+	}
+
+	@Test
+	public void testRebuiltProductFindsItsStock() {
+		// The catalog rebuilds product objects, for instance when a price changes
+		PLUCodedProduct repricedApple = new PLUCodedProduct(new PriceLookUpCode("4131"), "Apple", 2);
+		inventory.sell(Map.of(repricedApple, 3));
+		assertEquals(7, inventory.stockOf(apple));
+		assertEquals(7, inventory.stockOf(repricedApple));
+		assertEquals(7, inventory.snapshot().stockOf(repricedApple));
+
+		inventory.restock(repricedApple, 1);
+		assertEquals(8, (int) ProductDatabases.INVENTORY.get(apple));
+		assertEquals(2, ProductDatabases.INVENTORY.size());
+	}
+
+	@Test
+	public void testThresholdFollowsTheCode() {
+		inventory.setThreshold(new PLUCodedProduct(new PriceLookUpCode("4131"), "Apple", 2), 8);
+		inventory.sell(Map.of(apple, 2));
+		assertEquals(List.of("low Apple 8"), events);
+	}
+
+	@Test
+	public void testStockNeverNegative() {
+		inventory.sell(Map.of(banana, 5));
+		assertEquals(0, inventory.stockOf(banana));
+	}
+
+	@Test
+	public void testUntrackedProductsIgnored() {
+		PLUCodedProduct carrot = new PLUCodedProduct(new PriceLookUpCode("4562"), "Carrot", 1);
+		inventory.sell(Map.of(carrot, 1));
+		assertEquals(0, inventory.stockOf(carrot));
+		assertTrue(!ProductDatabases.INVENTORY.containsKey(carrot));
+	}
+
+	@Test
+	public void testNullLookupsBehaveLikeAHashMap() {
+		assertEquals(0, inventory.stockOf(null));
+		assertEquals(null, ProductDatabases.INVENTORY.get(null));
+		assertTrue(!ProductDatabases.INVENTORY.containsKey(null));
+		assertEquals(null, ProductDatabases.PLU_PRODUCT_DATABASE.remove(null));
+		assertTrue(!ProductDatabases.BARCODED_PRODUCT_DATABASE.containsValue(null));
+		assertThrows(NullPointerException.class, () -> ProductDatabases.INVENTORY.put(apple, null));
+	}
+
+	@Test
+	public void testLowStockNotifiedOnceWhenCrossing() {
+		inventory.sell(Map.of(banana, 1));
+		inventory.sell(Map.of(banana, 1));
+		assertEquals(List.of("low Banana 2"), events);
+	}
+
+	@Test
+	public void testOutOfStockNotified() {
+		inventory.sell(Map.of(banana, 1));
+		inventory.sell(Map.of(banana, 2));
+		assertEquals(List.of("low Banana 2", "out Banana"), events);
+	}
+
+	@Test
+	public void testPerProductThreshold() {
+		inventory.setThreshold(apple, 8);
+		inventory.sell(Map.of(apple, 2));
+		assertEquals(List.of("low Apple 8"), events);
+		assertEquals(Map.of(apple, 8, banana, 3), inventory.snapshot().getStock());
+		assertEquals(Map.of(apple, 8), inventory.snapshot().getLowStock());
+	}
+
+	@Test
+	public void testSnapshotCountsSales() {
+		long before = inventory.snapshot().getSales();
+		inventory.sell(Map.of(apple, 1));
+		Inventory.Snapshot snapshot = inventory.snapshot();
+		assertEquals(before + 1, snapshot.getSales());
+		assertEquals(9, snapshot.stockOf(apple));
+	}
+
+	@Test
+	public void testConcurrentSales() throws InterruptedException {
+		inventory.restock(apple, 9990);
+		Thread[] stations = new Thread[8];
+		for (int i = 0; i < stations.length; i++) {
+			stations[i] = new Thread(() -> {
+				for (int j = 0; j < 1000; j++)
+					inventory.sell(Map.of(apple, 1));
+			});
+			stations[i].start();
+		}
+		for (Thread station : stations)
+			station.join();
+		assertEquals(2000, inventory.stockOf(apple));
+	}
+
+	@Test
+	public void testBadArguments() {
+		assertThrows(IllegalArgumentException.class, () -> inventory.restock(apple, -1));
+		assertThrows(IllegalArgumentException.class, () -> inventory.setThreshold(apple, -1));
+	}
+}
@@ -0,0 +1,114 @@
+/**
+
+ SENG 300 - ITERATION 3
+ GROUP GOLD {8}
+
+ Name                      UCID
+
+ Yotam Rojnov             30173949
+ Duncan McKay             30177857
+ Mahfuz Alam              30142265
+ Luis Trigueros Granillo  30167989
+ Lilia Skumatova          30187339
+ Abdelrahman Abbas        30110374
+ Talaal Irtija            30169780
+ Alejandro Cardona        30178941
+ Alexandre Duteau         30192082
+ Grace Johnson            30149693
+ Abil Momin               30154771
+ Tara Ghasemi M. Rad      30171212
+ Izabella Mawani          30179738
+ Binish Khalid            30061367
+ Fatima Khalid            30140757
+ Lucas Kasdorf            30173922
+ Emily Garcia-Volk        30140791
+ Yuinikoru Futamata       30173228
+ Joseph Tandyo            30182561
+ Syed Haider              30143096
+ Nami Marwah              30178528
+
+ */
+
+package com.thelocalmarketplace.software.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.jjjwelectronics.scale.ElectronicScaleGold;
+import com.jjjwelectronics.scale.ElectronicScaleListener;
+
+import ca.ucalgary.seng300.simulation.ListenerRegistry;
+import ca.ucalgary.seng300.simulation.NullPointerSimulationException;
+
+public class ListenerRegistryTest {
+
+	@Test
+	public void testSnapshotIsNotAffectedByLaterChanges() {
+		ListenerRegistry<Runnable> registry = new ListenerRegistry<>();
+		Runnable first = () -> {};
+		registry.add(first);
+		List<Runnable> snapshot = registry.snapshot();
+		assertSame(snapshot, registry.snapshot());
+
+		registry.add(() -> {});
+		registry.remove(first);
+		assertEquals(1, snapshot.size());
+		assertSame(first, snapshot.get(0));
+		assertThrows(UnsupportedOperationException.class, () -> snapshot.add(first));
+	}
+
+	@Test
+	public void testChangesDuringNotificationApplyFromTheNextOne() {
+		ListenerRegistry<Runnable> registry = new ListenerRegistry<>();
+		List<String> calls = new ArrayList<>();
+		Runnable late = () -> calls.add("late");
+		registry.add(new Runnable() {
+			@Override
+			public void run() {
+				calls.add("once");
+				registry.remove(this);
+				registry.add(late);
+			}
+		});
+		registry.add(() -> calls.add("always"));
+
+		for (Runnable listener : registry)
+			listener.run();
+		assertEquals(List.of("once", "always"), calls);
+
+		calls.clear();
+		for (Runnable listener : registry)
+			listener.run();
+		assertEquals(List.of("always", "late"), calls);
+	}
+
+	@Test
+	public void testRemovesOneRegistration() {
+		ListenerRegistry<Runnable> registry = new ListenerRegistry<>();
+		Runnable listener = () -> {};
+		registry.add(listener);
+		registry.add(listener);
+		assertTrue(registry.remove(listener));
+		assertEquals(1, registry.snapshot().size());
+		assertTrue(registry.remove(listener));
+		assertFalse(registry.remove(listener));
+		assertThrows(NullPointerSimulationException.class, () -> registry.add(null));
+	}
+
+	@Test
+	public void testDeviceListenersAreShared() {
+		ElectronicScaleGold scale = new ElectronicScaleGold();
+		List<ElectronicScaleListener> before = scale.listeners();
+		assertSame(before, scale.listeners());
+		scale.deregisterAll();
+		assertTrue(scale.listeners().isEmpty());
+	}
+}
@@ -0,0 +1,131 @@
+/**
+
+ SENG 300 - ITERATION 3
+ GROUP GOLD {8}
+
+ Name                      UCID
+
+ Yotam Rojnov             30173949
+ Duncan McKay             30177857
+ Mahfuz Alam              30142265
+ Luis Trigueros Granillo  30167989
+ Lilia Skumatova          30187339
+ Abdelrahman Abbas        30110374
+ Talaal Irtija            30169780
+ Alejandro Cardona        30178941
+ Alexandre Duteau         30192082
+ Grace Johnson            30149693
+ Abil Momin               30154771
+ Tara Ghasemi M. Rad      30171212
+ Izabella Mawani          30179738
+ Binish Khalid            30061367
+ Fatima Khalid            30140757
+ Lucas Kasdorf            30173922
+ Emily Garcia-Volk        30140791
+ Yuinikoru Futamata       30173228
+ Joseph Tandyo            30182561
+ Syed Haider              30143096
+ Nami Marwah              30178528
+
+ */
+
+package com.thelocalmarketplace.software.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import org.junit.Test;
+
+import com.jjjwelectronics.Mass;
+import com.jjjwelectronics.MassAccumulator;
+
+import ca.ucalgary.seng300.simulation.InvalidStateSimulationException;
+
+public class MassTest {
+
+	private static final BigInteger BEYOND_LONG = BigInteger.valueOf(Long.MAX_VALUE).add(BigInteger.ONE);
+
+	@Test
+	public void testFractionalGramsAreKept() {
+		assertEquals(1_500_000, new Mass(1.5).inMicrogramsAsLong());
+		assertEquals(1_001_000, new Mass(1.001).inMicrogramsAsLong());
+		assertEquals(123_456, new Mass(0.1234567).inMicrogramsAsLong());
+		assertEquals(2_500, new Mass(new BigDecimal("0.0025")).inMicrogramsAsLong());
+		assertEquals(new BigDecimal("1.500000"), new Mass(1.5).inGrams());
+		assertEquals(BigDecimal.valueOf(2), new Mass(2.0).inGrams());
+		assertEquals(0.25, new Mass(250_000).inGramsAsDouble(), 0);
+	}
+
+	@Test
+	public void testDoubleMatchesDecimalTruncation() {
+		double[] grams = { 0.1, 0.7, 1.005, 6536.978727999999, 9493.867721999994, 123.4567891, 4.35 };
+		for (double g : grams) {
+			BigInteger expected = BigDecimal.valueOf(g).movePointRight(6).toBigInteger();
+			assertEquals(expected, new Mass(g).inMicrograms());
+		}
+	}
+
+	@Test
+	public void testArithmetic() {
+		Mass a = new Mass(300);
+		Mass b = new Mass(120);
+		assertEquals(new Mass(420), a.sum(b));
+		assertEquals(1, a.difference(b).compareTo(new Mass(179)));
+		assertEquals(0, b.difference(a).abs().compareTo(new Mass(180)));
+		assertEquals(-1, b.difference(a).compareTo(Mass.ZERO));
+		assertTrue(a.compareTo(b) > 0);
+		assertEquals(new Mass(BigInteger.valueOf(300)), a);
+		assertEquals(new Mass(BigInteger.valueOf(300)).hashCode(), a.hashCode());
+	}
+
+	@Test
+	public void testOverflowFallsBackToBigInteger() {
+		Mass max = new Mass(Long.MAX_VALUE);
+		Mass sum = max.sum(new Mass(1));
+		assertFalse(sum.fitsInLong());
+		assertEquals(BEYOND_LONG, sum.inMicrograms());
+		assertEquals(new Mass(BEYOND_LONG), sum);
+		assertTrue(sum.compareTo(max) > 0);
+		assertEquals(0, sum.difference(max).compareTo(new Mass(1)));
+		assertThrows(ArithmeticException.class, () -> sum.inMicrogramsAsLong());
+		assertTrue(new Mass(BEYOND_LONG.subtract(BigInteger.ONE)).fitsInLong());
+	}
+
+	@Test
+	public void testAccumulator() {
+		MassAccumulator total = new MassAccumulator();
+		total.add(new Mass(500)).add(new Mass(250)).subtract(new Mass(100));
+		assertEquals(650, total.inMicrogramsAsLong());
+		assertEquals(0, total.compareTo(new Mass(650)));
+		assertEquals(new Mass(650), total.toMass());
+
+		total.add(-1000);
+		assertEquals(-350, total.inMicrogramsAsLong());
+		assertTrue(total.compareTo(Mass.ZERO) < 0);
+		assertThrows(InvalidStateSimulationException.class, () -> total.toMass());
+
+		total.clear();
+		assertEquals(0, total.inMicrogramsAsLong());
+	}
+
+	@Test
+	public void testAccumulatorOverflow() {
+		MassAccumulator total = new MassAccumulator(new Mass(Long.MAX_VALUE));
+		total.add(1);
+		assertFalse(total.fitsInLong());
+		assertEquals(BEYOND_LONG, total.inMicrograms());
+		assertEquals(new Mass(BEYOND_LONG), total.toMass());
+
+		total.subtract(2);
+		assertTrue(total.fitsInLong());
+		assertEquals(Long.MAX_VALUE - 1, total.inMicrogramsAsLong());
+
+		total.subtract(Long.MIN_VALUE);
+		assertEquals(BigInteger.valueOf(Long.MAX_VALUE - 1).subtract(BigInteger.valueOf(Long.MIN_VALUE)), total.inMicrograms());
+	}
+}
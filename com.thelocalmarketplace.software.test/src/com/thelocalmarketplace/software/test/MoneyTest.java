@@ -0,0 +1,103 @@
+/**
+
+ SENG 300 - ITERATION 3
+ GROUP GOLD {8}
+
+ Name                      UCID
+
+ Yotam Rojnov             30173949
+ Duncan McKay             30177857
+ Mahfuz Alam              30142265
+ Luis Trigueros Granillo  30167989
+ Lilia Skumatova          30187339
+ Abdelrahman Abbas        30110374
+ Talaal Irtija            30169780
+ Alejandro Cardona        30178941
+ Alexandre Duteau         30192082
+ Grace Johnson            30149693
+ Abil Momin               30154771
+ Tara Ghasemi M. Rad      30171212
+ Izabella Mawani          30179738
+ Binish Khalid            30061367
+ Fatima Khalid            30140757
+ Lucas Kasdorf            30173922
+ Emily Garcia-Volk        30140791
+ Yuinikoru Futamata       30173228
+ Joseph Tandyo            30182561
+ Syed Haider              30143096
+ Nami Marwah              30178528
+
+ */
+
+package com.thelocalmarketplace.software.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+
+import org.junit.Test;
+
+import com.thelocalmarketplace.software.funds.Money;
+import com.thelocalmarketplace.software.funds.MoneyAccumulator;
+
+public class MoneyTest {
+
+	@Test
+	public void testConversions() {
+		assertEquals(525, Money.of(new BigDecimal("5.25")).getCents());
+		assertEquals(500, Money.ofDollars(5).getCents());
+		assertEquals(15, Money.ofDollars(0.15).getCents());
+		assertEquals(new BigDecimal("0.15"), Money.ofCents(15).toBigDecimal());
+		assertEquals(-5.1, Money.ofCents(-510).toDouble(), 0);
+	}
+
+	@Test
+	public void testDenominationsAreReused() {
+		assertSame(Money.of(new BigDecimal("0.25")), Money.of(new BigDecimal("0.25")));
+	}
+
+	@Test
+	public void testSubCentAmountsRoundHalfUp() {
+		assertEquals(1, Money.of(new BigDecimal("0.005")).getCents());
+		assertEquals(0, Money.of(new BigDecimal("0.004")).getCents());
+	}
+
+	@Test
+	public void testArithmetic() {
+		Money a = Money.ofCents(1050);
+		Money b = Money.ofCents(75);
+		assertEquals(Money.ofCents(1125), a.plus(b));
+		assertEquals(Money.ofCents(975), a.minus(b));
+		assertEquals(Money.ofCents(-75), b.negate());
+		assertEquals(b, b.negate().abs());
+		assertEquals(-1, b.negate().signum());
+		assertTrue(a.compareTo(b) > 0);
+	}
+
+	@Test
+	public void testToString() {
+		assertEquals("10.50", Money.ofCents(1050).toString());
+		assertEquals("-0.05", Money.ofCents(-5).toString());
+		assertEquals("0.00", Money.ZERO.toString());
+	}
+
+	@Test
+	public void testAccumulator() {
+		MoneyAccumulator total = new MoneyAccumulator();
+		for (int i = 0; i < 10; i++)
+			total.add(Money.of(new BigDecimal("0.10")));
+		assertEquals(100, total.getCents());
+		total.addCents(-25);
+		assertEquals(Money.ofCents(75), total.get());
+		total.reset();
+		assertEquals(Money.ZERO, total.get());
+	}
+
+	@Test
+	public void testOverflow() {
+		assertThrows(ArithmeticException.class, () -> Money.ofCents(Long.MAX_VALUE).plus(Money.ofCents(1)));
+	}
+}
@@ -0,0 +1,161 @@
+/**
+
+ SENG 300 - ITERATION 3
+ GROUP GOLD {8}
+
+ Name                      UCID
+
+ Yotam Rojnov             30173949
+ Duncan McKay             30177857
+ Mahfuz Alam              30142265
+ Luis Trigueros Granillo  30167989
+ Lilia Skumatova          30187339
+ Abdelrahman Abbas        30110374
+ Talaal Irtija            30169780
+ Alejandro Cardona        30178941
+ Alexandre Duteau         30192082
+ Grace Johnson            30149693
+ Abil Momin               30154771
+ Tara Ghasemi M. Rad      30171212
+ Izabella Mawani          30179738
+ Binish Khalid            30061367
+ Fatima Khalid            30140757
+ Lucas Kasdorf            30173922
+ Emily Garcia-Volk        30140791
+ Yuinikoru Futamata       30173228
+ Joseph Tandyo            30182561
+ Syed Haider              30143096
+ Nami Marwah              30178528
+
+ */
+
+package com.thelocalmarketplace.software.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.jjjwelectronics.Item;
+import com.jjjwelectronics.Mass;
+import com.jjjwelectronics.bag.ReusableBag;
+import com.thelocalmarketplace.hardware.PLUCodedItem;
+import com.thelocalmarketplace.hardware.PLUCodedProduct;
+import com.thelocalmarketplace.hardware.PriceLookUpCode;
+
+import com.thelocalmarketplace.software.order.Order;
+import com.thelocalmarketplace.software.order.OrderLine;
+
+public class OrderTest {
+	private Order order;
+	private PLUCodedProduct apple;
+	private PLUCodedProduct banana;
+	private Item apple1;
+	private Item apple2;
+	private Item banana1;
+
+	@Before
+	public void setUp() {
+		order = new Order();
+		apple = new PLUCodedProduct(new PriceLookUpCode("4131"), "Apple", 1);
+		banana = new PLUCodedProduct(new PriceLookUpCode("4011"), "Banana", 1);
+		apple1 = new PLUCodedItem(apple.getPLUCode(), new Mass(100));
+		apple2 = new PLUCodedItem(apple.getPLUCode(), new Mass(120));
+		banana1 = new PLUCodedItem(banana.getPLUCode(), new Mass(150));
+		order.add(apple1, apple);
+		order.add(banana1, banana);
+		order.add(apple2, apple);
+	}
+
+	@Test
+	public void testItemsKeepTheirOrder() {
+		assertEquals(Arrays.asList(apple1, banana1, apple2), order.items());
+		assertSame(apple2, order.last());
+		assertEquals(3, order.size());
+	}
+
+	@Test
+	public void testIdenticalProductsShareALine() {
+		assertEquals(2, order.lines().size());
+		OrderLine line = order.lines().get(0);
+		assertSame(apple, line.getProduct());
+		assertEquals(2, line.getQuantity());
+		assertSame(line, order.lineOf(apple2));
+	}
+
+	@Test
+	public void testAddingTwiceHasNoEffect() {
+		assertFalse(order.add(apple1, apple));
+		assertEquals(3, order.size());
+	}
+
+	@Test
+	public void testRemove() {
+		assertTrue(order.remove(banana1));
+		assertFalse(order.remove(banana1));
+		assertFalse(order.contains(banana1));
+		assertEquals(Arrays.asList(apple1, apple2), order.items());
+		assertEquals(1, order.lines().size());
+		assertNull(order.lineOf(banana1));
+	}
+
+	@Test
+	public void testViewFollowsTheOrder() {
+		List<Item> view = order.view();
+		assertEquals(Arrays.asList(apple1, banana1, apple2), view);
+		order.remove(banana1);
+		assertEquals(Arrays.asList(apple1, apple2), view);
+		assertTrue(view.contains(apple2));
+		assertFalse(view.contains(banana1));
+		assertSame(apple2, view.get(1));
+		assertThrows(UnsupportedOperationException.class, () -> view.remove(apple1));
+		assertThrows(UnsupportedOperationException.class, () -> view.add(banana1));
+	}
+
+	@Test
+	public void testRemoveLast() {
+		order.remove(apple2);
+		assertSame(banana1, order.last());
+		order.remove(apple1);
+		order.remove(banana1);
+		assertNull(order.last());
+		assertTrue(order.isEmpty());
+		assertTrue(order.lines().isEmpty());
+	}
+
+	@Test
+	public void testBulkyFlagStaysOnTheLine() {
+		assertTrue(order.markBulky(apple2));
+		assertTrue(order.isBulky(apple2));
+		assertFalse(order.isBulky(apple1));
+		assertEquals(1, order.lineOf(apple1).getBulkyQuantity());
+		order.remove(apple2);
+		assertFalse(order.isBulky(apple2));
+		assertEquals(0, order.lineOf(apple1).getBulkyQuantity());
+	}
+
+	@Test
+	public void testItemsWithoutProductGroupedByClass() {
+		order.add(new ReusableBag(), null);
+		order.add(new ReusableBag(), null);
+		OrderLine bags = order.lines().get(2);
+		assertNull(bags.getProduct());
+		assertEquals(2, bags.getQuantity());
+	}
+
+	@Test
+	public void testClear() {
+		order.clear();
+		assertTrue(order.isEmpty());
+		assertTrue(order.items().isEmpty());
+		assertFalse(order.contains(apple1));
+	}
+}
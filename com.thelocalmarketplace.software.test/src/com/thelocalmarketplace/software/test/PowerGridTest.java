@@ -0,0 +1,119 @@
+/**
+
+ SENG 300 - ITERATION 3
+ GROUP GOLD {8}
+
+ Name                      UCID
+
+ Yotam Rojnov             30173949
+ Duncan McKay             30177857
+ Mahfuz Alam              30142265
+ Luis Trigueros Granillo  30167989
+ Lilia Skumatova          30187339
+ Abdelrahman Abbas        30110374
+ Talaal Irtija            30169780
+ Alejandro Cardona        30178941
+ Alexandre Duteau         30192082
+ Grace Johnson            30149693
+ Abil Momin               30154771
+ Tara Ghasemi M. Rad      30171212
+ Izabella Mawani          30179738
+ Binish Khalid            30061367
+ Fatima Khalid            30140757
+ Lucas Kasdorf            30173922
+ Emily Garcia-Volk        30140791
+ Yuinikoru Futamata       30173228
+ Joseph Tandyo            30182561
+ Syed Haider              30143096
+ Nami Marwah              30178528
+
+ */
+
+package com.thelocalmarketplace.software.test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.thelocalmarketplace.hardware.SelfCheckoutStationBronze;
+
+import powerutility.NoPowerException;
+import powerutility.PowerGrid;
+import powerutility.PowerSurge;
+
+public class PowerGridTest {
+	private PowerGrid grid;
+
+	@Before
+	public void setUp() {
+		PowerGrid.engageUninterruptiblePowerSource();
+		grid = PowerGrid.instance();
+		grid.forcePowerRestore();
+	}
+
+	@After
+	public void tearDown() {
+		PowerGrid.engageUninterruptiblePowerSource();
+		grid.forcePowerRestore();
+	}
+
+	@Test
+	public void testForcedStatesAreSeenAtOnce() {
+		assertTrue(grid.hasPower());
+		grid.forcePowerOutage();
+		try {
+			grid.hasPower();
+			throw new AssertionError("Expected an outage");
+		} catch (NoPowerException e) {}
+		grid.forcePowerSurge();
+		try {
+			grid.hasPower();
+			throw new AssertionError("Expected a surge");
+		} catch (PowerSurge e) {}
+		grid.forcePowerRestore();
+		assertTrue(grid.hasPower());
+	}
+
+	@Test
+	public void testFaultySourceSurgesUntilReplaced() throws InterruptedException {
+		PowerGrid.engageFaultyPowerSource();
+		// Surges persist across ticks of the simulator
+		for (int i = 0; i < 3; i++) {
+			try {
+				grid.hasPower();
+				throw new AssertionError("Expected a surge");
+			} catch (PowerSurge e) {}
+			Thread.sleep(20);
+		}
+		PowerGrid.engageUninterruptiblePowerSource();
+		assertTrue(grid.hasPower());
+	}
+
+	@Test
+	public void testOutageLastsUntilRestored() throws InterruptedException {
+		PowerGrid.disconnect();
+		PowerGrid.engageUninterruptiblePowerSource();
+		Thread.sleep(20);
+		try {
+			grid.hasPower();
+			throw new AssertionError("Expected an outage");
+		} catch (NoPowerException e) {}
+		grid.forcePowerRestore();
+		assertTrue(grid.hasPower());
+	}
+
+	@Test
+	public void testUninterruptibleSourceNeverFails() throws InterruptedException {
+		SelfCheckoutStationBronze station = new SelfCheckoutStationBronze();
+		station.plugIn(grid);
+		station.turnOn();
+		long deadline = System.currentTimeMillis() + 100;
+		while (System.currentTimeMillis() < deadline)
+			assertTrue(station.getMainScanner().isPoweredUp());
+		station.getMainScanner().turnOff();
+		assertFalse(station.getMainScanner().isPoweredUp());
+	}
+}
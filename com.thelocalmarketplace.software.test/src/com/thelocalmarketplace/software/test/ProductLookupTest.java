@@ -0,0 +1,210 @@
+/**
+
+ SENG 300 - ITERATION 3
+ GROUP GOLD {8}
+
+ Name                      UCID
+
+ Yotam Rojnov             30173949
+ Duncan McKay             30177857
+ Mahfuz Alam              30142265
+ Luis Trigueros Granillo  30167989
+ Lilia Skumatova          30187339
+ Abdelrahman Abbas        30110374
+ Talaal Irtija            30169780
+ Alejandro Cardona        30178941
+ Alexandre Duteau         30192082
+ Grace Johnson            30149693
+ Abil Momin               30154771
+ Tara Ghasemi M. Rad      30171212
+ Izabella Mawani          30179738
+ Binish Khalid            30061367
+ Fatima Khalid            30140757
+ Lucas Kasdorf            30173922
+ Emily Garcia-Volk        30140791
+ Yuinikoru Futamata       30173228
+ Joseph Tandyo            30182561
+ Syed Haider              30143096
+ Nami Marwah              30178528
+
+ */
+
+package com.thelocalmarketplace.software.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.jjjwelectronics.Numeral;
+import com.jjjwelectronics.PackedDigits;
+import com.jjjwelectronics.scanner.Barcode;
+
+import com.thelocalmarketplace.hardware.BarcodedProduct;
+import com.thelocalmarketplace.hardware.PLUCodedProduct;
+import com.thelocalmarketplace.hardware.PriceLookUpCode;
+import com.thelocalmarketplace.hardware.external.ProductDatabases;
+
+import com.thelocalmarketplace.software.product.ProductCodeTable;
+import com.thelocalmarketplace.software.product.ProductLookup;
+
+public class ProductLookupTest {
+	private Barcode shortBarcode;
+	private Barcode longBarcode;
+	private BarcodedProduct milk;
+	private BarcodedProduct crate;
+	private PLUCodedProduct apple;
+
+	private static Barcode barcodeOf(String digits) {
+		Numeral[] numerals = new Numeral[digits.length()];
+		for (int i = 0; i < numerals.length; i++)
+			numerals[i] = Numeral.valueOf((byte) (digits.charAt(i) - '0'));
+		return new Barcode(numerals);
+	}
+
+	@Before
+	public void setUp() {
+		ProductDatabases.BARCODED_PRODUCT_DATABASE.clear();
+		ProductDatabases.PLU_PRODUCT_DATABASE.clear();
+
+		shortBarcode = barcodeOf("0012");
+		milk = new BarcodedProduct(shortBarcode, "Milk", 3, 3894);
+		ProductDatabases.BARCODED_PRODUCT_DATABASE.put(shortBarcode, milk);
+
+		longBarcode = barcodeOf("1234567890123456789012");
+		crate = new BarcodedProduct(longBarcode, "Crate", 20, 5000);
+		ProductDatabases.BARCODED_PRODUCT_DATABASE.put(longBarcode, crate);
+
+		PriceLookUpCode plu = new PriceLookUpCode("4131");
+		apple = new PLUCodedProduct(plu, "Apple", 1);
+		ProductDatabases.PLU_PRODUCT_DATABASE.put(plu, apple);
+	}
+
+	@Test
+	public void testLeadingZerosAreSignificant() {
+		assertSame(milk, ProductLookup.findBarcodedProduct(barcodeOf("0012")));
+		assertNull(ProductLookup.findBarcodedProduct(barcodeOf("012")));
+		assertNull(ProductLookup.findBarcodedProduct(barcodeOf("12")));
+	}
+
+	@Test
+	public void testLongBarcodesFallBack() {
+		assertEquals(PackedDigits.NOT_PACKABLE, longBarcode.getPackedDigits());
+		assertSame(crate, ProductLookup.findBarcodedProduct(barcodeOf("1234567890123456789012")));
+	}
+
+	@Test
+	public void testFindsPLUByCodeOrText() {
+		assertSame(apple, ProductLookup.findPLUCodedProduct(new PriceLookUpCode("4131")));
+		assertSame(apple, ProductLookup.findPLUCodedProduct("4131"));
+		assertNull(ProductLookup.findPLUCodedProduct("41a1"));
+		assertNull(ProductLookup.findPLUCodedProduct("04131"));
+	}
+
+	@Test
+	public void testSeesLaterDatabaseChanges() {
+		ProductDatabases.PLU_PRODUCT_DATABASE.remove(new PriceLookUpCode("4131"));
+		assertNull(ProductLookup.findPLUCodedProduct("4131"));
+	}
+
+	@Test
+	public void testTableGrowsPastInitialCapacity() {
+		ProductCodeTable<BarcodedProduct> table = new ProductCodeTable<>(1);
+		for (int i = 1; i <= 1000; i++)
+			table.put(PackedDigits.pack(Integer.toString(i)), milk);
+		assertEquals(1000, table.size());
+		assertSame(milk, table.get(PackedDigits.pack("1000")));
+		assertNull(table.get(PackedDigits.pack("1001")));
+	}
+
+	@Test
+	public void testSnapshotsDoNotChange() {
+		ProductLookup before = ProductLookup.current();
+		PriceLookUpCode plu = new PriceLookUpCode("4131");
+		PLUCodedProduct repriced = new PLUCodedProduct(plu, "Apple", 2);
+		ProductDatabases.PLU_PRODUCT_DATABASE.put(plu, repriced);
+
+		ProductLookup after = ProductLookup.current();
+		assertSame(apple, before.pluCodedProduct(plu));
+		assertSame(repriced, after.pluCodedProduct(plu));
+		assertTrue(after.version() > before.version());
+	}
+
+	@Test
+	public void testUpdateIsSeenWhole() {
+		PriceLookUpCode banana = new PriceLookUpCode("4011");
+		ProductLookup.update(() -> {
+			ProductDatabases.PLU_PRODUCT_DATABASE.remove(new PriceLookUpCode("4131"));
+			ProductDatabases.PLU_PRODUCT_DATABASE.put(banana, new PLUCodedProduct(banana, "Banana", 1));
+		});
+		ProductLookup lookup = ProductLookup.current();
+		assertNull(lookup.pluCodedProduct("4131"));
+		assertEquals("Banana", lookup.pluCodedProduct("4011").getDescription());
+	}
+
+	@Test
+	public void testModificationsAreOverlaidOnEarlierSnapshots() {
+		ProductLookup before = ProductLookup.current();
+		Barcode eggsBarcode = barcodeOf("0034");
+		BarcodedProduct eggs = new BarcodedProduct(eggsBarcode, "Eggs", 4, 600);
+		ProductDatabases.BARCODED_PRODUCT_DATABASE.put(eggsBarcode, eggs);
+		ProductDatabases.BARCODED_PRODUCT_DATABASE.remove(shortBarcode);
+		ProductDatabases.PLU_PRODUCT_DATABASE.remove(new PriceLookUpCode("4131"));
+
+		ProductLookup after = ProductLookup.current();
+		assertSame(eggs, after.barcodedProduct(barcodeOf("0034")));
+		assertNull(after.barcodedProduct(barcodeOf("0012")));
+		assertNull(after.pluCodedProduct("4131"));
+		assertSame(crate, after.barcodedProduct(longBarcode));
+		assertSame(milk, before.barcodedProduct(shortBarcode));
+		assertNull(before.barcodedProduct(eggsBarcode));
+
+		assertEquals(3, before.products().size());
+		assertEquals(2, after.products().size());
+		assertTrue(after.products().contains(eggs));
+		assertTrue(after.products().contains(crate));
+	}
+
+	@Test
+	public void testManyModificationsStillSeen() {
+		for (int i = 0; i < 5000; i++) {
+			PriceLookUpCode plu = new PriceLookUpCode(Integer.toString(10000 + i));
+			ProductDatabases.PLU_PRODUCT_DATABASE.put(plu, new PLUCodedProduct(plu, "Produce " + i, 1));
+			if (i % 100 == 0)
+				assertEquals("Produce " + i, ProductLookup.current().pluCodedProduct(plu).getDescription());
+		}
+		ProductLookup lookup = ProductLookup.current();
+		assertEquals("Produce 4999", lookup.pluCodedProduct("14999").getDescription());
+		assertSame(apple, lookup.pluCodedProduct("4131"));
+	}
+
+	@Test(timeout = 10000)
+	public void testBatchInProgressDoesNotBlockReaders() throws InterruptedException {
+		ProductLookup before = ProductLookup.current();
+		CountDownLatch changed = new CountDownLatch(1);
+		CountDownLatch read = new CountDownLatch(1);
+		Thread batch = new Thread(() -> ProductLookup.update(() -> {
+			ProductDatabases.PLU_PRODUCT_DATABASE.remove(new PriceLookUpCode("4131"));
+			changed.countDown();
+			try {
+				read.await(5, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}));
+		batch.start();
+		changed.await();
+
+		assertSame(before, ProductLookup.current());
+		assertSame(apple, ProductLookup.findPLUCodedProduct("4131"));
+		read.countDown();
+		batch.join();
+		assertNull(ProductLookup.findPLUCodedProduct("4131"));
+	}
+}
@@ -0,0 +1,117 @@
+/**
+
+ SENG 300 - ITERATION 3
+ GROUP GOLD {8}
+
+ Name                      UCID
+
+ Yotam Rojnov             30173949
+ Duncan McKay             30177857
+ Mahfuz Alam              30142265
+ Luis Trigueros Granillo  30167989
+ Lilia Skumatova          30187339
+ Abdelrahman Abbas        30110374
+ Talaal Irtija            30169780
+ Alejandro Cardona        30178941
+ Alexandre Duteau         30192082
+ Grace Johnson            30149693
+ Abil Momin               30154771
+ Tara Ghasemi M. Rad      30171212
+ Izabella Mawani          30179738
+ Binish Khalid            30061367
+ Fatima Khalid            30140757
+ Lucas Kasdorf            30173922
+ Emily Garcia-Volk        30140791
+ Yuinikoru Futamata       30173228
+ Joseph Tandyo            30182561
+ Syed Haider              30143096
+ Nami Marwah              30178528
+
+ */
+
+package com.thelocalmarketplace.software.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.thelocalmarketplace.hardware.PLUCodedProduct;
+import com.thelocalmarketplace.hardware.PriceLookUpCode;
+import com.thelocalmarketplace.hardware.Product;
+import com.thelocalmarketplace.hardware.external.ProductDatabases;
+
+import com.thelocalmarketplace.software.product.ProductPrefixIndex;
+
+public class ProductPrefixIndexTest {
+	private PLUCodedProduct apple;
+	private PLUCodedProduct apricot;
+	private PLUCodedProduct banana;
+
+	private PLUCodedProduct addProduct(String code, String description) {
+		PriceLookUpCode plu = new PriceLookUpCode(code);
+		PLUCodedProduct product = new PLUCodedProduct(plu, description, 1);
+		ProductDatabases.PLU_PRODUCT_DATABASE.put(plu, product);
+		return product;
+	}
+
+	@Before
+	public void setUp() {
+		ProductDatabases.BARCODED_PRODUCT_DATABASE.clear();
+		ProductDatabases.PLU_PRODUCT_DATABASE.clear();
+		banana = addProduct("4011", "Banana");
+		apricot = addProduct("3302", "Apricot");
+		apple = addProduct("4131", "Apple");
+	}
+
+	@Test
+	public void testEmptyQueryListsEverythingAlphabetically() {
+		List<Product> suggestions = ProductPrefixIndex.typeAhead(10).update("");
+		assertEquals(3, suggestions.size());
+		assertSame(apple, suggestions.get(0));
+		assertSame(apricot, suggestions.get(1));
+		assertSame(banana, suggestions.get(2));
+	}
+
+	@Test
+	public void testNarrowsAsCharactersAreTyped() {
+		ProductPrefixIndex.TypeAhead typeAhead = ProductPrefixIndex.typeAhead(10);
+		assertEquals(2, typeAhead.update("A").size());
+		assertEquals(2, typeAhead.update("Ap").size());
+		List<Product> suggestions = typeAhead.update("Apr");
+		assertEquals(1, suggestions.size());
+		assertSame(apricot, suggestions.get(0));
+		assertEquals(0, typeAhead.update("Apx").size());
+	}
+
+	@Test
+	public void testWidensWhenCharactersAreDeleted() {
+		ProductPrefixIndex.TypeAhead typeAhead = ProductPrefixIndex.typeAhead(10);
+		typeAhead.update("apple");
+		assertEquals(2, typeAhead.update("ap").size());
+		assertEquals(3, typeAhead.update("").size());
+	}
+
+	@Test
+	public void testResultsAreBoundedByLimit() {
+		ProductPrefixIndex.TypeAhead typeAhead = ProductPrefixIndex.typeAhead(1);
+		List<Product> suggestions = typeAhead.update("a");
+		assertEquals(1, suggestions.size());
+		assertSame(apple, suggestions.get(0));
+		assertEquals(2, typeAhead.matchCount());
+	}
+
+	@Test
+	public void testSeesLaterDatabaseChanges() {
+		ProductPrefixIndex.TypeAhead typeAhead = ProductPrefixIndex.typeAhead(10);
+		assertEquals(0, typeAhead.update("c").size());
+		PLUCodedProduct carrot = addProduct("4562", "Carrot");
+		List<Product> suggestions = typeAhead.update("c");
+		assertEquals(1, suggestions.size());
+		assertTrue(suggestions.contains(carrot));
+	}
+}
@@ -0,0 +1,138 @@
+/**
+
+ SENG 300 - ITERATION 3
+ GROUP GOLD {8}
+
+ Name                      UCID
+
+ Yotam Rojnov             30173949
+ Duncan McKay             30177857
+ Mahfuz Alam              30142265
+ Luis Trigueros Granillo  30167989
+ Lilia Skumatova          30187339
+ Abdelrahman Abbas        30110374
+ Talaal Irtija            30169780
+ Alejandro Cardona        30178941
+ Alexandre Duteau         30192082
+ Grace Johnson            30149693
+ Abil Momin               30154771
+ Tara Ghasemi M. Rad      30171212
+ Izabella Mawani          30179738
+ Binish Khalid            30061367
+ Fatima Khalid            30140757
+ Lucas Kasdorf            30173922
+ Emily Garcia-Volk        30140791
+ Yuinikoru Futamata       30173228
+ Joseph Tandyo            30182561
+ Syed Haider              30143096
+ Nami Marwah              30178528
+
+ */
+
+package com.thelocalmarketplace.software.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.jjjwelectronics.Numeral;
+import com.jjjwelectronics.scanner.Barcode;
+
+import com.thelocalmarketplace.hardware.BarcodedProduct;
+import com.thelocalmarketplace.hardware.PLUCodedProduct;
+import com.thelocalmarketplace.hardware.PriceLookUpCode;
+import com.thelocalmarketplace.hardware.Product;
+import com.thelocalmarketplace.hardware.external.ProductDatabases;
+
+import com.thelocalmarketplace.software.product.ProductSearchIndex;
+
+public class ProductSearchIndexTest {
+	private BarcodedProduct darkChocolate;
+	private PLUCodedProduct bananas;
+
+	@Before
+	public void setUp() {
+		ProductDatabases.BARCODED_PRODUCT_DATABASE.clear();
+		ProductDatabases.PLU_PRODUCT_DATABASE.clear();
+
+		Barcode barcode = new Barcode(new Numeral[] {Numeral.nine, Numeral.eight, Numeral.seven});
+		darkChocolate = new BarcodedProduct(barcode, "Dark Chocolate bar", 3, 100);
+		ProductDatabases.BARCODED_PRODUCT_DATABASE.put(barcode, darkChocolate);
+
+		PriceLookUpCode plu = new PriceLookUpCode("4011");
+		bananas = new PLUCodedProduct(plu, "Organic Bananas", 2);
+		ProductDatabases.PLU_PRODUCT_DATABASE.put(plu, bananas);
+	}
+
+	@Test
+	public void testFindsByWholeKeyword() {
+		assertSame(darkChocolate, ProductSearchIndex.current().findFirst("chocolate"));
+	}
+
+	@Test
+	public void testFindsBySubstringOfToken() {
+		assertSame(bananas, ProductSearchIndex.current().findFirst("nana"));
+	}
+
+	@Test
+	public void testMultipleKeywordsMustAllMatch() {
+		assertSame(darkChocolate, ProductSearchIndex.current().findFirst("BAR dark"));
+		assertNull(ProductSearchIndex.current().findFirst("dark bananas"));
+	}
+
+	@Test
+	public void testIndexSeesLaterDatabaseChanges() {
+		ProductSearchIndex.current().findFirst("apple");
+
+		PriceLookUpCode plu = new PriceLookUpCode("4131");
+		PLUCodedProduct apples = new PLUCodedProduct(plu, "Fuji Apple", 4);
+		ProductDatabases.PLU_PRODUCT_DATABASE.put(plu, apples);
+
+		assertSame(apples, ProductSearchIndex.current().findFirst("apple"));
+	}
+
+	@Test
+	public void testIndexSeesRemovalsThroughMapViews() {
+		assertSame(bananas, ProductSearchIndex.current().findFirst("banana"));
+		ProductDatabases.PLU_PRODUCT_DATABASE.values().removeIf(product -> product == bananas);
+		assertNull(ProductSearchIndex.current().findFirst("banana"));
+
+		assertSame(darkChocolate, ProductSearchIndex.current().findFirst("dark"));
+		Iterator<Barcode> barcodes = ProductDatabases.BARCODED_PRODUCT_DATABASE.keySet().iterator();
+		barcodes.next();
+		barcodes.remove();
+		assertNull(ProductSearchIndex.current().findFirst("dark"));
+	}
+
+	@Test
+	public void testKeywordRepeatedWithinATokenMatchesOnce() {
+		List<Product> all = ProductSearchIndex.current().findAll("an");
+		assertEquals(1, all.size());
+		assertSame(bananas, all.get(0));
+	}
+
+	@Test
+	public void testResultsSurviveCacheEviction() {
+		ProductSearchIndex index = ProductSearchIndex.current();
+		assertSame(bananas, index.findFirst("ban"));
+		for (int i = 0; i < 2000; i++)
+			index.findFirst("k" + i);
+		assertSame(bananas, index.findFirst("ban"));
+		assertNull(index.findFirst("k1"));
+	}
+
+	@Test
+	public void testFindAllPrefersBarcodedProducts() {
+		List<Product> all = ProductSearchIndex.current().findAll("a");
+		assertEquals(2, all.size());
+		assertSame(darkChocolate, all.get(0));
+		assertTrue(all.contains(bananas));
+	}
+}
@@ -0,0 +1,113 @@
+/**
+
+ SENG 300 - ITERATION 3
+ GROUP GOLD {8}
+
+ Name                      UCID
+
+ Yotam Rojnov             30173949
+ Duncan McKay             30177857
+ Mahfuz Alam              30142265
+ Luis Trigueros Granillo  30167989
+ Lilia Skumatova          30187339
+ Abdelrahman Abbas        30110374
+ Talaal Irtija            30169780
+ Alejandro Cardona        30178941
+ Alexandre Duteau         30192082
+ Grace Johnson            30149693
+ Abil Momin               30154771
+ Tara Ghasemi M. Rad      30171212
+ Izabella Mawani          30179738
+ Binish Khalid            30061367
+ Fatima Khalid            30140757
+ Lucas Kasdorf            30173922
+ Emily Garcia-Volk        30140791
+ Yuinikoru Futamata       30173228
+ Joseph Tandyo            30182561
+ Syed Haider              30143096
+ Nami Marwah              30178528
+
+ */
+
+package com.thelocalmarketplace.software.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.jjjwelectronics.Item;
+import com.jjjwelectronics.Mass;
+import com.jjjwelectronics.Numeral;
+import com.jjjwelectronics.scanner.Barcode;
+import com.jjjwelectronics.scanner.BarcodedItem;
+import com.thelocalmarketplace.hardware.BarcodedProduct;
+import com.thelocalmarketplace.hardware.PLUCodedItem;
+import com.thelocalmarketplace.hardware.PLUCodedProduct;
+import com.thelocalmarketplace.hardware.PriceLookUpCode;
+import com.thelocalmarketplace.software.funds.Money;
+import com.thelocalmarketplace.software.funds.ReceiptJournal;
+
+public class ReceiptJournalTest {
+
+	private ReceiptJournal journal;
+	private BarcodedItem milk;
+	private BarcodedProduct milkProduct;
+	private PLUCodedItem orange;
+	private PLUCodedProduct orangeProduct;
+
+	@Before
+	public void setUp() {
+		journal = new ReceiptJournal();
+		Barcode barcode = new Barcode(new Numeral[] {Numeral.one, Numeral.two});
+		milk = new BarcodedItem(barcode, new Mass(1000));
+		milkProduct = new BarcodedProduct(barcode, "milk", 4, 1);
+		PriceLookUpCode code = new PriceLookUpCode("0001");
+		orange = new PLUCodedItem(code, new Mass(1000));
+		orangeProduct = new PLUCodedProduct(code, "orange", 10);
+	}
+
+	@Test
+	public void testLinesAreFormattedWhenRecorded() {
+		journal.record(milk, milkProduct);
+		journal.record(orange, orangeProduct);
+		assertEquals("milk $4.00", journal.lineOf(milk));
+		assertEquals("orange $10.00", journal.lineOf(orange));
+		assertEquals(2, journal.size());
+	}
+
+	@Test
+	public void testRemovedItemsLeaveTheJournal() {
+		journal.record(milk, milkProduct);
+		journal.remove(milk);
+		assertNull(journal.lineOf(milk));
+		assertEquals(0, journal.size());
+	}
+
+	@Test
+	public void testRenderFollowsTheOrderOfItems() {
+		journal.record(milk, milkProduct);
+		journal.record(orange, orangeProduct);
+		List<Item> items = Arrays.asList(orange, milk);
+		String text = journal.render(items, Money.ofDollars(14), Money.ofDollars(20), Money.ofDollars(6)).toString();
+		assertEquals("\norange $10.00\nmilk $4.00\nTotal: $14.00\nPaid: $20.00\nChange: $6.00", text);
+	}
+
+	@Test (expected = IllegalArgumentException.class)
+	public void testItemsWithoutProductCannotBeRendered() {
+		journal.record(null, null);
+		journal.render(Arrays.asList((Item) null), Money.ZERO, Money.ZERO, Money.ZERO);
+	}
+
+	@Test
+	public void testClearForgetsEveryLine() {
+		journal.record(milk, milkProduct);
+		journal.record(orange, orangeProduct);
+		journal.clear();
+		assertEquals(0, journal.size());
+	}
+}
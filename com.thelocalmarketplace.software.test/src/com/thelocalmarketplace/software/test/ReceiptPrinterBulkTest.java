@@ -0,0 +1,121 @@
+/**
+
+ SENG 300 - ITERATION 3
+ GROUP GOLD {8}
+
+ Name                      UCID
+
+ Yotam Rojnov             30173949
+ Duncan McKay             30177857
+ Mahfuz Alam              30142265
+ Luis Trigueros Granillo  30167989
+ Lilia Skumatova          30187339
+ Abdelrahman Abbas        30110374
+ Talaal Irtija            30169780
+ Alejandro Cardona        30178941
+ Alexandre Duteau         30192082
+ Grace Johnson            30149693
+ Abil Momin               30154771
+ Tara Ghasemi M. Rad      30171212
+ Izabella Mawani          30179738
+ Binish Khalid            30061367
+ Fatima Khalid            30140757
+ Lucas Kasdorf            30173922
+ Emily Garcia-Volk        30140791
+ Yuinikoru Futamata       30173228
+ Joseph Tandyo            30182561
+ Syed Haider              30143096
+ Nami Marwah              30178528
+
+ */
+
+package com.thelocalmarketplace.software.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+import java.nio.CharBuffer;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.jjjwelectronics.EmptyDevice;
+import com.jjjwelectronics.OverloadedDevice;
+import com.jjjwelectronics.printer.ReceiptPrinterGold;
+
+import powerutility.PowerGrid;
+
+public class ReceiptPrinterBulkTest {
+
+	private ReceiptPrinterGold printer;
+	private ReceiptPrinterGold reference;
+
+	@Before
+	public void setUp() throws OverloadedDevice {
+		PowerGrid.engageUninterruptiblePowerSource();
+		printer = newPrinter(100, 10);
+		reference = newPrinter(100, 10);
+	}
+
+	private static ReceiptPrinterGold newPrinter(int ink, int paper) throws OverloadedDevice {
+		ReceiptPrinterGold printer = new ReceiptPrinterGold();
+		printer.plugIn(PowerGrid.instance());
+		printer.turnOn();
+		printer.addInk(ink);
+		printer.addPaper(paper);
+		return printer;
+	}
+
+	private static void printEach(ReceiptPrinterGold printer, String text) throws EmptyDevice, OverloadedDevice {
+		for (int i = 0; i < text.length(); i++)
+			printer.print(text.charAt(i));
+	}
+
+	@Test
+	public void testBufferMatchesPrintingEachCharacter() throws EmptyDevice, OverloadedDevice {
+		String text = "\nmilk $4.00\norange\t $10.00\nTotal: $14.00";
+		CharBuffer buffer = CharBuffer.wrap(text);
+		printer.print(buffer);
+		printEach(reference, text);
+
+		assertEquals(text.length(), buffer.position());
+		assertEquals(reference.inkRemaining(), printer.inkRemaining());
+		assertEquals(reference.paperRemaining(), printer.paperRemaining());
+		printer.cutPaper();
+		reference.cutPaper();
+		assertEquals(reference.removeReceipt(), printer.removeReceipt());
+	}
+
+	@Test
+	public void testPrintLineEndsTheLine() throws EmptyDevice, OverloadedDevice {
+		printer.printLine("milk $4.00");
+		printEach(reference, "milk $4.00\n");
+
+		assertEquals(reference.inkRemaining(), printer.inkRemaining());
+		assertEquals(reference.paperRemaining(), printer.paperRemaining());
+		printer.cutPaper();
+		assertEquals("milk $4.00\n", printer.removeReceipt());
+	}
+
+	@Test
+	public void testLongLineStopsAtTheSameCharacter() {
+		StringBuilder line = new StringBuilder();
+		for (int i = 0; i < ReceiptPrinterGold.CHARACTERS_PER_LINE + 5; i++)
+			line.append('x');
+		CharBuffer buffer = CharBuffer.wrap(line);
+
+		assertThrows(OverloadedDevice.class, () -> printer.print(buffer));
+		assertEquals(ReceiptPrinterGold.CHARACTERS_PER_LINE, buffer.position());
+		assertEquals(100 - ReceiptPrinterGold.CHARACTERS_PER_LINE, printer.inkRemaining());
+	}
+
+	@Test
+	public void testRunningOutOfInkStopsAtTheLastDrop() throws OverloadedDevice {
+		printer = newPrinter(3, 10);
+		CharBuffer buffer = CharBuffer.wrap("ab cd");
+
+		assertThrows(EmptyDevice.class, () -> printer.print(buffer));
+		assertEquals(4, buffer.position());
+		assertEquals(0, printer.inkRemaining());
+	}
+}
@@ -33,11 +33,12 @@ package com.thelocalmarketplace.software.test;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.math.BigInteger;
 
-import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 
 import org.junit.Before;
@@ -109,7 +110,7 @@ public class SelfCheckoutStationSoftwareTest {
     public void testResetOrder() {
     	software.resetOrder();
     	
-    	ArrayList<Item> order = software.getOrder();
+    	List<Item> order = software.getOrder();
     
     	assertEquals(0, software.getTotalOrderWeightInGrams(), 0.0001);
     	assertEquals(0, software.getTotalOrderPrice(), 0.0001);
@@ -123,7 +124,7 @@ public class SelfCheckoutStationSoftwareTest {
     	Item bag = new ReusableBag();
     	software.addItemToOrder(bag);
     	
-    	ArrayList<Item> order = software.getOrder();
+    	List<Item> order = software.getOrder();
     
     	assertEquals(0, software.getTotalOrderWeightInGrams(), 0.0001);
     	assertEquals(0, software.getTotalOrderPrice(), 0.0001);
@@ -153,7 +154,7 @@ public class SelfCheckoutStationSoftwareTest {
     	software.addItemToOrder(newItem1);
     	software.removeFromOrder(newItem1);
     	
-    	ArrayList<Item> order = software.getOrder();
+    	List<Item> order = software.getOrder();
     	assertEquals(0, order.size());
     	assertTrue("The order should be empty", software.isOrderEmpty());
     }
@@ -219,4 +220,33 @@ public class SelfCheckoutStationSoftwareTest {
 	    
 	    assertTrue(allbanks.contains(chaseBank));
     }
+
+    @Test
+    public void testSessionKeepsItsCatalogSnapshot() {
+    	PriceLookUpCode plucode = new PriceLookUpCode("4011");
+    	PLUCodedProduct banana = new PLUCodedProduct(plucode, "Banana", 1);
+    	ProductDatabases.PLU_PRODUCT_DATABASE.put(plucode, banana);
+
+    	software.setStationActive(true);
+    	assertSame(banana, software.findPLUCodedProduct(plucode));
+
+    	PLUCodedProduct repriced = new PLUCodedProduct(plucode, "Banana", 2);
+    	ProductDatabases.PLU_PRODUCT_DATABASE.put(plucode, repriced);
+    	assertSame(banana, software.findPLUCodedProduct(plucode));
+
+    	software.setStationActive(false);
+    	software.setStationActive(true);
+    	assertSame(repriced, software.findPLUCodedProduct(plucode));
+    }
+    
+    @Test
+    public void testSessionSeesProductsAddedAfterItStarted() {
+    	software.setStationActive(true);
+    	software.getCatalog();
+
+    	PriceLookUpCode plucode = new PriceLookUpCode("4131");
+    	PLUCodedProduct apple = new PLUCodedProduct(plucode, "Fuji Apple", 1);
+    	ProductDatabases.PLU_PRODUCT_DATABASE.put(plucode, apple);
+    	assertSame(apple, software.findPLUCodedProduct(plucode));
+    }
 }
\ No newline at end of file
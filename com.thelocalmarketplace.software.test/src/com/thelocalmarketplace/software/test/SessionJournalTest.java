@@ -0,0 +1,237 @@
+/**
+
+ SENG 300 - ITERATION 3
+ GROUP GOLD {8}
+
+ Name                      UCID
+
+ Yotam Rojnov             30173949
+ Duncan McKay             30177857
+ Mahfuz Alam              30142265
+ Luis Trigueros Granillo  30167989
+ Lilia Skumatova          30187339
+ Abdelrahman Abbas        30110374
+ Talaal Irtija            30169780
+ Alejandro Cardona        30178941
+ Alexandre Duteau         30192082
+ Grace Johnson            30149693
+ Abil Momin               30154771
+ Tara Ghasemi M. Rad      30171212
+ Izabella Mawani          30179738
+ Binish Khalid            30061367
+ Fatima Khalid            30140757
+ Lucas Kasdorf            30173922
+ Emily Garcia-Volk        30140791
+ Yuinikoru Futamata       30173228
+ Joseph Tandyo            30182561
+ Syed Haider              30143096
+ Nami Marwah              30178528
+
+ */
+
+package com.thelocalmarketplace.software.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.jjjwelectronics.Item;
+import com.jjjwelectronics.Mass;
+import com.jjjwelectronics.Numeral;
+import com.jjjwelectronics.scanner.Barcode;
+import com.jjjwelectronics.scanner.BarcodedItem;
+import com.thelocalmarketplace.hardware.BarcodedProduct;
+import com.thelocalmarketplace.hardware.SelfCheckoutStationBronze;
+import com.thelocalmarketplace.hardware.external.ProductDatabases;
+import com.thelocalmarketplace.software.SelfCheckoutStationSoftware;
+import com.thelocalmarketplace.software.SessionJournal;
+import com.thelocalmarketplace.software.funds.Money;
+
+import powerutility.PowerGrid;
+
+public class SessionJournalTest {
+
+	private Path file;
+	private SessionJournal journal;
+	private SelfCheckoutStationSoftware software;
+	private BarcodedItem milk;
+	private BarcodedItem bread;
+
+	@Before
+	public void setUp() throws IOException {
+		PowerGrid.engageUninterruptiblePowerSource();
+		file = Files.createTempFile("station", ".journal");
+		journal = SessionJournal.open(file);
+		software = newSoftware();
+		journal.attach(software);
+
+		Barcode milkCode = new Barcode(new Numeral[] {Numeral.four, Numeral.one});
+		Barcode breadCode = new Barcode(new Numeral[] {Numeral.four, Numeral.two});
+		ProductDatabases.BARCODED_PRODUCT_DATABASE.put(milkCode, new BarcodedProduct(milkCode, "milk", 4, 1000));
+		ProductDatabases.BARCODED_PRODUCT_DATABASE.put(breadCode, new BarcodedProduct(breadCode, "bread", 3, 500));
+		milk = new BarcodedItem(milkCode, new Mass(1000.0));
+		bread = new BarcodedItem(breadCode, new Mass(500.0));
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		journal.close();
+		Files.deleteIfExists(file);
+	}
+
+	private static SelfCheckoutStationSoftware newSoftware() {
+		SelfCheckoutStationBronze station = new SelfCheckoutStationBronze();
+		station.plugIn(PowerGrid.instance());
+		station.turnOn();
+		return new SelfCheckoutStationSoftware(station);
+	}
+
+	private SelfCheckoutStationSoftware restart() throws IOException {
+		journal.close();
+		journal = SessionJournal.open(file);
+		SelfCheckoutStationSoftware restarted = newSoftware();
+		journal.attach(restarted);
+		return restarted;
+	}
+
+	private void scan(BarcodedItem item, long price, double grams) {
+		software.addTotalOrderPrice(price);
+		software.addTotalOrderWeightInGrams(grams);
+		software.addItemToOrder(item);
+	}
+
+	@Test
+	public void testOrderAndPaymentSurviveARestart() throws IOException {
+		software.setStationActive(true);
+		scan(milk, 4, 1000);
+		scan(bread, 3, 500);
+		software.getFunds().addToTotalPaid(Money.ofCents(500));
+
+		SelfCheckoutStationSoftware restarted = restart();
+
+		assertTrue(restarted.getStationActive());
+		assertEquals(2, restarted.getOrder().size());
+		assertEquals(700, restarted.getOrderTotalInCents());
+		assertEquals(1500, restarted.getTotalOrderWeightInGrams(), 0);
+		assertEquals(Money.ofCents(500), restarted.getFunds().getTotalPaidAmount());
+		assertEquals(200, restarted.getFunds().getAmountDueInCents());
+	}
+
+	@Test
+	public void testChangeGivenIsNotOwedAfterARestart() throws IOException {
+		software.setStationActive(true);
+		scan(milk, 4, 1000);
+		software.getFunds().addToTotalPaid(Money.ofCents(500));
+		software.getFunds().addToChangeGiven(Money.ofCents(75));
+
+		SelfCheckoutStationSoftware restarted = restart();
+
+		assertEquals(-100, restarted.getFunds().getAmountDueInCents());
+		assertEquals(25, restarted.getFunds().getChangeOwedInCents());
+	}
+
+	@Test
+	public void testNextSessionStartsWithNothingPaid() throws IOException {
+		software.setStationActive(true);
+		scan(milk, 4, 1000);
+		software.getFunds().addToTotalPaid(Money.ofCents(500));
+		software.getFunds().addToChangeGiven(Money.ofCents(100));
+		software.removeFromOrder(milk);
+		software.resetOrder();
+
+		software.setStationActive(true);
+		scan(bread, 3, 500);
+		software.getFunds().addToTotalPaid(Money.ofCents(100));
+
+		assertEquals(Money.ofCents(100), software.getFunds().getTotalPaidAmount());
+		assertEquals(200, software.getFunds().getAmountDueInCents());
+		assertEquals(0, software.getFunds().getChangeOwedInCents());
+
+		software.getFunds().addToTotalPaid(Money.ofCents(300));
+		assertEquals(100, software.getFunds().getChangeOwedInCents());
+
+		SelfCheckoutStationSoftware restarted = restart();
+		assertEquals(Money.ofCents(400), restarted.getFunds().getTotalPaidAmount());
+		assertEquals(100, restarted.getFunds().getChangeOwedInCents());
+	}
+
+	@Test
+	public void testPaymentBlocksTheStationOnceTheJournalCannotBeWritten() throws IOException {
+		software.setStationActive(true);
+		scan(milk, 4, 1000);
+		journal.close();
+
+		software.getFunds().addToTotalPaid(Money.ofCents(200));
+
+		assertTrue(software.getStationBlock());
+		assertEquals(Money.ofCents(200), software.getFunds().getTotalPaidAmount());
+	}
+
+	@Test
+	public void testRemovedItemsStayRemoved() throws IOException {
+		software.setStationActive(true);
+		scan(milk, 4, 1000);
+		scan(bread, 3, 500);
+		software.removeFromOrder(milk);
+		software.addTotalOrderPrice(-4L);
+
+		SelfCheckoutStationSoftware restarted = restart();
+
+		assertEquals(1, restarted.getOrder().size());
+		assertEquals(bread.getBarcode(), ((BarcodedItem) restarted.getOrder().get(0)).getBarcode());
+		assertEquals(300, restarted.getOrderTotalInCents());
+	}
+
+	@Test
+	public void testRecoveredItemsCanBeRemovedAfterARestart() throws IOException {
+		software.setStationActive(true);
+		scan(milk, 4, 1000);
+
+		software = restart();
+		Item recovered = software.getOrder().get(0);
+		software.removeFromOrder(recovered);
+
+		SelfCheckoutStationSoftware again = restart();
+		assertTrue(again.isOrderEmpty());
+	}
+
+	@Test
+	public void testFinishedSessionsAreNotRecovered() throws IOException {
+		software.setStationActive(true);
+		scan(milk, 4, 1000);
+		software.removeFromOrder(milk);
+		software.resetOrder();
+
+		SelfCheckoutStationSoftware restarted = restart();
+
+		assertFalse(restarted.getStationActive());
+		assertTrue(restarted.isOrderEmpty());
+		assertEquals(0, restarted.getOrderTotalInCents());
+	}
+
+	@Test
+	public void testTornRecordIsDiscarded() throws IOException {
+		software.setStationActive(true);
+		scan(milk, 4, 1000);
+		journal.close();
+
+		byte[] contents = Files.readAllBytes(file);
+		Files.write(file, Arrays.copyOf(contents, contents.length - 2));
+		journal = SessionJournal.open(file);
+		SelfCheckoutStationSoftware restarted = newSoftware();
+		journal.attach(restarted);
+
+		// The item was the last record, so only its price and weight remain
+		assertTrue(restarted.isOrderEmpty());
+		assertEquals(400, restarted.getOrderTotalInCents());
+	}
+}
@@ -0,0 +1,137 @@
+/**
+
+ SENG 300 - ITERATION 3
+ GROUP GOLD {8}
+
+ Name                      UCID
+
+ Yotam Rojnov             30173949
+ Duncan McKay             30177857
+ Mahfuz Alam              30142265
+ Luis Trigueros Granillo  30167989
+ Lilia Skumatova          30187339
+ Abdelrahman Abbas        30110374
+ Talaal Irtija            30169780
+ Alejandro Cardona        30178941
+ Alexandre Duteau         30192082
+ Grace Johnson            30149693
+ Abil Momin               30154771
+ Tara Ghasemi M. Rad      30171212
+ Izabella Mawani          30179738
+ Binish Khalid            30061367
+ Fatima Khalid            30140757
+ Lucas Kasdorf            30173922
+ Emily Garcia-Volk        30140791
+ Yuinikoru Futamata       30173228
+ Joseph Tandyo            30182561
+ Syed Haider              30143096
+ Nami Marwah              30178528
+
+ */
+
+package com.thelocalmarketplace.software.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.tdc.coin.Coin;
+import com.thelocalmarketplace.hardware.SelfCheckoutStationGold;
+import com.thelocalmarketplace.software.SelfCheckoutStationSoftware;
+import com.thelocalmarketplace.software.SessionListener;
+
+import powerutility.PowerGrid;
+
+public class SessionLifecycleTest {
+	private static final Currency CAD = Currency.getInstance("CAD");
+
+	private SelfCheckoutStationGold hardware;
+	private SelfCheckoutStationSoftware software;
+	private List<String> events;
+
+	@Before
+	public void setUp() {
+		PowerGrid.engageUninterruptiblePowerSource();
+		SelfCheckoutStationGold.resetConfigurationToDefaults();
+		SelfCheckoutStationGold.configureCoinDenominations(new BigDecimal[] { new BigDecimal("0.10"), new BigDecimal("0.25") });
+		SelfCheckoutStationGold.configureCurrency(CAD);
+		hardware = new SelfCheckoutStationGold();
+		hardware.plugIn(PowerGrid.instance());
+		hardware.turnOn();
+		software = new SelfCheckoutStationSoftware(hardware);
+
+		events = new ArrayList<>();
+		software.register(new SessionListener() {
+			public void sessionStarted(SelfCheckoutStationSoftware station) {
+				events.add("started");
+			}
+
+			public void paymentCompleted(SelfCheckoutStationSoftware station, BigDecimal changeReturned) {
+				events.add("paid " + changeReturned);
+			}
+
+			public void sessionEnded(SelfCheckoutStationSoftware station) {
+				events.add("ended");
+			}
+		});
+	}
+
+	@Test
+	public void testSessionEndIsCompleteWhenIdle() {
+		assertTrue(software.sessionEnd().isDone());
+	}
+
+	@Test
+	public void testFuturesCompleteOnTheirEdges() {
+		CompletableFuture<SelfCheckoutStationSoftware> start = software.nextSessionStart();
+		assertFalse(start.isDone());
+
+		software.setStationActive(true);
+		assertSame(software, start.join());
+		CompletableFuture<SelfCheckoutStationSoftware> end = software.sessionEnd();
+		assertFalse(end.isDone());
+		assertFalse(software.nextSessionStart().isDone());
+
+		software.setStationActive(false);
+		assertSame(software, end.join());
+		assertEquals(List.of("started", "ended"), events);
+	}
+
+	@Test
+	public void testRepeatedTransitionsAreSignalledOnce() {
+		software.setStationActive(true);
+		CompletableFuture<SelfCheckoutStationSoftware> end = software.sessionEnd();
+		software.setStationActive(true);
+		assertSame(end, software.sessionEnd());
+
+		software.setStationActive(false);
+		software.setStationActive(false);
+		assertTrue(end.isDone());
+		assertEquals(List.of("started", "ended"), events);
+	}
+
+	@Test
+	public void testPaymentInFullIsSignalled() throws Exception {
+		CompletableFuture<BigDecimal> payment = software.nextPaymentCompletion();
+		software.setStationActive(true);
+		software.setOrderTotalPrice(0.10);
+		// The coin validator falsely rejects the odd coin
+		for (int i = 0; i < 10 && !payment.isDone(); i++)
+			hardware.getCoinSlot().receive(new Coin(CAD, new BigDecimal("0.10")));
+
+		assertEquals(0, BigDecimal.ZERO.compareTo(payment.join()));
+		assertEquals(2, events.size());
+		assertTrue(events.get(1).startsWith("paid "));
+		assertFalse(software.nextPaymentCompletion().isDone());
+	}
+}
@@ -0,0 +1,306 @@
+/**
+
+ SENG 300 - ITERATION 3
+ GROUP GOLD {8}
+
+ Name                      UCID
+
+ Yotam Rojnov             30173949
+ Duncan McKay             30177857
+ Mahfuz Alam              30142265
+ Luis Trigueros Granillo  30167989
+ Lilia Skumatova          30187339
+ Abdelrahman Abbas        30110374
+ Talaal Irtija            30169780
+ Alejandro Cardona        30178941
+ Alexandre Duteau         30192082
+ Grace Johnson            30149693
+ Abil Momin               30154771
+ Tara Ghasemi M. Rad      30171212
+ Izabella Mawani          30179738
+ Binish Khalid            30061367
+ Fatima Khalid            30140757
+ Lucas Kasdorf            30173922
+ Emily Garcia-Volk        30140791
+ Yuinikoru Futamata       30173228
+ Joseph Tandyo            30182561
+ Syed Haider              30143096
+ Nami Marwah              30178528
+
+ */
+
+package com.thelocalmarketplace.software.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Currency;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.jjjwelectronics.IDevice;
+import com.jjjwelectronics.IDeviceListener;
+import com.jjjwelectronics.Numeral;
+import com.jjjwelectronics.scanner.Barcode;
+import com.jjjwelectronics.scanner.BarcodeScannerListener;
+import com.jjjwelectronics.scanner.IBarcodeScanner;
+import com.tdc.coin.Coin;
+import com.thelocalmarketplace.hardware.Product;
+import com.thelocalmarketplace.hardware.SelfCheckoutStationGold;
+import com.thelocalmarketplace.software.DeviceEventPipeline;
+import com.thelocalmarketplace.software.SelfCheckoutStationSoftware;
+import com.thelocalmarketplace.software.StationRuntime;
+import com.thelocalmarketplace.software.StationRuntime.HostedStation;
+import com.thelocalmarketplace.software.communication.StationUI;
+
+import powerutility.PowerGrid;
+
+public class StationRuntimeTest {
+	private static final Currency CAD = Currency.getInstance("CAD");
+
+	private StationRuntime runtime;
+
+	@Before
+	public void setUp() {
+		PowerGrid.engageUninterruptiblePowerSource();
+		SelfCheckoutStationGold.resetConfigurationToDefaults();
+		SelfCheckoutStationGold.configureCoinDenominations(new BigDecimal[] { new BigDecimal("0.10"), new BigDecimal("0.25") });
+		SelfCheckoutStationGold.configureCurrency(CAD);
+		runtime = new StationRuntime(4);
+	}
+
+	@After
+	public void tearDown() {
+		runtime.close();
+	}
+
+	private HostedStation host(StationUI ui) {
+		SelfCheckoutStationGold hardware = new SelfCheckoutStationGold();
+		hardware.plugIn(PowerGrid.instance());
+		hardware.turnOn();
+		return runtime.host(hardware, ui);
+	}
+
+	@Test
+	public void testTasksOfAStationRunInOrder() throws Exception {
+		HostedStation station = host(null);
+		List<Integer> seen = Collections.synchronizedList(new ArrayList<>());
+		for (int i = 0; i < 1000; i++) {
+			int task = i;
+			station.execute(() -> seen.add(task));
+		}
+		assertTrue(runtime.awaitIdle(5000));
+		assertEquals(1000, seen.size());
+		for (int i = 0; i < 1000; i++)
+			assertEquals(i, (int) seen.get(i));
+		assertEquals(1000, station.getCompletedTasks());
+	}
+
+	@Test
+	public void testManyStationsPayWithoutSwing() throws Exception {
+		List<RecordingUI> uis = new ArrayList<>();
+		List<HostedStation> stations = new ArrayList<>();
+		// Every coin validator sorts the shared list of denominations when it is built, so the
+		// stations are all built before any of them checks a coin
+		for (int i = 0; i < 200; i++) {
+			RecordingUI ui = new RecordingUI();
+			uis.add(ui);
+			stations.add(host(ui));
+		}
+		List<CompletableFuture<Void>> payments = new ArrayList<>();
+		for (HostedStation station : stations) {
+			SelfCheckoutStationSoftware software = station.getSoftware();
+			payments.add(station.submit(() -> {
+				software.setOrderTotalPrice(0.25);
+				try {
+					software.getStationHardware().getCoinSlot().receive(new Coin(CAD, new BigDecimal("0.10")));
+				} catch (Exception e) {
+					throw new IllegalStateException(e);
+				}
+			}));
+		}
+		CompletableFuture.allOf(payments.toArray(new CompletableFuture<?>[0])).get(30, TimeUnit.SECONDS);
+		assertTrue(runtime.awaitIdle(5000));
+
+		// The coin validator falsely rejects the odd coin, so only most stations are paid
+		int accepted = 0;
+		for (int i = 0; i < uis.size(); i++) {
+			RecordingUI ui = uis.get(i);
+			double paid = 0.25 - runtime.getStations().get(i).getSoftware().getFunds().getMoneyLeft().doubleValue();
+			assertEquals(paid, ui.paid, 1e-9);
+			if (paid > 0) {
+				accepted++;
+				assertTrue(ui.thread.startsWith("station-runtime-"));
+			}
+		}
+		assertTrue(accepted > 150);
+		assertEquals(0, runtime.getFailedTasks());
+		assertTrue(runtime.getCompletedTasks() >= 200);
+		assertTrue(runtime.getThroughput() > 0);
+	}
+
+	@Test
+	public void testFailedTaskDoesNotStopTheLoop() throws Exception {
+		HostedStation station = host(null);
+		CompletableFuture<Void> failing = station.submit(() -> {
+			throw new IllegalStateException("test");
+		});
+		CompletableFuture<Void> next = station.submit(() -> {});
+		next.get(5, TimeUnit.SECONDS);
+		try {
+			failing.get();
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof IllegalStateException);
+		}
+		assertTrue(failing.isCompletedExceptionally());
+		// The futures complete inside the tasks, just before the loop counts them
+		assertTrue(runtime.awaitIdle(5000));
+		assertEquals(1, station.getFailedTasks());
+		assertEquals(2, station.getCompletedTasks());
+	}
+
+	@Test
+	public void testTaskThrowingAnErrorDoesNotStopTheLoop() throws Exception {
+		HostedStation station = host(null);
+		station.execute(() -> {
+			throw new AssertionError("expected by the test");
+		});
+		CompletableFuture<Void> failing = station.submit(() -> {
+			throw new AssertionError("expected by the test");
+		});
+		station.submit(() -> {}).get(5, TimeUnit.SECONDS);
+		try {
+			failing.get();
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof AssertionError);
+		}
+		assertTrue(failing.isCompletedExceptionally());
+		assertTrue(runtime.awaitIdle(5000));
+		assertEquals(2, station.getFailedTasks());
+		assertEquals(3, station.getCompletedTasks());
+	}
+
+	@Test
+	public void testHostedStationsDeliverDeviceEventsThroughAPipeline() {
+		HostedStation station = host(null);
+		assertNotNull(station.getSoftware().getEventPipeline());
+		runtime.close();
+		assertNull(station.getSoftware().getEventPipeline());
+	}
+
+	@Test
+	public void testDeviceEventsRunOnTheStationLoop() throws Exception {
+		HostedStation station = host(null);
+		DeviceEventPipeline pipeline = station.getSoftware().getEventPipeline();
+		List<Boolean> onLoop = Collections.synchronizedList(new ArrayList<>());
+		BarcodeScannerListener listener = pipeline.barcodeScannerListener(new BarcodeScannerListener() {
+			@Override
+			public void aBarcodeHasBeenScanned(IBarcodeScanner barcodeScanner, Barcode barcode) {
+				onLoop.add(station.isRunningTask());
+			}
+
+			@Override
+			public void aDeviceHasBeenEnabled(IDevice<? extends IDeviceListener> device) {}
+
+			@Override
+			public void aDeviceHasBeenDisabled(IDevice<? extends IDeviceListener> device) {}
+
+			@Override
+			public void aDeviceHasBeenTurnedOn(IDevice<? extends IDeviceListener> device) {}
+
+			@Override
+			public void aDeviceHasBeenTurnedOff(IDevice<? extends IDeviceListener> device) {}
+		});
+		Barcode barcode = new Barcode(new Numeral[] { Numeral.one });
+		for (int i = 0; i < 100; i++)
+			listener.aBarcodeHasBeenScanned(null, barcode);
+
+		assertTrue(runtime.awaitIdle(5000));
+		assertEquals(Collections.nCopies(100, true), onLoop);
+		assertTrue(station.getCompletedTasks() > 0);
+	}
+
+	@Test
+	public void testTaskSubmittedWhileClosingWaitsForTheLoop() throws Exception {
+		HostedStation station = host(null);
+		CountDownLatch release = new CountDownLatch(1);
+		List<String> seen = Collections.synchronizedList(new ArrayList<>());
+		station.execute(() -> {
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			seen.add("first");
+		});
+		Thread closer = new Thread(runtime::close);
+		closer.start();
+		while (closer.getState() != Thread.State.WAITING && closer.getState() != Thread.State.TIMED_WAITING)
+			Thread.sleep(1);
+
+		station.execute(() -> seen.add("second"));
+		assertTrue(seen.isEmpty());
+		release.countDown();
+		closer.join(5000);
+		assertEquals(List.of("first", "second"), seen);
+	}
+
+	@Test
+	public void testTasksRunInlineOnceClosed() {
+		HostedStation station = host(null);
+		runtime.close();
+		Thread[] ranOn = new Thread[1];
+		station.execute(() -> ranOn[0] = Thread.currentThread());
+		assertEquals(Thread.currentThread(), ranOn[0]);
+	}
+
+	/**
+	 * Remembers the amount paid shown to the customer and the thread that showed it.
+	 */
+	private static class RecordingUI implements StationUI {
+		volatile double paid;
+		volatile String thread = "";
+
+		@Override
+		public void amountPaidChanged(double addedFunds) {
+			paid += addedFunds;
+			thread = Thread.currentThread().getName();
+		}
+
+		@Override
+		public void notifyCustomer(String message) {}
+
+		@Override
+		public void placeInBaggingArea(Product product) {}
+
+		@Override
+		public void itemAdded(String description, long price) {}
+
+		@Override
+		public void totalOwedChanged() {}
+
+		@Override
+		public void statusChanged() {}
+
+		@Override
+		public void paymentCompleted(double changeReturned) {}
+
+		@Override
+		public void changeUnavailable(BigDecimal changeDue) {}
+
+		@Override
+		public void weightDiscrepancyDetected(SelfCheckoutStationSoftware station) {}
+	}
+}
@@ -0,0 +1,149 @@
+/**
+
+ SENG 300 - ITERATION 3
+ GROUP GOLD {8}
+
+ Name                      UCID
+
+ Yotam Rojnov             30173949
+ Duncan McKay             30177857
+ Mahfuz Alam              30142265
+ Luis Trigueros Granillo  30167989
+ Lilia Skumatova          30187339
+ Abdelrahman Abbas        30110374
+ Talaal Irtija            30169780
+ Alejandro Cardona        30178941
+ Alexandre Duteau         30192082
+ Grace Johnson            30149693
+ Abil Momin               30154771
+ Tara Ghasemi M. Rad      30171212
+ Izabella Mawani          30179738
+ Binish Khalid            30061367
+ Fatima Khalid            30140757
+ Lucas Kasdorf            30173922
+ Emily Garcia-Volk        30140791
+ Yuinikoru Futamata       30173228
+ Joseph Tandyo            30182561
+ Syed Haider              30143096
+ Nami Marwah              30178528
+
+ */
+
+package com.thelocalmarketplace.software.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.jjjwelectronics.IDevice;
+import com.jjjwelectronics.IDeviceListener;
+import com.jjjwelectronics.scanner.Barcode;
+import com.jjjwelectronics.scanner.BarcodeScannerListener;
+import com.jjjwelectronics.scanner.IBarcodeScanner;
+import com.thelocalmarketplace.hardware.SelfCheckoutStationBronze;
+import com.thelocalmarketplace.software.SelfCheckoutStationSoftware;
+import com.thelocalmarketplace.software.StationState;
+
+import powerutility.PowerGrid;
+
+public class StationStateTest {
+	private SelfCheckoutStationBronze station;
+	private SelfCheckoutStationSoftware software;
+	private int enabled;
+	private int disabled;
+
+	@Before
+	public void setUp() {
+		station = new SelfCheckoutStationBronze();
+		PowerGrid.engageUninterruptiblePowerSource();
+		station.plugIn(PowerGrid.instance());
+		station.turnOn();
+		software = new SelfCheckoutStationSoftware(station);
+		station.getMainScanner().register(new BarcodeScannerListener() {
+			public void aDeviceHasBeenEnabled(IDevice<? extends IDeviceListener> device) {
+				enabled++;
+			}
+
+			public void aDeviceHasBeenDisabled(IDevice<? extends IDeviceListener> device) {
+				disabled++;
+			}
+
+			public void aDeviceHasBeenTurnedOn(IDevice<? extends IDeviceListener> device) {}
+
+			public void aDeviceHasBeenTurnedOff(IDevice<? extends IDeviceListener> device) {}
+
+			public void aBarcodeHasBeenScanned(IBarcodeScanner barcodeScanner, Barcode barcode) {}
+		});
+	}
+
+	@Test
+	public void transitionsReportRealEdges() {
+		StationState state = new StationState();
+		assertTrue(state.block());
+		assertFalse(state.block());
+		assertTrue(state.activate());
+		assertFalse(state.activate());
+		assertTrue(state.isBlocked());
+		assertTrue(state.isActive());
+		assertTrue(state.unblock());
+		assertFalse(state.unblock());
+		assertTrue(state.deactivate());
+		assertFalse(state.isBlocked());
+		assertFalse(state.isActive());
+	}
+
+	@Test
+	public void repeatedBlockTogglesDevicesOnce() {
+		software.setStationBlock();
+		software.setStationBlock();
+		assertEquals(1, disabled);
+		assertTrue(station.getMainScanner().isDisabled());
+
+		software.setStationUnblock();
+		software.setStationUnblock();
+		assertEquals(1, enabled);
+		assertFalse(station.getMainScanner().isDisabled());
+	}
+
+	@Test
+	public void unblockingAnUnblockedStationLeavesDevicesAlone() {
+		software.setStationUnblock();
+		assertEquals(0, enabled);
+		assertEquals(0, disabled);
+	}
+
+	@Test
+	public void devicesFollowTheLastChangeFromAnyThread() throws InterruptedException {
+		Thread[] threads = new Thread[4];
+		for (int t = 0; t < threads.length; t++) {
+			boolean blocks = t % 2 == 0;
+			threads[t] = new Thread(() -> {
+				for (int i = 0; i < 2000; i++) {
+					if (blocks)
+						software.setStationBlock();
+					else
+						software.setStationUnblock();
+				}
+			});
+			threads[t].start();
+		}
+		for (Thread thread : threads)
+			thread.join();
+
+		assertEquals(software.getStationBlock(), station.getMainScanner().isDisabled());
+		assertEquals(software.getStationBlock(), station.getCoinSlot().isDisabled());
+	}
+
+	@Test
+	public void blockingIsIndependentOfTheSession() {
+		software.setStationActive(true);
+		software.setStationBlock();
+		software.setStationActive(false);
+		assertTrue(software.getStationBlock());
+		assertFalse(software.getStationActive());
+		assertEquals("idle, blocked", software.getState().toString());
+	}
+}
@@ -0,0 +1,97 @@
+/**
+
+ SENG 300 - ITERATION 3
+ GROUP GOLD {8}
+
+ Name                      UCID
+
+ Yotam Rojnov             30173949
+ Duncan McKay             30177857
+ Mahfuz Alam              30142265
+ Luis Trigueros Granillo  30167989
+ Lilia Skumatova          30187339
+ Abdelrahman Abbas        30110374
+ Talaal Irtija            30169780
+ Alejandro Cardona        30178941
+ Alexandre Duteau         30192082
+ Grace Johnson            30149693
+ Abil Momin               30154771
+ Tara Ghasemi M. Rad      30171212
+ Izabella Mawani          30179738
+ Binish Khalid            30061367
+ Fatima Khalid            30140757
+ Lucas Kasdorf            30173922
+ Emily Garcia-Volk        30140791
+ Yuinikoru Futamata       30173228
+ Joseph Tandyo            30182561
+ Syed Haider              30143096
+ Nami Marwah              30178528
+
+ */
+
+package com.thelocalmarketplace.software.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.net.URL;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.ImageIcon;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.thelocalmarketplace.software.communication.GUI.CustomerStationSoftware.ThumbnailCache;
+
+public class ThumbnailCacheTest {
+	private ThumbnailCache cache;
+	private URL apple;
+	private URL banana;
+
+	private ImageIcon load(URL image) throws InterruptedException {
+		CountDownLatch loaded = new CountDownLatch(1);
+		cache.get(image, 50, 50, loaded::countDown);
+		assertTrue(loaded.await(5, TimeUnit.SECONDS));
+		return cache.get(image, 50, 50, null);
+	}
+
+	@Before
+	public void setUp() {
+		cache = new ThumbnailCache(1);
+		apple = ThumbnailCache.class.getResource("../../images/apple.png");
+		banana = ThumbnailCache.class.getResource("../../images/banana.png");
+	}
+
+	@Test
+	public void testPlaceholderUntilDecoded() throws InterruptedException {
+		assertSame(cache.placeholderOf(50, 50), cache.get(apple, 50, 50, null));
+		ImageIcon thumbnail = load(apple);
+		assertNotSame(cache.placeholderOf(50, 50), thumbnail);
+		assertEquals(50, thumbnail.getIconWidth());
+		assertEquals(50, thumbnail.getIconHeight());
+	}
+
+	@Test
+	public void testLeastRecentlyUsedIsEvicted() throws InterruptedException {
+		load(apple);
+		load(banana);
+		assertEquals(1, cache.size());
+		assertSame(cache.placeholderOf(50, 50), cache.get(apple, 50, 50, null));
+	}
+
+	@Test
+	public void testNoImage() {
+		assertNull(cache.get(null, 50, 50, null));
+	}
+
+	@Test
+	public void testBadCapacity() {
+		assertThrows(IllegalArgumentException.class, () -> new ThumbnailCache(0));
+	}
+}
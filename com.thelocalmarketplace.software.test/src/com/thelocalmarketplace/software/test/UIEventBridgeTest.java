@@ -0,0 +1,184 @@
+/**
+
+ SENG 300 - ITERATION 3
+ GROUP GOLD {8}
+
+ Name                      UCID
+
+ Yotam Rojnov             30173949
+ Duncan McKay             30177857
+ Mahfuz Alam              30142265
+ Luis Trigueros Granillo  30167989
+ Lilia Skumatova          30187339
+ Abdelrahman Abbas        30110374
+ Talaal Irtija            30169780
+ Alejandro Cardona        30178941
+ Alexandre Duteau         30192082
+ Grace Johnson            30149693
+ Abil Momin               30154771
+ Tara Ghasemi M. Rad      30171212
+ Izabella Mawani          30179738
+ Binish Khalid            30061367
+ Fatima Khalid            30140757
+ Lucas Kasdorf            30173922
+ Emily Garcia-Volk        30140791
+ Yuinikoru Futamata       30173228
+ Joseph Tandyo            30182561
+ Syed Haider              30143096
+ Nami Marwah              30178528
+
+ */
+
+package com.thelocalmarketplace.software.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.thelocalmarketplace.software.communication.UIEventBridge;
+import com.thelocalmarketplace.software.communication.UIEventBridge.UIEvent;
+
+public class UIEventBridgeTest {
+
+	private List<Runnable> scheduled;
+	private List<String> shown;
+	private UIEventBridge bridge;
+
+	@Before
+	public void setUp() {
+		scheduled = new ArrayList<>();
+		shown = new ArrayList<>();
+		bridge = new UIEventBridge(4, scheduled::add);
+	}
+
+	private void runScheduled() {
+		List<Runnable> tasks = new ArrayList<>(scheduled);
+		scheduled.clear();
+		for (Runnable task : tasks)
+			task.run();
+	}
+
+	@Test
+	public void testEventsRunLaterInOrder() {
+		bridge.post(UIEventBridge.event(() -> shown.add("first")));
+		bridge.post(UIEventBridge.event(() -> shown.add("second")));
+		assertTrue(shown.isEmpty());
+		assertEquals(1, scheduled.size());
+
+		runScheduled();
+		assertEquals(List.of("first", "second"), shown);
+	}
+
+	@Test
+	public void testRefreshesAreMerged() {
+		for (int i = 0; i < 10; i++)
+			bridge.post(UIEventBridge.refresh("status", () -> shown.add("status")));
+		bridge.post(UIEventBridge.event(() -> shown.add("popup")));
+		runScheduled();
+		assertEquals(List.of("status", "popup"), shown);
+		assertEquals(9, bridge.getCoalescedCount());
+	}
+
+	@Test
+	public void testMergedAmountsAddUp() {
+		for (int i = 1; i <= 10; i++)
+			bridge.post(new Paid(i));
+		runScheduled();
+		assertEquals(List.of("paid 55"), shown);
+	}
+
+	@Test
+	public void testFullQueueDropsRefreshesInsteadOfWaiting() {
+		for (int i = 0; i < 4; i++) {
+			String key = "display " + i;
+			assertTrue(bridge.post(UIEventBridge.refresh(key, () -> shown.add(key))));
+		}
+		assertFalse(bridge.post(UIEventBridge.refresh("display 4", () -> shown.add("display 4"))));
+		assertEquals(1, bridge.getDroppedCount());
+		// A refresh already waiting still takes in later ones
+		assertTrue(bridge.post(UIEventBridge.refresh("display 0", () -> shown.add("display 0"))));
+
+		runScheduled();
+		assertEquals(4, shown.size());
+		assertTrue(bridge.post(UIEventBridge.refresh("display 4", () -> shown.add("display 4"))));
+	}
+
+	@Test
+	public void testFullQueueStillTakesOtherEvents() {
+		for (int i = 0; i < 4; i++) {
+			String key = "display " + i;
+			bridge.post(UIEventBridge.refresh(key, () -> shown.add(key)));
+		}
+		assertTrue(bridge.post(UIEventBridge.event(() -> shown.add("payment completed"))));
+		assertTrue(bridge.post(new Paid(5)));
+		assertEquals(0, bridge.getDroppedCount());
+
+		runScheduled();
+		assertEquals(List.of("display 0", "display 1", "display 2", "display 3", "payment completed", "paid 5"), shown);
+	}
+
+	@Test
+	public void testFailingEventDoesNotStopTheRest() {
+		bridge.post(UIEventBridge.event(() -> {
+			throw new IllegalStateException("expected by the test");
+		}));
+		bridge.post(UIEventBridge.event(() -> shown.add("after")));
+		runScheduled();
+		assertEquals(List.of("after"), shown);
+	}
+
+	@Test
+	public void testEventsPostedDuringADialogWaitForIt() {
+		bridge.post(UIEventBridge.event(() -> {
+			shown.add("dialog opened");
+			bridge.post(UIEventBridge.event(() -> shown.add("approval checked")));
+			// A modal dialog keeps running the event loop until it is answered
+			runScheduled();
+			shown.add("dialog answered");
+		}));
+		bridge.post(UIEventBridge.event(() -> shown.add("next")));
+		runScheduled();
+		assertEquals(List.of("dialog opened", "dialog answered", "next", "approval checked"), shown);
+	}
+
+	@Test
+	public void testErrorInAnEventDoesNotStopTheRest() {
+		bridge.post(UIEventBridge.event(() -> {
+			throw new AssertionError("expected by the test");
+		}));
+		bridge.post(UIEventBridge.event(() -> shown.add("after")));
+		assertThrows(AssertionError.class, this::runScheduled);
+		runScheduled();
+		assertEquals(List.of("after"), shown);
+	}
+
+	private class Paid implements UIEvent {
+		private final int amount;
+
+		Paid(int amount) {
+			this.amount = amount;
+		}
+
+		@Override
+		public void run() {
+			shown.add("paid " + amount);
+		}
+
+		@Override
+		public Object coalesceKey() {
+			return Paid.class;
+		}
+
+		@Override
+		public UIEvent coalesce(UIEvent later) {
+			return new Paid(amount + ((Paid) later).amount);
+		}
+	}
+}
@@ -30,20 +30,31 @@
 
 package com.thelocalmarketplace.software.test;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.junit.Before;
 import org.junit.Test;
 
 import com.jjjwelectronics.Item;
 import com.jjjwelectronics.Mass;
+import com.jjjwelectronics.Numeral;
+import com.jjjwelectronics.scanner.Barcode;
+import com.jjjwelectronics.scanner.BarcodedItem;
 import com.thelocalmarketplace.hardware.SelfCheckoutStationBronze;
 
 import com.thelocalmarketplace.software.SelfCheckoutStationSoftware;
 import com.thelocalmarketplace.software.communication.GUI.AttendantStation.AttendantPageGUI;
 import com.thelocalmarketplace.software.communication.GUI.CustomerStationSoftware.CustomerStation;
 import com.thelocalmarketplace.software.product.ScaleListener;
+import com.thelocalmarketplace.software.product.WeightProfiles;
+import com.thelocalmarketplace.software.product.WeightStabilizer;
 
 import powerutility.PowerGrid;
 
@@ -155,6 +166,139 @@ public class WeightChangeTest {
 		
 	}
 	
+	/**
+	 * Create test that puts an unexpected item on the scale and checks the discrepancy is only
+	 * reported once the weight has settled, and only once.
+	 */
+
+	@Test
+	public void discrepancyReportedOnceSettledTest() throws InterruptedException {
+		AtomicInteger reports = new AtomicInteger();
+		ScaleListener settling = new ScaleListener(station, new WeightStabilizer(50, 2)) {
+			@Override
+			public void detectedWeightDiscrepancy() {
+				reports.incrementAndGet();
+			}
+		};
+		scale.addAnItem(new MockItem(new Mass(5000000)));
+
+		settling.theMassOnTheScaleHasChanged(scale, null);
+		settling.theMassOnTheScaleHasChanged(scale, null);
+		assertEquals(0, reports.get());
+
+		Thread.sleep(300);
+		assertEquals(1, reports.get());
+	}
+
+	/**
+	 * Create test that checks a weight matching the order before the scale settles unblocks
+	 * the station at once and cancels the pending discrepancy.
+	 */
+
+	@Test
+	public void matchingWeightCancelsDiscrepancyTest() throws InterruptedException {
+		AtomicInteger reports = new AtomicInteger();
+		ScaleListener settling = new ScaleListener(station, new WeightStabilizer(50, 2)) {
+			@Override
+			public void detectedWeightDiscrepancy() {
+				reports.incrementAndGet();
+			}
+		};
+		station.setStationBlock();
+		scale.addAnItem(new MockItem(new Mass(5000000)));
+		settling.theMassOnTheScaleHasChanged(scale, null);
+
+		station.addTotalOrderWeightInMicrograms(5000000);
+		settling.theMassOnTheScaleHasChanged(scale, null);
+		assertFalse(station.getStationBlock());
+
+		Thread.sleep(300);
+		assertEquals(0, reports.get());
+	}
+
+	/**
+	 * Create test that checks an item weighing more than its catalogue weight is accepted once
+	 * its product has learned that weight, and that the order's weight follows the scale.
+	 */
+
+	@Test
+	public void learnedWeightAcceptedTest() {
+		Barcode barcode = new Barcode(new Numeral[] { Numeral.one, Numeral.two, Numeral.three });
+		WeightProfiles profiles = new WeightProfiles(64);
+		for (int i = 0; i < WeightProfiles.MIN_OBSERVATIONS; i++)
+			profiles.record(barcode.getPackedDigits(), 50000000, 60000000);
+		ScaleListener learning = new ScaleListener(station, new WeightStabilizer(0, 1), profiles);
+		learning.theMassOnTheScaleHasChanged(scale, null);
+
+		BarcodedItem item = new BarcodedItem(barcode, new Mass(50000000));
+		station.addItemToOrder(item);
+		station.addTotalOrderWeightInMicrograms(50000000);
+		station.setStationBlock();
+		scale.addAnItem(new MockItem(new Mass(60000000)));
+		learning.theMassOnTheScaleHasChanged(scale, null);
+
+		assertFalse(station.getStationBlock());
+		assertEquals(60000000, station.getTotalOrderWeightInMicrograms());
+		assertEquals(WeightProfiles.MIN_OBSERVATIONS + 1, profiles.get(barcode.getPackedDigits()).getCount());
+	}
+
+	/**
+	 * Create test that checks a product whose catalogue weight is wrong is learned from the
+	 * weights the attendant approves, until its items stop being reported.
+	 */
+
+	@Test
+	public void approvedWeightLearnedTest() {
+		Barcode barcode = new Barcode(new Numeral[] { Numeral.one, Numeral.two, Numeral.five });
+		WeightProfiles profiles = new WeightProfiles(64);
+		List<Runnable> screen = new ArrayList<>();
+		SelfCheckoutStationSoftware software = new SelfCheckoutStationSoftware(checkoutSB, screen::add);
+		ScaleListener learning = new ScaleListener(software, new WeightStabilizer(0, 1), profiles);
+		learning.theMassOnTheScaleHasChanged(scale, null);
+
+		int approvals = 0;
+		while (true) {
+			software.addItemToOrder(new BarcodedItem(barcode, new Mass(50000000)));
+			software.addTotalOrderWeightInMicrograms(50000000);
+			scale.addAnItem(new MockItem(new Mass(60000000)));
+			learning.theMassOnTheScaleHasChanged(scale, null);
+			if (!software.getStationBlock())
+				break;
+			assertTrue(approvals < WeightProfiles.MIN_OBSERVATIONS);
+
+			// The attendant approves the weight before the screen catches up
+			software.setStationUnblock();
+			approvals++;
+			for (Runnable drain : screen)
+				drain.run();
+			screen.clear();
+		}
+
+		assertEquals(WeightProfiles.MIN_OBSERVATIONS, approvals);
+		assertEquals(60000000L * (approvals + 1), software.getTotalOrderWeightInMicrograms());
+	}
+
+	/**
+	 * Create test that checks a matching weight is not learned before the scale has settled on it.
+	 */
+
+	@Test
+	public void unsettledWeightNotLearnedTest() {
+		Barcode barcode = new Barcode(new Numeral[] { Numeral.one, Numeral.two, Numeral.four });
+		WeightProfiles profiles = new WeightProfiles(64);
+		ScaleListener learning = new ScaleListener(station, new WeightStabilizer(), profiles);
+		learning.theMassOnTheScaleHasChanged(scale, null);
+
+		BarcodedItem item = new BarcodedItem(barcode, new Mass(50000000));
+		station.addItemToOrder(item);
+		station.addTotalOrderWeightInMicrograms(50000000);
+		scale.addAnItem(new MockItem(new Mass(50000000)));
+		learning.theMassOnTheScaleHasChanged(scale, null);
+
+		assertFalse(station.getStationBlock());
+		assertNull(profiles.get(barcode.getPackedDigits()));
+	}
+
 	/**
 	 * MockItem class created to be used in the tests.
 	 */
@@ -0,0 +1,145 @@
+/**
+
+ SENG 300 - ITERATION 3
+ GROUP GOLD {8}
+
+ Name                      UCID
+
+ Yotam Rojnov             30173949
+ Duncan McKay             30177857
+ Mahfuz Alam              30142265
+ Luis Trigueros Granillo  30167989
+ Lilia Skumatova          30187339
+ Abdelrahman Abbas        30110374
+ Talaal Irtija            30169780
+ Alejandro Cardona        30178941
+ Alexandre Duteau         30192082
+ Grace Johnson            30149693
+ Abil Momin               30154771
+ Tara Ghasemi M. Rad      30171212
+ Izabella Mawani          30179738
+ Binish Khalid            30061367
+ Fatima Khalid            30140757
+ Lucas Kasdorf            30173922
+ Emily Garcia-Volk        30140791
+ Yuinikoru Futamata       30173228
+ Joseph Tandyo            30182561
+ Syed Haider              30143096
+ Nami Marwah              30178528
+
+ */
+
+package com.thelocalmarketplace.software.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Test;
+
+import com.thelocalmarketplace.software.product.WeightProfiles;
+
+public class WeightProfilesTest {
+
+	private static final long EXPECTED = 100_000_000;
+	private static final long TOLERANCE = 1_000_000;
+
+	@Test
+	public void testLearnsMeanAndSpread() {
+		WeightProfiles profiles = new WeightProfiles(64);
+		for (int i = 0; i < 10; i++)
+			assertTrue(profiles.record(1, EXPECTED, i % 2 == 0 ? 118_000_000 : 122_000_000));
+		WeightProfiles.Profile profile = profiles.get(1);
+		assertEquals(10, profile.getCount());
+		assertEquals(120_000_000, profile.getMean(), 1);
+		assertEquals(2_108_185, profile.getStandardDeviation(), 1);
+		assertTrue(profile.quantile(0.5) > EXPECTED);
+		assertNull(profiles.get(2));
+	}
+
+	@Test
+	public void testQuantilesReachPastTheHistogram() {
+		WeightProfiles profiles = new WeightProfiles(64);
+		for (int i = 0; i < 10; i++)
+			profiles.record(1, EXPECTED, 2 * EXPECTED);
+		WeightProfiles.Profile profile = profiles.get(1);
+		assertTrue(profile.quantile(0.99) > 190_000_000);
+		assertTrue(profile.quantile(0.99) <= 2 * EXPECTED);
+	}
+
+	@Test
+	public void testAcceptsOnlyOnceEnoughIsLearned() {
+		WeightProfiles profiles = new WeightProfiles(64);
+		for (int i = 1; i < WeightProfiles.MIN_OBSERVATIONS; i++)
+			profiles.record(1, EXPECTED, 120_000_000);
+		assertFalse(profiles.get(1).accepts(120_000_000, TOLERANCE));
+		profiles.record(1, EXPECTED, 120_000_000);
+		assertTrue(profiles.get(1).accepts(120_000_000, TOLERANCE));
+		assertTrue(profiles.get(1).accepts(120_500_000, TOLERANCE));
+		assertFalse(profiles.get(1).accepts(EXPECTED, TOLERANCE));
+		assertFalse(profiles.get(1).accepts(150_000_000, TOLERANCE));
+	}
+
+	@Test
+	public void testEvictsOnlyImmatureProfiles() {
+		WeightProfiles profiles = new WeightProfiles(8);
+		for (long key = 1; key <= 8; key++)
+			for (int i = 0; i < WeightProfiles.MIN_OBSERVATIONS; i++)
+				profiles.record(key, EXPECTED, EXPECTED);
+		assertFalse(profiles.record(9, EXPECTED, EXPECTED));
+		assertNull(profiles.get(9));
+
+		profiles = new WeightProfiles(8);
+		for (long key = 1; key <= 8; key++)
+			profiles.record(key, EXPECTED, EXPECTED);
+		profiles.record(1, EXPECTED, EXPECTED);
+		assertTrue(profiles.record(9, EXPECTED, EXPECTED));
+		assertNotNull(profiles.get(9));
+		assertNotNull(profiles.get(1));
+		assertEquals(8, profiles.size());
+	}
+
+	@Test
+	public void testSaveAndLoad() throws Exception {
+		WeightProfiles profiles = new WeightProfiles(64);
+		for (int i = 0; i < 20; i++) {
+			profiles.record(1, EXPECTED, 110_000_000 + i * 100_000);
+			profiles.record(2, 5_000_000, 5_000_000);
+		}
+		Path file = Files.createTempFile("weightprofiles", ".bin");
+		try {
+			profiles.save(file);
+			assertEquals(12 + 2 * 116, Files.size(file));
+			WeightProfiles loaded = WeightProfiles.load(file, 64);
+			assertEquals(2, loaded.size());
+			WeightProfiles.Profile before = profiles.get(1), after = loaded.get(1);
+			assertEquals(before.getCount(), after.getCount());
+			assertEquals(before.getMean(), after.getMean(), 0);
+			assertEquals(before.getStandardDeviation(), after.getStandardDeviation(), 0);
+			assertEquals(before.quantile(0.99), after.quantile(0.99));
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+	@Test
+	public void testConcurrentRecordsAreNotLost() throws InterruptedException {
+		WeightProfiles profiles = new WeightProfiles(64);
+		Thread[] threads = new Thread[4];
+		for (int t = 0; t < threads.length; t++) {
+			threads[t] = new Thread(() -> {
+				for (int i = 0; i < 1000; i++)
+					profiles.record(1, EXPECTED, EXPECTED);
+			});
+			threads[t].start();
+		}
+		for (Thread thread : threads)
+			thread.join();
+		assertEquals(4000, profiles.get(1).getCount());
+	}
+}
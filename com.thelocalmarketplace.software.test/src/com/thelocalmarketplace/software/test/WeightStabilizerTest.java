@@ -0,0 +1,99 @@
+/**
+
+ SENG 300 - ITERATION 3
+ GROUP GOLD {8}
+
+ Name                      UCID
+
+ Yotam Rojnov             30173949
+ Duncan McKay             30177857
+ Mahfuz Alam              30142265
+ Luis Trigueros Granillo  30167989
+ Lilia Skumatova          30187339
+ Abdelrahman Abbas        30110374
+ Talaal Irtija            30169780
+ Alejandro Cardona        30178941
+ Alexandre Duteau         30192082
+ Grace Johnson            30149693
+ Abil Momin               30154771
+ Tara Ghasemi M. Rad      30171212
+ Izabella Mawani          30179738
+ Binish Khalid            30061367
+ Fatima Khalid            30140757
+ Lucas Kasdorf            30173922
+ Emily Garcia-Volk        30140791
+ Yuinikoru Futamata       30173228
+ Joseph Tandyo            30182561
+ Syed Haider              30143096
+ Nami Marwah              30178528
+
+ */
+
+package com.thelocalmarketplace.software.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.thelocalmarketplace.software.product.WeightStabilizer;
+
+public class WeightStabilizerTest {
+
+	private static final long MS = 1_000_000;
+	private static final long BAND = 1_000;
+
+	@Test
+	public void testSettlesAfterTheSettleTime() {
+		WeightStabilizer stabilizer = new WeightStabilizer(100, 2);
+		stabilizer.offer(50_000, BAND, 0);
+		assertFalse(stabilizer.isSettled(0));
+		assertEquals(100 * MS, stabilizer.nanosUntilSettled(0));
+
+		stabilizer.offer(50_400, BAND, 60 * MS);
+		assertFalse(stabilizer.isSettled(60 * MS));
+		assertEquals(40 * MS, stabilizer.nanosUntilSettled(60 * MS));
+		assertTrue(stabilizer.isSettled(100 * MS));
+		assertEquals(50_400, stabilizer.settledWeight());
+	}
+
+	@Test
+	public void testMovingWeightRestartsThePlateau() {
+		WeightStabilizer stabilizer = new WeightStabilizer(100, 2);
+		stabilizer.offer(0, BAND, 0);
+		stabilizer.offer(20_000, BAND, 50 * MS);
+		stabilizer.offer(50_000, BAND, 90 * MS);
+		stabilizer.offer(50_200, BAND, 150 * MS);
+		assertFalse(stabilizer.isSettled(150 * MS));
+		assertTrue(stabilizer.isSettled(190 * MS));
+		assertEquals(50_200, stabilizer.settledWeight());
+	}
+
+	@Test
+	public void testNeedsEnoughReadings() {
+		WeightStabilizer stabilizer = new WeightStabilizer(100, 3);
+		stabilizer.offer(50_000, BAND, 0);
+		stabilizer.offer(50_000, BAND, 200 * MS);
+		assertFalse(stabilizer.isSettled(200 * MS));
+		assertEquals(0, stabilizer.nanosUntilSettled(200 * MS));
+		stabilizer.offer(50_000, BAND, 210 * MS);
+		assertTrue(stabilizer.isSettled(210 * MS));
+	}
+
+	@Test
+	public void testZeroSettleTimeSettlesAtOnce() {
+		WeightStabilizer stabilizer = new WeightStabilizer(0, 2);
+		assertFalse(stabilizer.isSettled(0));
+		stabilizer.offer(50_000, BAND, 0);
+		assertTrue(stabilizer.isSettled(0));
+	}
+
+	@Test
+	public void testResetForgetsReadings() {
+		WeightStabilizer stabilizer = new WeightStabilizer(100, 1);
+		stabilizer.offer(50_000, BAND, 0);
+		stabilizer.reset();
+		assertFalse(stabilizer.isSettled(500 * MS));
+	}
+}
@@ -0,0 +1,734 @@
+/**
+
+ SENG 300 - ITERATION 3
+ GROUP GOLD {8}
+
+ Name                      UCID
+
+ Yotam Rojnov             30173949
+ Duncan McKay             30177857
+ Mahfuz Alam              30142265
+ Luis Trigueros Granillo  30167989
+ Lilia Skumatova          30187339
+ Abdelrahman Abbas        30110374
+ Talaal Irtija            30169780
+ Alejandro Cardona        30178941
+ Alexandre Duteau         30192082
+ Grace Johnson            30149693
+ Abil Momin               30154771
+ Tara Ghasemi M. Rad      30171212
+ Izabella Mawani          30179738
+ Binish Khalid            30061367
+ Fatima Khalid            30140757
+ Lucas Kasdorf            30173922
+ Emily Garcia-Volk        30140791
+ Yuinikoru Futamata       30173228
+ Joseph Tandyo            30182561
+ Syed Haider              30143096
+ Nami Marwah              30178528
+
+ */
+
+package com.thelocalmarketplace.software;
+
+import java.math.BigDecimal;
+import java.util.Currency;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import com.jjjwelectronics.IDevice;
+import com.jjjwelectronics.IDeviceListener;
+import com.jjjwelectronics.Mass;
+import com.jjjwelectronics.card.Card.CardData;
+import com.jjjwelectronics.card.CardReaderListener;
+import com.jjjwelectronics.scale.ElectronicScaleListener;
+import com.jjjwelectronics.scale.IElectronicScale;
+import com.jjjwelectronics.scanner.Barcode;
+import com.jjjwelectronics.scanner.BarcodeScannerListener;
+import com.jjjwelectronics.scanner.IBarcodeScanner;
+import com.tdc.IComponent;
+import com.tdc.IComponentObserver;
+import com.tdc.banknote.BanknoteValidator;
+import com.tdc.banknote.BanknoteValidatorObserver;
+import com.tdc.coin.CoinValidator;
+import com.tdc.coin.CoinValidatorObserver;
+
+/**
+ * Delivers the events of one station's devices to its listeners on a dedicated consumer
+ * thread, so a slow listener no longer holds up the device that raised the event.
+ * <p>
+ * Events pass through a ring of slots allocated up front. A device thread claims the next
+ * sequence number, fills in the slot and publishes it; the frequent events (barcodes, mass
+ * changes, coins, banknotes and card data) have typed slots, so publishing them allocates
+ * nothing. Rarer notifications are carried as tasks, which keeps every event of a listener
+ * in order. When the ring is full, device threads wait for the consumer rather than lose
+ * events. The consumer takes the published events in batches and frees their slots once a
+ * batch has been delivered.
+ * </p>
+ * <p>
+ * An event raised on the consumer thread itself, by a listener, is delivered at once, since
+ * waiting for the consumer there could never end.
+ * </p>
+ * <p>
+ * A pipeline may deliver its events on a station's loop instead, so they never run at the
+ * same time as the station's other tasks. The consumer then hands each batch to the loop and
+ * waits for it to be delivered before taking the next. An event raised by a task already
+ * running on the loop is delivered at once, for the same reason as on the consumer thread.
+ * </p>
+ * <p>
+ * A listener that throws, even an error, does not stop the events after it. What it threw is
+ * passed to the error handler, which by default reports it to the uncaught exception handler of
+ * the thread that delivered the event.
+ * </p>
+ * <p>
+ * Closing marks the claimed count in the same atomic step that ends claiming, so an event is
+ * either claimed before the pipeline closed, and delivered by the consumer before it stops, or
+ * delivered on the thread that raised it once the consumer has delivered the others.
+ * </p>
+ */
+public class DeviceEventPipeline {
+
+	/**
+	 * The number of slots in the ring, unless another capacity is given.
+	 */
+	public static final int DEFAULT_CAPACITY = 1024;
+	private static final int MAX_BATCH = 64;
+	private static final int SPINS = 100;
+	private static final long PARK_NANOS = 1_000_000;
+	private static final AtomicInteger pipelines = new AtomicInteger();
+	// Set in claimed once the pipeline is closed; the other bits keep the count
+	private static final long CLOSED = Long.MIN_VALUE;
+
+	private enum Kind { BARCODE_SCANNED, MASS_CHANGED, VALID_COIN, GOOD_BANKNOTE, CARD_DATA_READ, TASK }
+
+	/**
+	 * One event. Slots are reused; a slot is published once its sequence is set.
+	 */
+	private static final class Slot {
+		volatile long sequence = -1;
+		Kind kind;
+		Object listener;
+		Object source;
+		Object first;
+		Object second;
+		Runnable task;
+		long publishedAt;
+	}
+
+	private final Slot[] slots;
+	private final int mask;
+	private final AtomicLong claimed = new AtomicLong();
+	// The sequence of the next event to deliver; every slot before it may be reused
+	private volatile long consumed;
+	private volatile boolean consumerParked;
+	private final Thread consumer;
+	// Where batches are delivered, and how to tell a thread running on it; null for the consumer
+	private final Executor loop;
+	private final BooleanSupplier onLoop;
+	private final Runnable batchOnLoop = this::deliverBatch;
+	// The batch handed to the loop; the consumer waits until it is done
+	private long batchStart;
+	private int batchCount;
+	private volatile boolean batchDone;
+
+	// Written only by whoever delivers the current batch, one batch at a time
+	private volatile long delivered;
+	private volatile long batches;
+	private volatile long totalLatencyNanos;
+	private volatile long maxLatencyNanos;
+	private final AtomicLong producerWaits = new AtomicLong();
+	private final AtomicLong failures = new AtomicLong();
+	private volatile Consumer<? super Throwable> errorHandler = DeviceEventPipeline::report;
+
+	/**
+	 * Creates a pipeline with the default capacity and starts its consumer.
+	 */
+	public DeviceEventPipeline() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Creates a pipeline and starts its consumer.
+	 *
+	 * @param capacity
+	 * 				The number of slots in the ring, rounded up to a power of two.
+	 */
+	public DeviceEventPipeline(int capacity) {
+		this(capacity, null, null);
+	}
+
+	/**
+	 * Creates a pipeline that delivers its events on a loop, and starts its consumer.
+	 *
+	 * @param capacity
+	 * 				The number of slots in the ring, rounded up to a power of two.
+	 * @param loop
+	 * 				Runs the batches of events one at a time, or null to deliver them on the consumer.
+	 * @param onLoop
+	 * 				Tells whether the calling thread is running a task of the loop. Needed with a loop.
+	 */
+	public DeviceEventPipeline(int capacity, Executor loop, BooleanSupplier onLoop) {
+		if (capacity < 1 || capacity > 1 << 30)
+			throw new IllegalArgumentException("The capacity must be between 1 and 2^30");
+		if (loop != null && onLoop == null)
+			throw new IllegalArgumentException("A loop needs a way to tell its threads");
+		this.loop = loop;
+		this.onLoop = onLoop;
+		int size = Integer.highestOneBit(capacity);
+		if (size < capacity)
+			size <<= 1;
+		slots = new Slot[size];
+		for (int i = 0; i < size; i++)
+			slots[i] = new Slot();
+		mask = size - 1;
+		consumer = new Thread(this::consume, "device-events-" + pipelines.incrementAndGet());
+		consumer.setDaemon(true);
+		consumer.start();
+	}
+
+	/**
+	 * Sets what is told when a listener throws while an event is delivered.
+	 *
+	 * @param handler
+	 * 				The handler, called on the thread that delivered the event.
+	 */
+	public void setErrorHandler(Consumer<? super Throwable> handler) {
+		if (handler == null)
+			throw new IllegalArgumentException("The handler cannot be null");
+		errorHandler = handler;
+	}
+
+	private static void report(Throwable e) {
+		Thread thread = Thread.currentThread();
+		thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+	}
+
+	/**
+	 * Creates a listener for a barcode scanner that passes its events through this pipeline.
+	 *
+	 * @param target
+	 * 				The listener the events are delivered to.
+	 * @return The listener to register with the scanner.
+	 */
+	public BarcodeScannerListener barcodeScannerListener(BarcodeScannerListener target) {
+		return new ScannerAdapter(target);
+	}
+
+	/**
+	 * Creates a listener for a scale that passes its events through this pipeline.
+	 *
+	 * @param target
+	 * 				The listener the events are delivered to.
+	 * @return The listener to register with the scale.
+	 */
+	public ElectronicScaleListener electronicScaleListener(ElectronicScaleListener target) {
+		return new ScaleAdapter(target);
+	}
+
+	/**
+	 * Creates a listener for a card reader that passes its events through this pipeline.
+	 *
+	 * @param target
+	 * 				The listener the events are delivered to.
+	 * @return The listener to register with the card reader.
+	 */
+	public CardReaderListener cardReaderListener(CardReaderListener target) {
+		return new CardReaderAdapter(target);
+	}
+
+	/**
+	 * Creates an observer for a coin validator that passes its events through this pipeline.
+	 *
+	 * @param target
+	 * 				The observer the events are delivered to.
+	 * @return The observer to attach to the validator.
+	 */
+	public CoinValidatorObserver coinValidatorObserver(CoinValidatorObserver target) {
+		return new CoinValidatorAdapter(target);
+	}
+
+	/**
+	 * Creates an observer for a banknote validator that passes its events through this pipeline.
+	 *
+	 * @param target
+	 * 				The observer the events are delivered to.
+	 * @return The observer to attach to the validator.
+	 */
+	public BanknoteValidatorObserver banknoteValidatorObserver(BanknoteValidatorObserver target) {
+		return new BanknoteValidatorAdapter(target);
+	}
+
+	/**
+	 * Publishes an event, waiting for a free slot if the ring is full.
+	 */
+	private void publish(Kind kind, Object listener, Object source, Object first, Object second, Runnable task) {
+		if (delivering()) {
+			dispatch(kind, listener, source, first, second, task);
+			return;
+		}
+
+		long sequence;
+		do {
+			sequence = claimed.get();
+			if (sequence < 0) {
+				// Closed: the consumer stops at the last event claimed before, which go first
+				while (consumed < (sequence & ~CLOSED))
+					LockSupport.parkNanos(PARK_NANOS / 100);
+				dispatch(kind, listener, source, first, second, task);
+				return;
+			}
+		} while (!claimed.compareAndSet(sequence, sequence + 1));
+		if (sequence - consumed >= slots.length) {
+			producerWaits.incrementAndGet();
+			for (int spins = 0; sequence - consumed >= slots.length; spins++) {
+				if (spins < SPINS)
+					Thread.onSpinWait();
+				else
+					LockSupport.parkNanos(PARK_NANOS / 100);
+			}
+		}
+
+		Slot slot = slots[(int) sequence & mask];
+		slot.kind = kind;
+		slot.listener = listener;
+		slot.source = source;
+		slot.first = first;
+		slot.second = second;
+		slot.task = task;
+		slot.publishedAt = System.nanoTime();
+		slot.sequence = sequence;
+
+		if (consumerParked)
+			LockSupport.unpark(consumer);
+	}
+
+	private void publish(Runnable task) {
+		publish(Kind.TASK, null, null, null, null, task);
+	}
+
+	/**
+	 * Determines whether the calling thread is the one events are being delivered on.
+	 */
+	private boolean delivering() {
+		return Thread.currentThread() == consumer || loop != null && onLoop.getAsBoolean();
+	}
+
+	/**
+	 * Counts the events claimed so far, whether or not the pipeline is closed.
+	 */
+	private long claimedCount() {
+		return claimed.get() & ~CLOSED;
+	}
+
+	private void consume() {
+		long next = 0;
+		int idle = 0;
+		while (claimed.get() >= 0 || next < claimedCount()) {
+			int count = 0;
+			Slot slot;
+			while (count < MAX_BATCH && (slot = slots[(int) (next + count) & mask]).sequence == next + count) {
+				if (loop == null)
+					deliver(slot);
+				count++;
+			}
+
+			if (count > 0) {
+				if (loop != null)
+					deliverOnLoop(next, count);
+				next += count;
+				consumed = next;
+				batches++;
+				idle = 0;
+			} else if (idle++ < SPINS)
+				Thread.onSpinWait();
+			else {
+				consumerParked = true;
+				// Also waits for an event claimed just before closing to be filled in
+				if (slots[(int) next & mask].sequence != next)
+					LockSupport.parkNanos(PARK_NANOS);
+				consumerParked = false;
+			}
+		}
+	}
+
+	/**
+	 * Hands a batch of published events to the loop and waits until they are delivered.
+	 */
+	private void deliverOnLoop(long start, int count) {
+		batchStart = start;
+		batchCount = count;
+		batchDone = false;
+		try {
+			loop.execute(batchOnLoop);
+		} catch (RejectedExecutionException e) {
+			// The loop has stopped taking tasks
+			deliverBatch();
+		}
+		while (!batchDone)
+			LockSupport.park(this);
+	}
+
+	private void deliverBatch() {
+		try {
+			for (int i = 0; i < batchCount; i++)
+				deliver(slots[(int) (batchStart + i) & mask]);
+		} finally {
+			batchDone = true;
+			LockSupport.unpark(consumer);
+		}
+	}
+
+	private void deliver(Slot slot) {
+		Kind kind = slot.kind;
+		Object listener = slot.listener, source = slot.source, first = slot.first, second = slot.second;
+		Runnable task = slot.task;
+		long publishedAt = slot.publishedAt;
+		slot.listener = slot.source = slot.first = slot.second = null;
+		slot.task = null;
+
+		dispatch(kind, listener, source, first, second, task);
+
+		long latency = System.nanoTime() - publishedAt;
+		delivered++;
+		totalLatencyNanos += latency;
+		if (latency > maxLatencyNanos)
+			maxLatencyNanos = latency;
+	}
+
+	private void dispatch(Kind kind, Object listener, Object source, Object first, Object second, Runnable task) {
+		try {
+			switch (kind) {
+			case BARCODE_SCANNED:
+				((BarcodeScannerListener) listener).aBarcodeHasBeenScanned((IBarcodeScanner) source, (Barcode) first);
+				break;
+			case MASS_CHANGED:
+				((ElectronicScaleListener) listener).theMassOnTheScaleHasChanged((IElectronicScale) source, (Mass) first);
+				break;
+			case VALID_COIN:
+				((CoinValidatorObserver) listener).validCoinDetected((CoinValidator) source, (BigDecimal) first);
+				break;
+			case GOOD_BANKNOTE:
+				((BanknoteValidatorObserver) listener).goodBanknote((BanknoteValidator) source, (Currency) first, (BigDecimal) second);
+				break;
+			case CARD_DATA_READ:
+				((CardReaderListener) listener).theDataFromACardHasBeenRead((CardData) first);
+				break;
+			case TASK:
+				task.run();
+				break;
+			}
+		} catch (Throwable e) {
+			failures.incrementAndGet();
+			errorHandler.accept(e);
+		}
+	}
+
+	/**
+	 * Waits until every event published so far has been delivered.
+	 *
+	 * @param timeoutMillis
+	 * 				The longest to wait, in milliseconds.
+	 * @return true if every event was delivered in time.
+	 */
+	public boolean awaitDelivered(long timeoutMillis) {
+		if (delivering())
+			return true;
+		long target = claimedCount();
+		long deadline = System.nanoTime() + timeoutMillis * 1_000_000;
+		while (consumed < target) {
+			if (System.nanoTime() - deadline >= 0)
+				return false;
+			LockSupport.parkNanos(PARK_NANOS / 10);
+		}
+		return true;
+	}
+
+	/**
+	 * Stops the consumer once it has delivered every event already claimed. Events published
+	 * afterwards are delivered on the thread that raises them, after those.
+	 */
+	public void close() {
+		claimed.getAndAccumulate(CLOSED, (count, closed) -> count | closed);
+		LockSupport.unpark(consumer);
+		if (!delivering()) {
+			try {
+				consumer.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/**
+	 * Counts the events published but not yet delivered.
+	 *
+	 * @return The depth of the queue.
+	 */
+	public long getQueueDepth() {
+		return Math.max(0, claimedCount() - consumed);
+	}
+
+	/**
+	 * Counts the events delivered by the consumer.
+	 *
+	 * @return The number of delivered events.
+	 */
+	public long getDeliveredCount() {
+		return delivered;
+	}
+
+	/**
+	 * Counts the events whose listener threw.
+	 *
+	 * @return The number of failed events.
+	 */
+	public long getFailedCount() {
+		return failures.get();
+	}
+
+	/**
+	 * Counts the batches the consumer has delivered.
+	 *
+	 * @return The number of batches.
+	 */
+	public long getBatchCount() {
+		return batches;
+	}
+
+	/**
+	 * Counts the times a device thread found the ring full and had to wait.
+	 *
+	 * @return The number of waits.
+	 */
+	public long getProducerWaitCount() {
+		return producerWaits.get();
+	}
+
+	/**
+	 * Gets the mean time from publishing an event to the end of its delivery.
+	 *
+	 * @return The mean latency, in nanoseconds, or 0 if nothing was delivered.
+	 */
+	public long getMeanLatencyNanos() {
+		long count = delivered;
+		return count == 0 ? 0 : totalLatencyNanos / count;
+	}
+
+	/**
+	 * Gets the longest time from publishing an event to the end of its delivery.
+	 *
+	 * @return The longest latency, in nanoseconds.
+	 */
+	public long getMaxLatencyNanos() {
+		return maxLatencyNanos;
+	}
+
+	private class ScannerAdapter implements BarcodeScannerListener {
+		private final BarcodeScannerListener target;
+
+		ScannerAdapter(BarcodeScannerListener target) {
+			this.target = target;
+		}
+
+		@Override
+		public void aBarcodeHasBeenScanned(IBarcodeScanner barcodeScanner, Barcode barcode) {
+			publish(Kind.BARCODE_SCANNED, target, barcodeScanner, barcode, null, null);
+		}
+
+		@Override
+		public void aDeviceHasBeenEnabled(IDevice<? extends IDeviceListener> device) {
+			publish(() -> target.aDeviceHasBeenEnabled(device));
+		}
+
+		@Override
+		public void aDeviceHasBeenDisabled(IDevice<? extends IDeviceListener> device) {
+			publish(() -> target.aDeviceHasBeenDisabled(device));
+		}
+
+		@Override
+		public void aDeviceHasBeenTurnedOn(IDevice<? extends IDeviceListener> device) {
+			publish(() -> target.aDeviceHasBeenTurnedOn(device));
+		}
+
+		@Override
+		public void aDeviceHasBeenTurnedOff(IDevice<? extends IDeviceListener> device) {
+			publish(() -> target.aDeviceHasBeenTurnedOff(device));
+		}
+	}
+
+	private class ScaleAdapter implements ElectronicScaleListener {
+		private final ElectronicScaleListener target;
+
+		ScaleAdapter(ElectronicScaleListener target) {
+			this.target = target;
+		}
+
+		@Override
+		public void theMassOnTheScaleHasChanged(IElectronicScale scale, Mass mass) {
+			publish(Kind.MASS_CHANGED, target, scale, mass, null, null);
+		}
+
+		@Override
+		public void theMassOnTheScaleHasExceededItsLimit(IElectronicScale scale) {
+			publish(() -> target.theMassOnTheScaleHasExceededItsLimit(scale));
+		}
+
+		@Override
+		public void theMassOnTheScaleNoLongerExceedsItsLimit(IElectronicScale scale) {
+			publish(() -> target.theMassOnTheScaleNoLongerExceedsItsLimit(scale));
+		}
+
+		@Override
+		public void aDeviceHasBeenEnabled(IDevice<? extends IDeviceListener> device) {
+			publish(() -> target.aDeviceHasBeenEnabled(device));
+		}
+
+		@Override
+		public void aDeviceHasBeenDisabled(IDevice<? extends IDeviceListener> device) {
+			publish(() -> target.aDeviceHasBeenDisabled(device));
+		}
+
+		@Override
+		public void aDeviceHasBeenTurnedOn(IDevice<? extends IDeviceListener> device) {
+			publish(() -> target.aDeviceHasBeenTurnedOn(device));
+		}
+
+		@Override
+		public void aDeviceHasBeenTurnedOff(IDevice<? extends IDeviceListener> device) {
+			publish(() -> target.aDeviceHasBeenTurnedOff(device));
+		}
+	}
+
+	private class CardReaderAdapter implements CardReaderListener {
+		private final CardReaderListener target;
+
+		CardReaderAdapter(CardReaderListener target) {
+			this.target = target;
+		}
+
+		@Override
+		public void theDataFromACardHasBeenRead(CardData data) {
+			publish(Kind.CARD_DATA_READ, target, null, data, null, null);
+		}
+
+		@Override
+		public void aCardHasBeenInserted() {
+			publish(target::aCardHasBeenInserted);
+		}
+
+		@Override
+		public void theCardHasBeenRemoved() {
+			publish(target::theCardHasBeenRemoved);
+		}
+
+		@Override
+		public void aCardHasBeenTapped() {
+			publish(target::aCardHasBeenTapped);
+		}
+
+		@Override
+		public void aCardHasBeenSwiped() {
+			publish(target::aCardHasBeenSwiped);
+		}
+
+		@Override
+		public void aDeviceHasBeenEnabled(IDevice<? extends IDeviceListener> device) {
+			publish(() -> target.aDeviceHasBeenEnabled(device));
+		}
+
+		@Override
+		public void aDeviceHasBeenDisabled(IDevice<? extends IDeviceListener> device) {
+			publish(() -> target.aDeviceHasBeenDisabled(device));
+		}
+
+		@Override
+		public void aDeviceHasBeenTurnedOn(IDevice<? extends IDeviceListener> device) {
+			publish(() -> target.aDeviceHasBeenTurnedOn(device));
+		}
+
+		@Override
+		public void aDeviceHasBeenTurnedOff(IDevice<? extends IDeviceListener> device) {
+			publish(() -> target.aDeviceHasBeenTurnedOff(device));
+		}
+	}
+
+	private class CoinValidatorAdapter implements CoinValidatorObserver {
+		private final CoinValidatorObserver target;
+
+		CoinValidatorAdapter(CoinValidatorObserver target) {
+			this.target = target;
+		}
+
+		@Override
+		public void validCoinDetected(CoinValidator validator, BigDecimal value) {
+			publish(Kind.VALID_COIN, target, validator, value, null, null);
+		}
+
+		@Override
+		public void invalidCoinDetected(CoinValidator validator) {
+			publish(() -> target.invalidCoinDetected(validator));
+		}
+
+		@Override
+		public void enabled(IComponent<? extends IComponentObserver> component) {
+			publish(() -> target.enabled(component));
+		}
+
+		@Override
+		public void disabled(IComponent<? extends IComponentObserver> component) {
+			publish(() -> target.disabled(component));
+		}
+
+		@Override
+		public void turnedOn(IComponent<? extends IComponentObserver> component) {
+			publish(() -> target.turnedOn(component));
+		}
+
+		@Override
+		public void turnedOff(IComponent<? extends IComponentObserver> component) {
+			publish(() -> target.turnedOff(component));
+		}
+	}
+
+	private class BanknoteValidatorAdapter implements BanknoteValidatorObserver {
+		private final BanknoteValidatorObserver target;
+
+		BanknoteValidatorAdapter(BanknoteValidatorObserver target) {
+			this.target = target;
+		}
+
+		@Override
+		public void goodBanknote(BanknoteValidator validator, Currency currency, BigDecimal denomination) {
+			publish(Kind.GOOD_BANKNOTE, target, validator, currency, denomination, null);
+		}
+
+		@Override
+		public void badBanknote(BanknoteValidator validator) {
+			publish(() -> target.badBanknote(validator));
+		}
+
+		@Override
+		public void enabled(IComponent<? extends IComponentObserver> component) {
+			publish(() -> target.enabled(component));
+		}
+
+		@Override
+		public void disabled(IComponent<? extends IComponentObserver> component) {
+			publish(() -> target.disabled(component));
+		}
+
+		@Override
+		public void turnedOn(IComponent<? extends IComponentObserver> component) {
+			publish(() -> target.turnedOn(component));
+		}
+
+		@Override
+		public void turnedOff(IComponent<? extends IComponentObserver> component) {
+			publish(() -> target.turnedOff(component));
+		}
+	}
+}
@@ -32,21 +32,44 @@
 
 package com.thelocalmarketplace.software;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Map;
+import java.util.Random;
 import com.jjjwelectronics.Numeral;
 import com.jjjwelectronics.scanner.Barcode;
 import com.thelocalmarketplace.hardware.BarcodedProduct;
 import com.thelocalmarketplace.hardware.PLUCodedProduct;
 import com.thelocalmarketplace.hardware.PriceLookUpCode;
 import com.thelocalmarketplace.hardware.external.ProductDatabases;
+import com.thelocalmarketplace.software.product.BinaryCatalog;
+import com.thelocalmarketplace.software.product.CatalogWatcher;
+import com.thelocalmarketplace.software.product.ProductLookup;
 
 /**
  * The ProductsDatabase class initializes and maintains the databases for 
  * barcoded and PLU-coded products available.
+ * If the system property named by CATALOG_PROPERTY gives the path of a catalog built by
+ * BinaryCatalogBuilder, that catalog is used instead of the sample products.
+ * If the system property named by DELTA_DIRECTORY_PROPERTY gives a directory, catalog delta
+ * files dropped there are applied while the stations run.
  */
 public class ProductsDatabase {
 
+	/**
+	 * The system property holding the path of the binary product catalog.
+	 */
+	public static final String CATALOG_PROPERTY = "thelocalmarketplace.catalog";
+
+	/**
+	 * The system property holding the directory watched for catalog delta files.
+	 */
+	public static final String DELTA_DIRECTORY_PROPERTY = "thelocalmarketplace.catalog.deltas";
+
+	private static CatalogWatcher deltaWatcher;
+
 	private static Map<Barcode, BarcodedProduct> productDatabase = ProductDatabases.BARCODED_PRODUCT_DATABASE;
 	private static Map<PriceLookUpCode, PLUCodedProduct> PLUDatabase = ProductDatabases.PLU_PRODUCT_DATABASE; 
 	private static ArrayList<Barcode> barcodes = new ArrayList<>();
@@ -55,8 +78,59 @@ public class ProductsDatabase {
 	 * Constructor for ProductsDatabase class.
 	 */
 	public ProductsDatabase() {
-		InitializeBarcodedProducts();
-		InitializePLUProducts();
+		String catalogPath = System.getProperty(CATALOG_PROPERTY);
+		if (catalogPath != null) {
+			if (ProductLookup.attachedCatalog() == null)
+				loadCatalog(Paths.get(catalogPath));
+		} else {
+			InitializeBarcodedProducts();
+			InitializePLUProducts();
+		}
+		String deltaDirectory = System.getProperty(DELTA_DIRECTORY_PROPERTY);
+		if (deltaDirectory != null)
+			watchDeltas(Paths.get(deltaDirectory));
+	}
+
+	/**
+	 * Starts applying the catalog delta files dropped in a directory, unless a directory
+	 * is already being watched.
+	 *
+	 * @param directory
+	 * 				The drop directory.
+	 * @return The watcher for the directory.
+	 * @throws IllegalStateException
+	 * 				If the directory cannot be watched.
+	 */
+	public static synchronized CatalogWatcher watchDeltas(Path directory) {
+		if (deltaWatcher == null) {
+			try {
+				deltaWatcher = new CatalogWatcher(directory);
+			} catch (IOException e) {
+				throw new IllegalStateException("Cannot watch the catalog delta directory " + directory, e);
+			}
+			deltaWatcher.start();
+		}
+		return deltaWatcher;
+	}
+
+	/**
+	 * Opens a binary catalog and makes its products available to every station.
+	 * Only the header of the catalog is read; products are read when first looked up.
+	 *
+	 * @param catalogFile
+	 * 				The catalog file.
+	 * @return The opened catalog.
+	 * @throws IllegalStateException
+	 * 				If the catalog cannot be opened.
+	 */
+	public static synchronized BinaryCatalog loadCatalog(Path catalogFile) {
+		try {
+			BinaryCatalog catalog = BinaryCatalog.open(catalogFile);
+			ProductLookup.attachCatalog(catalog);
+			return catalog;
+		} catch (IOException e) {
+			throw new IllegalStateException("Cannot open the product catalog " + catalogFile, e);
+		}
 	}
 
 	/**
@@ -113,4 +187,21 @@ public class ProductsDatabase {
 	public static ArrayList<Barcode> getBarcodes() {
 		return barcodes;
 	}
+
+	/**
+	 * Picks the barcode of a random product, from the sample products or, when a catalog
+	 * is used instead of them, from the catalog.
+	 *
+	 * @param random
+	 * 				The source of randomness.
+	 * @return The barcode, or null if there are no barcoded products.
+	 */
+	public static Barcode randomBarcode(Random random) {
+		if (!barcodes.isEmpty())
+			return barcodes.get(random.nextInt(barcodes.size()));
+		BinaryCatalog catalog = ProductLookup.attachedCatalog();
+		if (catalog == null || catalog.barcodedCount() == 0)
+			return null;
+		return catalog.barcodedProduct(random.nextInt(catalog.barcodedCount())).getBarcode();
+	}
 }
\ No newline at end of file
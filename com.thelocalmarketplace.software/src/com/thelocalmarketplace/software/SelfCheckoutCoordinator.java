@@ -35,8 +35,10 @@ import java.math.BigDecimal;
 import com.thelocalmarketplace.hardware.BarcodedProduct;
 import com.thelocalmarketplace.hardware.PLUCodedProduct;
 import com.thelocalmarketplace.hardware.Product;
+import com.thelocalmarketplace.software.communication.StationUI;
+import com.thelocalmarketplace.software.communication.UIEventBridge;
+import com.thelocalmarketplace.software.communication.UIEventBridge.UIEvent;
 import com.thelocalmarketplace.software.communication.GUI.AttendantStation.AttendantPageGUI;
-import com.thelocalmarketplace.software.communication.GUI.CustomerStationSoftware.CustomerStation;
 import com.thelocalmarketplace.software.funds.Funds;
 import com.thelocalmarketplace.software.funds.FundsObserver;
 import com.thelocalmarketplace.software.funds.PaymentKind.Kind;
@@ -46,12 +48,19 @@ import com.thelocalmarketplace.software.product.ProductsListener;
 /**
  * The SelfCheckoutCoordinator class acts as a middle man in the self-checkout system, coordinating between the GUI, 
  * payment processing, and product management.
+ * Updates to the GUI are posted to the station's event bridge, so the hardware thread that raised the event
+ * never waits for the screen, and repeated refreshes of the same display are merged.
  */
 public class SelfCheckoutCoordinator implements FundsObserver, ProductsListener {
+	/**
+	 * The displays that are redrawn from the current state, so waiting refreshes of each can be merged.
+	 */
+	private enum Display { STATUS, TOTAL_OWED }
+
 	SelfCheckoutStationSoftware software;
     Funds funds;
     Products products;
-    CustomerStation gui;
+    StationUI ui;
 	private AttendantPageGUI Agui;
 
     /**
@@ -71,13 +80,13 @@ public class SelfCheckoutCoordinator implements FundsObserver, ProductsListener
     }
     
     /**
-     * Sets the GUI for this class to use.
+     * Sets the user interface for this class to use.
      * 
-     * @param gui 
-     * 			GUI for this self checkout station.
+     * @param ui 
+     * 			The user interface of this self checkout station, or null if it has none.
      */
-    public void setGUI(CustomerStation gui) {
-    	this.gui = gui;
+    public void setUI(StationUI ui) {
+    	this.ui = ui;
     }
     
     /**
@@ -89,10 +98,9 @@ public class SelfCheckoutCoordinator implements FundsObserver, ProductsListener
      * 			The amount of change that could not be dispensed.
      */
     public void noValidChange(Funds fundsFacade, BigDecimal changeDue) {
-    	if(gui != null) {
-    		gui.handleRequestAssistance();
-    		gui.displayAmountDuePopup(changeDue);
-    	}
+    	StationUI ui = this.ui;
+    	if(ui != null)
+    		post(UIEventBridge.event(() -> ui.changeUnavailable(changeDue)));
     }
 
     /**
@@ -101,9 +109,10 @@ public class SelfCheckoutCoordinator implements FundsObserver, ProductsListener
      */
     @Override
     public void fundsAdded(Funds fundsFacade, BigDecimal funds) {
-    	if(gui != null) {
-    		gui.updatePaidDisplay(funds.doubleValue());
-    		gui.updateStatusDisplay();
+    	StationUI ui = this.ui;
+    	if(ui != null) {
+    		post(new PaidDisplayUpdate(ui, funds.doubleValue()));
+    		post(UIEventBridge.refresh(Display.STATUS, ui::statusChanged));
     	}
     }
 
@@ -113,9 +122,10 @@ public class SelfCheckoutCoordinator implements FundsObserver, ProductsListener
      */
     @Override
     public void fundsRemoved(Funds fundsFacade, BigDecimal funds) {
-    	if(gui != null) {
-    		gui.updatePaidDisplay(-1*funds.doubleValue());
-			gui.updateStatusDisplay();
+    	StationUI ui = this.ui;
+    	if(ui != null) {
+    		post(new PaidDisplayUpdate(ui, -1*funds.doubleValue()));
+    		post(UIEventBridge.refresh(Display.STATUS, ui::statusChanged));
     	}
     }
 
@@ -125,8 +135,9 @@ public class SelfCheckoutCoordinator implements FundsObserver, ProductsListener
      */
     @Override
     public void fundsStored(Funds fundsFacade, BigDecimal funds) {
-    	if(gui != null)
-    		gui.updateStatusDisplay();
+    	StationUI ui = this.ui;
+    	if(ui != null)
+    		post(UIEventBridge.refresh(Display.STATUS, ui::statusChanged));
     }
 
     /**
@@ -135,20 +146,23 @@ public class SelfCheckoutCoordinator implements FundsObserver, ProductsListener
      */
     @Override
     public void fundsInvalid(Funds fundsFacade, Kind kind) {
-    	if(gui != null)
-    		gui.customerPopUp("The payment method was invalid.");
+    	StationUI ui = this.ui;
+    	if(ui != null)
+    		post(UIEventBridge.event(() -> ui.notifyCustomer("The payment method was invalid.")));
     }
 
     /**
      * Override of fundsPaidInFull from FundsObserver interface 
-     * Notifies the GUI that funds have been paid in full and change has been returned.
+     * Records the sale in the store inventory, tells the session listeners of the station and
+     * notifies the GUI that funds have been paid in full and change has been returned.
      */
     @Override
     public void fundsPaidInFull(Funds fundsFacade, BigDecimal changeReturned) {
-        if(gui != null) {
-            gui.setPaymentSuccesful(changeReturned.doubleValue());
-            gui.getPaymentWindow().closePanel();
-        }
+        software.recordSale();
+        software.paymentCompleted(changeReturned);
+        StationUI ui = this.ui;
+        if(ui != null)
+            post(UIEventBridge.event(() -> ui.paymentCompleted(changeReturned.doubleValue())));
     }
 
     /**
@@ -157,8 +171,9 @@ public class SelfCheckoutCoordinator implements FundsObserver, ProductsListener
      */
     @Override
     public void fundsStationBlocked(Funds fundsFacade) {
-    	if(gui != null)
-    		gui.customerPopUp("Payment failed due to the station being blocked.");
+    	StationUI ui = this.ui;
+    	if(ui != null)
+    		post(UIEventBridge.event(() -> ui.notifyCustomer("Payment failed due to the station being blocked.")));
     }
     
     /**
@@ -167,8 +182,9 @@ public class SelfCheckoutCoordinator implements FundsObserver, ProductsListener
      */
     @Override
     public void productAdded(Products productFacade, Product product) {
-    	if(gui != null) {
-    		gui.updateTotalOwedDisplay();
+    	StationUI ui = this.ui;
+    	if(ui != null) {
+    		post(UIEventBridge.refresh(Display.TOTAL_OWED, ui::totalOwedChanged));
     	
 	    	String name = "";
 	    	
@@ -179,7 +195,9 @@ public class SelfCheckoutCoordinator implements FundsObserver, ProductsListener
 	    		PLUCodedProduct pluCodedProduct = (PLUCodedProduct) product;
 	    		name = pluCodedProduct.getDescription();
 	    	}
-	    	gui.addProductToCart(name, product.getPrice());
+	    	String cartName = name;
+	    	long price = product.getPrice();
+	    	post(UIEventBridge.event(() -> ui.itemAdded(cartName, price)));
     	}
     }
     
@@ -189,8 +207,9 @@ public class SelfCheckoutCoordinator implements FundsObserver, ProductsListener
      */
     @Override
     public void productRemoved(Products productFacade, Product product) {
-    	if(gui != null)
-    		gui.updateTotalOwedDisplay();
+    	StationUI ui = this.ui;
+    	if(ui != null)
+    		post(UIEventBridge.refresh(Display.TOTAL_OWED, ui::totalOwedChanged));
     }
    
     /**
@@ -199,8 +218,9 @@ public class SelfCheckoutCoordinator implements FundsObserver, ProductsListener
      */
     @Override
     public void productToBaggingArea(Products productFacade, Product product) {
-    	if(gui != null)
-    		gui.customerBaggingAreaPopUp(product);
+    	StationUI ui = this.ui;
+    	if(ui != null)
+    		post(UIEventBridge.event(() -> ui.placeInBaggingArea(product)));
     }
 
     /**
@@ -209,12 +229,46 @@ public class SelfCheckoutCoordinator implements FundsObserver, ProductsListener
      */
     @Override
     public void bagsPurchased(Products productFacade, long totalCost) {
-    	if(gui != null)
-    		gui.addProductToCart("Reusable Bag", totalCost);
+    	StationUI ui = this.ui;
+    	if(ui != null)
+    		post(UIEventBridge.event(() -> ui.itemAdded("Reusable Bag", totalCost)));
     }
 
 	public void setAGUI(AttendantPageGUI gui2) {
 		Agui = gui2;
 		
 	}
+
+	private void post(UIEvent event) {
+		software.getUIEvents().post(event);
+	}
+
+	/**
+	 * Adds funds to the amount paid shown to the customer. Waiting updates are merged by adding
+	 * their amounts, so a run of coins refreshes the display once.
+	 */
+	private static final class PaidDisplayUpdate implements UIEvent {
+		private final StationUI ui;
+		private final double addedFunds;
+
+		PaidDisplayUpdate(StationUI ui, double addedFunds) {
+			this.ui = ui;
+			this.addedFunds = addedFunds;
+		}
+
+		@Override
+		public void run() {
+			ui.amountPaidChanged(addedFunds);
+		}
+
+		@Override
+		public Object coalesceKey() {
+			return PaidDisplayUpdate.class;
+		}
+
+		@Override
+		public UIEvent coalesce(UIEvent later) {
+			return new PaidDisplayUpdate(((PaidDisplayUpdate) later).ui, addedFunds + ((PaidDisplayUpdate) later).addedFunds);
+		}
+	}
 }
@@ -31,17 +31,39 @@
 
 package com.thelocalmarketplace.software;
 
+import java.math.BigDecimal;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
 import com.jjjwelectronics.Item;
+import com.jjjwelectronics.Mass;
+import com.jjjwelectronics.MassAccumulator;
+import com.jjjwelectronics.scanner.Barcode;
+import com.jjjwelectronics.scanner.BarcodedItem;
+import com.thelocalmarketplace.hardware.BarcodedProduct;
 import com.thelocalmarketplace.hardware.AbstractSelfCheckoutStation;
 import com.thelocalmarketplace.hardware.ISelfCheckoutStation;
+import com.thelocalmarketplace.hardware.PLUCodedItem;
 import com.thelocalmarketplace.hardware.PLUCodedProduct;
 import com.thelocalmarketplace.hardware.PriceLookUpCode;
-import com.thelocalmarketplace.hardware.external.ProductDatabases;
+import com.thelocalmarketplace.hardware.Product;
+import com.thelocalmarketplace.software.communication.StationUI;
+import com.thelocalmarketplace.software.communication.UIEventBridge;
 import com.thelocalmarketplace.software.communication.GUI.AttendantStation.AttendantPageGUI;
 import com.thelocalmarketplace.software.communication.GUI.CustomerStationSoftware.CustomerStation;
+import com.thelocalmarketplace.software.communication.GUI.CustomerStationSoftware.CustomerStationUI;
 import com.thelocalmarketplace.software.funds.Funds;
+import com.thelocalmarketplace.software.funds.Money;
+import com.thelocalmarketplace.software.funds.MoneyAccumulator;
 import com.thelocalmarketplace.software.funds.Receipt;
+import com.thelocalmarketplace.software.funds.ReceiptJournal;
+import com.thelocalmarketplace.software.order.Order;
+import com.thelocalmarketplace.software.order.OrderLine;
+import com.thelocalmarketplace.software.product.Inventory;
+import com.thelocalmarketplace.software.product.ProductLookup;
 import com.thelocalmarketplace.software.product.Products;
 import com.thelocalmarketplace.hardware.external.CardIssuer;
 import com.jjjwelectronics.card.Card;
@@ -53,18 +75,35 @@ import com.jjjwelectronics.scale.IElectronicScale;
  */
 public class SelfCheckoutStationSoftware {
 	
-	private ArrayList<Item> order;
-	private double totalOrderWeight;
-	private double totalOrderPrice;
-	private boolean blocked = false;
-	private boolean activeSession = false;
+	private final Order order = new Order();
+	private final ReceiptJournal receiptJournal = new ReceiptJournal();
+	private final MassAccumulator totalOrderMass = new MassAccumulator();
+	private final MoneyAccumulator totalOrderPrice = new MoneyAccumulator();
+	private final StationState state = new StationState();
+	// Whether the customer-facing devices have been disabled, which lags the state while it is applied
+	private volatile boolean devicesBlocked = false;
+	private final Object deviceLock = new Object();
+	// Guards the session futures, so each one is replaced and completed on the same edge
+	private final Object sessionLock = new Object();
+	private CompletableFuture<SelfCheckoutStationSoftware> nextSessionStart = new CompletableFuture<>();
+	private CompletableFuture<SelfCheckoutStationSoftware> sessionEnd = CompletableFuture.completedFuture(this);
+	private final AtomicReference<CompletableFuture<BigDecimal>> nextPayment = new AtomicReference<>(new CompletableFuture<>());
+	private final Set<SessionListener> sessionListeners = new CopyOnWriteArraySet<>();
+	// The catalog snapshot read by the current session, pinned at its first lookup
+	private volatile ProductLookup sessionCatalog;
 	private Set<CardIssuer> banks = new HashSet<>();
 	private Card creditCard;
 	private Card debitCard;
+	// Written ahead of every change to the session, if the station keeps a journal
+	private SessionJournal journal;
 	
 	// Things to listen to (hardware)
 	public AbstractSelfCheckoutStation station;
 	private CustomerStation gui;
+	// What the station tells its users, through the screens or otherwise; null if nothing
+	private volatile StationUI ui;
+	// Carries updates from hardware callbacks to the user interface
+	private final UIEventBridge uiEvents;
 	private ProductsDatabase allProducts; 
 	
 	// Facades and listeners
@@ -72,6 +111,8 @@ public class SelfCheckoutStationSoftware {
 	private Products products;
 	private SelfCheckoutCoordinator selfCheckoutCoordinator;
 	private AttendantPageGUI Agui;
+	// Delivers device events on a thread of its own, if the station uses one
+	private DeviceEventPipeline eventPipeline;
 
 	/**
 	 * Creates an instance of the software for a self-checkout station.
@@ -80,15 +121,29 @@ public class SelfCheckoutStationSoftware {
 	 * 			The self-checkout station that requires the software.
 	 */
 	public SelfCheckoutStationSoftware(AbstractSelfCheckoutStation station) {
+		this(station, new UIEventBridge());
+	}
+
+	/**
+	 * Creates an instance of the software for a self-checkout station whose user interface
+	 * is not drawn by Swing.
+	 * 
+	 * @param station 
+	 * 			The self-checkout station that requires the software.
+	 * @param uiDispatcher
+	 * 			Runs the updates of the user interface, in place of the event dispatch thread.
+	 */
+	public SelfCheckoutStationSoftware(AbstractSelfCheckoutStation station, Executor uiDispatcher) {
+		this(station, new UIEventBridge(UIEventBridge.DEFAULT_CAPACITY, uiDispatcher));
+	}
+
+	private SelfCheckoutStationSoftware(AbstractSelfCheckoutStation station, UIEventBridge uiEvents) {
 		if (station == null)
 			throw new IllegalArgumentException("The station cannot be null");	
 		
 		this.station = station;
+		this.uiEvents = uiEvents;
 
-		this.order = new ArrayList<Item>();
-		this.totalOrderWeight = 0;
-		this.totalOrderPrice = 0;
-		
 		this.funds = new Funds(this);
 		this.products = new Products(this);
 		this.selfCheckoutCoordinator = new SelfCheckoutCoordinator(this, funds, products);
@@ -108,7 +163,29 @@ public class SelfCheckoutStationSoftware {
 	 */
 	public void setGUI(CustomerStation gui) {
 		this.gui = gui;
-		selfCheckoutCoordinator.setGUI(gui);
+		this.ui = gui == null ? null : new CustomerStationUI(gui);
+		selfCheckoutCoordinator.setUI(ui);
+	}
+
+	/**
+	 * Set what the station tells its users, for a station without the Swing screens.
+	 * 
+	 * @param ui
+	 * 			The user interface of the station, or null if it has none.
+	 */
+	public void setUI(StationUI ui) {
+		this.gui = ui instanceof CustomerStationUI ? ((CustomerStationUI) ui).getGUI() : null;
+		this.ui = ui;
+		selfCheckoutCoordinator.setUI(ui);
+	}
+
+	/**
+	 * Get what the station tells its users.
+	 * 
+	 * @return The user interface of the station, or null if it has none.
+	 */
+	public StationUI getUI() {
+		return ui;
 	}
 	
 	/**
@@ -139,6 +216,72 @@ public class SelfCheckoutStationSoftware {
 	public AttendantPageGUI getAGUI() {
 		return Agui;
 	}
+
+	/**
+	 * Delivers the events of the scanners, bagging area, validators and card reader of this
+	 * station on a dedicated consumer thread, so a slow listener no longer holds up the device.
+	 * Until it is started, events are handled on the thread of the device that raised them.
+	 * 
+	 * @param capacity
+	 * 			The number of events that may wait to be delivered.
+	 * @return The pipeline, which reports its queue depth and latency.
+	 */
+	public DeviceEventPipeline startEventPipeline(int capacity) {
+		return startEventPipeline(capacity, null, null);
+	}
+
+	/**
+	 * Delivers the events of the scanners, bagging area, validators and card reader of this
+	 * station on the loop that runs the station's other tasks, so they never run at the same
+	 * time. The devices still only wait for the pipeline's consumer thread.
+	 * 
+	 * @param capacity
+	 * 			The number of events that may wait to be delivered.
+	 * @param loop
+	 * 			Runs the batches of events one at a time, or null to deliver them on the consumer thread.
+	 * @param onLoop
+	 * 			Tells whether the calling thread is running a task of the loop.
+	 * @return The pipeline, which reports its queue depth and latency.
+	 */
+	public synchronized DeviceEventPipeline startEventPipeline(int capacity, Executor loop, BooleanSupplier onLoop) {
+		if (eventPipeline == null) {
+			eventPipeline = new DeviceEventPipeline(capacity, loop, onLoop);
+			products.routeDeviceEvents(eventPipeline);
+			funds.routeDeviceEvents(eventPipeline);
+		}
+		return eventPipeline;
+	}
+
+	/**
+	 * Delivers device events on the thread of the device again, once the events already
+	 * waiting have been delivered.
+	 */
+	public synchronized void stopEventPipeline() {
+		if (eventPipeline != null) {
+			products.routeDeviceEvents(null);
+			funds.routeDeviceEvents(null);
+			eventPipeline.close();
+			eventPipeline = null;
+		}
+	}
+
+	/**
+	 * Get the pipeline delivering the device events of this station.
+	 * 
+	 * @return The pipeline, or null if events are handled on the device's thread.
+	 */
+	public synchronized DeviceEventPipeline getEventPipeline() {
+		return eventPipeline;
+	}
+
+	/**
+	 * Get the bridge through which hardware callbacks update the screens of the station.
+	 * 
+	 * @return The bridge to the user interface.
+	 */
+	public UIEventBridge getUIEvents() {
+		return uiEvents;
+	}
 	
 	/**
 	 * Get the funds facade for the station.
@@ -161,27 +304,50 @@ public class SelfCheckoutStationSoftware {
 	/**
 	 * Set function to block the station.
 	 * Disables parts of the station to block further customer interaction.
+	 * The devices are only touched if the station was not already blocked, or
+	 * an earlier attempt to disable them failed.
 	 */
 	public void setStationBlock() {
-		blocked = true;
-		
-		station.getCardReader().disable();
-		station.getCoinSlot().disable();
-		station.getHandheldScanner().disable();
-		station.getMainScanner().disable();
+		if (state.block() || !devicesBlocked)
+			applyDeviceState();
 	}
 	
 	/**
 	 * Set function to unblock the station.
 	 * Enables parts of the station to allow further customer interaction.
+	 * The devices are only touched if the station was blocked, or an earlier
+	 * attempt to enable them failed.
 	 */
 	public void setStationUnblock() {
-		blocked = false;
-		
-		station.getCardReader().enable();
-		station.getCoinSlot().enable();
-		station.getHandheldScanner().enable();
-		station.getMainScanner().enable();
+		if (state.unblock() || devicesBlocked)
+			applyDeviceState();
+	}
+
+	/**
+	 * Brings the card reader, coin slot and scanners in line with the state of the station.
+	 * A block that is undone before it reaches the devices never touches them, and a toggle
+	 * that failed, e.g. for lack of power, is tried again by the next call. Every change of
+	 * the state calls this, and the state is read again after each toggle, so a change made
+	 * by another thread while the devices were being toggled is never lost.
+	 */
+	private void applyDeviceState() {
+		synchronized (deviceLock) {
+			boolean block;
+			while ((block = state.isBlocked()) != devicesBlocked) {
+				if (block) {
+					station.getCardReader().disable();
+					station.getCoinSlot().disable();
+					station.getHandheldScanner().disable();
+					station.getMainScanner().disable();
+				} else {
+					station.getCardReader().enable();
+					station.getCoinSlot().enable();
+					station.getHandheldScanner().enable();
+					station.getMainScanner().enable();
+				}
+				devicesBlocked = block;
+			}
+		}
 	}
 
 	/**
@@ -190,14 +356,106 @@ public class SelfCheckoutStationSoftware {
 	 * @return true if the station is blocked, false otherwise.
 	 */
 	public boolean getStationBlock() {
-		return blocked;
+		return state.isBlocked();
 	}
 	
 	/**
 	 * Set function to change the active variable value.
+	 * Session listeners and futures are told when a session really starts or ends.
 	 */
 	public void setStationActive(boolean value) {
-		activeSession = value;
+		CompletableFuture<SelfCheckoutStationSoftware> reached;
+		synchronized (sessionLock) {
+			if (value) {
+				if (state.isActive())
+					return;
+				if (journal != null)
+					journal.sessionStarted();
+				state.activate();
+				reached = nextSessionStart;
+				nextSessionStart = new CompletableFuture<>();
+				sessionEnd = new CompletableFuture<>();
+			} else {
+				sessionCatalog = null;
+				if (!state.deactivate())
+					return;
+				reached = sessionEnd;
+			}
+		}
+		// Futures and listeners are told outside the lock, so they may start the next session
+		if (value) {
+			reached.complete(this);
+			for (SessionListener listener : sessionListeners)
+				listener.sessionStarted(this);
+		} else {
+			reached.complete(this);
+			for (SessionListener listener : sessionListeners)
+				listener.sessionEnded(this);
+		}
+	}
+
+	/**
+	 * Tells session listeners and futures that the order has been paid in full.
+	 * 
+	 * @param changeReturned
+	 * 			The change given back to the customer.
+	 */
+	public void paymentCompleted(BigDecimal changeReturned) {
+		nextPayment.getAndSet(new CompletableFuture<>()).complete(changeReturned);
+		for (SessionListener listener : sessionListeners)
+			listener.paymentCompleted(this, changeReturned);
+	}
+
+	/**
+	 * Registers a listener for the sessions of this station. No effect if it is already registered.
+	 * 
+	 * @param listener
+	 * 			The listener to register.
+	 */
+	public void register(SessionListener listener) {
+		sessionListeners.add(listener);
+	}
+
+	/**
+	 * Deregisters a listener for the sessions of this station. No effect if it is not registered.
+	 * 
+	 * @param listener
+	 * 			The listener to deregister.
+	 */
+	public void deregister(SessionListener listener) {
+		sessionListeners.remove(listener);
+	}
+
+	/**
+	 * Gets a future that completes when the next session starts.
+	 * 
+	 * @return The future, completed with this station.
+	 */
+	public CompletableFuture<SelfCheckoutStationSoftware> nextSessionStart() {
+		synchronized (sessionLock) {
+			return nextSessionStart;
+		}
+	}
+
+	/**
+	 * Gets a future that completes when the next order is paid in full.
+	 * 
+	 * @return The future, completed with the change given back.
+	 */
+	public CompletableFuture<BigDecimal> nextPaymentCompletion() {
+		return nextPayment.get();
+	}
+
+	/**
+	 * Gets a future that completes when the session in progress ends, or that has already
+	 * completed if no session is in progress. Nothing waits on a thread for it.
+	 * 
+	 * @return The future, completed with this station.
+	 */
+	public CompletableFuture<SelfCheckoutStationSoftware> sessionEnd() {
+		synchronized (sessionLock) {
+			return sessionEnd;
+		}
 	}
 
 	/**
@@ -206,7 +464,16 @@ public class SelfCheckoutStationSoftware {
 	 * @return true if there is a current session in progress, false otherwise.
 	 */
 	public boolean getStationActive() {
-		return activeSession;
+		return state.isActive();
+	}
+
+	/**
+	 * Get the state of the station.
+	 * 
+	 * @return Whether a session is in progress and whether the station is blocked.
+	 */
+	public StationState getState() {
+		return state;
 	}
 	
 	/**
@@ -224,33 +491,113 @@ public class SelfCheckoutStationSoftware {
     public void resetOrder() {
         removeAllItemsFromScale();
         
-        this.order = new ArrayList<Item>();
-        this.totalOrderWeight = 0;
-        this.totalOrderPrice = 0;
+        this.order.clear();
+        this.receiptJournal.clear();
+        this.totalOrderMass.clear();
+        this.totalOrderPrice.reset();
+        this.sessionCatalog = null;
+        this.funds.resetSession();
+        if (journal != null)
+            journal.sessionEnded();
     }
+
+	/**
+	 * Sets the journal that the events of this station's sessions are written to.
+	 * A session left in the journal by a power failure should be recovered into this
+	 * software before the journal is set.
+	 *
+	 * @param journal
+	 * 			The journal, or null to stop journaling.
+	 */
+	public void setSessionJournal(SessionJournal journal) {
+		this.journal = journal;
+	}
+
+	/**
+	 * Gets the journal that the events of this station's sessions are written to.
+	 *
+	 * @return The journal, or null if the station does not keep one.
+	 */
+	public SessionJournal getSessionJournal() {
+		return journal;
+	}
+
+	/**
+	 * Gets the catalog snapshot this station reads products from. While a session is active,
+	 * every lookup reads the snapshot taken at the session's first lookup, so price changes
+	 * pushed in the middle of a session do not affect it; the next session sees them.
+	 *
+	 * @return The snapshot of the product databases.
+	 */
+	public ProductLookup getCatalog() {
+		if (!state.isActive())
+			return ProductLookup.current();
+		ProductLookup snapshot = sessionCatalog;
+		if (snapshot == null) {
+			snapshot = ProductLookup.current();
+			sessionCatalog = snapshot;
+		}
+		return snapshot;
+	}
+
+	/**
+	 * Finds the product with a barcode in this station's catalog snapshot. Products added
+	 * to the catalog after the snapshot was taken are found in the current one.
+	 *
+	 * @param barcode
+	 * 			The barcode of the product.
+	 * @return The product, or null if there is none.
+	 */
+	public BarcodedProduct findBarcodedProduct(Barcode barcode) {
+		BarcodedProduct product = getCatalog().barcodedProduct(barcode);
+		if (product == null)
+			product = ProductLookup.findBarcodedProduct(barcode);
+		return product;
+	}
+
+	/**
+	 * Finds the product with a PLU code in this station's catalog snapshot. Products added
+	 * to the catalog after the snapshot was taken are found in the current one.
+	 *
+	 * @param code
+	 * 			The PLU code of the product.
+	 * @return The product, or null if there is none.
+	 */
+	public PLUCodedProduct findPLUCodedProduct(PriceLookUpCode code) {
+		PLUCodedProduct product = getCatalog().pluCodedProduct(code);
+		if (product == null)
+			product = ProductLookup.findPLUCodedProduct(code);
+		return product;
+	}
     
     private void removeAllItemsFromScale() {
         IElectronicScale baggingArea = station.getBaggingArea();
         
-        ArrayList<Item> itemsToRemove = new ArrayList<>();
-                
-        for (Item item : order) 
-            itemsToRemove.add(item);
-            
-        for (Item item : itemsToRemove) {
+        for (Item item : order.items()) {
             products.removeItemFromOrder(item);
             baggingArea.removeAnItem(item);
         }
     }
 	
 	/**
-	 * Adds an item to the order.
+	 * Adds an item to the order, on the line of its product.
 	 *
 	 * @param item 
 	 * 			The item to add to the order.
+	 * @return true if the item was added, false if it was already in the order.
 	 */
-	public void addItemToOrder(Item item) {
-		this.order.add(item);
+	public boolean addItemToOrder(Item item) {
+		Product product = null;
+		if (item instanceof BarcodedItem)
+			product = findBarcodedProduct(((BarcodedItem) item).getBarcode());
+		else if (item instanceof PLUCodedItem)
+			product = findPLUCodedProduct(((PLUCodedItem) item).getPLUCode());
+		if (!this.order.add(item, product))
+			return false;
+		if (journal != null)
+			journal.itemAdded(item);
+		this.receiptJournal.record(item, product);
+		return true;
 	}
 	
 	/**
@@ -258,9 +605,15 @@ public class SelfCheckoutStationSoftware {
 	 *
 	 * @param item 
 	 * 			The item to remove from order.
+	 * @return true if the item was in the order, false otherwise.
 	 */
-	public void removeFromOrder(Item item) {
-		this.order.remove(item);
+	public boolean removeFromOrder(Item item) {
+		if (!this.order.remove(item))
+			return false;
+		if (journal != null)
+			journal.itemRemoved(item);
+		this.receiptJournal.remove(item);
+		return true;
 	}
 	
 	/**
@@ -268,20 +621,52 @@ public class SelfCheckoutStationSoftware {
 	 * 
 	 * @param code 
 	 * 			The PLU code of a product.
-	 * @return the product with the given PLU code.
+	 * @return the product with the given PLU code, or null if there is none.
 	 */
 	public PLUCodedProduct matchCodeAndPLUProduct(String code) {
-		PriceLookUpCode plu = new PriceLookUpCode(code);
-		PLUCodedProduct currentItem = ProductDatabases.PLU_PRODUCT_DATABASE.get(plu);
-		return currentItem;	
+		PLUCodedProduct currentItem = getCatalog().pluCodedProduct(code);
+		if (currentItem == null) // Parsing the code rejects malformed codes as before
+			currentItem = ProductLookup.findPLUCodedProduct(new PriceLookUpCode(code));
+		return currentItem;
 	}
 	
 	/**
-	 * Gets the order.
+	 * Removes the products of the order from the store inventory, once the order has been paid.
+	 * Items that are not products of the catalog, such as reusable bags, are not counted.
+	 */
+	public void recordSale() {
+		Map<Product, Integer> quantities = new HashMap<>();
+		for (OrderLine line : order.lines()) {
+			if (line.getProduct() != null)
+				quantities.put(line.getProduct(), line.getQuantity());
+		}
+		Inventory.shared().sell(quantities);
+	}
+
+	/**
+	 * Gets the items of the order.
+	 *
+	 * @return A read-only view of the items, in the order they were added.
+	 */
+	public List<Item> getOrder() {
+		return this.order.view();
+	}
+
+	/**
+	 * Gets the receipt lines of the items in the order.
 	 *
-	 * @return The order.
+	 * @return The receipt journal of the current order.
 	 */
-	public ArrayList<Item> getOrder() {
+	public ReceiptJournal getReceiptJournal() {
+		return this.receiptJournal;
+	}
+
+	/**
+	 * Gets the order itself, indexed by item and grouped into lines by product.
+	 *
+	 * @return The current order.
+	 */
+	public Order getCurrentOrder() {
 		return this.order;
 	}
 
@@ -291,7 +676,16 @@ public class SelfCheckoutStationSoftware {
 	 * @return The total weight of order (in grams).
 	 */
 	public double getTotalOrderWeightInGrams() {
-		return this.totalOrderWeight;
+		return this.totalOrderMass.inGramsAsDouble();
+	}
+
+	/**
+	 * Gets the exact total weight of the order without creating a Mass, for the scale path.
+	 * 
+	 * @return The total weight of the order (in micrograms).
+	 */
+	public long getTotalOrderWeightInMicrograms() {
+		return this.totalOrderMass.inMicrogramsAsLong();
 	}
 
 	/**
@@ -300,7 +694,25 @@ public class SelfCheckoutStationSoftware {
 	 * @return The total price of order.
 	 */
 	public double getTotalOrderPrice() {
-		return this.totalOrderPrice;
+		return this.totalOrderPrice.get().toDouble();
+	}
+
+	/**
+	 * Gets the exact total price of the order.
+	 * 
+	 * @return The total price of the order.
+	 */
+	public Money getOrderTotal() {
+		return this.totalOrderPrice.get();
+	}
+
+	/**
+	 * Gets the exact total price of the order without creating a Money, for the payment path.
+	 * 
+	 * @return The total price of the order (in cents).
+	 */
+	public long getOrderTotalInCents() {
+		return this.totalOrderPrice.getCents();
 	}
 
 	/**
@@ -310,28 +722,73 @@ public class SelfCheckoutStationSoftware {
 	 * 			The total price of the order (in dollars).
 	 */
 	public void setOrderTotalPrice(double price) {
-		this.totalOrderPrice = price;
+		setOrderTotalPrice(Money.ofDollars(price));
+	}
+
+	/**
+	 * Sets the exact total price of the order.
+	 * 
+	 * @param price
+	 * 			The total price of the order.
+	 */
+	public void setOrderTotalPrice(Money price) {
+		if (journal != null)
+			journal.priceSet(price);
+		this.totalOrderPrice.set(price);
 	}
 	
 	/**
 	 * Updates the total weight of the order by adding a new weight to the total.
+	 * The weight is rounded to the nearest microgram.
 	 */
 	public void addTotalOrderWeightInGrams(double weight) {
-		this.totalOrderWeight += weight;
+		addTotalOrderWeightInMicrograms(Math.round(weight * Mass.MICROGRAMS_PER_GRAM));
+	}
+
+	/**
+	 * Updates the total weight of the order by adding an exact weight to the total.
+	 * 
+	 * @param micrograms
+	 * 			The weight to add (in micrograms), negative to reduce the total.
+	 */
+	public void addTotalOrderWeightInMicrograms(long micrograms) {
+		if (journal != null)
+			journal.weightChanged(micrograms);
+		this.totalOrderMass.add(micrograms);
 	}
 	
 	/**
 	 * Updates the total price of the order by adding a new price to the total.
 	 */
 	public void addTotalOrderPrice(double price) {
-		this.totalOrderPrice += price;
+		addTotalOrderPrice(Money.ofDollars(price));
+	}
+
+	/**
+	 * Updates the total price of the order by adding a product price, in whole dollars, to the total.
+	 */
+	public void addTotalOrderPrice(long price) {
+		addTotalOrderPrice(Money.ofDollars(price));
+	}
+
+	/**
+	 * Updates the total price of the order by adding an exact amount to the total.
+	 */
+	public void addTotalOrderPrice(Money price) {
+		if (journal != null)
+			journal.priceChanged(price);
+		this.totalOrderPrice.add(price);
 	}
 	
 	/**
-	 * Calls the GUI to create a pop-up to notify the customer of the overload.
+	 * Calls the GUI to create a pop-up to notify the customer of the overload. The pop-up is
+	 * shown later on the event dispatch thread, so the scale does not wait for it.
 	 */
 	public void notifyUserOfOverload() {
-		gui.customerPopUp("Overload");}
+		StationUI screen = ui;
+		if (screen != null)
+			uiEvents.post(UIEventBridge.event(() -> screen.notifyCustomer("Overload")));
+	}
 
 	/**
 	 * Checks whether the order is empty or not.
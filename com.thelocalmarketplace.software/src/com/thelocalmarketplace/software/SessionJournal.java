@@ -0,0 +1,692 @@
+/**
+
+ SENG 300 - ITERATION 3
+ GROUP GOLD {8}
+
+ Name                      UCID
+
+ Yotam Rojnov             30173949
+ Duncan McKay             30177857
+ Mahfuz Alam              30142265
+ Luis Trigueros Granillo  30167989
+ Lilia Skumatova          30187339
+ Abdelrahman Abbas        30110374
+ Talaal Irtija            30169780
+ Alejandro Cardona        30178941
+ Alexandre Duteau         30192082
+ Grace Johnson            30149693
+ Abil Momin               30154771
+ Tara Ghasemi M. Rad      30171212
+ Izabella Mawani          30179738
+ Binish Khalid            30061367
+ Fatima Khalid            30140757
+ Lucas Kasdorf            30173922
+ Emily Garcia-Volk        30140791
+ Yuinikoru Futamata       30173228
+ Joseph Tandyo            30182561
+ Syed Haider              30143096
+ Nami Marwah              30178528
+
+ */
+
+package com.thelocalmarketplace.software;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+import com.jjjwelectronics.Item;
+import com.jjjwelectronics.Mass;
+import com.jjjwelectronics.Numeral;
+import com.jjjwelectronics.bag.ReusableBag;
+import com.jjjwelectronics.scanner.Barcode;
+import com.jjjwelectronics.scanner.BarcodedItem;
+import com.thelocalmarketplace.hardware.PLUCodedItem;
+import com.thelocalmarketplace.hardware.PriceLookUpCode;
+import com.thelocalmarketplace.software.funds.Money;
+import com.thelocalmarketplace.software.funds.PaymentKind;
+
+/**
+ * An append-only journal of the events of the current session of one station, written
+ * ahead of the changes they describe so that a session interrupted by a power failure
+ * can be rebuilt when the station restarts.
+ * <p>
+ * Events are encoded into an in-memory buffer, which a background thread writes and
+ * forces to disk in groups, so recording an item costs a few microseconds. Payment events
+ * wait until they are on disk, since cash cannot be fed in twice. When a session ends,
+ * the file is emptied, so it only ever holds the session in progress.
+ * </p>
+ * <p>
+ * If the file can no longer be written, the journal stops taking events rather than
+ * buffering them forever: payment events report the failure to their caller, and
+ * getFailure() tells why.
+ * </p>
+ *
+ * <p>Record layout, all values big-endian:</p>
+ * <pre>
+ * record        short payload length, byte type, payload, int CRC-32C of type and payload
+ * item added    int item id, byte kind, long mass in micrograms, byte digit count, digits
+ * item removed  int item id
+ * price         long cents (a change, or the new total)
+ * weight        long micrograms (a change)
+ * funds in      byte payment kind, long cents
+ * card posted   byte payment kind, long cents
+ * change out    long cents
+ * </pre>
+ * A torn or corrupt record ends the journal; it and anything after it are discarded.
+ */
+public class SessionJournal implements AutoCloseable {
+
+	/**
+	 * The system property holding the directory where stations keep their journals.
+	 */
+	public static final String DIRECTORY_PROPERTY = "thelocalmarketplace.journal";
+
+	static final byte SESSION_STARTED = 1;
+	static final byte SESSION_ENDED = 2;
+	static final byte ITEM_ADDED = 3;
+	static final byte ITEM_REMOVED = 4;
+	static final byte PRICE_CHANGED = 5;
+	static final byte PRICE_SET = 6;
+	static final byte WEIGHT_CHANGED = 7;
+	static final byte FUNDS_IN = 8;
+	static final byte CARD_POSTED = 9;
+	static final byte CHANGE_OUT = 10;
+
+	private static final byte NO_ITEM = 0;
+	private static final byte BARCODED_ITEM = 1;
+	private static final byte PLU_CODED_ITEM = 2;
+	private static final byte REUSABLE_BAG = 3;
+	private static final byte OTHER_ITEM = 4;
+
+	private static final int RECORD_OVERHEAD = 7;
+	// How long the writer waits for more events before forcing a group to disk
+	private static final long GROUP_COMMIT_NANOS = 2_000_000;
+
+	private static final Map<Integer, SessionJournal> stationJournals = new HashMap<>();
+	private static boolean closeOnExit;
+
+	private final Path file;
+	private final FileChannel channel;
+	private final Object lock = new Object();
+	private final CRC32C checksum = new CRC32C();
+	private ByteBuffer pending = ByteBuffer.allocate(1 << 14);
+	private ByteBuffer spare = ByteBuffer.allocate(1 << 14);
+	// Position in the pending buffer just after its last session end, or -1
+	private int endOfLastSession = -1;
+	private int recordStart;
+	private long appended;
+	private long durable;
+	private boolean urgent;
+	private boolean closed;
+	private IOException failure;
+	private final Thread writer;
+
+	// Ids of the items of the current session, to name them in removal records
+	private final Map<Item, Integer> itemIds = new IdentityHashMap<>();
+	private int nextItemId;
+
+	/**
+	 * Gets the journal of a station, opening it in the directory named by DIRECTORY_PROPERTY
+	 * the first time it is asked for.
+	 *
+	 * @param stationNumber
+	 * 				The number of the station.
+	 * @return The journal of the station, or null if no journal directory is configured.
+	 * @throws IllegalStateException
+	 * 				If the journal cannot be opened.
+	 */
+	public static synchronized SessionJournal forStation(int stationNumber) {
+		String directory = System.getProperty(DIRECTORY_PROPERTY);
+		if (directory == null)
+			return null;
+		SessionJournal journal = stationJournals.get(stationNumber);
+		if (journal == null) {
+			if (stationJournals.isEmpty() && !closeOnExit) {
+				// Events still in memory would be lost with the daemon writers at exit
+				Runtime.getRuntime().addShutdownHook(new Thread(SessionJournal::closeAll, "session-journal-shutdown"));
+				closeOnExit = true;
+			}
+			Path file = Paths.get(directory, "station-" + stationNumber + ".journal");
+			try {
+				Files.createDirectories(file.getParent());
+				journal = open(file);
+			} catch (IOException e) {
+				throw new IllegalStateException("Cannot open the session journal " + file, e);
+			}
+			stationJournals.put(stationNumber, journal);
+		}
+		return journal;
+	}
+
+	/**
+	 * Closes the journals opened by forStation, writing out their pending events. A station
+	 * asking for its journal afterwards opens it again.
+	 */
+	public static synchronized void closeAll() {
+		for (Map.Entry<Integer, SessionJournal> entry : stationJournals.entrySet()) {
+			try {
+				entry.getValue().close();
+			} catch (IOException e) {
+				System.err.println("Cannot close the session journal of station " + entry.getKey() + ": " + e);
+			}
+		}
+		stationJournals.clear();
+	}
+
+	/**
+	 * Opens a journal file, creating it if it does not exist. A torn record left at its end
+	 * by a power failure is cut off.
+	 *
+	 * @param file
+	 * 				The journal file.
+	 * @return The opened journal.
+	 * @throws IOException
+	 * 				If the file cannot be opened.
+	 */
+	public static SessionJournal open(Path file) throws IOException {
+		return new SessionJournal(file);
+	}
+
+	private SessionJournal(Path file) throws IOException {
+		this.file = file;
+		this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		ByteBuffer contents = readFile();
+		int valid = validLength(contents);
+		if (valid < contents.limit())
+			channel.truncate(valid);
+		channel.position(valid);
+		writer = new Thread(this::write, "session-journal-" + file.getFileName());
+		writer.setDaemon(true);
+		writer.start();
+	}
+
+	/**
+	 * Records that a session has started.
+	 */
+	public void sessionStarted() {
+		synchronized (lock) {
+			if (!begin(SESSION_STARTED, 0))
+				return;
+			end();
+		}
+	}
+
+	/**
+	 * Records that the session has ended, after which its events are no longer needed.
+	 */
+	public void sessionEnded() {
+		synchronized (lock) {
+			itemIds.clear();
+			if (!begin(SESSION_ENDED, 0))
+				return;
+			end();
+			endOfLastSession = pending.position();
+		}
+	}
+
+	/**
+	 * Records that an item was added to the order.
+	 *
+	 * @param item
+	 * 				The item, which may be null.
+	 */
+	public void itemAdded(Item item) {
+		synchronized (lock) {
+			if (!begin(ITEM_ADDED, 4 + 1 + 8 + 1 + 48))
+				return;
+			int id = nextItemId++;
+			itemIds.put(item, id);
+			pending.putInt(id);
+			if (item instanceof BarcodedItem) {
+				Barcode barcode = ((BarcodedItem) item).getBarcode();
+				pending.put(BARCODED_ITEM).putLong(micrograms(item)).put((byte) barcode.digitCount());
+				for (int i = 0; i < barcode.digitCount(); i++)
+					pending.put(barcode.getDigitAt(i).getValue());
+			} else if (item instanceof PLUCodedItem) {
+				PriceLookUpCode code = ((PLUCodedItem) item).getPLUCode();
+				pending.put(PLU_CODED_ITEM).putLong(micrograms(item)).put((byte) code.numeralCount());
+				for (int i = 0; i < code.numeralCount(); i++)
+					pending.put(code.getNumeralAt(i).getValue());
+			} else if (item == null)
+				pending.put(NO_ITEM).putLong(0).put((byte) 0);
+			else
+				pending.put(item instanceof ReusableBag ? REUSABLE_BAG : OTHER_ITEM).putLong(micrograms(item)).put((byte) 0);
+			end();
+		}
+	}
+
+	/**
+	 * Records that an item was removed from the order.
+	 *
+	 * @param item
+	 * 				The item, which must have been recorded as added.
+	 */
+	public void itemRemoved(Item item) {
+		synchronized (lock) {
+			Integer id = itemIds.remove(item);
+			if (id == null || !begin(ITEM_REMOVED, 4))
+				return;
+			pending.putInt(id);
+			end();
+		}
+	}
+
+	/**
+	 * Records a change to the total price of the order.
+	 *
+	 * @param change
+	 * 				The amount added to the total, negative if it was reduced.
+	 */
+	public void priceChanged(Money change) {
+		appendLong(PRICE_CHANGED, change.getCents());
+	}
+
+	/**
+	 * Records that the total price of the order was set.
+	 *
+	 * @param total
+	 * 				The new total price.
+	 */
+	public void priceSet(Money total) {
+		appendLong(PRICE_SET, total.getCents());
+	}
+
+	/**
+	 * Records a change to the total weight of the order.
+	 *
+	 * @param micrograms
+	 * 				The weight added to the total, negative if it was reduced.
+	 */
+	public void weightChanged(long micrograms) {
+		appendLong(WEIGHT_CHANGED, micrograms);
+	}
+
+	/**
+	 * Records a payment, and waits until it is on disk.
+	 *
+	 * @param amount
+	 * 				The amount paid.
+	 * @param kind
+	 * 				How it was paid; card payments are recorded as posted transactions.
+	 * @return true if the payment is on disk, false if the journal can no longer be written.
+	 */
+	public boolean fundsIn(Money amount, PaymentKind.Kind kind) {
+		synchronized (lock) {
+			if (!begin(kind == PaymentKind.Kind.CREDIT || kind == PaymentKind.Kind.DEBIT ? CARD_POSTED : FUNDS_IN, 9))
+				return false;
+			pending.put((byte) kind.ordinal()).putLong(amount.getCents());
+			end();
+		}
+		return awaitDurable();
+	}
+
+	/**
+	 * Records change given to the customer, and waits until it is on disk.
+	 *
+	 * @param amount
+	 * 				The change dispensed.
+	 * @return true if the record is on disk, false if the journal can no longer be written.
+	 */
+	public boolean changeOut(Money amount) {
+		return appendLong(CHANGE_OUT, amount.getCents()) && awaitDurable();
+	}
+
+	private boolean appendLong(byte type, long value) {
+		synchronized (lock) {
+			if (!begin(type, 8))
+				return false;
+			pending.putLong(value);
+			end();
+			return true;
+		}
+	}
+
+	/**
+	 * Gets the error that stopped the journal from being written.
+	 *
+	 * @return The error, or null if the journal is still being written.
+	 */
+	public IOException getFailure() {
+		synchronized (lock) {
+			return failure;
+		}
+	}
+
+	private static long micrograms(Item item) {
+		return item.getMass().inMicrogramsAsLong();
+	}
+
+	/**
+	 * Starts a record in the pending buffer, leaving room for its length.
+	 * Must be called holding the lock, and followed by end() if it returns true.
+	 *
+	 * @return false if the journal is closed or failed, and the record must be dropped.
+	 */
+	private boolean begin(byte type, int maximumPayload) {
+		// Nothing would ever write the record out
+		if (failure != null || closed)
+			return false;
+		if (pending.remaining() < maximumPayload + RECORD_OVERHEAD) {
+			ByteBuffer larger = ByteBuffer.allocate(Math.max(pending.capacity() * 2, pending.position() + maximumPayload + RECORD_OVERHEAD));
+			pending.flip();
+			larger.put(pending);
+			pending = larger;
+		}
+		recordStart = pending.position();
+		pending.putShort((short) 0).put(type);
+		return true;
+	}
+
+	/**
+	 * Fills in the length and checksum of the record being written.
+	 */
+	private void end() {
+		int recordEnd = pending.position();
+		pending.putShort(recordStart, (short) (recordEnd - recordStart - 3));
+		checksum.reset();
+		checksum.update(pending.array(), recordStart + 2, recordEnd - recordStart - 2);
+		pending.putInt((int) checksum.getValue());
+		appended++;
+		// The writer sleeps while nothing is pending, and hurries once the buffer fills up
+		if (recordStart == 0 || pending.position() > pending.capacity() / 2)
+			lock.notifyAll();
+	}
+
+	/**
+	 * Waits until every event recorded so far is on disk.
+	 *
+	 * @return true if they are, false if the journal can no longer be written.
+	 */
+	public boolean awaitDurable() {
+		synchronized (lock) {
+			long target = appended;
+			urgent = true;
+			lock.notifyAll();
+			boolean interrupted = false;
+			while (durable < target && failure == null && !closed) {
+				try {
+					lock.wait();
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+			if (interrupted)
+				Thread.currentThread().interrupt();
+			return durable >= target;
+		}
+	}
+
+	/**
+	 * Writes pending events to the file in groups until the journal is closed.
+	 */
+	private void write() {
+		while (true) {
+			ByteBuffer batch;
+			int sessionEnd;
+			long upTo;
+			synchronized (lock) {
+				try {
+					while (pending.position() == 0 && !closed)
+						lock.wait();
+					// Let other events join the group unless someone is waiting for it
+					long deadline = System.nanoTime() + GROUP_COMMIT_NANOS;
+					long remaining;
+					while (!urgent && !closed && pending.position() <= pending.capacity() / 2
+							&& (remaining = deadline - System.nanoTime()) > 0)
+						lock.wait(remaining / 1_000_000, (int) (remaining % 1_000_000));
+				} catch (InterruptedException e) {
+					return;
+				}
+				if (pending.position() == 0 && closed)
+					return;
+				batch = pending;
+				pending = spare;
+				spare = null;
+				sessionEnd = endOfLastSession;
+				endOfLastSession = -1;
+				upTo = appended;
+				urgent = false;
+			}
+
+			IOException error = null;
+			try {
+				batch.flip();
+				if (sessionEnd >= 0) {
+					// Nothing before the end of a session is needed again
+					channel.truncate(0);
+					channel.position(0);
+					batch.position(sessionEnd);
+				}
+				while (batch.hasRemaining())
+					channel.write(batch);
+				channel.force(false);
+			} catch (IOException e) {
+				error = e;
+			}
+
+			synchronized (lock) {
+				batch.clear();
+				spare = batch;
+				if (error != null) {
+					failure = error;
+					// Events recorded since can never be written either
+					pending.clear();
+					endOfLastSession = -1;
+					System.err.println("The session journal " + file + " can no longer be written: " + error);
+					lock.notifyAll();
+					return;
+				}
+				durable = upTo;
+				lock.notifyAll();
+			}
+		}
+	}
+
+	/**
+	 * Rebuilds the session recorded in the journal in a station's software, if there is one,
+	 * then journals the software's sessions from then on.
+	 *
+	 * @param software
+	 * 				The software of the station.
+	 * @return The number of events replayed; 0 if no session was in progress.
+	 * @throws IOException
+	 * 				If the journal cannot be read.
+	 */
+	public int attach(SelfCheckoutStationSoftware software) throws IOException {
+		int replayed = recover(software);
+		software.setSessionJournal(this);
+		return replayed;
+	}
+
+	/**
+	 * Rebuilds the session recorded in the journal in a station's software, after the
+	 * station lost power or was restarted. The software must not yet be journaling to this
+	 * journal, and should have no session of its own.
+	 *
+	 * @param software
+	 * 				The software of the station.
+	 * @return The number of events replayed; 0 if no session was in progress.
+	 * @throws IOException
+	 * 				If the journal cannot be read.
+	 */
+	public int recover(SelfCheckoutStationSoftware software) throws IOException {
+		awaitDurable();
+		List<ByteBuffer> records;
+		synchronized (lock) {
+			records = sessionRecords(readFile());
+			itemIds.clear();
+			nextItemId = 0;
+		}
+
+		Map<Integer, Item> items = new HashMap<>();
+		for (ByteBuffer record : records) {
+			byte type = record.get();
+			switch (type) {
+			case SESSION_STARTED:
+				software.setStationActive(true);
+				break;
+			case ITEM_ADDED: {
+				int id = record.getInt();
+				Item item = decodeItem(record);
+				items.put(id, item);
+				software.setStationActive(true);
+				software.addItemToOrder(item);
+				synchronized (lock) {
+					itemIds.put(item, id);
+					nextItemId = Math.max(nextItemId, id + 1);
+				}
+				break;
+			}
+			case ITEM_REMOVED: {
+				Item item = items.remove(record.getInt());
+				software.removeFromOrder(item);
+				synchronized (lock) {
+					itemIds.remove(item);
+				}
+				break;
+			}
+			case PRICE_CHANGED:
+				software.addTotalOrderPrice(Money.ofCents(record.getLong()));
+				break;
+			case PRICE_SET:
+				software.setOrderTotalPrice(Money.ofCents(record.getLong()));
+				break;
+			case WEIGHT_CHANGED:
+				software.addTotalOrderWeightInMicrograms(record.getLong());
+				break;
+			case FUNDS_IN:
+			case CARD_POSTED: {
+				PaymentKind.Kind kind = PaymentKind.Kind.values()[record.get()];
+				software.getFunds().addToTotalPaid(Money.ofCents(record.getLong()), kind);
+				break;
+			}
+			case CHANGE_OUT:
+				// Only what is left of the change is owed once the customer pays again
+				software.getFunds().addToChangeGiven(Money.ofCents(record.getLong()));
+				break;
+			default:
+				throw new IOException("Unknown journal record type " + type);
+			}
+		}
+		return records.size();
+	}
+
+	private static Item decodeItem(ByteBuffer record) {
+		byte kind = record.get();
+		Mass mass = new Mass(record.getLong());
+		Numeral[] digits = new Numeral[record.get()];
+		for (int i = 0; i < digits.length; i++)
+			digits[i] = Numeral.valueOf(record.get());
+		switch (kind) {
+		case BARCODED_ITEM:
+			return new BarcodedItem(new Barcode(digits), mass);
+		case PLU_CODED_ITEM: {
+			StringBuilder code = new StringBuilder(digits.length);
+			for (Numeral digit : digits)
+				code.append(digit.getValue());
+			return new PLUCodedItem(new PriceLookUpCode(code.toString()), mass);
+		}
+		case REUSABLE_BAG:
+			return new ReusableBag();
+		case OTHER_ITEM:
+			return new RecoveredItem(mass);
+		default:
+			return null;
+		}
+	}
+
+	/**
+	 * An item of a kind the journal does not know how to rebuild, of which only the mass is kept.
+	 */
+	private static class RecoveredItem extends Item {
+		RecoveredItem(Mass mass) {
+			super(mass);
+		}
+	}
+
+	private ByteBuffer readFile() throws IOException {
+		ByteBuffer contents = ByteBuffer.allocate((int) channel.size());
+		long position = 0;
+		while (contents.hasRemaining()) {
+			int read = channel.read(contents, position);
+			if (read < 0)
+				break;
+			position += read;
+		}
+		contents.flip();
+		return contents;
+	}
+
+	/**
+	 * Finds the length of the intact records at the start of the journal.
+	 */
+	static int validLength(ByteBuffer contents) {
+		int position = 0;
+		CRC32C crc = new CRC32C();
+		while (contents.limit() - position >= RECORD_OVERHEAD) {
+			int length = contents.getShort(position) & 0xFFFF;
+			int end = position + RECORD_OVERHEAD + length;
+			if (end > contents.limit())
+				break;
+			crc.reset();
+			ByteBuffer body = contents.duplicate();
+			body.position(position + 2).limit(end - 4);
+			crc.update(body);
+			if ((int) crc.getValue() != contents.getInt(end - 4))
+				break;
+			position = end;
+		}
+		return position;
+	}
+
+	/**
+	 * Gets the records of the session in progress, each positioned on its type.
+	 */
+	static List<ByteBuffer> sessionRecords(ByteBuffer contents) {
+		int valid = validLength(contents);
+		List<ByteBuffer> records = new ArrayList<>();
+		int position = 0;
+		while (position < valid) {
+			int length = contents.getShort(position) & 0xFFFF;
+			ByteBuffer record = contents.duplicate();
+			record.position(position + 2).limit(position + 3 + length);
+			if (record.get(position + 2) == SESSION_ENDED)
+				records.clear();
+			else
+				records.add(record.slice());
+			position += RECORD_OVERHEAD + length;
+		}
+		return records;
+	}
+
+	/**
+	 * Writes out every pending event and closes the file.
+	 *
+	 * @throws IOException
+	 * 				If the file cannot be closed.
+	 */
+	@Override
+	public void close() throws IOException {
+		awaitDurable();
+		synchronized (lock) {
+			closed = true;
+			lock.notifyAll();
+		}
+		try {
+			writer.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		channel.close();
+	}
+}
@@ -0,0 +1,66 @@
+/**
+
+ SENG 300 - ITERATION 3
+ GROUP GOLD {8}
+
+ Name                      UCID
+
+ Yotam Rojnov             30173949
+ Duncan McKay             30177857
+ Mahfuz Alam              30142265
+ Luis Trigueros Granillo  30167989
+ Lilia Skumatova          30187339
+ Abdelrahman Abbas        30110374
+ Talaal Irtija            30169780
+ Alejandro Cardona        30178941
+ Alexandre Duteau         30192082
+ Grace Johnson            30149693
+ Abil Momin               30154771
+ Tara Ghasemi M. Rad      30171212
+ Izabella Mawani          30179738
+ Binish Khalid            30061367
+ Fatima Khalid            30140757
+ Lucas Kasdorf            30173922
+ Emily Garcia-Volk        30140791
+ Yuinikoru Futamata       30173228
+ Joseph Tandyo            30182561
+ Syed Haider              30143096
+ Nami Marwah              30178528
+
+ */
+
+package com.thelocalmarketplace.software;
+
+import java.math.BigDecimal;
+
+/**
+ * Permits objects to follow the sessions of a station when registered with it. Events are
+ * signalled on the thread that caused them, so listeners should return quickly.
+ */
+public interface SessionListener {
+	/**
+	 * Signals that a customer has started a session.
+	 * 
+	 * @param station
+	 *            The station on which the session started.
+	 */
+	public void sessionStarted(SelfCheckoutStationSoftware station);
+
+	/**
+	 * Signals that the order of the session has been paid in full.
+	 * 
+	 * @param station
+	 *            The station on which the order was paid.
+	 * @param changeReturned
+	 *            The change given back to the customer.
+	 */
+	public void paymentCompleted(SelfCheckoutStationSoftware station, BigDecimal changeReturned);
+
+	/**
+	 * Signals that the session has ended and the station is free for the next customer.
+	 * 
+	 * @param station
+	 *            The station on which the session ended.
+	 */
+	public void sessionEnded(SelfCheckoutStationSoftware station);
+}
@@ -0,0 +1,387 @@
+/**
+
+ SENG 300 - ITERATION 3
+ GROUP GOLD {8}
+
+ Name                      UCID
+
+ Yotam Rojnov             30173949
+ Duncan McKay             30177857
+ Mahfuz Alam              30142265
+ Luis Trigueros Granillo  30167989
+ Lilia Skumatova          30187339
+ Abdelrahman Abbas        30110374
+ Talaal Irtija            30169780
+ Alejandro Cardona        30178941
+ Alexandre Duteau         30192082
+ Grace Johnson            30149693
+ Abil Momin               30154771
+ Tara Ghasemi M. Rad      30171212
+ Izabella Mawani          30179738
+ Binish Khalid            30061367
+ Fatima Khalid            30140757
+ Lucas Kasdorf            30173922
+ Emily Garcia-Volk        30140791
+ Yuinikoru Futamata       30173228
+ Joseph Tandyo            30182561
+ Syed Haider              30143096
+ Nami Marwah              30178528
+
+ */
+
+package com.thelocalmarketplace.software;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import com.thelocalmarketplace.hardware.AbstractSelfCheckoutStation;
+import com.thelocalmarketplace.software.communication.StationUI;
+
+/**
+ * Hosts the software of any number of stations in one process, without Swing. Each station
+ * has an event loop of its own: the tasks submitted to a station, and the updates to its user
+ * interface, run one at a time and in order, but the loops of different stations run side by
+ * side on a small shared pool of worker threads. A loop that is idle holds no thread, so
+ * hundreds of stations cost little more than the ones that are busy.
+ * <p>
+ * The events of each station's devices are delivered through a pipeline of its own, so a
+ * device never waits for the software. The pipeline delivers them on the station's loop, so
+ * they never run at the same time as its tasks; a listener that throws counts as a failed task.
+ * </p>
+ * <p>
+ * A loop runs a bounded number of tasks before handing its worker to the next station, so a
+ * busy station cannot starve the others. The runtime counts the tasks each station completes
+ * and reports the throughput of every station and of the whole runtime.
+ * </p>
+ */
+public class StationRuntime implements AutoCloseable {
+
+	// The most tasks a loop runs before giving up its worker
+	private static final int MAX_BATCH = 32;
+	private static final AtomicInteger runtimes = new AtomicInteger();
+
+	private final ExecutorService workers;
+	private final List<HostedStation> stations = new CopyOnWriteArrayList<>();
+	private final AtomicInteger hosted = new AtomicInteger();
+	private final long startedAt = System.nanoTime();
+	private volatile boolean closed;
+
+	/**
+	 * Creates a runtime with a worker for every processor.
+	 */
+	public StationRuntime() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Creates a runtime.
+	 * 
+	 * @param workerThreads
+	 * 				The number of threads shared by the loops of every station.
+	 */
+	public StationRuntime(int workerThreads) {
+		if (workerThreads < 1)
+			throw new IllegalArgumentException("There must be at least one worker thread");
+		int id = runtimes.incrementAndGet();
+		AtomicInteger workerCount = new AtomicInteger();
+		workers = Executors.newFixedThreadPool(workerThreads, task -> {
+			Thread thread = new Thread(task, "station-runtime-" + id + "-" + workerCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Creates the software for a station and hosts it. The user interface is updated on the
+	 * station's loop, and the events of its devices go through its pipeline.
+	 * 
+	 * @param hardware
+	 * 				The hardware of the station, plugged in and turned on.
+	 * @param ui
+	 * 				What the station tells its users, or null to tell them nothing.
+	 * @return The hosted station.
+	 */
+	public HostedStation host(AbstractSelfCheckoutStation hardware, StationUI ui) {
+		if (closed)
+			throw new IllegalStateException("The runtime has been closed");
+		HostedStation station = new HostedStation(hosted.incrementAndGet());
+		station.software = new SelfCheckoutStationSoftware(hardware, station);
+		station.software.setUI(ui);
+		station.software.startEventPipeline(DeviceEventPipeline.DEFAULT_CAPACITY, station, station::isRunningTask).setErrorHandler(station::failed);
+		stations.add(station);
+		return station;
+	}
+
+	/**
+	 * Gets the stations hosted so far.
+	 * 
+	 * @return The stations, in the order they were hosted.
+	 */
+	public List<HostedStation> getStations() {
+		return stations;
+	}
+
+	/**
+	 * Counts the tasks completed by every station.
+	 * 
+	 * @return The number of tasks completed.
+	 */
+	public long getCompletedTasks() {
+		long total = 0;
+		for (HostedStation station : stations)
+			total += station.getCompletedTasks();
+		return total;
+	}
+
+	/**
+	 * Counts the tasks of every station that ended by throwing.
+	 * 
+	 * @return The number of tasks that failed.
+	 */
+	public long getFailedTasks() {
+		long total = 0;
+		for (HostedStation station : stations)
+			total += station.getFailedTasks();
+		return total;
+	}
+
+	/**
+	 * Gets the rate at which every station together has completed tasks since the runtime
+	 * was created.
+	 * 
+	 * @return The tasks completed per second.
+	 */
+	public double getThroughput() {
+		return perSecond(getCompletedTasks(), startedAt);
+	}
+
+	/**
+	 * Waits until no station has a task waiting or running, or a device event waiting to be delivered.
+	 * 
+	 * @param timeoutMillis
+	 * 				The longest to wait, in milliseconds.
+	 * @return true if every station became idle in time.
+	 * @throws InterruptedException
+	 * 				If the thread is interrupted while waiting.
+	 */
+	public boolean awaitIdle(long timeoutMillis) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+		for (HostedStation station : stations) {
+			DeviceEventPipeline pipeline = station.software.getEventPipeline();
+			while (station.getQueueDepth() > 0 || pipeline != null && pipeline.getQueueDepth() > 0) {
+				if (System.nanoTime() - deadline >= 0)
+					return false;
+				Thread.sleep(1);
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Stops the workers once the tasks already submitted have run, after the device events
+	 * already raised have been delivered. A task submitted afterwards still runs after the
+	 * tasks of its station already waiting; once none are, it runs on the thread that submits
+	 * it. Device events are then delivered on the device's thread.
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		for (HostedStation station : stations)
+			station.software.stopEventPipeline();
+		workers.shutdown();
+		try {
+			workers.awaitTermination(1, TimeUnit.MINUTES);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static double perSecond(long count, long since) {
+		long elapsed = System.nanoTime() - since;
+		return elapsed <= 0 ? 0 : count * 1e9 / elapsed;
+	}
+
+	/**
+	 * A station hosted by the runtime, together with its event loop. Running a task on the
+	 * station through {@link #execute(Runnable)} or {@link #submit(Runnable)} makes sure that
+	 * no other task of the station runs at the same time.
+	 */
+	public final class HostedStation implements Executor {
+		private final int number;
+		private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+		// The tasks waiting or running; the loop holds a worker while this is positive
+		private final AtomicInteger pending = new AtomicInteger();
+		private final AtomicLong completed = new AtomicLong();
+		private final AtomicLong failed = new AtomicLong();
+		private final long hostedAt = System.nanoTime();
+		private SelfCheckoutStationSoftware software;
+		// The thread running a task of the station, if one is
+		private volatile Thread runner;
+
+		private HostedStation(int number) {
+			this.number = number;
+		}
+
+		/**
+		 * Get the number of the station, counting from 1 in the order stations were hosted.
+		 * 
+		 * @return The number of the station.
+		 */
+		public int getNumber() {
+			return number;
+		}
+
+		/**
+		 * Get the software of the station. It should only be used from tasks run on the station.
+		 * 
+		 * @return The software of the station.
+		 */
+		public SelfCheckoutStationSoftware getSoftware() {
+			return software;
+		}
+
+		/**
+		 * Runs a task on the loop of the station, after the tasks already waiting.
+		 * 
+		 * @param task
+		 * 				The task.
+		 */
+		@Override
+		public void execute(Runnable task) {
+			if (task == null)
+				throw new IllegalArgumentException("The task cannot be null");
+			// Once the runtime is closed, schedule() drains the loop on this thread
+			tasks.add(task);
+			if (pending.getAndIncrement() == 0)
+				schedule();
+		}
+
+		/**
+		 * Runs a task on the loop of the station.
+		 * 
+		 * @param task
+		 * 				The task.
+		 * @return Completes once the task has run, exceptionally if it threw.
+		 */
+		public CompletableFuture<Void> submit(Runnable task) {
+			if (task == null)
+				throw new IllegalArgumentException("The task cannot be null");
+			CompletableFuture<Void> done = new CompletableFuture<>();
+			execute(() -> {
+				try {
+					task.run();
+					done.complete(null);
+				} catch (Throwable e) {
+					failed.incrementAndGet();
+					done.completeExceptionally(e);
+				}
+			});
+			return done;
+		}
+
+		private void schedule() {
+			try {
+				workers.execute(this::drain);
+			} catch (RejectedExecutionException e) {
+				// The runtime closed while tasks were waiting
+				drain(Integer.MAX_VALUE);
+			}
+		}
+
+		private void drain() {
+			drain(MAX_BATCH);
+		}
+
+		private void drain(int batch) {
+			int ran = 0;
+			while (true) {
+				// The task was added before pending was incremented for it
+				run(tasks.poll());
+				if (pending.decrementAndGet() == 0)
+					return;
+				if (++ran == batch) {
+					schedule();
+					return;
+				}
+			}
+		}
+
+		private void run(Runnable task) {
+			runner = Thread.currentThread();
+			try {
+				task.run();
+			} catch (Throwable e) {
+				// Even an error must not stop the loop, or every later task would wait forever
+				failed(e);
+			} finally {
+				runner = null;
+			}
+			completed.incrementAndGet();
+		}
+
+		/**
+		 * Determines whether the calling thread is running a task of the station.
+		 * 
+		 * @return true if it is.
+		 */
+		public boolean isRunningTask() {
+			return runner == Thread.currentThread();
+		}
+
+		/**
+		 * Counts a task or device event of the station that threw, and reports the exception
+		 * to the uncaught exception handler of the thread it was thrown on.
+		 */
+		private void failed(Throwable e) {
+			failed.incrementAndGet();
+			Thread thread = Thread.currentThread();
+			thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+		}
+
+		/**
+		 * Counts the tasks waiting or running on the station.
+		 * 
+		 * @return The depth of the station's queue.
+		 */
+		public int getQueueDepth() {
+			return pending.get();
+		}
+
+		/**
+		 * Counts the tasks the station has completed, including those that threw.
+		 * 
+		 * @return The number of tasks completed.
+		 */
+		public long getCompletedTasks() {
+			return completed.get();
+		}
+
+		/**
+		 * Counts the tasks of the station that ended by throwing, and the device events
+		 * whose listener threw.
+		 * 
+		 * @return The number of tasks that failed.
+		 */
+		public long getFailedTasks() {
+			return failed.get();
+		}
+
+		/**
+		 * Gets the rate at which the station has completed tasks since it was hosted.
+		 * 
+		 * @return The tasks completed per second.
+		 */
+		public double getThroughput() {
+			return perSecond(completed.get(), hostedAt);
+		}
+	}
+}
@@ -0,0 +1,118 @@
+/**
+
+ SENG 300 - ITERATION 3
+ GROUP GOLD {8}
+
+ Name                      UCID
+
+ Yotam Rojnov             30173949
+ Duncan McKay             30177857
+ Mahfuz Alam              30142265
+ Luis Trigueros Granillo  30167989
+ Lilia Skumatova          30187339
+ Abdelrahman Abbas        30110374
+ Talaal Irtija            30169780
+ Alejandro Cardona        30178941
+ Alexandre Duteau         30192082
+ Grace Johnson            30149693
+ Abil Momin               30154771
+ Tara Ghasemi M. Rad      30171212
+ Izabella Mawani          30179738
+ Binish Khalid            30061367
+ Fatima Khalid            30140757
+ Lucas Kasdorf            30173922
+ Emily Garcia-Volk        30140791
+ Yuinikoru Futamata       30173228
+ Joseph Tandyo            30182561
+ Syed Haider              30143096
+ Nami Marwah              30178528
+
+ */
+
+package com.thelocalmarketplace.software;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The state of a station: whether a session is in progress, and whether the station is
+ * blocked. Both are held in one atomic word, so every transition is atomic, and each one
+ * reports whether it really changed the state, so that callers only act on real edges.
+ */
+public final class StationState {
+
+	private static final int ACTIVE = 1;
+	private static final int BLOCKED = 2;
+
+	private final AtomicInteger bits = new AtomicInteger();
+
+	/**
+	 * Blocks the station.
+	 *
+	 * @return true if the station was not already blocked.
+	 */
+	public boolean block() {
+		return set(BLOCKED, true);
+	}
+
+	/**
+	 * Unblocks the station.
+	 *
+	 * @return true if the station was blocked.
+	 */
+	public boolean unblock() {
+		return set(BLOCKED, false);
+	}
+
+	/**
+	 * Starts a session.
+	 *
+	 * @return true if no session was already in progress.
+	 */
+	public boolean activate() {
+		return set(ACTIVE, true);
+	}
+
+	/**
+	 * Ends the session.
+	 *
+	 * @return true if a session was in progress.
+	 */
+	public boolean deactivate() {
+		return set(ACTIVE, false);
+	}
+
+	/**
+	 * Checks whether the station is blocked.
+	 *
+	 * @return true if the station is blocked.
+	 */
+	public boolean isBlocked() {
+		return (bits.get() & BLOCKED) != 0;
+	}
+
+	/**
+	 * Checks whether a session is in progress.
+	 *
+	 * @return true if a session is in progress.
+	 */
+	public boolean isActive() {
+		return (bits.get() & ACTIVE) != 0;
+	}
+
+	private boolean set(int flag, boolean on) {
+		while (true) {
+			int current = bits.get();
+			int next = on ? current | flag : current & ~flag;
+			if (next == current)
+				return false;
+			if (bits.compareAndSet(current, next))
+				return true;
+		}
+	}
+
+	@Override
+	public String toString() {
+		int current = bits.get();
+		return ((current & ACTIVE) != 0 ? "active" : "idle") + ((current & BLOCKED) != 0 ? ", blocked" : "");
+	}
+}
@@ -41,22 +41,29 @@ import com.jjjwelectronics.scale.ElectronicScaleGold;
 import com.jjjwelectronics.scale.ElectronicScaleSilver;
 import com.tdc.CashOverloadException;
 import com.thelocalmarketplace.hardware.AbstractSelfCheckoutStation;
+import com.thelocalmarketplace.hardware.BarcodedProduct;
+import com.thelocalmarketplace.hardware.PLUCodedProduct;
 import com.thelocalmarketplace.hardware.Product;
 import com.thelocalmarketplace.hardware.SelfCheckoutStationBronze;
 import com.thelocalmarketplace.hardware.SelfCheckoutStationGold;
 import com.thelocalmarketplace.hardware.SelfCheckoutStationSilver;
 import com.thelocalmarketplace.hardware.external.CardIssuer;
 import com.thelocalmarketplace.software.SelfCheckoutStationSoftware;
+import com.thelocalmarketplace.software.SessionJournal;
 import com.thelocalmarketplace.software.communication.GUI.CustomerStationSoftware.CustomerStation;
 import com.thelocalmarketplace.software.communication.GUI.CustomerStationSoftware.StartSession;
 import com.thelocalmarketplace.software.product.Products;
 import powerutility.PowerGrid;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.util.Calendar;
 import java.util.Currency;
+import java.util.List;
+import javax.swing.JList;
 import javax.swing.JOptionPane;
+import javax.swing.JScrollPane;
 import javax.swing.SwingUtilities;
 
 /**
@@ -64,6 +71,8 @@ import javax.swing.SwingUtilities;
  */
 public class AttendantListeners {
 	
+    // The most matches offered to the attendant for one search
+    private static final int MAX_SEARCH_RESULTS = 10;
 	
     private final AttendantPageGUI gui;
     private int selectedStation;
@@ -207,7 +216,7 @@ public class AttendantListeners {
     
     /**
      * ActionListener for the customer service button.
-     * Displays a search dialog and adds item by text search.
+     * Displays a search dialog and adds the product the attendant picks among the closest matches.
      */
     private class customerServiceButtonListener implements ActionListener {
     	
@@ -220,11 +229,30 @@ public class AttendantListeners {
             if (searchText != null && !searchText.isEmpty()) {
                 Products product = stationSoftwareInstances[selectedStation].getProductHandler();
                 
-                Product foundProduct = product.findProductByTextSearch(searchText);
-                if (foundProduct != null)
-                	product.addItemByTextSearch(searchText);
-                else 
+                List<Product> matches = product.searchProducts(searchText, MAX_SEARCH_RESULTS);
+                if (matches.isEmpty()) {
                 	JOptionPane.showMessageDialog(gui, "No product found.", "Search Result", JOptionPane.INFORMATION_MESSAGE);
+                	return;
+                }
+
+                // Let the attendant pick among the closest matches, best first
+                Product foundProduct = matches.get(0);
+                if (matches.size() > 1) {
+                	String[] descriptions = new String[matches.size()];
+                	for (int i = 0; i < descriptions.length; i++)
+                		descriptions[i] = matches.get(i) instanceof BarcodedProduct
+                				? ((BarcodedProduct) matches.get(i)).getDescription()
+                				: ((PLUCodedProduct) matches.get(i)).getDescription();
+                	// Two products may share a description, so the choice is taken by its row
+                	JList<String> choices = new JList<>(descriptions);
+                	choices.setSelectedIndex(0);
+                	int option = JOptionPane.showConfirmDialog(gui, new JScrollPane(choices), "Select a product:",
+                			JOptionPane.OK_CANCEL_OPTION, JOptionPane.QUESTION_MESSAGE);
+                	if (option != JOptionPane.OK_OPTION || choices.getSelectedIndex() < 0)
+                		return;
+                	foundProduct = matches.get(choices.getSelectedIndex());
+                }
+                product.addSearchedProduct(foundProduct);
             }
         }
     }
@@ -329,6 +357,16 @@ public class AttendantListeners {
 
         SwingUtilities.invokeLater(() -> {
             stationSoftwareInstances[selectedStation] = new SelfCheckoutStationSoftware(checkoutStation);
+            // Pick up a session interrupted by a power failure, if the station keeps a journal
+            try {
+                SessionJournal journal = SessionJournal.forStation(selectedStation + 1);
+                if (journal != null)
+                    journal.attach(stationSoftwareInstances[selectedStation]);
+            } catch (IOException | IllegalStateException ex) {
+                // The station still works, it just cannot be recovered after a power failure
+                JOptionPane.showMessageDialog(null, "The session journal of station " + (selectedStation + 1)
+                        + " could not be read, so its sessions will not survive a power failure: " + ex.getMessage());
+            }
             stationSoftwareInstances[selectedStation].setStationUnblock();
             stationSoftwareInstances[selectedStation].addPaymentCard(creditCard, "credit");
             stationSoftwareInstances[selectedStation].addPaymentCard(debitCard, "debit");
@@ -463,8 +501,8 @@ public class AttendantListeners {
                 }
                 
                 else {
-                    // If station is active, prompt user and disable after session completion
-                    new Thread(() -> gui.waitForSessionCompletion(selectedStation)).start();
+                    // If station is active, disable it once the session completes
+                    gui.waitForSessionCompletion(selectedStation);
                 }
             } else {
                 JOptionPane.showMessageDialog(null, "Please select a station first.");
@@ -241,23 +241,15 @@ public class AttendantPageGUI extends JFrame {
     }
 
     /**
-     * Waits for the session completion at a specified station and then disables the station.
+     * Disables the specified station as soon as its session completes. Returns at once;
+     * no thread waits for the session.
      * 
      * @param stationNumber 
      * 			The number of the station to monitor.
      */
     public void waitForSessionCompletion(int stationNumber) {
-        try {
-            while (stationSoftwareInstances[stationNumber].getStationActive()) {
-                Thread.sleep(5000); 
-            }
-            // Once the session is complete, disable the station
-            SwingUtilities.invokeLater(() -> {
-                stationSoftwareInstances[selectedStation].setStationBlock();   
-            }); 
-        } catch (InterruptedException ex) {
-            ex.printStackTrace();
-        }
+        SelfCheckoutStationSoftware station = stationSoftwareInstances[stationNumber];
+        station.sessionEnd().thenRun(() -> SwingUtilities.invokeLater(station::setStationBlock));
     }
     
     /**
@@ -34,7 +34,6 @@ package com.thelocalmarketplace.software.communication.GUI.CustomerStationSoftwa
 import java.awt.Component;
 import java.awt.Dimension;
 import java.awt.Font;
-import java.util.ArrayList;
 import javax.swing.Box;
 import javax.swing.BoxLayout;
 import javax.swing.JButton;
@@ -53,6 +52,7 @@ import com.thelocalmarketplace.hardware.PriceLookUpCode;
 import com.thelocalmarketplace.hardware.Product;
 import com.thelocalmarketplace.hardware.external.ProductDatabases;
 import com.thelocalmarketplace.software.SelfCheckoutStationSoftware;
+import com.thelocalmarketplace.software.order.Order;
 import com.thelocalmarketplace.software.communication.GUI.AttendantStation.AttendantPageGUI;
 import com.thelocalmarketplace.software.communication.GUI.CustomerStationHardware.BaggingArea;
 
@@ -185,9 +185,9 @@ public class AddtoBagging extends JFrame {
      */
     private void placeItemInBaggingArea(Product product) {
         if (product instanceof BarcodedProduct) {
-            ArrayList<Item> order = stationSoftwareInstance.getOrder();
+            Order order = stationSoftwareInstance.getCurrentOrder();
             if (order.size() > 0) {
-                BarcodedItem itemToAdd = (BarcodedItem) order.get(order.size() - 1);
+                BarcodedItem itemToAdd = (BarcodedItem) order.last();
                 IElectronicScale baggingAreaScale = stationSoftwareInstance.getStationHardware().getBaggingArea();
                 baggingAreaScale.addAnItem(itemToAdd);
                 Barcode barcode = itemToAdd.getBarcode();
@@ -195,9 +195,9 @@ public class AddtoBagging extends JFrame {
                 baggingArea.addProduct(barcodedProduct.getDescription());
             }
         } else {
-            ArrayList<Item> order = stationSoftwareInstance.getOrder();
+            Order order = stationSoftwareInstance.getCurrentOrder();
             if (order.size() > 0) {
-                PLUCodedItem itemToAdd = (PLUCodedItem) order.get(order.size() - 1);
+                PLUCodedItem itemToAdd = (PLUCodedItem) order.last();
                 IElectronicScale baggingAreaScale = stationSoftwareInstance.getStationHardware().getBaggingArea();
                 baggingAreaScale.addAnItem(itemToAdd);
                 PriceLookUpCode pluCode = itemToAdd.getPLUCode();
@@ -211,13 +211,10 @@ public class AddtoBagging extends JFrame {
      * Handles the scenario when the item is not added to the bagging area.
      */
     private void dontBagItem() {
-    	ArrayList<Item> orderList = stationSoftwareInstance.getOrder();
-    	if (!orderList.isEmpty()) {
-    		int lastIndex = orderList.size() - 1;
-
-            // Extract the last item from the list
-            Item lastItem = orderList.get(lastIndex);
-            double massInGramsDouble = lastItem.getMass().inGrams().doubleValue();
+    	Order order = stationSoftwareInstance.getCurrentOrder();
+    	if (!order.isEmpty()) {
+            Item lastItem = order.last();
+            double massInGramsDouble = lastItem.getMass().inGramsAsDouble();
             
             stationSoftwareInstance.getProductHandler().handleBulkyItemRequest(massInGramsDouble, this.attendantGUI);
     	} else {
@@ -48,6 +48,7 @@ import com.thelocalmarketplace.software.communication.GUI.AttendantStation.Atten
 import com.thelocalmarketplace.software.SelfCheckoutStationSoftware;
 import com.thelocalmarketplace.software.communication.GUI.CustomerStationHardware.BaggingArea;
 import com.thelocalmarketplace.software.product.PersonalBag;
+import com.thelocalmarketplace.software.product.ProductLookup;
 import java.awt.event.WindowEvent;
 import com.jjjwelectronics.bag.ReusableBag;
 import java.awt.*;
@@ -55,6 +56,7 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -297,26 +299,25 @@ public class CustomerStation extends JFrame {
      */
     private void handleScanBarcode() {
         
-        ArrayList<Barcode> barcodes = ProductsDatabase.getBarcodes();        
-        Random random = new Random();       
-        int randomIndex = random.nextInt(barcodes.size());
-        Barcode barcode = barcodes.get(randomIndex);
+        Barcode barcode = ProductsDatabase.randomBarcode(new Random());
+        if (barcode == null)
+            return;
         
         // Get the weight of that product
-        double productWeight = ProductDatabases.BARCODED_PRODUCT_DATABASE.get(barcode).getExpectedWeight();
+        double productWeight = ProductLookup.findBarcodedProduct(barcode).getExpectedWeight();
         Mass mass = new Mass(productWeight);
         BarcodedItem barcodedItem = new BarcodedItem(barcode, mass); 
         
-        int initialOrderSize = stationSoftwareInstance.getOrder().size();
+        int initialOrderSize = stationSoftwareInstance.getCurrentOrder().size();
         
         IBarcodeScanner scanner = stationSoftwareInstance.getStationHardware().getMainScanner();
         scanner.scan(barcodedItem);
         
-        int newOrderSize = stationSoftwareInstance.getOrder().size();
+        int newOrderSize = stationSoftwareInstance.getCurrentOrder().size();
         
         // Check if the scan didn't fail
         if (newOrderSize > initialOrderSize) {
-            BarcodedProduct product = ProductDatabases.BARCODED_PRODUCT_DATABASE.get(barcode);
+            BarcodedProduct product = ProductLookup.findBarcodedProduct(barcode);
             
             addToBagPopUp = new AddtoBagging(product, stationSoftwareInstance, attendantGUI, baggingArea);
         }
@@ -426,7 +427,7 @@ public class CustomerStation extends JFrame {
     public void handleRemoveItem() {
         if (selectedCartItemButton != null) {
         	boolean itemRemoved = false;
-            ArrayList<Item> listOfOrders = stationSoftwareInstance.getOrder();
+            List<Item> listOfOrders = stationSoftwareInstance.getOrder();
             
             for (Item item : listOfOrders) {
                 if (item instanceof PLUCodedItem) {
@@ -453,7 +454,6 @@ public class CustomerStation extends JFrame {
 
                     Barcode barcode = barcodeItem.getBarcode();
                     BarcodedProduct product = ProductDatabases.BARCODED_PRODUCT_DATABASE.get(barcode);
-                    barcodeItem.getMass().inGrams().longValue();
 
                     // create regex to match the product description
                     String productGettingRemoved = extractProductName(selectedCartItemButton.getText());
@@ -0,0 +1,115 @@
+/**
+
+ SENG 300 - ITERATION 3
+ GROUP GOLD {8}
+
+ Name                      UCID
+
+ Yotam Rojnov             30173949
+ Duncan McKay             30177857
+ Mahfuz Alam              30142265
+ Luis Trigueros Granillo  30167989
+ Lilia Skumatova          30187339
+ Abdelrahman Abbas        30110374
+ Talaal Irtija            30169780
+ Alejandro Cardona        30178941
+ Alexandre Duteau         30192082
+ Grace Johnson            30149693
+ Abil Momin               30154771
+ Tara Ghasemi M. Rad      30171212
+ Izabella Mawani          30179738
+ Binish Khalid            30061367
+ Fatima Khalid            30140757
+ Lucas Kasdorf            30173922
+ Emily Garcia-Volk        30140791
+ Yuinikoru Futamata       30173228
+ Joseph Tandyo            30182561
+ Syed Haider              30143096
+ Nami Marwah              30178528
+
+ */
+
+package com.thelocalmarketplace.software.communication.GUI.CustomerStationSoftware;
+
+import java.math.BigDecimal;
+
+import com.thelocalmarketplace.hardware.Product;
+import com.thelocalmarketplace.software.SelfCheckoutStationSoftware;
+import com.thelocalmarketplace.software.communication.StationUI;
+
+/**
+ * Shows what the software of a station tells its users on the customer's Swing screen,
+ * and tells the attendant through the attendant's page.
+ */
+public class CustomerStationUI implements StationUI {
+
+	private final CustomerStation gui;
+
+	/**
+	 * Creates the port for a customer screen.
+	 * 
+	 * @param gui
+	 * 				The screen of the station.
+	 */
+	public CustomerStationUI(CustomerStation gui) {
+		if (gui == null)
+			throw new IllegalArgumentException("The GUI cannot be null");
+		this.gui = gui;
+	}
+
+	/**
+	 * Get the screen this port shows on.
+	 * 
+	 * @return The customer's screen.
+	 */
+	public CustomerStation getGUI() {
+		return gui;
+	}
+
+	@Override
+	public void notifyCustomer(String message) {
+		gui.customerPopUp(message);
+	}
+
+	@Override
+	public void placeInBaggingArea(Product product) {
+		gui.customerBaggingAreaPopUp(product);
+	}
+
+	@Override
+	public void itemAdded(String description, long price) {
+		gui.addProductToCart(description, price);
+	}
+
+	@Override
+	public void totalOwedChanged() {
+		gui.updateTotalOwedDisplay();
+	}
+
+	@Override
+	public void amountPaidChanged(double addedFunds) {
+		gui.updatePaidDisplay(addedFunds);
+	}
+
+	@Override
+	public void statusChanged() {
+		gui.updateStatusDisplay();
+	}
+
+	@Override
+	public void paymentCompleted(double changeReturned) {
+		gui.setPaymentSuccesful(changeReturned);
+		gui.getPaymentWindow().closePanel();
+	}
+
+	@Override
+	public void changeUnavailable(BigDecimal changeDue) {
+		gui.handleRequestAssistance();
+		gui.displayAmountDuePopup(changeDue);
+	}
+
+	@Override
+	public void weightDiscrepancyDetected(SelfCheckoutStationSoftware station) {
+		gui.getAttendantGUI().weightDiscpreancydNotify(station);
+	}
+}
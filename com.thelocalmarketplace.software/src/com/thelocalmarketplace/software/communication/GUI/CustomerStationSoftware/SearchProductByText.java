@@ -35,17 +35,21 @@ import javax.swing.*;
 import javax.swing.event.DocumentEvent;
 import javax.swing.event.DocumentListener;
 import com.jjjwelectronics.Mass;
+import com.thelocalmarketplace.hardware.BarcodedProduct;
 import com.thelocalmarketplace.hardware.PLUCodedItem;
 import com.thelocalmarketplace.hardware.PLUCodedProduct;
 import com.thelocalmarketplace.software.SelfCheckoutStationSoftware;
+import com.thelocalmarketplace.software.product.FuzzyProductSearch;
+import com.thelocalmarketplace.software.product.ProductPrefixIndex;
 import com.thelocalmarketplace.software.communication.GUI.AttendantStation.AttendantPageGUI;
 import com.thelocalmarketplace.software.communication.GUI.CustomerStationHardware.BaggingArea;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.net.URL;
-import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 
 /**
@@ -53,6 +57,10 @@ import java.util.List;
 */
 @SuppressWarnings("serial")
 public class SearchProductByText extends JFrame {
+    // The most suggestions shown at once, however many products match
+    private static final int MAX_SUGGESTIONS = 25;
+    private static final int THUMBNAIL_SIZE = 50;
+
     private JTextField searchField;
     private JTextField filterField;
     public JButton submitButton;
@@ -60,6 +68,8 @@ public class SearchProductByText extends JFrame {
     public JList<Product> searchResults;
     private DefaultListModel<Product> listModel;
     private CustomKeyboard keyboard;
+    private ProductPrefixIndex.TypeAhead typeAhead;
+    private Map<com.thelocalmarketplace.hardware.Product, Product> shownProducts = new HashMap<>();
     BaggingArea baggingArea;
 
     /**
@@ -95,6 +105,7 @@ public class SearchProductByText extends JFrame {
         // Create custom keyboard
         keyboard = new CustomKeyboard(searchField);
 
+        typeAhead = ProductPrefixIndex.typeAhead(MAX_SUGGESTIONS);
         listModel = new DefaultListModel<>();
         searchResults = new JList<>(listModel);
         searchResults.setCellRenderer(new ProductListCellRenderer());
@@ -126,13 +137,15 @@ public class SearchProductByText extends JFrame {
             Product selectedProduct = searchResults.getSelectedValue();
             if (selectedProduct != null) {
                 String productName = selectedProduct.getName();
-                
-                com.thelocalmarketplace.hardware.Product product = software.getProductHandler().findProductByTextSearch(productName);
-                PLUCodedItem pluItem = new PLUCodedItem(((PLUCodedProduct) product).getPLUCode(), new Mass(1.0));
-
-                software.getProductHandler().addItemByPLUCode(pluItem);
-                
-                new AddtoBagging(product, software, attendantGUI, new BaggingArea());
+                com.thelocalmarketplace.hardware.Product product = selectedProduct.getCatalogProduct();
+
+                if (product instanceof PLUCodedProduct) {
+                    PLUCodedItem pluItem = new PLUCodedItem(((PLUCodedProduct) product).getPLUCode(), new Mass(1.0));
+                    software.getProductHandler().addItemByPLUCode(pluItem);
+                    new AddtoBagging(product, software, attendantGUI, new BaggingArea());
+                } else {
+                    software.getProductHandler().addSearchedProduct(product);
+                }
                 baggingArea.addProduct(productName);
 
             } else {
@@ -146,17 +159,33 @@ public class SearchProductByText extends JFrame {
         	dispose();
         });
 
-        // Sample products
-        List<Product> products = new ArrayList<>();
-        products.add(new Product("Apple", "apple.png"));
-        products.add(new Product("Banana", "banana.png"));
-        products.add(new Product("Carrot", "carrots.png"));
-        products.add(new Product("Asparagus", "asparagus.png"));
+        showSuggestions("");
+        setVisible(false);
+    }
 
-        for (Product product : products) {
-            listModel.addElement(product);
+    /**
+     * Replaces the contents of the result list with the best suggestions for the text typed so far.
+     * The list model is reused rather than replaced, and products already shown keep their entry.
+     * When too few descriptions start with the text, the list is topped up with the closest
+     * typo-tolerant matches.
+     *
+     * @param text
+     * 				The text typed in the search field.
+     */
+    private void showSuggestions(String text) {
+        List<com.thelocalmarketplace.hardware.Product> suggestions = typeAhead.update(text);
+        if (suggestions.size() < MAX_SUGGESTIONS && !text.isBlank()) {
+            for (com.thelocalmarketplace.hardware.Product match : FuzzyProductSearch.current().search(text, MAX_SUGGESTIONS)) {
+                if (suggestions.size() == MAX_SUGGESTIONS)
+                    break;
+                if (!suggestions.contains(match))
+                    suggestions.add(match);
+            }
+        }
+        listModel.removeAllElements();
+        for (com.thelocalmarketplace.hardware.Product suggestion : suggestions) {
+            listModel.addElement(shownProducts.computeIfAbsent(suggestion, Product::new));
         }
-        setVisible(false);
     }
 
     /**
@@ -176,15 +205,7 @@ public class SearchProductByText extends JFrame {
         }
 
         private void updateFilter() {
-            String filterText = searchField.getText().toLowerCase();
-            DefaultListModel<Product> filteredModel = new DefaultListModel<>();
-            for (int i = 0; i < listModel.getSize(); i++) {
-                Product product = listModel.getElementAt(i);
-                if (product.getName().toLowerCase().startsWith(filterText)) {
-                    filteredModel.addElement(product);
-                }
-            }
-            searchResults.setModel(filteredModel);
+            showSuggestions(searchField.getText());
         }
     }
 
@@ -250,23 +271,42 @@ public class SearchProductByText extends JFrame {
     }
 
     /**
-     * Represents a product with a name and an image.
+     * Represents a catalog product with a name and an image.
      */
     class Product {
+        private com.thelocalmarketplace.hardware.Product catalogProduct;
         private String name;
-        private ImageIcon image;
+        private URL image;
+
+        public Product(com.thelocalmarketplace.hardware.Product catalogProduct) {
+            this.catalogProduct = catalogProduct;
+            this.name = catalogProduct instanceof PLUCodedProduct
+            		? ((PLUCodedProduct) catalogProduct).getDescription()
+            		: ((BarcodedProduct) catalogProduct).getDescription();
+            String imageName = imageNameFor(name);
+            if (imageName != null) {
+                this.image = SearchProductByText.class.getResource("../../images/" + imageName);
+                if (image == null)
+                    System.err.println("Couldn't find file: ../../images/" + imageName);
+            }
+        }
 
-        public Product(String name, String imageName) {
-            this.name = name;
-            this.image = resizeImage("../../images/" + imageName, 50, 50); // Adjust size as needed
+        public com.thelocalmarketplace.hardware.Product getCatalogProduct() {
+            return catalogProduct;
         }
 
         public String getName() {
             return name;
         }
 
+        /**
+         * Gets the thumbnail of the product from the shared cache. While it is being decoded,
+         * a placeholder is returned and the result list is repainted once it is ready.
+         * 
+         * @return The thumbnail or its placeholder, or null if the product has no image.
+         */
         public ImageIcon getImage() {
-            return image;
+            return ThumbnailCache.shared().get(image, THUMBNAIL_SIZE, THUMBNAIL_SIZE, searchResults::repaint);
         }
 
         @Override
@@ -296,29 +336,25 @@ public class SearchProductByText extends JFrame {
     }
 
     /**
-     * Resizes an image located at the specified path to the given width and height.
-     * 
-     * @param path   
-     * 				The path to the image file.
-     * 
-     * @param width  
-     * 				The desired width of the resized image.
+     * Gets the name of the image bundled for a product, if there is one.
      * 
-     * @param height 
-     * 				The desired height of the resized image.
+     * @param productName
+     * 				The description of the product.
      * 
-     * @return An ImageIcon object representing the resized image, or null if the image file is not found.
+     * @return The file name of the image, or null if the product has no image.
      */
-    private ImageIcon resizeImage(String path, int width, int height) {
-        URL imgURL = getClass().getResource(path);
-        if (imgURL != null) {
-            ImageIcon originalIcon = new ImageIcon(imgURL);
-            Image img = originalIcon.getImage();
-            Image resizedImg = img.getScaledInstance(width, height, Image.SCALE_SMOOTH);
-            return new ImageIcon(resizedImg);
-        } else {
-            System.err.println("Couldn't find file: " + path);
-            return null;
+    private static String imageNameFor(String productName) {
+        switch (productName.toLowerCase()) {
+            case "apple":
+                return "apple.png";
+            case "banana":
+                return "banana.png";
+            case "carrot":
+                return "carrots.png";
+            case "asparagus":
+                return "asparagus.png";
+            default:
+                return null;
         }
     }
 }
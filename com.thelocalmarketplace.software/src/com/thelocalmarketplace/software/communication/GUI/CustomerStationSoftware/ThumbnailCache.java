@@ -0,0 +1,221 @@
+/**
+
+ SENG 300 - ITERATION 3
+ GROUP GOLD {8}
+
+ Name                      UCID
+
+ Yotam Rojnov             30173949
+ Duncan McKay             30177857
+ Mahfuz Alam              30142265
+ Luis Trigueros Granillo  30167989
+ Lilia Skumatova          30187339
+ Abdelrahman Abbas        30110374
+ Talaal Irtija            30169780
+ Alejandro Cardona        30178941
+ Alexandre Duteau         30192082
+ Grace Johnson            30149693
+ Abil Momin               30154771
+ Tara Ghasemi M. Rad      30171212
+ Izabella Mawani          30179738
+ Binish Khalid            30061367
+ Fatima Khalid            30140757
+ Lucas Kasdorf            30173922
+ Emily Garcia-Volk        30140791
+ Yuinikoru Futamata       30173228
+ Joseph Tandyo            30182561
+ Syed Haider              30143096
+ Nami Marwah              30178528
+
+ */
+
+package com.thelocalmarketplace.software.communication.GUI.CustomerStationSoftware;
+
+import javax.imageio.ImageIO;
+import javax.swing.ImageIcon;
+import javax.swing.SwingUtilities;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * A size-bounded, least-recently-used cache of product thumbnails, shared by every station.
+ * Images are decoded and scaled on background threads; until a thumbnail is ready, a plain
+ * placeholder of the same size is returned, and the caller is told once it can repaint.
+ */
+public class ThumbnailCache {
+    // Enough for every product image shown at once on every station
+    public static final int DEFAULT_CAPACITY = 512;
+
+    private static final ThumbnailCache SHARED = new ThumbnailCache(DEFAULT_CAPACITY);
+    private static final Color PLACEHOLDER_COLOR = new Color(0xE0E0E0);
+    // Marks an image that could not be found or decoded, so it is not tried again
+    private static final ImageIcon MISSING = new ImageIcon();
+
+    private final int capacity;
+    private final LinkedHashMap<String, ImageIcon> thumbnails;
+    // Callbacks waiting on each thumbnail being decoded, so each image is decoded once
+    private final Map<String, List<Runnable>> pending = new HashMap<>();
+    private final Map<String, ImageIcon> placeholders = new HashMap<>();
+    private final ExecutorService decoder;
+
+    /**
+     * Gets the cache shared by every station.
+     * 
+     * @return The shared cache.
+     */
+    public static ThumbnailCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * Creates a cache.
+     * 
+     * @param capacity
+     * 				The most thumbnails kept at once.
+     */
+    public ThumbnailCache(int capacity) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("The capacity must be positive");
+        this.capacity = capacity;
+        this.thumbnails = new LinkedHashMap<String, ImageIcon>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ImageIcon> eldest) {
+                return size() > ThumbnailCache.this.capacity;
+            }
+        };
+        AtomicInteger threads = new AtomicInteger();
+        this.decoder = Executors.newFixedThreadPool(2, task -> {
+            Thread thread = new Thread(task, "thumbnail-decoder-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Gets the thumbnail of an image, starting to decode it in the background if it is not cached.
+     * 
+     * @param image
+     * 				The location of the image. Null if the product has no image.
+     * 
+     * @param width
+     * 				The width of the thumbnail.
+     * 
+     * @param height
+     * 				The height of the thumbnail.
+     * 
+     * @param onLoaded
+     * 				Run on the event dispatch thread once the thumbnail is ready, if it was not already.
+     * 
+     * @return The thumbnail, a placeholder while it loads, or null if the image cannot be loaded.
+     */
+    public ImageIcon get(URL image, int width, int height, Runnable onLoaded) {
+        if (image == null)
+            return null;
+        String key = keyOf(image, width, height);
+        synchronized (this) {
+            ImageIcon thumbnail = thumbnails.get(key);
+            if (thumbnail != null)
+                return thumbnail == MISSING ? null : thumbnail;
+
+            List<Runnable> callbacks = pending.get(key);
+            if (callbacks == null) {
+                callbacks = new ArrayList<>();
+                pending.put(key, callbacks);
+                decoder.execute(() -> decode(key, image, width, height));
+            }
+            if (onLoaded != null)
+                callbacks.add(onLoaded);
+            return placeholderOf(width, height);
+        }
+    }
+
+    /**
+     * Gets the number of thumbnails currently cached.
+     * 
+     * @return The number of cached thumbnails.
+     */
+    public synchronized int size() {
+        return thumbnails.size();
+    }
+
+    /**
+     * Gets the placeholder shown while a thumbnail of the given size loads.
+     * 
+     * @param width
+     * 				The width of the placeholder.
+     * 
+     * @param height
+     * 				The height of the placeholder.
+     * 
+     * @return A plain icon of that size.
+     */
+    public synchronized ImageIcon placeholderOf(int width, int height) {
+        return placeholders.computeIfAbsent(width + "x" + height, size -> {
+            BufferedImage blank = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D graphics = blank.createGraphics();
+            graphics.setColor(PLACEHOLDER_COLOR);
+            graphics.fillRect(0, 0, width, height);
+            graphics.dispose();
+            return new ImageIcon(blank);
+        });
+    }
+
+    /**
+     * Decodes and scales an image, caches the result and tells everyone waiting on it.
+     */
+    private void decode(String key, URL image, int width, int height) {
+        ImageIcon thumbnail;
+        try {
+            BufferedImage original = ImageIO.read(image);
+            thumbnail = original == null ? MISSING : new ImageIcon(scale(original, width, height));
+        } catch (IOException e) {
+            thumbnail = MISSING;
+        }
+        if (thumbnail == MISSING)
+            System.err.println("Couldn't load image: " + image);
+
+        List<Runnable> callbacks;
+        synchronized (this) {
+            thumbnails.put(key, thumbnail);
+            callbacks = pending.remove(key);
+        }
+        if (callbacks != null && !callbacks.isEmpty()) {
+            SwingUtilities.invokeLater(() -> {
+                for (Runnable callback : callbacks)
+                    callback.run();
+            });
+        }
+    }
+
+    /**
+     * Scales an image into a new, fully decoded image of the given size.
+     */
+    private static BufferedImage scale(BufferedImage original, int width, int height) {
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = scaled.createGraphics();
+        graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        graphics.drawImage(original, 0, 0, width, height, null);
+        graphics.dispose();
+        return scaled;
+    }
+
+    private static String keyOf(URL image, int width, int height) {
+        return image.toExternalForm() + "@" + width + "x" + height;
+    }
+}
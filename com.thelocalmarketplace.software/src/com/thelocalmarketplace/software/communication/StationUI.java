@@ -0,0 +1,115 @@
+/**
+
+ SENG 300 - ITERATION 3
+ GROUP GOLD {8}
+
+ Name                      UCID
+
+ Yotam Rojnov             30173949
+ Duncan McKay             30177857
+ Mahfuz Alam              30142265
+ Luis Trigueros Granillo  30167989
+ Lilia Skumatova          30187339
+ Abdelrahman Abbas        30110374
+ Talaal Irtija            30169780
+ Alejandro Cardona        30178941
+ Alexandre Duteau         30192082
+ Grace Johnson            30149693
+ Abil Momin               30154771
+ Tara Ghasemi M. Rad      30171212
+ Izabella Mawani          30179738
+ Binish Khalid            30061367
+ Fatima Khalid            30140757
+ Lucas Kasdorf            30173922
+ Emily Garcia-Volk        30140791
+ Yuinikoru Futamata       30173228
+ Joseph Tandyo            30182561
+ Syed Haider              30143096
+ Nami Marwah              30178528
+
+ */
+
+package com.thelocalmarketplace.software.communication;
+
+import java.math.BigDecimal;
+
+import com.thelocalmarketplace.hardware.Product;
+import com.thelocalmarketplace.software.SelfCheckoutStationSoftware;
+
+/**
+ * What the software of a station tells the people using it. The Swing screens are one
+ * implementation; a station run without a screen, e.g. in a load test, plugs in its own.
+ * Calls are made through the station's {@link UIEventBridge}, never from a hardware callback
+ * directly, so implementations may take their time.
+ */
+public interface StationUI {
+
+	/**
+	 * Shows the customer a message.
+	 * 
+	 * @param message
+	 * 				The message.
+	 */
+	void notifyCustomer(String message);
+
+	/**
+	 * Asks the customer to place a product in the bagging area.
+	 * 
+	 * @param product
+	 * 				The product just added to the order.
+	 */
+	void placeInBaggingArea(Product product);
+
+	/**
+	 * Adds a line to the customer's cart.
+	 * 
+	 * @param description
+	 * 				The description of the product.
+	 * @param price
+	 * 				The price of the line.
+	 */
+	void itemAdded(String description, long price);
+
+	/**
+	 * Redraws the amount owed from the current order.
+	 */
+	void totalOwedChanged();
+
+	/**
+	 * Adds funds to the amount paid shown to the customer.
+	 * 
+	 * @param addedFunds
+	 * 				The funds added, negative if funds were removed.
+	 */
+	void amountPaidChanged(double addedFunds);
+
+	/**
+	 * Redraws the status of the station.
+	 */
+	void statusChanged();
+
+	/**
+	 * Tells the customer the order has been paid.
+	 * 
+	 * @param changeReturned
+	 * 				The change given back.
+	 */
+	void paymentCompleted(double changeReturned);
+
+	/**
+	 * Calls for an attendant because the station could not give the change it owes.
+	 * 
+	 * @param changeDue
+	 * 				The change still owed to the customer.
+	 */
+	void changeUnavailable(BigDecimal changeDue);
+
+	/**
+	 * Tells the attendant about a weight discrepancy. The station stays blocked until the
+	 * attendant approves it, e.g. by calling {@link SelfCheckoutStationSoftware#setStationUnblock()}.
+	 * 
+	 * @param station
+	 * 				The station with the discrepancy.
+	 */
+	void weightDiscrepancyDetected(SelfCheckoutStationSoftware station);
+}
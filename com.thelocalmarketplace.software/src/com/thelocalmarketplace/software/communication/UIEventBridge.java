@@ -0,0 +1,299 @@
+/**
+
+ SENG 300 - ITERATION 3
+ GROUP GOLD {8}
+
+ Name                      UCID
+
+ Yotam Rojnov             30173949
+ Duncan McKay             30177857
+ Mahfuz Alam              30142265
+ Luis Trigueros Granillo  30167989
+ Lilia Skumatova          30187339
+ Abdelrahman Abbas        30110374
+ Talaal Irtija            30169780
+ Alejandro Cardona        30178941
+ Alexandre Duteau         30192082
+ Grace Johnson            30149693
+ Abil Momin               30154771
+ Tara Ghasemi M. Rad      30171212
+ Izabella Mawani          30179738
+ Binish Khalid            30061367
+ Fatima Khalid            30140757
+ Lucas Kasdorf            30173922
+ Emily Garcia-Volk        30140791
+ Yuinikoru Futamata       30173228
+ Joseph Tandyo            30182561
+ Syed Haider              30143096
+ Nami Marwah              30178528
+
+ */
+
+package com.thelocalmarketplace.software.communication;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import javax.swing.SwingUtilities;
+
+/**
+ * Carries updates from hardware callbacks to the Swing user interface. Hardware threads post
+ * immutable events and return at once; the events are run later, in order, on the event
+ * dispatch thread, so a device never waits for the screen or for a dialog to be dismissed.
+ *
+ * <p>An event is not started before the one posted ahead of it has returned, even if that one
+ * opens a modal dialog, which runs the event dispatch thread's loop until it is dismissed. Events
+ * posted meanwhile wait for the dialog, so a later event can rely on an earlier dialog having
+ * been answered.</p>
+ *
+ * <p>An event may name a key. While an event with that key is still waiting, a later one with
+ * the same key is merged into it instead of being queued, so ten coins inserted between two
+ * passes of the event dispatch thread refresh the amount paid once.</p>
+ *
+ * <p>The queue is bounded for refreshes only. A refresh with a key already waiting never grows
+ * it, and a refresh that finds it full is dropped and counted rather than making the hardware
+ * thread wait, since a later refresh redraws from the state anyway. Every other event changes
+ * what the customer or attendant sees for good, such as a pop-up or a completed payment, so it
+ * is always queued, even past the capacity.</p>
+ */
+public class UIEventBridge {
+
+	/**
+	 * The most events that may wait at once before refreshes are dropped, unless another
+	 * capacity is given.
+	 */
+	public static final int DEFAULT_CAPACITY = 256;
+
+	/**
+	 * An update to the user interface. Implementations must be immutable, since they are
+	 * created on one thread and run on another.
+	 */
+	public interface UIEvent {
+		/**
+		 * Applies the update. Called on the event dispatch thread.
+		 */
+		void run();
+
+		/**
+		 * Gets the key under which waiting events are merged.
+		 *
+		 * @return The key, or null if the event is never merged.
+		 */
+		default Object coalesceKey() {
+			return null;
+		}
+
+		/**
+		 * Merges a later event with the same key into this one.
+		 *
+		 * @param later
+		 * 				The later event.
+		 * @return The event to run in place of both. By default the later event, which suits
+		 * 				updates that redraw from the current state.
+		 */
+		default UIEvent coalesce(UIEvent later) {
+			return later;
+		}
+	}
+
+	private final int capacity;
+	private final Executor dispatcher;
+	private final Object lock = new Object();
+	private final ArrayDeque<Waiting> pending = new ArrayDeque<>();
+	// The waiting event with each key
+	private final Map<Object, Waiting> waitingByKey = new HashMap<>();
+	// Set from when a drain is scheduled until it finds nothing left to run
+	private boolean drainScheduled;
+	// Set while a drain is running events, so one started inside an event does nothing
+	private boolean draining;
+	private long coalesced;
+	private long dropped;
+
+	/**
+	 * Creates a bridge to the event dispatch thread with the default capacity.
+	 */
+	public UIEventBridge() {
+		this(DEFAULT_CAPACITY, SwingUtilities::invokeLater);
+	}
+
+	/**
+	 * Creates a bridge.
+	 *
+	 * @param capacity
+	 * 				The most events that may wait at once before refreshes are dropped.
+	 * @param dispatcher
+	 * 				Runs the task draining the waiting events, normally on the event dispatch thread.
+	 */
+	public UIEventBridge(int capacity, Executor dispatcher) {
+		if (capacity <= 0)
+			throw new IllegalArgumentException("The capacity must be positive");
+		if (dispatcher == null)
+			throw new IllegalArgumentException("The dispatcher cannot be null");
+		this.capacity = capacity;
+		this.dispatcher = dispatcher;
+	}
+
+	/**
+	 * Creates an event that is never merged.
+	 *
+	 * @param update
+	 * 				The update to apply.
+	 * @return The event.
+	 */
+	public static UIEvent event(Runnable update) {
+		return update::run;
+	}
+
+	/**
+	 * Creates an event that redraws part of the interface from the current state, so that
+	 * waiting events with the same key only need to run once.
+	 *
+	 * @param key
+	 * 				The part of the interface being redrawn.
+	 * @param update
+	 * 				The update to apply.
+	 * @return The event.
+	 */
+	public static UIEvent refresh(Object key, Runnable update) {
+		if (key == null)
+			throw new IllegalArgumentException("The key cannot be null");
+		return new Refresh(key, update);
+	}
+
+	/**
+	 * An event created by refresh, which may be dropped when the queue is full.
+	 */
+	private static final class Refresh implements UIEvent {
+		private final Object key;
+		private final Runnable update;
+
+		Refresh(Object key, Runnable update) {
+			this.key = key;
+			this.update = update;
+		}
+
+		@Override
+		public void run() {
+			update.run();
+		}
+
+		@Override
+		public Object coalesceKey() {
+			return key;
+		}
+	}
+
+	/**
+	 * An event in the queue. A later event with the same key is merged into it in place.
+	 */
+	private static final class Waiting {
+		private final Object key;
+		private UIEvent event;
+
+		Waiting(Object key, UIEvent event) {
+			this.key = key;
+			this.event = event;
+		}
+	}
+
+	/**
+	 * Posts an event without waiting for it to run.
+	 *
+	 * @param event
+	 * 				The event.
+	 * @return true if the event was queued or merged, false if it was a refresh and the queue was full.
+	 */
+	public boolean post(UIEvent event) {
+		if (event == null)
+			throw new IllegalArgumentException("The event cannot be null");
+		synchronized (lock) {
+			Object key = event.coalesceKey();
+			if (key != null) {
+				Waiting waiting = waitingByKey.get(key);
+				if (waiting != null) {
+					waiting.event = waiting.event.coalesce(event);
+					coalesced++;
+					return true;
+				}
+			}
+			if (pending.size() >= capacity && event instanceof Refresh) {
+				dropped++;
+				return false;
+			}
+			Waiting waiting = new Waiting(key, event);
+			if (key != null)
+				waitingByKey.put(key, waiting);
+			pending.add(waiting);
+			if (drainScheduled)
+				return true;
+			drainScheduled = true;
+		}
+		dispatcher.execute(this::drain);
+		return true;
+	}
+
+	/**
+	 * Runs the waiting events one at a time, in the order they were posted, until none are
+	 * left. Each is taken from the queue only once the one before it has returned, so events
+	 * posted meanwhile keep their place. An event that throws does not stop the ones after it.
+	 */
+	private void drain() {
+		synchronized (lock) {
+			if (draining)
+				return;
+			draining = true;
+		}
+		try {
+			while (true) {
+				UIEvent event;
+				synchronized (lock) {
+					Waiting next = pending.poll();
+					if (next == null) {
+						drainScheduled = false;
+						return;
+					}
+					if (next.key != null)
+						waitingByKey.remove(next.key);
+					event = next.event;
+				}
+				try {
+					event.run();
+				} catch (RuntimeException e) {
+					e.printStackTrace();
+				}
+			}
+		} finally {
+			boolean rescheduled;
+			synchronized (lock) {
+				draining = false;
+				// Still set if an error escaped an event; the events after it still have to run
+				rescheduled = drainScheduled;
+			}
+			if (rescheduled)
+				dispatcher.execute(this::drain);
+		}
+	}
+
+	/**
+	 * Counts the events merged into one that was already waiting.
+	 *
+	 * @return The number of merged events.
+	 */
+	public long getCoalescedCount() {
+		synchronized (lock) {
+			return coalesced;
+		}
+	}
+
+	/**
+	 * Counts the refreshes dropped because the queue was full.
+	 *
+	 * @return The number of dropped events.
+	 */
+	public long getDroppedCount() {
+		synchronized (lock) {
+			return dropped;
+		}
+	}
+}
@@ -32,7 +32,6 @@
 package com.thelocalmarketplace.software.funds;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.util.Currency;
 import com.tdc.CashOverloadException;
 import com.tdc.DisabledException;
@@ -77,14 +76,13 @@ public class BanknoteHandler implements BanknoteValidatorObserver, BanknoteDispe
 	 */
 	@Override
 	public void goodBanknote(BanknoteValidator validator, Currency currency, BigDecimal denomination) {
-		this.fundController.addToTotalPaid(denomination);
+		this.fundController.addToTotalPaid(Money.of(denomination));
 		this.fundController.notifyFundsAdded(denomination);
-		
-		BigDecimal amountDue = new BigDecimal(this.fundController.checkoutStationSoftware.getTotalOrderPrice()).subtract(this.fundController.getTotalPaid());
-		amountDue = amountDue.setScale(2, RoundingMode.CEILING);
 
-		if (amountDue.compareTo(BigDecimal.ZERO) <= 0) {
-		    amountDue = amountDue.abs();
+		long centsDue = this.fundController.getAmountDueInCents();
+
+		if (centsDue <= 0) {
+		    BigDecimal amountDue = Money.ofCents(this.fundController.getChangeOwedInCents()).toBigDecimal();
 		    
 		    boolean missed = false;
 		    try {
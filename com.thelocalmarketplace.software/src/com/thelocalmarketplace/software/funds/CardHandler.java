@@ -89,12 +89,12 @@ public class CardHandler implements CardReaderListener {
             fundController.notifyFundsStationBlocked();
             return;
         }
-        double amountDue = fundController.getMoneyLeft().doubleValue();
-        boolean purchaseStatus = approvePurchase(data.getNumber(), amountDue);
+        Money amountDue = fundController.getAmountDue();
+        boolean purchaseStatus = approvePurchase(data.getNumber(), amountDue.toDouble());
 
         if (purchaseStatus) {
-            fundController.addToTotalPaid(BigDecimal.valueOf(amountDue));
-            fundController.notifyFundsAdded(BigDecimal.valueOf(amountDue));
+            fundController.addToTotalPaid(amountDue, cardType);
+            fundController.notifyFundsAdded(amountDue.toBigDecimal());
             fundController.notifyPaidFunds(BigDecimal.ZERO);
         } else {
             fundController.notifyInvalidFunds(cardType);
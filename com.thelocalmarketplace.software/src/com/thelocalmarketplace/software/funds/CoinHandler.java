@@ -32,7 +32,6 @@
 package com.thelocalmarketplace.software.funds;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import com.tdc.CashOverloadException;
 import com.tdc.DisabledException;
 import com.tdc.IComponent;
@@ -74,14 +73,13 @@ public class CoinHandler implements CoinValidatorObserver, CoinDispenserObserver
      */
     @Override 
     public void validCoinDetected(CoinValidator validator, BigDecimal value)  {
-        this.fundController.addToTotalPaid(value);
+        this.fundController.addToTotalPaid(Money.of(value));
         this.fundController.notifyFundsAdded(value);
 
-        BigDecimal amountDue = new BigDecimal(this.fundController.checkoutStationSoftware.getTotalOrderPrice()).subtract(this.fundController.getTotalPaid());
-        amountDue = amountDue.setScale(2, RoundingMode.CEILING);
-        
-        if (amountDue.compareTo(BigDecimal.ZERO) <= 0) {
-            amountDue = amountDue.abs();
+        long centsDue = this.fundController.getAmountDueInCents();
+
+        if (centsDue <= 0) {
+            BigDecimal amountDue = Money.ofCents(this.fundController.getChangeOwedInCents()).toBigDecimal();
             
             boolean validChange = false;
             try {
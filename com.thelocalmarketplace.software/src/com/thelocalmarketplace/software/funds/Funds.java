@@ -42,27 +42,40 @@ import java.util.Set;
 import java.util.stream.Collectors;
 import com.jjjwelectronics.EmptyDevice;
 import com.jjjwelectronics.OverloadedDevice;
+import com.jjjwelectronics.card.CardReaderListener;
 import com.tdc.CashOverloadException;
 import com.tdc.DisabledException;
 import com.tdc.NoCashAvailableException;
 import com.tdc.banknote.BanknoteStorageUnit;
+import com.tdc.banknote.BanknoteValidatorObserver;
 import com.tdc.banknote.IBanknoteDispenser;
 import com.tdc.coin.CoinStorageUnit;
+import com.tdc.coin.CoinValidatorObserver;
 import com.tdc.coin.ICoinDispenser;
 import com.thelocalmarketplace.hardware.AbstractSelfCheckoutStation;
+import com.thelocalmarketplace.software.DeviceEventPipeline;
 import com.thelocalmarketplace.software.SelfCheckoutStationSoftware;
+import com.thelocalmarketplace.software.SessionJournal;
 
 
 /**
  * Funds facade class that handles all payments and change.
  */
 public class Funds {
-	protected BigDecimal totalPaid = BigDecimal.ZERO;
+	protected final MoneyAccumulator totalPaid = new MoneyAccumulator();
+	protected final MoneyAccumulator changeGiven = new MoneyAccumulator();
 	protected Map<BigDecimal, Number> coinsAvailable;
 	protected Map<BigDecimal, Number> banknotesAvailable;
 	protected SelfCheckoutStationSoftware checkoutStationSoftware;
 	protected Set<FundsObserver> observers = new HashSet<>();
 	public Receipt receipt;
+	protected CoinHandler coinHandler;
+	protected BanknoteHandler banknoteHandler;
+	protected CardHandler cardHandler;
+	// What is attached to the validators and the card reader: the handlers, or adapters to a pipeline
+	private CoinValidatorObserver coinValidatorObserver;
+	private BanknoteValidatorObserver banknoteValidatorObserver;
+	private CardReaderListener cardReaderListener;
 
 	/**
 	 * Funds constructor which initializes all individual fund facades.
@@ -80,7 +93,8 @@ public class Funds {
 		this.checkoutStationSoftware = checkoutStation;
 		
 		// register the coin payment handler to track coin available and that were entered into the checkout station
-		CoinHandler coinHandler = new CoinHandler(this);
+		coinHandler = new CoinHandler(this);
+		coinValidatorObserver = coinHandler;
 		checkoutStation.station.getCoinValidator().attach(coinHandler);
 		
 		Map<BigDecimal, ICoinDispenser> coinDispensersMap = this.checkoutStationSoftware.getStationHardware().getCoinDispensers();
@@ -90,7 +104,8 @@ public class Funds {
 			coinsAvailable.put(coin, 0);
 		}
 		// register the banknote payment handler to track banknotes available and that were entered into the checkout station
-		BanknoteHandler banknoteHandler = new BanknoteHandler(this);
+		banknoteHandler = new BanknoteHandler(this);
+		banknoteValidatorObserver = banknoteHandler;
 		checkoutStation.station.getBanknoteValidator().attach(banknoteHandler);
 		
 		Map<BigDecimal, IBanknoteDispenser> banknoteDispensersMap = this.checkoutStationSoftware.getStationHardware().getBanknoteDispensers();
@@ -100,10 +115,34 @@ public class Funds {
 			banknotesAvailable.put(banknote, 0);
 		}
 
-		CardHandler cardHandler = new CardHandler(this);
+		cardHandler = new CardHandler(this);
+		cardReaderListener = cardHandler;
 		checkoutStation.station.getCardReader().register(cardHandler);
 	}
 
+	/**
+	 * Routes the events of the coin validator, the banknote validator and the card reader
+	 * through a pipeline, or back to the handlers directly.
+	 * 
+	 * @param pipeline
+	 * 				The pipeline to deliver the events, or null to deliver them on the device's thread.
+	 */
+	public void routeDeviceEvents(DeviceEventPipeline pipeline) {
+		AbstractSelfCheckoutStation station = checkoutStationSoftware.station;
+
+		station.getCoinValidator().detach(coinValidatorObserver);
+		coinValidatorObserver = pipeline == null ? coinHandler : pipeline.coinValidatorObserver(coinHandler);
+		station.getCoinValidator().attach(coinValidatorObserver);
+
+		station.getBanknoteValidator().detach(banknoteValidatorObserver);
+		banknoteValidatorObserver = pipeline == null ? banknoteHandler : pipeline.banknoteValidatorObserver(banknoteHandler);
+		station.getBanknoteValidator().attach(banknoteValidatorObserver);
+
+		station.getCardReader().deregister(cardReaderListener);
+		cardReaderListener = pipeline == null ? cardHandler : pipeline.cardReaderListener(cardHandler);
+		station.getCardReader().register(cardReaderListener);
+	}
+
 	/**
 	 * Registers the given listener with this facade so that the listener will be
 	 * notified of events emanating from here.
@@ -252,7 +291,16 @@ public class Funds {
 	 * @return The total amount paid.
 	 */
 	public BigDecimal getTotalPaid() {
-		return totalPaid;
+		return totalPaid.get().toBigDecimal();
+	}
+
+	/**
+	 * Retrieves the exact total amount paid.
+	 * 
+	 * @return The total amount paid.
+	 */
+	public Money getTotalPaidAmount() {
+		return totalPaid.get();
 	}
 
 	/**
@@ -263,8 +311,79 @@ public class Funds {
 	 * @return The updated total amount paid.
 	 */
 	public BigDecimal addToTotalPaid(BigDecimal amountPaid) {
-		totalPaid = totalPaid.add(amountPaid);
-		return totalPaid;
+		addToTotalPaid(Money.of(amountPaid));
+		return getTotalPaid();
+	}
+
+	/**
+	 * Adds the specified amount to the total amount paid.
+	 * 
+	 * @param amountPaid 
+	 * 				The amount to add to the total.
+	 */
+	public void addToTotalPaid(Money amountPaid) {
+		addToTotalPaid(amountPaid, PaymentKind.Kind.CASH);
+	}
+
+	/**
+	 * Adds the specified amount to the total amount paid. If the station keeps a session
+	 * journal, the payment is on disk before it is counted; if it cannot be written, the
+	 * payment is still counted, since the money was taken, but the station is blocked.
+	 * 
+	 * @param amountPaid 
+	 * 				The amount to add to the total.
+	 * @param kind 
+	 * 				How the amount was paid.
+	 */
+	public void addToTotalPaid(Money amountPaid, PaymentKind.Kind kind) {
+		SessionJournal journal = checkoutStationSoftware.getSessionJournal();
+		boolean journaled = journal == null || journal.fundsIn(amountPaid, kind);
+		totalPaid.add(amountPaid);
+		if (!journaled)
+			journalFailed();
+	}
+
+	/**
+	 * Counts change given back to the customer. If the station keeps a session journal,
+	 * the change is on disk before it is counted, so that it is not given twice after a restart.
+	 * 
+	 * @param amount 
+	 * 				The change given.
+	 */
+	public void addToChangeGiven(Money amount) {
+		SessionJournal journal = checkoutStationSoftware.getSessionJournal();
+		boolean journaled = journal == null || journal.changeOut(amount);
+		changeGiven.add(amount);
+		if (!journaled)
+			journalFailed();
+	}
+
+	/**
+	 * Forgets what was paid and what change was given, so that the next session starts
+	 * with nothing paid.
+	 */
+	public void resetSession() {
+		totalPaid.reset();
+		changeGiven.reset();
+	}
+
+	/**
+	 * Blocks the station once its session journal can no longer be written, as a payment
+	 * taken from then on would be lost if the station lost power.
+	 */
+	private void journalFailed() {
+		checkoutStationSoftware.setStationBlock();
+		notifyFundsStationBlocked();
+	}
+
+	/**
+	 * Calculates the change still owed to the customer: what was paid beyond the total,
+	 * less the change already given.
+	 * 
+	 * @return The number of cents of change owed, 0 if none is.
+	 */
+	public long getChangeOwedInCents() {
+		return Math.max(0, -getAmountDueInCents() - changeGiven.getCents());
 	}
 
 	/**
@@ -273,8 +392,26 @@ public class Funds {
 	 * @return The amount of money left to be paid.
 	 */
 	public BigDecimal getMoneyLeft() {
-		BigDecimal total = new BigDecimal(checkoutStationSoftware.getTotalOrderPrice());
-		return total.subtract(getTotalPaid());
+		return getAmountDue().toBigDecimal();
+	}
+
+	/**
+	 * Calculates the exact amount of money left to be paid.
+	 * 
+	 * @return The amount left to be paid, negative if change is due.
+	 */
+	public Money getAmountDue() {
+		return Money.ofCents(getAmountDueInCents());
+	}
+
+	/**
+	 * Calculates the amount of money left to be paid without creating a Money, so that
+	 * counting each inserted coin or banknote allocates nothing.
+	 * 
+	 * @return The number of cents left to be paid, negative if change is due.
+	 */
+	public long getAmountDueInCents() {
+		return checkoutStationSoftware.getOrderTotalInCents() - totalPaid.getCents();
 	}
 	
 	
@@ -373,6 +510,8 @@ public class Funds {
 			if(!dispensed)
 				break;
 		}
+		if (amountDispensed.signum() > 0)
+			addToChangeGiven(Money.of(amountDispensed));
 		return remainingAmount.compareTo(BigDecimal.ZERO) == 0;
 	}
 }
\ No newline at end of file
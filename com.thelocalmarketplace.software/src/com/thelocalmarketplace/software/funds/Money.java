@@ -0,0 +1,212 @@
+/**
+
+ SENG 300 - ITERATION 3
+ GROUP GOLD {8}
+
+ Name                      UCID
+
+ Yotam Rojnov             30173949
+ Duncan McKay             30177857
+ Mahfuz Alam              30142265
+ Luis Trigueros Granillo  30167989
+ Lilia Skumatova          30187339
+ Abdelrahman Abbas        30110374
+ Talaal Irtija            30169780
+ Alejandro Cardona        30178941
+ Alexandre Duteau         30192082
+ Grace Johnson            30149693
+ Abil Momin               30154771
+ Tara Ghasemi M. Rad      30171212
+ Izabella Mawani          30179738
+ Binish Khalid            30061367
+ Fatima Khalid            30140757
+ Lucas Kasdorf            30173922
+ Emily Garcia-Volk        30140791
+ Yuinikoru Futamata       30173228
+ Joseph Tandyo            30182561
+ Syed Haider              30143096
+ Nami Marwah              30178528
+
+ */
+
+package com.thelocalmarketplace.software.funds;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An exact amount of money, held as a whole number of cents.
+ *
+ * <p>Instances are immutable. Coin and banknote denominations are converted from BigDecimal
+ * once and then reused, so counting inserted cash allocates nothing.</p>
+ */
+public final class Money implements Comparable<Money> {
+
+	public static final Money ZERO = new Money(0);
+
+	private static final int CENTS_PER_DOLLAR = 100;
+	// Conversions of the few denominations the hardware reports, kept for reuse
+	private static final int MAX_CACHED_AMOUNTS = 256;
+	private static final Map<BigDecimal, Money> CONVERTED = new ConcurrentHashMap<>();
+
+	private final long cents;
+
+	private Money(long cents) {
+		this.cents = cents;
+	}
+
+	/**
+	 * Gets an amount in cents.
+	 *
+	 * @param cents
+	 * 				The number of cents. May be negative.
+	 * @return The amount.
+	 */
+	public static Money ofCents(long cents) {
+		return cents == 0 ? ZERO : new Money(cents);
+	}
+
+	/**
+	 * Gets an amount in whole dollars, as product prices are.
+	 *
+	 * @param dollars
+	 * 				The number of dollars. May be negative.
+	 * @return The amount.
+	 * @throws ArithmeticException
+	 * 				If the amount cannot be held in cents.
+	 */
+	public static Money ofDollars(long dollars) {
+		return ofCents(Math.multiplyExact(dollars, CENTS_PER_DOLLAR));
+	}
+
+	/**
+	 * Gets an amount in dollars, rounded to the nearest cent.
+	 *
+	 * @param dollars
+	 * 				The number of dollars. May be negative.
+	 * @return The amount.
+	 */
+	public static Money ofDollars(double dollars) {
+		return ofCents(Math.round(dollars * CENTS_PER_DOLLAR));
+	}
+
+	/**
+	 * Gets an amount in dollars, rounded half up to the nearest cent.
+	 *
+	 * @param dollars
+	 * 				The number of dollars, such as the denomination of a coin. Cannot be null.
+	 * @return The amount.
+	 */
+	public static Money of(BigDecimal dollars) {
+		Money money = CONVERTED.get(dollars);
+		if (money == null) {
+			money = ofCents(dollars.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact());
+			if (CONVERTED.size() < MAX_CACHED_AMOUNTS)
+				CONVERTED.put(dollars, money);
+		}
+		return money;
+	}
+
+	/**
+	 * Gets the amount in cents.
+	 *
+	 * @return The number of cents.
+	 */
+	public long getCents() {
+		return cents;
+	}
+
+	/**
+	 * Adds two amounts.
+	 *
+	 * @param other
+	 * 				The amount to add.
+	 * @return The sum.
+	 */
+	public Money plus(Money other) {
+		return ofCents(Math.addExact(cents, other.cents));
+	}
+
+	/**
+	 * Subtracts an amount from this one.
+	 *
+	 * @param other
+	 * 				The amount to subtract.
+	 * @return The difference.
+	 */
+	public Money minus(Money other) {
+		return ofCents(Math.subtractExact(cents, other.cents));
+	}
+
+	/**
+	 * Negates the amount.
+	 *
+	 * @return The amount with its sign flipped.
+	 */
+	public Money negate() {
+		return ofCents(Math.negateExact(cents));
+	}
+
+	/**
+	 * Gets the size of the amount.
+	 *
+	 * @return The amount without its sign.
+	 */
+	public Money abs() {
+		return cents < 0 ? negate() : this;
+	}
+
+	/**
+	 * Gets the sign of the amount.
+	 *
+	 * @return -1, 0 or 1 as the amount is negative, zero or positive.
+	 */
+	public int signum() {
+		return Long.signum(cents);
+	}
+
+	/**
+	 * Converts the amount to dollars.
+	 *
+	 * @return The amount in dollars, with two decimal places.
+	 */
+	public BigDecimal toBigDecimal() {
+		return BigDecimal.valueOf(cents, 2);
+	}
+
+	/**
+	 * Converts the amount to dollars, for the interfaces that still take a double.
+	 *
+	 * @return The nearest double to the amount in dollars.
+	 */
+	public double toDouble() {
+		return cents / (double) CENTS_PER_DOLLAR;
+	}
+
+	@Override
+	public int compareTo(Money other) {
+		return Long.compare(cents, other.cents);
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		return other instanceof Money && ((Money) other).cents == cents;
+	}
+
+	@Override
+	public int hashCode() {
+		return Long.hashCode(cents);
+	}
+
+	/**
+	 * Formats the amount as dollars and cents, such as "-3.05".
+	 */
+	@Override
+	public String toString() {
+		long magnitude = Math.abs(cents);
+		long remainder = magnitude % CENTS_PER_DOLLAR;
+		return (cents < 0 ? "-" : "") + magnitude / CENTS_PER_DOLLAR + (remainder < 10 ? ".0" : ".") + remainder;
+	}
+}
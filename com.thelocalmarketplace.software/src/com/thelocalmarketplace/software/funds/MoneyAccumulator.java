@@ -0,0 +1,99 @@
+/**
+
+ SENG 300 - ITERATION 3
+ GROUP GOLD {8}
+
+ Name                      UCID
+
+ Yotam Rojnov             30173949
+ Duncan McKay             30177857
+ Mahfuz Alam              30142265
+ Luis Trigueros Granillo  30167989
+ Lilia Skumatova          30187339
+ Abdelrahman Abbas        30110374
+ Talaal Irtija            30169780
+ Alejandro Cardona        30178941
+ Alexandre Duteau         30192082
+ Grace Johnson            30149693
+ Abil Momin               30154771
+ Tara Ghasemi M. Rad      30171212
+ Izabella Mawani          30179738
+ Binish Khalid            30061367
+ Fatima Khalid            30140757
+ Lucas Kasdorf            30173922
+ Emily Garcia-Volk        30140791
+ Yuinikoru Futamata       30173228
+ Joseph Tandyo            30182561
+ Syed Haider              30143096
+ Nami Marwah              30178528
+
+ */
+
+package com.thelocalmarketplace.software.funds;
+
+/**
+ * A running total of money, such as the price of an order or the amount paid so far.
+ * Adding to it changes a primitive count of cents in place, so it never allocates;
+ * a Money is only created when the total is read as one.
+ */
+public class MoneyAccumulator {
+
+	private long cents;
+
+	/**
+	 * Adds an amount to the total.
+	 *
+	 * @param amount
+	 * 				The amount. May be negative.
+	 */
+	public void add(Money amount) {
+		addCents(amount.getCents());
+	}
+
+	/**
+	 * Adds a number of cents to the total.
+	 *
+	 * @param amount
+	 * 				The number of cents. May be negative.
+	 * @throws ArithmeticException
+	 * 				If the total overflows.
+	 */
+	public void addCents(long amount) {
+		cents = Math.addExact(cents, amount);
+	}
+
+	/**
+	 * Replaces the total.
+	 *
+	 * @param amount
+	 * 				The new total.
+	 */
+	public void set(Money amount) {
+		cents = amount.getCents();
+	}
+
+	/**
+	 * Sets the total back to zero.
+	 */
+	public void reset() {
+		cents = 0;
+	}
+
+	/**
+	 * Gets the total in cents.
+	 *
+	 * @return The number of cents.
+	 */
+	public long getCents() {
+		return cents;
+	}
+
+	/**
+	 * Gets the total.
+	 *
+	 * @return The total as an amount of money.
+	 */
+	public Money get() {
+		return Money.ofCents(cents);
+	}
+}
@@ -31,7 +31,7 @@
 
 package com.thelocalmarketplace.software.funds;
 
-import java.math.BigDecimal;
+import java.nio.CharBuffer;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Set;
@@ -39,11 +39,6 @@ import com.jjjwelectronics.EmptyDevice;
 import com.jjjwelectronics.Item;
 import com.jjjwelectronics.OverloadedDevice;
 import com.jjjwelectronics.printer.IReceiptPrinter;
-import com.jjjwelectronics.scanner.BarcodedItem;
-import com.thelocalmarketplace.hardware.BarcodedProduct;
-import com.thelocalmarketplace.hardware.PLUCodedItem;
-import com.thelocalmarketplace.hardware.PLUCodedProduct;
-import com.thelocalmarketplace.hardware.external.ProductDatabases;
 import com.thelocalmarketplace.software.SelfCheckoutStationSoftware;
 
 
@@ -56,7 +51,6 @@ public class Receipt {
     protected final SelfCheckoutStationSoftware checkoutStationSoftware;
     private Funds funds;
     protected Set<ReceiptObserver> observers = new HashSet<>();
-    private ArrayList<Item> order;
 
     /**
      * Constructs a new Receipt instance.
@@ -75,12 +69,11 @@ public class Receipt {
 
         ReceiptHandler rh = new ReceiptHandler(this);
         receiptPrinter.register(rh);
-
-        this.order = checkoutStationSoftware.getOrder();
     }
 
     /**
      * Prints receipt with details of each item, total cost, payment, and change due.
+     * The item lines come from the journal the software keeps as items are added.
      *
      * @return The printed receipt as a String.
      * @throws EmptyDevice 
@@ -89,57 +82,22 @@ public class Receipt {
      * 				If receipt printer is overloaded with commands.
      */
     public String printReceipt() throws EmptyDevice, OverloadedDevice {
-        ArrayList<String> receiptItems = compileReceiptItems();
-        printItems(receiptItems);
+        ArrayList<Item> order = checkoutStationSoftware.getCurrentOrder().items();
+        Money total = checkoutStationSoftware.getOrderTotal();
+        Money paid = this.funds.getTotalPaidAmount();
+        Money change = this.funds.getAmountDue().negate();
+        CharSequence text = checkoutStationSoftware.getReceiptJournal().render(order, total, paid, change);
+        printText(text);
         this.receiptPrinter.cutPaper();
         notifyReceiptPrinted(order);
         return this.receiptPrinter.removeReceipt();
     }
 
-    private ArrayList<String> compileReceiptItems() {
-        ArrayList<String> receiptItems = new ArrayList<>();
-
-        for (Item item : order) {
-            receiptItems.add(formatItemDescription(item));
-        }
-
-        BigDecimal purchaseValue = new BigDecimal(String.valueOf(checkoutStationSoftware.getTotalOrderPrice()));
-        BigDecimal amountPaid = this.funds.getTotalPaid();
-        BigDecimal changeDue = this.funds.getMoneyLeft().multiply(new BigDecimal("-1"));
-
-        receiptItems.add("Total: $" + String.format("%.2f", purchaseValue));
-        receiptItems.add("Paid: $" + String.format("%.2f", amountPaid));
-        receiptItems.add("Change: $" + String.format("%.2f", changeDue));
-
-        return receiptItems;
-    }
-
-    private String formatItemDescription(Item item) {
-        String productDescription;
-        long price;
-
-        if (item instanceof BarcodedItem) {
-            BarcodedProduct product = ProductDatabases.BARCODED_PRODUCT_DATABASE.get(((BarcodedItem) item).getBarcode());
-            productDescription = product.getDescription();
-            price = product.getPrice();
-        } else if (item instanceof PLUCodedItem) {
-            PLUCodedProduct product = ProductDatabases.PLU_PRODUCT_DATABASE.get(((PLUCodedItem) item).getPLUCode());
-            productDescription = product.getDescription();
-            price = product.getPrice();
-        } else {
-            throw new IllegalArgumentException("Unsupported product type.");
-        }
-
-        return productDescription + " $" + String.format("%.2f", (float)price);
-    }
-
-    private void printItems(ArrayList<String> receiptItems) throws EmptyDevice, OverloadedDevice {
-        for (String item : receiptItems) {
-            this.receiptPrinter.print('\n');
-            for (char ch : item.toCharArray()) {
-                this.receiptPrinter.print(ch);
-            }
-        }
+    /**
+     * Sends the rendered receipt to the printer in one pass, which the printer checks line by line.
+     */
+    private void printText(CharSequence text) throws EmptyDevice, OverloadedDevice {
+        this.receiptPrinter.print(CharBuffer.wrap(text));
     }
 
     /**
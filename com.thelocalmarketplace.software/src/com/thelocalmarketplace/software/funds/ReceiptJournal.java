@@ -0,0 +1,157 @@
+/**
+
+ SENG 300 - ITERATION 3
+ GROUP GOLD {8}
+
+ Name                      UCID
+
+ Yotam Rojnov             30173949
+ Duncan McKay             30177857
+ Mahfuz Alam              30142265
+ Luis Trigueros Granillo  30167989
+ Lilia Skumatova          30187339
+ Abdelrahman Abbas        30110374
+ Talaal Irtija            30169780
+ Alejandro Cardona        30178941
+ Alexandre Duteau         30192082
+ Grace Johnson            30149693
+ Abil Momin               30154771
+ Tara Ghasemi M. Rad      30171212
+ Izabella Mawani          30179738
+ Binish Khalid            30061367
+ Fatima Khalid            30140757
+ Lucas Kasdorf            30173922
+ Emily Garcia-Volk        30140791
+ Yuinikoru Futamata       30173228
+ Joseph Tandyo            30182561
+ Syed Haider              30143096
+ Nami Marwah              30178528
+
+ */
+
+package com.thelocalmarketplace.software.funds;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import com.jjjwelectronics.Item;
+import com.thelocalmarketplace.hardware.BarcodedProduct;
+import com.thelocalmarketplace.hardware.PLUCodedProduct;
+import com.thelocalmarketplace.hardware.Product;
+
+/**
+ * The receipt lines of the items in an order, formatted as the items are added, so that
+ * printing the receipt needs no product lookups and no formatting per item.
+ * A line shows the price the item was added at, which is the price the customer was charged.
+ */
+public class ReceiptJournal {
+
+	// The line of each item, or UNSUPPORTED for items that have none, such as reusable bags
+	private final Map<Item, Object> lines = new IdentityHashMap<>();
+	private static final Object UNSUPPORTED = new Object();
+	private int characters;
+
+	/**
+	 * Records the receipt line of an item added to the order.
+	 *
+	 * @param item
+	 * 				The item.
+	 * @param product
+	 * 				The product of the item, or null if it has none.
+	 */
+	public void record(Item item, Product product) {
+		String line = formatLine(product);
+		Object previous = lines.put(item, line == null ? UNSUPPORTED : line);
+		if (previous instanceof String)
+			characters -= ((String) previous).length();
+		if (line != null)
+			characters += line.length();
+	}
+
+	/**
+	 * Forgets the receipt line of an item removed from the order.
+	 *
+	 * @param item
+	 * 				The item.
+	 */
+	public void remove(Item item) {
+		Object line = lines.remove(item);
+		if (line instanceof String)
+			characters -= ((String) line).length();
+	}
+
+	/**
+	 * Gets the receipt line of an item.
+	 *
+	 * @param item
+	 * 				The item.
+	 * @return Its line, or null if it has none.
+	 */
+	public String lineOf(Item item) {
+		Object line = lines.get(item);
+		return line instanceof String ? (String) line : null;
+	}
+
+	/**
+	 * Gets the number of items recorded.
+	 *
+	 * @return The number of items.
+	 */
+	public int size() {
+		return lines.size();
+	}
+
+	/**
+	 * Forgets every line, when the order is reset.
+	 */
+	public void clear() {
+		lines.clear();
+		characters = 0;
+	}
+
+	/**
+	 * Renders the whole receipt into one buffer: a line per item, then the totals,
+	 * each line preceded by a newline.
+	 *
+	 * @param items
+	 * 				The items of the order, in the order they were added.
+	 * @param total
+	 * 				The total price of the order.
+	 * @param paid
+	 * 				The amount paid.
+	 * @param change
+	 * 				The change due.
+	 * @return The text of the receipt.
+	 * @throws IllegalArgumentException
+	 * 				If an item has no receipt line.
+	 */
+	public StringBuilder render(List<Item> items, Money total, Money paid, Money change) {
+		StringBuilder text = new StringBuilder(characters + items.size() + 64);
+		for (Item item : items) {
+			Object line = lines.get(item);
+			if (!(line instanceof String))
+				throw new IllegalArgumentException("Unsupported product type.");
+			text.append('\n').append((String) line);
+		}
+		text.append("\nTotal: $").append(total);
+		text.append("\nPaid: $").append(paid);
+		text.append("\nChange: $").append(change);
+		return text;
+	}
+
+	/**
+	 * Formats the receipt line of a product.
+	 *
+	 * @return The line, or null if the product cannot appear on a receipt.
+	 */
+	private static String formatLine(Product product) {
+		String description;
+		if (product instanceof BarcodedProduct)
+			description = ((BarcodedProduct) product).getDescription();
+		else if (product instanceof PLUCodedProduct)
+			description = ((PLUCodedProduct) product).getDescription();
+		else
+			return null;
+		return description + " $" + Money.ofDollars(product.getPrice());
+	}
+}
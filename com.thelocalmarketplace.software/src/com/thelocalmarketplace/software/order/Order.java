@@ -0,0 +1,370 @@
+/**
+
+ SENG 300 - ITERATION 3
+ GROUP GOLD {8}
+
+ Name                      UCID
+
+ Yotam Rojnov             30173949
+ Duncan McKay             30177857
+ Mahfuz Alam              30142265
+ Luis Trigueros Granillo  30167989
+ Lilia Skumatova          30187339
+ Abdelrahman Abbas        30110374
+ Talaal Irtija            30169780
+ Alejandro Cardona        30178941
+ Alexandre Duteau         30192082
+ Grace Johnson            30149693
+ Abil Momin               30154771
+ Tara Ghasemi M. Rad      30171212
+ Izabella Mawani          30179738
+ Binish Khalid            30061367
+ Fatima Khalid            30140757
+ Lucas Kasdorf            30173922
+ Emily Garcia-Volk        30140791
+ Yuinikoru Futamata       30173228
+ Joseph Tandyo            30182561
+ Syed Haider              30143096
+ Nami Marwah              30178528
+
+ */
+
+package com.thelocalmarketplace.software.order;
+
+import java.util.AbstractSequentialList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import com.jjjwelectronics.Item;
+import com.thelocalmarketplace.hardware.Product;
+
+/**
+ * The items of a customer's order, indexed by identity and grouped into quantity lines.
+ *
+ * <p>Items are kept in a doubly linked list in the order they were added, with an identity
+ * map from each item to its node, so that looking up and removing an item take constant time
+ * however large the order is. Items of the same product share one OrderLine; items with no
+ * product, such as reusable bags, are grouped by their class.</p>
+ */
+public class Order {
+
+	private final Map<Item, Node> nodes = new IdentityHashMap<>();
+	private final Map<Object, OrderLine> lines = new LinkedHashMap<>();
+	private Node first;
+	private Node last;
+	private final List<Item> view = new ItemView();
+
+	/**
+	 * A position in the list of items.
+	 */
+	private static class Node {
+		final Item item;
+		final OrderLine line;
+		Node previous;
+		Node next;
+		// How much heavier the item was found to be than its expected weight
+		long weightCorrection;
+
+		Node(Item item, OrderLine line) {
+			this.item = item;
+			this.line = line;
+		}
+	}
+
+	/**
+	 * Adds an item to the order.
+	 *
+	 * @param item
+	 * 				The item. No effect if it is already in the order.
+	 * @param product
+	 * 				The product of the item, or null if it has none.
+	 * @return true if the item was added, false if it was already in the order.
+	 */
+	public boolean add(Item item, Product product) {
+		if (nodes.containsKey(item))
+			return false;
+		Object key = product != null ? product : item != null ? item.getClass() : null;
+		OrderLine line = lines.computeIfAbsent(key, k -> new OrderLine(k, product));
+		line.add(item);
+
+		Node node = new Node(item, line);
+		node.previous = last;
+		if (last == null)
+			first = node;
+		else
+			last.next = node;
+		last = node;
+		nodes.put(item, node);
+		return true;
+	}
+
+	/**
+	 * Removes an item from the order.
+	 *
+	 * @param item
+	 * 				The item.
+	 * @return true if the item was removed, false if it was not in the order.
+	 */
+	public boolean remove(Item item) {
+		Node node = nodes.remove(item);
+		if (node == null)
+			return false;
+		if (node.previous == null)
+			first = node.next;
+		else
+			node.previous.next = node.next;
+		if (node.next == null)
+			last = node.previous;
+		else
+			node.next.previous = node.previous;
+
+		node.line.remove(item);
+		if (node.line.getQuantity() == 0)
+			lines.remove(node.line.key);
+		return true;
+	}
+
+	/**
+	 * Checks whether an item is in the order.
+	 *
+	 * @param item
+	 * 				The item.
+	 * @return true if this very item is in the order.
+	 */
+	public boolean contains(Item item) {
+		return nodes.containsKey(item);
+	}
+
+	/**
+	 * Gets the line an item of the order belongs to.
+	 *
+	 * @param item
+	 * 				The item.
+	 * @return Its line, or null if it is not in the order.
+	 */
+	public OrderLine lineOf(Item item) {
+		Node node = nodes.get(item);
+		return node == null ? null : node.line;
+	}
+
+	/**
+	 * Marks an item of the order as too bulky to be bagged, so its weight is not expected
+	 * in the bagging area.
+	 *
+	 * @param item
+	 * 				The item.
+	 * @return true if the item is in the order.
+	 */
+	public boolean markBulky(Item item) {
+		Node node = nodes.get(item);
+		if (node == null)
+			return false;
+		node.line.markBulky(item);
+		return true;
+	}
+
+	/**
+	 * Checks whether an item of the order was marked as bulky.
+	 *
+	 * @param item
+	 * 				The item.
+	 * @return true if the item is in the order and was marked as bulky.
+	 */
+	public boolean isBulky(Item item) {
+		Node node = nodes.get(item);
+		return node != null && node.line.isBulky(item);
+	}
+
+	/**
+	 * Records that an item of the order weighs more or less than its expected weight, so the
+	 * difference can be taken back out of the order's weight when the item is removed.
+	 *
+	 * @param item
+	 * 				The item.
+	 * @param micrograms
+	 * 				The difference to add to the item's correction, negative if it is lighter.
+	 * @return true if the item is in the order.
+	 */
+	public boolean correctWeight(Item item, long micrograms) {
+		Node node = nodes.get(item);
+		if (node == null)
+			return false;
+		node.weightCorrection += micrograms;
+		return true;
+	}
+
+	/**
+	 * Gets how much an item of the order differs from its expected weight.
+	 *
+	 * @param item
+	 * 				The item.
+	 * @return The correction, in micrograms, or 0 if the item was never corrected or is not in the order.
+	 */
+	public long weightCorrectionOf(Item item) {
+		Node node = nodes.get(item);
+		return node == null ? 0 : node.weightCorrection;
+	}
+
+	/**
+	 * Gets the number of items in the order.
+	 *
+	 * @return The number of items.
+	 */
+	public int size() {
+		return nodes.size();
+	}
+
+	/**
+	 * Checks whether the order has no items.
+	 *
+	 * @return true if the order is empty.
+	 */
+	public boolean isEmpty() {
+		return nodes.isEmpty();
+	}
+
+	/**
+	 * Gets the item added last.
+	 *
+	 * @return The last item, or null if the order is empty.
+	 */
+	public Item last() {
+		return last == null ? null : last.item;
+	}
+
+	/**
+	 * Copies the items of the order.
+	 *
+	 * @return The items, in the order they were added.
+	 */
+	public ArrayList<Item> items() {
+		ArrayList<Item> items = new ArrayList<>(nodes.size());
+		for (Node node = first; node != null; node = node.next)
+			items.add(node.item);
+		return items;
+	}
+
+	/**
+	 * Gets a read-only view of the items of the order, which follows later changes to it.
+	 * Looking up whether an item is in the view takes constant time; reaching an item by
+	 * index walks the list.
+	 *
+	 * @return The items, in the order they were added.
+	 */
+	public List<Item> view() {
+		return view;
+	}
+
+	/**
+	 * Gets the lines of the order.
+	 *
+	 * @return An unmodifiable list of the lines, in the order their first item was added.
+	 */
+	public List<OrderLine> lines() {
+		return Collections.unmodifiableList(new ArrayList<>(lines.values()));
+	}
+
+	/**
+	 * Removes every item from the order.
+	 */
+	public void clear() {
+		nodes.clear();
+		lines.clear();
+		first = null;
+		last = null;
+	}
+
+	/**
+	 * The items of the order as a list that cannot be changed through.
+	 */
+	private class ItemView extends AbstractSequentialList<Item> {
+		@Override
+		public int size() {
+			return nodes.size();
+		}
+
+		@Override
+		public boolean contains(Object item) {
+			return nodes.containsKey(item);
+		}
+
+		@Override
+		public ListIterator<Item> listIterator(int index) {
+			if (index < 0 || index > nodes.size())
+				throw new IndexOutOfBoundsException(index);
+			return new ItemIterator(index);
+		}
+	}
+
+	private class ItemIterator implements ListIterator<Item> {
+		private Node next = first;
+		private int nextIndex;
+
+		ItemIterator(int index) {
+			while (nextIndex < index) {
+				next = next.next;
+				nextIndex++;
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			return next != null;
+		}
+
+		@Override
+		public Item next() {
+			if (next == null)
+				throw new NoSuchElementException();
+			Item item = next.item;
+			next = next.next;
+			nextIndex++;
+			return item;
+		}
+
+		@Override
+		public boolean hasPrevious() {
+			return (next == null ? last : next.previous) != null;
+		}
+
+		@Override
+		public Item previous() {
+			Node previous = next == null ? last : next.previous;
+			if (previous == null)
+				throw new NoSuchElementException();
+			next = previous;
+			nextIndex--;
+			return previous.item;
+		}
+
+		@Override
+		public int nextIndex() {
+			return nextIndex;
+		}
+
+		@Override
+		public int previousIndex() {
+			return nextIndex - 1;
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException("Items are removed through the station");
+		}
+
+		@Override
+		public void set(Item item) {
+			throw new UnsupportedOperationException("Items are replaced through the station");
+		}
+
+		@Override
+		public void add(Item item) {
+			throw new UnsupportedOperationException("Items are added through the station");
+		}
+	}
+}
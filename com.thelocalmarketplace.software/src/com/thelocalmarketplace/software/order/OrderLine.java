@@ -0,0 +1,119 @@
+/**
+
+ SENG 300 - ITERATION 3
+ GROUP GOLD {8}
+
+ Name                      UCID
+
+ Yotam Rojnov             30173949
+ Duncan McKay             30177857
+ Mahfuz Alam              30142265
+ Luis Trigueros Granillo  30167989
+ Lilia Skumatova          30187339
+ Abdelrahman Abbas        30110374
+ Talaal Irtija            30169780
+ Alejandro Cardona        30178941
+ Alexandre Duteau         30192082
+ Grace Johnson            30149693
+ Abil Momin               30154771
+ Tara Ghasemi M. Rad      30171212
+ Izabella Mawani          30179738
+ Binish Khalid            30061367
+ Fatima Khalid            30140757
+ Lucas Kasdorf            30173922
+ Emily Garcia-Volk        30140791
+ Yuinikoru Futamata       30173228
+ Joseph Tandyo            30182561
+ Syed Haider              30143096
+ Nami Marwah              30178528
+
+ */
+
+package com.thelocalmarketplace.software.order;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import com.jjjwelectronics.Item;
+import com.thelocalmarketplace.hardware.Product;
+
+/**
+ * The items of one product in an order, with which of them were marked as bulky.
+ * Lines are created and changed only by their Order.
+ */
+public class OrderLine {
+
+	// The key of the line in its order: the product, or the class of items with no product
+	final Object key;
+	private final Product product;
+	private final Map<Item, Boolean> items = new IdentityHashMap<>();
+	private final Set<Item> bulkyItems = Collections.newSetFromMap(new IdentityHashMap<>());
+
+	OrderLine(Object key, Product product) {
+		this.key = key;
+		this.product = product;
+	}
+
+	void add(Item item) {
+		items.put(item, Boolean.TRUE);
+	}
+
+	void remove(Item item) {
+		items.remove(item);
+		bulkyItems.remove(item);
+	}
+
+	void markBulky(Item item) {
+		bulkyItems.add(item);
+	}
+
+	/**
+	 * Gets the product of the line.
+	 *
+	 * @return The product, or null for items with no product, such as reusable bags.
+	 */
+	public Product getProduct() {
+		return product;
+	}
+
+	/**
+	 * Gets the number of items in the line.
+	 *
+	 * @return The quantity.
+	 */
+	public int getQuantity() {
+		return items.size();
+	}
+
+	/**
+	 * Gets the number of items of the line marked as bulky.
+	 *
+	 * @return The bulky quantity.
+	 */
+	public int getBulkyQuantity() {
+		return bulkyItems.size();
+	}
+
+	/**
+	 * Checks whether an item of the line was marked as bulky.
+	 *
+	 * @param item
+	 * 				The item.
+	 * @return true if it was marked as bulky.
+	 */
+	public boolean isBulky(Item item) {
+		return bulkyItems.contains(item);
+	}
+
+	/**
+	 * Copies the items of the line.
+	 *
+	 * @return The items, in no particular order.
+	 */
+	public List<Item> getItems() {
+		return new ArrayList<>(items.keySet());
+	}
+}
@@ -0,0 +1,257 @@
+/**
+
+ SENG 300 - ITERATION 3
+ GROUP GOLD {8}
+
+ Name                      UCID
+
+ Yotam Rojnov             30173949
+ Duncan McKay             30177857
+ Mahfuz Alam              30142265
+ Luis Trigueros Granillo  30167989
+ Lilia Skumatova          30187339
+ Abdelrahman Abbas        30110374
+ Talaal Irtija            30169780
+ Alejandro Cardona        30178941
+ Alexandre Duteau         30192082
+ Grace Johnson            30149693
+ Abil Momin               30154771
+ Tara Ghasemi M. Rad      30171212
+ Izabella Mawani          30179738
+ Binish Khalid            30061367
+ Fatima Khalid            30140757
+ Lucas Kasdorf            30173922
+ Emily Garcia-Volk        30140791
+ Yuinikoru Futamata       30173228
+ Joseph Tandyo            30182561
+ Syed Haider              30143096
+ Nami Marwah              30178528
+
+ */
+
+package com.thelocalmarketplace.software.product;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import com.jjjwelectronics.PackedDigits;
+import com.jjjwelectronics.scanner.Barcode;
+import com.thelocalmarketplace.hardware.BarcodedProduct;
+import com.thelocalmarketplace.hardware.PLUCodedProduct;
+import com.thelocalmarketplace.hardware.PriceLookUpCode;
+import com.thelocalmarketplace.hardware.Product;
+
+/**
+ * A read-only product catalog stored in the binary format written by BinaryCatalogBuilder.
+ * The file is memory-mapped and only its header is read when it is opened; lookups
+ * binary-search the on-disk index and a product object is only created the first time
+ * it is looked up, so opening a catalog takes the same time whatever its size.
+ *
+ * <p>Layout, all values big-endian:</p>
+ * <pre>
+ * header      int magic, int version, int barcoded count, int PLU count
+ * index       (long packed barcode, int record offset) per barcoded product, sorted by code
+ * index       (long packed PLU code, int record offset) per PLU coded product, sorted by code
+ * records     barcoded: long price, double expected weight, short length, UTF-8 description
+ *             PLU coded: long price, short length, UTF-8 description
+ * </pre>
+ */
+public class BinaryCatalog {
+
+	static final int MAGIC = 0x544C4D43; // "TLMC"
+	static final int VERSION = 1;
+	static final int HEADER_BYTES = 16;
+	static final int INDEX_ENTRY_BYTES = 12;
+
+	private static final int CHUNK_BITS = 10;
+	private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+
+	private final ByteBuffer buffer;
+	private final int barcodedCount;
+	private final int pluCount;
+	private final int barcodedIndex;
+	private final int pluIndex;
+	// Products created so far, by index position; chunks are allocated on first use
+	private final AtomicReferenceArray<AtomicReferenceArray<Product>> barcodedProducts;
+	private final AtomicReferenceArray<AtomicReferenceArray<Product>> pluProducts;
+
+	/**
+	 * Opens a catalog file.
+	 *
+	 * @param file
+	 * 				The catalog file.
+	 * @return The opened catalog.
+	 * @throws IOException
+	 * 				If the file cannot be read or is not a catalog.
+	 */
+	public static BinaryCatalog open(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			// The mapping stays valid after the channel is closed
+			return new BinaryCatalog(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		}
+	}
+
+	private BinaryCatalog(ByteBuffer buffer) throws IOException {
+		if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC)
+			throw new IOException("Not a product catalog");
+		if (buffer.getInt(4) != VERSION)
+			throw new IOException("Unsupported catalog version " + buffer.getInt(4));
+		this.buffer = buffer;
+		barcodedCount = buffer.getInt(8);
+		pluCount = buffer.getInt(12);
+		barcodedIndex = HEADER_BYTES;
+		pluIndex = barcodedIndex + barcodedCount * INDEX_ENTRY_BYTES;
+		if (barcodedCount < 0 || pluCount < 0 || (long) pluIndex + (long) pluCount * INDEX_ENTRY_BYTES > buffer.capacity())
+			throw new IOException("The catalog is truncated");
+		barcodedProducts = new AtomicReferenceArray<>((barcodedCount >> CHUNK_BITS) + 1);
+		pluProducts = new AtomicReferenceArray<>((pluCount >> CHUNK_BITS) + 1);
+	}
+
+	/**
+	 * Gets the number of barcoded products in the catalog.
+	 *
+	 * @return The number of barcoded products.
+	 */
+	public int barcodedCount() {
+		return barcodedCount;
+	}
+
+	/**
+	 * Gets the number of PLU coded products in the catalog.
+	 *
+	 * @return The number of PLU coded products.
+	 */
+	public int pluCount() {
+		return pluCount;
+	}
+
+	/**
+	 * Finds the product with a barcode.
+	 *
+	 * @param barcode
+	 * 				The barcode.
+	 * @return The product, or null if the catalog does not contain it.
+	 */
+	public BarcodedProduct findBarcodedProduct(Barcode barcode) {
+		int position = search(barcodedIndex, barcodedCount, barcode.getPackedDigits());
+		return position < 0 ? null : barcodedProduct(position);
+	}
+
+	/**
+	 * Gets a barcoded product by its position in the catalog, which orders barcoded
+	 * products by barcode.
+	 *
+	 * @param position
+	 * 				The position, between 0 and the number of barcoded products.
+	 * @return The product.
+	 * @throws IndexOutOfBoundsException
+	 * 				If the position is out of range.
+	 */
+	public BarcodedProduct barcodedProduct(int position) {
+		if (position < 0 || position >= barcodedCount)
+			throw new IndexOutOfBoundsException(position);
+		AtomicReferenceArray<Product> chunk = chunk(barcodedProducts, position);
+		Product product = chunk.get(position & (CHUNK_SIZE - 1));
+		if (product == null) {
+			int entry = barcodedIndex + position * INDEX_ENTRY_BYTES;
+			int record = buffer.getInt(entry + 8);
+			Barcode code = new Barcode(PackedDigits.toNumerals(buffer.getLong(entry)));
+			product = new BarcodedProduct(code, readDescription(record + 16), buffer.getLong(record), buffer.getDouble(record + 8));
+			if (!chunk.compareAndSet(position & (CHUNK_SIZE - 1), null, product))
+				product = chunk.get(position & (CHUNK_SIZE - 1));
+		}
+		return (BarcodedProduct) product;
+	}
+
+	/**
+	 * Finds the product with a PLU code.
+	 *
+	 * @param code
+	 * 				The PLU code.
+	 * @return The product, or null if the catalog does not contain it.
+	 */
+	public PLUCodedProduct findPLUCodedProduct(PriceLookUpCode code) {
+		return findPLUCodedProduct(code.getPackedDigits());
+	}
+
+	/**
+	 * Finds the product with a packed PLU code.
+	 *
+	 * @param packedCode
+	 * 				The packed PLU code.
+	 * @return The product, or null if the catalog does not contain it.
+	 */
+	public PLUCodedProduct findPLUCodedProduct(long packedCode) {
+		int position = search(pluIndex, pluCount, packedCode);
+		return position < 0 ? null : pluCodedProduct(position);
+	}
+
+	/**
+	 * Gets a PLU coded product by its position in the catalog, which orders PLU coded
+	 * products by code.
+	 *
+	 * @param position
+	 * 				The position, between 0 and the number of PLU coded products.
+	 * @return The product.
+	 * @throws IndexOutOfBoundsException
+	 * 				If the position is out of range.
+	 */
+	public PLUCodedProduct pluCodedProduct(int position) {
+		if (position < 0 || position >= pluCount)
+			throw new IndexOutOfBoundsException(position);
+		AtomicReferenceArray<Product> chunk = chunk(pluProducts, position);
+		Product product = chunk.get(position & (CHUNK_SIZE - 1));
+		if (product == null) {
+			int entry = pluIndex + position * INDEX_ENTRY_BYTES;
+			int record = buffer.getInt(entry + 8);
+			PriceLookUpCode code = new PriceLookUpCode(PackedDigits.toString(buffer.getLong(entry)));
+			product = new PLUCodedProduct(code, readDescription(record + 8), buffer.getLong(record));
+			if (!chunk.compareAndSet(position & (CHUNK_SIZE - 1), null, product))
+				product = chunk.get(position & (CHUNK_SIZE - 1));
+		}
+		return (PLUCodedProduct) product;
+	}
+
+	/**
+	 * Binary-searches an index section for a packed code.
+	 *
+	 * @return The position of the code within the section, or -1 if it is absent.
+	 */
+	private int search(int section, int count, long packedCode) {
+		if (packedCode == PackedDigits.NOT_PACKABLE)
+			return -1;
+		int low = 0;
+		int high = count - 1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			long key = buffer.getLong(section + middle * INDEX_ENTRY_BYTES);
+			if (key < packedCode)
+				low = middle + 1;
+			else if (key > packedCode)
+				high = middle - 1;
+			else
+				return middle;
+		}
+		return -1;
+	}
+
+	private static AtomicReferenceArray<Product> chunk(AtomicReferenceArray<AtomicReferenceArray<Product>> chunks, int position) {
+		int index = position >> CHUNK_BITS;
+		AtomicReferenceArray<Product> chunk = chunks.get(index);
+		if (chunk == null) {
+			chunks.compareAndSet(index, null, new AtomicReferenceArray<>(CHUNK_SIZE));
+			chunk = chunks.get(index);
+		}
+		return chunk;
+	}
+
+	private String readDescription(int offset) {
+		byte[] bytes = new byte[buffer.getShort(offset) & 0xFFFF];
+		buffer.get(offset + 2, bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
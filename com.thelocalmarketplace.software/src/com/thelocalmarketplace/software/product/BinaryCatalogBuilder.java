@@ -0,0 +1,239 @@
+/**
+
+ SENG 300 - ITERATION 3
+ GROUP GOLD {8}
+
+ Name                      UCID
+
+ Yotam Rojnov             30173949
+ Duncan McKay             30177857
+ Mahfuz Alam              30142265
+ Luis Trigueros Granillo  30167989
+ Lilia Skumatova          30187339
+ Abdelrahman Abbas        30110374
+ Talaal Irtija            30169780
+ Alejandro Cardona        30178941
+ Alexandre Duteau         30192082
+ Grace Johnson            30149693
+ Abil Momin               30154771
+ Tara Ghasemi M. Rad      30171212
+ Izabella Mawani          30179738
+ Binish Khalid            30061367
+ Fatima Khalid            30140757
+ Lucas Kasdorf            30173922
+ Emily Garcia-Volk        30140791
+ Yuinikoru Futamata       30173228
+ Joseph Tandyo            30182561
+ Syed Haider              30143096
+ Nami Marwah              30178528
+
+ */
+
+package com.thelocalmarketplace.software.product;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import com.jjjwelectronics.PackedDigits;
+
+/**
+ * Converts a CSV product list into the binary format read by BinaryCatalog.
+ *
+ * <p>Each line holds one product as <code>type,code,price,weight,description</code>, where
+ * type is B for a barcoded product or P for a PLU coded product, and weight (the expected
+ * weight in grams) is left empty for PLU coded products. The description is the last
+ * column so it may itself contain commas. Blank lines, lines starting with # and a
+ * header line starting with "type" are skipped. Barcodes may have at most 18 digits,
+ * which covers every GTIN.</p>
+ */
+public class BinaryCatalogBuilder {
+
+	private final List<Entry> barcoded = new ArrayList<>();
+	private final List<Entry> pluCoded = new ArrayList<>();
+
+	/**
+	 * Reads every product of a CSV file.
+	 *
+	 * @param csvFile
+	 * 				The CSV file.
+	 * @return This builder.
+	 * @throws IOException
+	 * 				If the file cannot be read.
+	 * @throws IllegalArgumentException
+	 * 				If a line is malformed.
+	 */
+	public BinaryCatalogBuilder readCsv(Path csvFile) throws IOException {
+		try (BufferedReader reader = Files.newBufferedReader(csvFile, StandardCharsets.UTF_8)) {
+			String line;
+			int lineNumber = 0;
+			while ((line = reader.readLine()) != null) {
+				lineNumber++;
+				String trimmed = line.trim();
+				if (trimmed.isEmpty() || trimmed.startsWith("#") || (lineNumber == 1 && trimmed.startsWith("type")))
+					continue;
+				try {
+					addLine(trimmed);
+				} catch (IllegalArgumentException e) {
+					throw new IllegalArgumentException("Line " + lineNumber + ": " + e.getMessage(), e);
+				}
+			}
+		}
+		return this;
+	}
+
+	private void addLine(String line) {
+		String[] columns = line.split(",", 5);
+		if (columns.length != 5)
+			throw new IllegalArgumentException("Expected type,code,price,weight,description");
+		String type = columns[0].trim();
+		long code = PackedDigits.pack(columns[1].trim());
+		long price = Long.parseLong(columns[2].trim());
+		String description = columns[4].trim();
+		if (code == PackedDigits.NOT_PACKABLE)
+			throw new IllegalArgumentException("The code must be between 1 and " + PackedDigits.MAX_DIGITS + " digits");
+		if (type.equals("B"))
+			addBarcodedProduct(code, description, price, Double.parseDouble(columns[3].trim()));
+		else if (type.equals("P"))
+			addPLUCodedProduct(code, description, price);
+		else
+			throw new IllegalArgumentException("Unknown product type " + type);
+	}
+
+	/**
+	 * Adds a barcoded product.
+	 *
+	 * @param packedBarcode
+	 * 				The barcode, packed by PackedDigits.
+	 * @param description
+	 * 				The description of the product.
+	 * @param price
+	 * 				The price of the product.
+	 * @param expectedWeight
+	 * 				The expected weight of the product, in grams.
+	 * @return This builder.
+	 * @throws IllegalArgumentException
+	 * 				If the price or the expected weight is not positive.
+	 */
+	public BinaryCatalogBuilder addBarcodedProduct(long packedBarcode, String description, long price, double expectedWeight) {
+		if (!(expectedWeight > 0))
+			throw new IllegalArgumentException("The expected weight must be positive");
+		barcoded.add(new Entry(packedBarcode, description, price, expectedWeight));
+		return this;
+	}
+
+	/**
+	 * Adds a PLU coded product.
+	 *
+	 * @param packedCode
+	 * 				The PLU code, packed by PackedDigits.
+	 * @param description
+	 * 				The description of the product.
+	 * @param price
+	 * 				The price of the product.
+	 * @return This builder.
+	 * @throws IllegalArgumentException
+	 * 				If the code does not have 4 or 5 digits or the price is not positive.
+	 */
+	public BinaryCatalogBuilder addPLUCodedProduct(long packedCode, String description, long price) {
+		int digits = PackedDigits.digitCount(packedCode);
+		if (digits < 4 || digits > 5)
+			throw new IllegalArgumentException("A PLU code must have 4 or 5 digits");
+		pluCoded.add(new Entry(packedCode, description, price, 0));
+		return this;
+	}
+
+	/**
+	 * Writes the catalog.
+	 *
+	 * @param catalogFile
+	 * 				The file to write, replaced if it exists.
+	 * @throws IOException
+	 * 				If the file cannot be written.
+	 * @throws IllegalArgumentException
+	 * 				If two products share a code.
+	 */
+	public void write(Path catalogFile) throws IOException {
+		sort(barcoded);
+		sort(pluCoded);
+
+		// Records start after the header and both index sections
+		long offset = BinaryCatalog.HEADER_BYTES + (long) (barcoded.size() + pluCoded.size()) * BinaryCatalog.INDEX_ENTRY_BYTES;
+		for (Entry entry : barcoded) {
+			entry.offset = offset;
+			offset += 8 + 8 + 2 + entry.descriptionBytes.length;
+		}
+		for (Entry entry : pluCoded) {
+			entry.offset = offset;
+			offset += 8 + 2 + entry.descriptionBytes.length;
+		}
+		if (offset > Integer.MAX_VALUE)
+			throw new IllegalArgumentException("The catalog is too large");
+
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(catalogFile)))) {
+			out.writeInt(BinaryCatalog.MAGIC);
+			out.writeInt(BinaryCatalog.VERSION);
+			out.writeInt(barcoded.size());
+			out.writeInt(pluCoded.size());
+			for (Entry entry : barcoded) {
+				out.writeLong(entry.code);
+				out.writeInt((int) entry.offset);
+			}
+			for (Entry entry : pluCoded) {
+				out.writeLong(entry.code);
+				out.writeInt((int) entry.offset);
+			}
+			for (Entry entry : barcoded) {
+				out.writeLong(entry.price);
+				out.writeDouble(entry.expectedWeight);
+				out.writeShort(entry.descriptionBytes.length);
+				out.write(entry.descriptionBytes);
+			}
+			for (Entry entry : pluCoded) {
+				out.writeLong(entry.price);
+				out.writeShort(entry.descriptionBytes.length);
+				out.write(entry.descriptionBytes);
+			}
+		}
+	}
+
+	private static void sort(List<Entry> entries) {
+		entries.sort((a, b) -> Long.compare(a.code, b.code));
+		for (int i = 1; i < entries.size(); i++) {
+			if (entries.get(i).code == entries.get(i - 1).code)
+				throw new IllegalArgumentException("Duplicate code " + PackedDigits.toString(entries.get(i).code));
+		}
+	}
+
+	/**
+	 * A product waiting to be written.
+	 */
+	private static class Entry {
+		final long code;
+		final byte[] descriptionBytes;
+		final long price;
+		final double expectedWeight;
+		long offset;
+
+		Entry(long code, String description, long price, double expectedWeight) {
+			if (code <= 0)
+				throw new IllegalArgumentException("The code must be packed");
+			if (description == null)
+				throw new IllegalArgumentException("The description cannot be null");
+			// BarcodedProduct and PLUCodedProduct would reject these when the product is looked up
+			if (price <= 0)
+				throw new IllegalArgumentException("The price must be positive");
+			this.code = code;
+			this.descriptionBytes = description.getBytes(StandardCharsets.UTF_8);
+			if (descriptionBytes.length > 0xFFFF)
+				throw new IllegalArgumentException("The description is too long");
+			this.price = price;
+			this.expectedWeight = expectedWeight;
+		}
+	}
+}
@@ -0,0 +1,279 @@
+/**
+
+ SENG 300 - ITERATION 3
+ GROUP GOLD {8}
+
+ Name                      UCID
+
+ Yotam Rojnov             30173949
+ Duncan McKay             30177857
+ Mahfuz Alam              30142265
+ Luis Trigueros Granillo  30167989
+ Lilia Skumatova          30187339
+ Abdelrahman Abbas        30110374
+ Talaal Irtija            30169780
+ Alejandro Cardona        30178941
+ Alexandre Duteau         30192082
+ Grace Johnson            30149693
+ Abil Momin               30154771
+ Tara Ghasemi M. Rad      30171212
+ Izabella Mawani          30179738
+ Binish Khalid            30061367
+ Fatima Khalid            30140757
+ Lucas Kasdorf            30173922
+ Emily Garcia-Volk        30140791
+ Yuinikoru Futamata       30173228
+ Joseph Tandyo            30182561
+ Syed Haider              30143096
+ Nami Marwah              30178528
+
+ */
+
+package com.thelocalmarketplace.software.product;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import com.jjjwelectronics.PackedDigits;
+import com.jjjwelectronics.scanner.Barcode;
+import com.thelocalmarketplace.hardware.BarcodedProduct;
+import com.thelocalmarketplace.hardware.PLUCodedProduct;
+import com.thelocalmarketplace.hardware.PriceLookUpCode;
+import com.thelocalmarketplace.hardware.external.ProductDatabases;
+
+/**
+ * A set of changes to the product databases, read from a delta file and applied as one update.
+ *
+ * <p>Each line of a delta file holds one change:</p>
+ * <pre>
+ * ADD,B,barcode,price,weight,description     adds or replaces a barcoded product
+ * ADD,P,code,price,,description              adds or replaces a PLU coded product
+ * PRICE,B,barcode,price                      changes the price of a barcoded product
+ * PRICE,P,code,price                         changes the price of a PLU coded product
+ * DELIST,B,barcode                           removes a barcoded product
+ * DELIST,P,code                              removes a PLU coded product
+ * </pre>
+ * <p>Blank lines and lines starting with # are skipped. Products that are only in the
+ * attached BinaryCatalog can be repriced but not delisted, as the catalog file is read-only.</p>
+ */
+public class CatalogDelta {
+
+	private final List<Change> changes;
+
+	private CatalogDelta(List<Change> changes) {
+		this.changes = changes;
+	}
+
+	/**
+	 * Reads a delta file.
+	 *
+	 * @param file
+	 * 				The delta file.
+	 * @return The delta.
+	 * @throws IOException
+	 * 				If the file cannot be read.
+	 * @throws IllegalArgumentException
+	 * 				If a line is malformed.
+	 */
+	public static CatalogDelta read(Path file) throws IOException {
+		return parse(Files.readAllLines(file, StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Parses the lines of a delta file.
+	 *
+	 * @param lines
+	 * 				The lines.
+	 * @return The delta.
+	 * @throws IllegalArgumentException
+	 * 				If a line is malformed.
+	 */
+	public static CatalogDelta parse(List<String> lines) {
+		List<Change> changes = new ArrayList<>();
+		for (int i = 0; i < lines.size(); i++) {
+			String line = lines.get(i).trim();
+			if (line.isEmpty() || line.startsWith("#"))
+				continue;
+			try {
+				changes.add(parseLine(line));
+			} catch (IllegalArgumentException e) {
+				throw new IllegalArgumentException("Line " + (i + 1) + ": " + e.getMessage(), e);
+			}
+		}
+		return new CatalogDelta(Collections.unmodifiableList(changes));
+	}
+
+	private static Change parseLine(String line) {
+		String[] columns = line.split(",", 6);
+		if (columns.length < 3)
+			throw new IllegalArgumentException("Expected operation,type,code");
+		Operation operation;
+		try {
+			operation = Operation.valueOf(columns[0].trim());
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException("Unknown operation " + columns[0].trim());
+		}
+		boolean barcoded;
+		if (columns[1].trim().equals("B"))
+			barcoded = true;
+		else if (columns[1].trim().equals("P"))
+			barcoded = false;
+		else
+			throw new IllegalArgumentException("Unknown product type " + columns[1].trim());
+		long code = PackedDigits.pack(columns[2].trim());
+		if (code == PackedDigits.NOT_PACKABLE)
+			throw new IllegalArgumentException("The code must be between 1 and " + PackedDigits.MAX_DIGITS + " digits");
+		if (!barcoded && (PackedDigits.digitCount(code) < 4 || PackedDigits.digitCount(code) > 5))
+			throw new IllegalArgumentException("A PLU code must have 4 or 5 digits");
+
+		switch (operation) {
+		case ADD:
+			if (columns.length != 6)
+				throw new IllegalArgumentException("Expected ADD,type,code,price,weight,description");
+			double weight = barcoded ? Double.parseDouble(columns[4].trim()) : 0;
+			return new Change(operation, barcoded, code, Long.parseLong(columns[3].trim()), weight, columns[5].trim());
+		case PRICE:
+			if (columns.length != 4)
+				throw new IllegalArgumentException("Expected PRICE,type,code,price");
+			return new Change(operation, barcoded, code, Long.parseLong(columns[3].trim()), 0, null);
+		default:
+			if (columns.length != 3)
+				throw new IllegalArgumentException("Expected DELIST,type,code");
+			return new Change(operation, barcoded, code, 0, 0, null);
+		}
+	}
+
+	/**
+	 * Gets the number of changes in this delta.
+	 *
+	 * @return The number of changes.
+	 */
+	public int size() {
+		return changes.size();
+	}
+
+	/**
+	 * Applies every change to the product databases as one update: stations see either
+	 * none of the changes or all of them, and scanning continues on the previous snapshot
+	 * while they are applied. Nothing is changed if any change cannot be applied.
+	 *
+	 * @return The number of products (SKUs) that were added, repriced or removed.
+	 * @throws IllegalArgumentException
+	 * 				If a product to reprice does not exist.
+	 */
+	public int apply() {
+		int[] affected = new int[1];
+		ProductLookup.update(() -> affected[0] = applyChanges());
+		return affected[0];
+	}
+
+	private int applyChanges() {
+		// Resolve every change before touching the databases, so a bad change leaves them intact.
+		// No write of this batch has happened yet, so the current snapshot is safe to build here.
+		// Products written by earlier lines of the delta are visible to later lines.
+		Map<Barcode, BarcodedProduct> barcoded = new LinkedHashMap<>();
+		Map<PriceLookUpCode, PLUCodedProduct> pluCoded = new LinkedHashMap<>();
+		for (Change change : changes) {
+			if (change.barcoded)
+				resolveBarcoded(change, barcoded);
+			else
+				resolvePLUCoded(change, pluCoded);
+		}
+
+		int affected = 0;
+		for (Map.Entry<Barcode, BarcodedProduct> entry : barcoded.entrySet()) {
+			if (entry.getValue() != null)
+				ProductDatabases.BARCODED_PRODUCT_DATABASE.put(entry.getKey(), entry.getValue());
+			else if (ProductDatabases.BARCODED_PRODUCT_DATABASE.remove(entry.getKey()) == null)
+				continue;
+			affected++;
+		}
+		for (Map.Entry<PriceLookUpCode, PLUCodedProduct> entry : pluCoded.entrySet()) {
+			if (entry.getValue() != null)
+				ProductDatabases.PLU_PRODUCT_DATABASE.put(entry.getKey(), entry.getValue());
+			else if (ProductDatabases.PLU_PRODUCT_DATABASE.remove(entry.getKey()) == null)
+				continue;
+			affected++;
+		}
+		return affected;
+	}
+
+	/**
+	 * Records the product a barcoded change leaves behind, or null if it delists the product.
+	 */
+	private static void resolveBarcoded(Change change, Map<Barcode, BarcodedProduct> pending) {
+		Barcode barcode = new Barcode(PackedDigits.toNumerals(change.code));
+		switch (change.operation) {
+		case ADD:
+			pending.put(barcode, new BarcodedProduct(barcode, change.description, change.price, change.weight));
+			break;
+		case PRICE:
+			BarcodedProduct current;
+			if (pending.containsKey(barcode))
+				current = pending.get(barcode);
+			else
+				current = ProductLookup.current().barcodedProduct(barcode);
+			if (current == null)
+				throw new IllegalArgumentException("No product has barcode " + barcode);
+			pending.put(barcode, new BarcodedProduct(barcode, current.getDescription(), change.price, current.getExpectedWeight()));
+			break;
+		default:
+			pending.put(barcode, null);
+		}
+	}
+
+	/**
+	 * Records the product a PLU coded change leaves behind, or null if it delists the product.
+	 */
+	private static void resolvePLUCoded(Change change, Map<PriceLookUpCode, PLUCodedProduct> pending) {
+		PriceLookUpCode code = new PriceLookUpCode(PackedDigits.toString(change.code));
+		switch (change.operation) {
+		case ADD:
+			pending.put(code, new PLUCodedProduct(code, change.description, change.price));
+			break;
+		case PRICE:
+			PLUCodedProduct current;
+			if (pending.containsKey(code))
+				current = pending.get(code);
+			else
+				current = ProductLookup.current().pluCodedProduct(code);
+			if (current == null)
+				throw new IllegalArgumentException("No product has PLU code " + code);
+			pending.put(code, new PLUCodedProduct(code, current.getDescription(), change.price));
+			break;
+		default:
+			pending.put(code, null);
+		}
+	}
+
+	private enum Operation {
+		ADD, PRICE, DELIST
+	}
+
+	/**
+	 * One line of a delta file.
+	 */
+	private static class Change {
+		final Operation operation;
+		final boolean barcoded;
+		final long code;
+		final long price;
+		final double weight;
+		final String description;
+
+		Change(Operation operation, boolean barcoded, long code, long price, double weight, String description) {
+			this.operation = operation;
+			this.barcoded = barcoded;
+			this.code = code;
+			this.price = price;
+			this.weight = weight;
+			this.description = description;
+		}
+	}
+}
@@ -0,0 +1,225 @@
+/**
+
+ SENG 300 - ITERATION 3
+ GROUP GOLD {8}
+
+ Name                      UCID
+
+ Yotam Rojnov             30173949
+ Duncan McKay             30177857
+ Mahfuz Alam              30142265
+ Luis Trigueros Granillo  30167989
+ Lilia Skumatova          30187339
+ Abdelrahman Abbas        30110374
+ Talaal Irtija            30169780
+ Alejandro Cardona        30178941
+ Alexandre Duteau         30192082
+ Grace Johnson            30149693
+ Abil Momin               30154771
+ Tara Ghasemi M. Rad      30171212
+ Izabella Mawani          30179738
+ Binish Khalid            30061367
+ Fatima Khalid            30140757
+ Lucas Kasdorf            30173922
+ Emily Garcia-Volk        30140791
+ Yuinikoru Futamata       30173228
+ Joseph Tandyo            30182561
+ Syed Haider              30143096
+ Nami Marwah              30178528
+
+ */
+
+package com.thelocalmarketplace.software.product;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Watches a drop directory for catalog delta files and applies each one to the product
+ * databases as it arrives, so that prices and descriptions change without a restart.
+ * Files whose name ends in .delta are read as a CatalogDelta, in name order; once handled,
+ * a file is renamed with .applied or .rejected appended.
+ * A delta should be written under another name and then moved into the directory, so that
+ * a partly written file is never read.
+ */
+public class CatalogWatcher implements AutoCloseable {
+
+	public static final String DELTA_SUFFIX = ".delta";
+	public static final String APPLIED_SUFFIX = ".applied";
+	public static final String REJECTED_SUFFIX = ".rejected";
+
+	private final Path directory;
+	private final WatchService watchService;
+	private final List<CatalogWatcherListener> listeners = new CopyOnWriteArrayList<>();
+	private Thread thread;
+
+	private final AtomicLong appliedDeltas = new AtomicLong();
+	private final AtomicLong rejectedDeltas = new AtomicLong();
+	private final AtomicLong affectedProducts = new AtomicLong();
+	private volatile long lastLatencyNanos;
+
+	/**
+	 * Creates a watcher for a drop directory. Nothing is applied until it is started.
+	 *
+	 * @param directory
+	 * 				The drop directory.
+	 * @throws IOException
+	 * 				If the directory cannot be watched.
+	 */
+	public CatalogWatcher(Path directory) throws IOException {
+		this.directory = directory;
+		this.watchService = directory.getFileSystem().newWatchService();
+		directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE);
+	}
+
+	/**
+	 * Registers a listener for applied and rejected deltas.
+	 *
+	 * @param listener
+	 * 				The listener to register.
+	 */
+	public void register(CatalogWatcherListener listener) {
+		listeners.add(listener);
+	}
+
+	/**
+	 * Deregisters a listener.
+	 *
+	 * @param listener
+	 * 				The listener to deregister.
+	 */
+	public void deregister(CatalogWatcherListener listener) {
+		listeners.remove(listener);
+	}
+
+	/**
+	 * Applies the deltas already in the directory, then keeps applying new ones on a
+	 * background thread until the watcher is closed.
+	 */
+	public synchronized void start() {
+		if (thread != null)
+			throw new IllegalStateException("The watcher has already been started");
+		applyPendingDeltas();
+		thread = new Thread(this::watch, "catalog-watcher");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Stops watching the directory.
+	 *
+	 * @throws IOException
+	 * 				If the watch service cannot be closed.
+	 */
+	@Override
+	public void close() throws IOException {
+		watchService.close();
+	}
+
+	private void watch() {
+		try {
+			while (true) {
+				WatchKey key = watchService.take();
+				// Events only say that something arrived; the directory listing says what, in order,
+				// and also covers events lost to an overflow
+				key.pollEvents();
+				applyPendingDeltas();
+				if (!key.reset())
+					return;
+			}
+		} catch (InterruptedException | ClosedWatchServiceException e) {
+			// The watcher was closed
+		}
+	}
+
+	/**
+	 * Applies every delta file currently in the directory, in name order.
+	 */
+	synchronized void applyPendingDeltas() {
+		List<Path> deltas = new ArrayList<>();
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + DELTA_SUFFIX)) {
+			for (Path file : files)
+				deltas.add(file);
+		} catch (IOException e) {
+			return;
+		}
+		Collections.sort(deltas);
+		for (Path file : deltas)
+			applyDelta(file);
+	}
+
+	private void applyDelta(Path file) {
+		long start = System.nanoTime();
+		try {
+			int affected = CatalogDelta.read(file).apply();
+			long latency = System.nanoTime() - start;
+			lastLatencyNanos = latency;
+			appliedDeltas.incrementAndGet();
+			affectedProducts.addAndGet(affected);
+			markHandled(file, APPLIED_SUFFIX);
+			for (CatalogWatcherListener listener : listeners)
+				listener.deltaApplied(this, file, affected, latency);
+		} catch (IOException | RuntimeException e) {
+			rejectedDeltas.incrementAndGet();
+			markHandled(file, REJECTED_SUFFIX);
+			for (CatalogWatcherListener listener : listeners)
+				listener.deltaRejected(this, file, e);
+		}
+	}
+
+	private static void markHandled(Path file, String suffix) {
+		try {
+			Files.move(file, file.resolveSibling(file.getFileName() + suffix), StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException e) {
+			// Leave it for the next pass; applying a delta again leaves the same result
+		}
+	}
+
+	/**
+	 * Gets the number of deltas applied so far.
+	 *
+	 * @return The number of applied deltas.
+	 */
+	public long getAppliedDeltaCount() {
+		return appliedDeltas.get();
+	}
+
+	/**
+	 * Gets the number of deltas rejected so far.
+	 *
+	 * @return The number of rejected deltas.
+	 */
+	public long getRejectedDeltaCount() {
+		return rejectedDeltas.get();
+	}
+
+	/**
+	 * Gets the total number of products (SKUs) affected by the deltas applied so far.
+	 *
+	 * @return The number of affected products.
+	 */
+	public long getAffectedProductCount() {
+		return affectedProducts.get();
+	}
+
+	/**
+	 * Gets the time taken to read and apply the last applied delta.
+	 *
+	 * @return The latency, in nanoseconds, or 0 if no delta has been applied.
+	 */
+	public long getLastApplyLatencyNanos() {
+		return lastLatencyNanos;
+	}
+}
@@ -0,0 +1,65 @@
+/**
+
+ SENG 300 - ITERATION 3
+ GROUP GOLD {8}
+
+ Name                      UCID
+
+ Yotam Rojnov             30173949
+ Duncan McKay             30177857
+ Mahfuz Alam              30142265
+ Luis Trigueros Granillo  30167989
+ Lilia Skumatova          30187339
+ Abdelrahman Abbas        30110374
+ Talaal Irtija            30169780
+ Alejandro Cardona        30178941
+ Alexandre Duteau         30192082
+ Grace Johnson            30149693
+ Abil Momin               30154771
+ Tara Ghasemi M. Rad      30171212
+ Izabella Mawani          30179738
+ Binish Khalid            30061367
+ Fatima Khalid            30140757
+ Lucas Kasdorf            30173922
+ Emily Garcia-Volk        30140791
+ Yuinikoru Futamata       30173228
+ Joseph Tandyo            30182561
+ Syed Haider              30143096
+ Nami Marwah              30178528
+
+ */
+
+package com.thelocalmarketplace.software.product;
+
+import java.nio.file.Path;
+
+/**
+ * This interface defines the listeners for catalog updates picked up by a CatalogWatcher.
+ */
+public interface CatalogWatcherListener {
+	/**
+	 * Signals an event in which a delta file has been applied to the product databases.
+	 * 
+	 * @param watcher
+	 *            The watcher that applied the delta.
+	 * @param deltaFile
+	 *            The delta file.
+	 * @param affectedProducts
+	 *            The number of products (SKUs) added, repriced or removed.
+	 * @param latencyNanos
+	 *            The time from noticing the file to the changes being visible, in nanoseconds.
+	 */
+	default void deltaApplied(CatalogWatcher watcher, Path deltaFile, int affectedProducts, long latencyNanos) {}
+
+	/**
+	 * Signals an event in which a delta file could not be applied. None of its changes were made.
+	 * 
+	 * @param watcher
+	 *            The watcher that read the delta.
+	 * @param deltaFile
+	 *            The delta file.
+	 * @param cause
+	 *            The reason the delta was rejected.
+	 */
+	default void deltaRejected(CatalogWatcher watcher, Path deltaFile, Exception cause) {}
+}
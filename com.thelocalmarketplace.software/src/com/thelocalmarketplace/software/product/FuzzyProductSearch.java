@@ -0,0 +1,422 @@
+/**
+
+ SENG 300 - ITERATION 3
+ GROUP GOLD {8}
+
+ Name                      UCID
+
+ Yotam Rojnov             30173949
+ Duncan McKay             30177857
+ Mahfuz Alam              30142265
+ Luis Trigueros Granillo  30167989
+ Lilia Skumatova          30187339
+ Abdelrahman Abbas        30110374
+ Talaal Irtija            30169780
+ Alejandro Cardona        30178941
+ Alexandre Duteau         30192082
+ Grace Johnson            30149693
+ Abil Momin               30154771
+ Tara Ghasemi M. Rad      30171212
+ Izabella Mawani          30179738
+ Binish Khalid            30061367
+ Fatima Khalid            30140757
+ Lucas Kasdorf            30173922
+ Emily Garcia-Volk        30140791
+ Yuinikoru Futamata       30173228
+ Joseph Tandyo            30182561
+ Syed Haider              30143096
+ Nami Marwah              30178528
+
+ */
+
+package com.thelocalmarketplace.software.product;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import com.thelocalmarketplace.hardware.Product;
+import com.thelocalmarketplace.software.product.ProductSearchIndex.IntList;
+
+/**
+ * A typo-tolerant, ranked search over the descriptions of every product in the catalog.
+ *
+ * <p>Every distinct description token is indexed by its character trigrams, with '$' marking
+ * the start and end of the token. A keyword is only compared against the tokens sharing enough
+ * trigrams with it to possibly be within the allowed edit distance, and each of those is then
+ * checked exactly. A product matches when every keyword matches one of its tokens, and products
+ * are ranked by how closely their tokens match: exact, then prefix, then substring, then by
+ * edit distance. Ties go to the shorter description, then alphabetically.</p>
+ *
+ * <p>Queries work in per-thread scratch arrays sized to the products of the rarest keyword,
+ * so a search allocates little more than its result list and its cost follows the number of
+ * candidates rather than the size of the catalog.</p>
+ */
+public class FuzzyProductSearch {
+
+	private static final int EXACT = 0;
+	private static final int PREFIX = 1;
+	private static final int SUBSTRING = 2;
+	// A typo costs TYPO plus its edit distance
+	private static final int TYPO = 2;
+
+	private static FuzzyProductSearch shared;
+
+	private final ProductLookup source;
+	private final Product[] products;
+	// The length and alphabetical rank of each product's description, used to break ties
+	private final int[] lengths;
+	private final int[] ranks;
+	// The distinct tokens, sorted, and the ordinals of the products containing each
+	private final String[] vocabulary;
+	private final int[][] tokenProducts;
+	private final Map<String, int[]> trigramTokens;
+	private final ThreadLocal<Scratch> scratch;
+
+	/**
+	 * Gets the index for the current snapshot of the product databases and attached catalog,
+	 * building it again only if a new snapshot has been published since the last build.
+	 *
+	 * @return The index shared by every station.
+	 */
+	public static synchronized FuzzyProductSearch current() {
+		ProductLookup lookup = ProductLookup.current();
+		if (shared == null || shared.source != lookup)
+			shared = new FuzzyProductSearch(lookup);
+		return shared;
+	}
+
+	/**
+	 * Builds the index from a snapshot of the product databases, so that it never sees a
+	 * batch of changes half applied.
+	 *
+	 * @param source
+	 * 				The snapshot.
+	 */
+	private FuzzyProductSearch(ProductLookup source) {
+		this.source = source;
+
+		List<Product> all = source.products();
+		products = all.toArray(new Product[0]);
+
+		String[] lowered = new String[products.length];
+		lengths = new int[products.length];
+		Map<String, IntList> byToken = new HashMap<>();
+		for (int ordinal = 0; ordinal < products.length; ordinal++) {
+			lowered[ordinal] = ProductSearchIndex.descriptionOf(products[ordinal]).toLowerCase();
+			lengths[ordinal] = lowered[ordinal].length();
+			for (String token : ProductSearchIndex.tokenize(lowered[ordinal])) {
+				IntList list = byToken.computeIfAbsent(token, t -> new IntList());
+				// The same token may appear twice in one description
+				if (list.size == 0 || list.values[list.size - 1] != ordinal)
+					list.add(ordinal);
+			}
+		}
+
+		Integer[] order = new Integer[products.length];
+		for (int i = 0; i < order.length; i++)
+			order[i] = i;
+		Arrays.sort(order, Comparator.comparing(i -> lowered[i]));
+		ranks = new int[products.length];
+		for (int rank = 0; rank < order.length; rank++)
+			ranks[order[rank]] = rank;
+
+		vocabulary = byToken.keySet().toArray(new String[0]);
+		Arrays.sort(vocabulary);
+		tokenProducts = new int[vocabulary.length][];
+		Map<String, IntList> byTrigram = new HashMap<>();
+		for (int id = 0; id < vocabulary.length; id++) {
+			tokenProducts[id] = byToken.get(vocabulary[id]).toArray();
+			for (String trigram : trigrams(vocabulary[id]))
+				byTrigram.computeIfAbsent(trigram, t -> new IntList()).add(id);
+		}
+		trigramTokens = new HashMap<>(byTrigram.size() * 2);
+		for (Map.Entry<String, IntList> entry : byTrigram.entrySet())
+			trigramTokens.put(entry.getKey(), entry.getValue().toArray());
+
+		scratch = ThreadLocal.withInitial(Scratch::new);
+	}
+
+	/**
+	 * Gets the number of products in the index.
+	 *
+	 * @return The number of indexed products.
+	 */
+	public int size() {
+		return products.length;
+	}
+
+	/**
+	 * Finds the products best matching the search text, tolerating typos.
+	 *
+	 * @param searchText
+	 * 				The keywords, separated by whitespace.
+	 * @param limit
+	 * 				The maximum number of products to return.
+	 * @return The best matches, best first. Empty if the text has no keywords.
+	 */
+	public List<Product> search(String searchText, int limit) {
+		String[] keywords = new LinkedHashSet<>(Arrays.asList(ProductSearchIndex.tokenize(searchText))).toArray(new String[0]);
+		if (keywords.length == 0 || limit <= 0)
+			return new ArrayList<>();
+
+		Scratch work = scratch.get();
+		Candidates[] perKeyword = new Candidates[keywords.length];
+		for (int i = 0; i < keywords.length; i++) {
+			perKeyword[i] = candidateTokens(keywords[i], work);
+			if (perKeyword[i].tokens.size == 0)
+				return new ArrayList<>();
+		}
+		// Start from the keyword matching the fewest products so the candidate set stays small
+		Arrays.sort(perKeyword, Comparator.comparingLong(c -> c.postings));
+
+		// Gather the products of the rarest keyword, each with its cheapest cost, by ordinal
+		Candidates first = perKeyword[0];
+		long[] pairs = work.pairs = grow(work.pairs, (int) first.postings);
+		int count = 0;
+		for (int i = 0; i < first.tokens.size; i++) {
+			int cost = first.costs.values[i];
+			for (int ordinal : tokenProducts[first.tokens.values[i]])
+				pairs[count++] = ((long) ordinal << 32) | cost;
+		}
+		Arrays.sort(pairs, 0, count);
+		int[] matches = work.matches = grow(work.matches, count);
+		int[] totalCost = work.totalCost = grow(work.totalCost, count);
+		int size = 0;
+		for (int i = 0; i < count; i++) {
+			int ordinal = (int) (pairs[i] >>> 32);
+			if (size > 0 && matches[size - 1] == ordinal)
+				continue;
+			matches[size] = ordinal;
+			totalCost[size++] = (int) pairs[i];
+		}
+
+		// Keep the products every other keyword also matches, adding its cheapest cost
+		for (int k = 1; k < perKeyword.length && size > 0; k++) {
+			int[] keywordCost = work.keywordCost = grow(work.keywordCost, size);
+			Arrays.fill(keywordCost, 0, size, Integer.MAX_VALUE);
+			for (int i = 0; i < perKeyword[k].tokens.size; i++) {
+				int cost = perKeyword[k].costs.values[i];
+				for (int ordinal : tokenProducts[perKeyword[k].tokens.values[i]]) {
+					int position = Arrays.binarySearch(matches, 0, size, ordinal);
+					if (position >= 0 && cost < keywordCost[position])
+						keywordCost[position] = cost;
+				}
+			}
+			int kept = 0;
+			for (int i = 0; i < size; i++) {
+				if (keywordCost[i] != Integer.MAX_VALUE) {
+					matches[kept] = matches[i];
+					totalCost[kept++] = totalCost[i] + keywordCost[i];
+				}
+			}
+			size = kept;
+		}
+
+		return best(matches, totalCost, size, limit);
+	}
+
+	/**
+	 * Selects the cheapest matches with a bounded max-heap of packed sort keys.
+	 */
+	private List<Product> best(int[] matches, int[] costs, int count, int limit) {
+		long[] heap = new long[Math.min(limit, count)];
+		int size = 0;
+		for (int i = 0; i < count; i++) {
+			int ordinal = matches[i];
+			long key = ((long) Math.min(costs[i], 0x7FFF) << 48)
+					| ((long) Math.min(lengths[ordinal], 0xFFFF) << 32)
+					| ordinal;
+			if (size < heap.length) {
+				heap[size] = key;
+				siftUp(heap, size++);
+			} else if (compare(key, heap[0]) < 0) {
+				heap[0] = key;
+				siftDown(heap, size);
+			}
+		}
+
+		Long[] sorted = new Long[size];
+		for (int i = 0; i < size; i++)
+			sorted[i] = heap[i];
+		Arrays.sort(sorted, this::compare);
+		List<Product> result = new ArrayList<>(size);
+		for (long key : sorted)
+			result.add(products[(int) key]);
+		return result;
+	}
+
+	/**
+	 * Orders packed keys by cost, then description length, then alphabetical rank.
+	 */
+	private int compare(long a, long b) {
+		long high = (a >>> 32) - (b >>> 32);
+		if (high != 0)
+			return high < 0 ? -1 : 1;
+		return Integer.compare(ranks[(int) a], ranks[(int) b]);
+	}
+
+	private void siftUp(long[] heap, int position) {
+		while (position > 0) {
+			int parent = (position - 1) >>> 1;
+			if (compare(heap[position], heap[parent]) <= 0)
+				return;
+			swap(heap, position, parent);
+			position = parent;
+		}
+	}
+
+	private void siftDown(long[] heap, int size) {
+		int position = 0;
+		while (true) {
+			int largest = position;
+			for (int child = 2 * position + 1; child <= 2 * position + 2 && child < size; child++) {
+				if (compare(heap[child], heap[largest]) > 0)
+					largest = child;
+			}
+			if (largest == position)
+				return;
+			swap(heap, position, largest);
+			position = largest;
+		}
+	}
+
+	private static void swap(long[] heap, int i, int j) {
+		long value = heap[i];
+		heap[i] = heap[j];
+		heap[j] = value;
+	}
+
+	/**
+	 * Finds every token matching the keyword and what matching it costs.
+	 */
+	private Candidates candidateTokens(String keyword, Scratch work) {
+		int maxEdits = keyword.length() <= 3 ? 0 : keyword.length() <= 6 ? 1 : 2;
+		Candidates candidates = new Candidates();
+
+		// Tokens starting with the keyword occupy one range of the sorted vocabulary
+		int from = Arrays.binarySearch(vocabulary, keyword);
+		if (from < 0)
+			from = -from - 1;
+		for (int id = from; id < vocabulary.length && vocabulary[id].startsWith(keyword); id++)
+			candidates.add(id, vocabulary[id].length() == keyword.length() ? EXACT : PREFIX, tokenProducts[id].length);
+
+		// Other tokens must share enough trigrams to contain the keyword or be a typo of it:
+		// an edit changes at most three trigrams, and a substring keeps all but the boundary two
+		String[] grams = trigrams(keyword);
+		int needed = Math.max(1, Math.min(grams.length - 3 * maxEdits, grams.length - 2));
+		int total = 0;
+		for (String gram : grams) {
+			int[] ids = trigramTokens.get(gram);
+			if (ids != null)
+				total += ids.length;
+		}
+		// Sorting the tokens of every trigram together brings each token's shared trigrams into one run
+		int[] touched = work.touched = grow(work.touched, total);
+		total = 0;
+		for (String gram : grams) {
+			int[] ids = trigramTokens.get(gram);
+			if (ids != null) {
+				System.arraycopy(ids, 0, touched, total, ids.length);
+				total += ids.length;
+			}
+		}
+		Arrays.sort(touched, 0, total);
+		for (int i = 0, shared; i < total; i += shared) {
+			int id = touched[i];
+			shared = 1;
+			while (i + shared < total && touched[i + shared] == id)
+				shared++;
+			String token = vocabulary[id];
+			if (shared < needed || token.startsWith(keyword))
+				continue;
+			if (token.contains(keyword)) {
+				candidates.add(id, SUBSTRING, tokenProducts[id].length);
+			} else {
+				int distance = boundedEditDistance(keyword, token, maxEdits);
+				if (distance <= maxEdits)
+					candidates.add(id, TYPO + distance, tokenProducts[id].length);
+			}
+		}
+		return candidates;
+	}
+
+	/**
+	 * Gets the distinct trigrams of a token, with '$' marking its start and end.
+	 */
+	static String[] trigrams(String token) {
+		String padded = "$" + token + "$";
+		Set<String> grams = new LinkedHashSet<>();
+		for (int i = 0; i + 3 <= padded.length(); i++)
+			grams.add(padded.substring(i, i + 3));
+		return grams.toArray(new String[0]);
+	}
+
+	/**
+	 * Computes the Levenshtein distance between two strings, giving up once it must exceed a bound.
+	 *
+	 * @return The distance, or bound + 1 if it is greater than the bound.
+	 */
+	static int boundedEditDistance(String a, String b, int bound) {
+		if (Math.abs(a.length() - b.length()) > bound)
+			return bound + 1;
+		int[] previous = new int[b.length() + 1];
+		int[] row = new int[b.length() + 1];
+		for (int j = 0; j <= b.length(); j++)
+			previous[j] = j;
+		for (int i = 1; i <= a.length(); i++) {
+			row[0] = i;
+			int rowMinimum = row[0];
+			for (int j = 1; j <= b.length(); j++) {
+				int substitution = previous[j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+				row[j] = Math.min(substitution, Math.min(previous[j], row[j - 1]) + 1);
+				rowMinimum = Math.min(rowMinimum, row[j]);
+			}
+			if (rowMinimum > bound)
+				return bound + 1;
+			int[] swap = previous;
+			previous = row;
+			row = swap;
+		}
+		return Math.min(previous[b.length()], bound + 1);
+	}
+
+	/**
+	 * The tokens matching one keyword, the cost of each, and how many products they cover.
+	 */
+	private static class Candidates {
+		final IntList tokens = new IntList();
+		final IntList costs = new IntList();
+		long postings;
+
+		void add(int token, int cost, int products) {
+			tokens.add(token);
+			costs.add(cost);
+			postings += products;
+		}
+	}
+
+	/**
+	 * Working arrays reused by every query on one thread. They grow to the largest candidate
+	 * set the thread has met, never to the size of the catalog unless a query matches it all.
+	 */
+	private static class Scratch {
+		int[] touched = new int[64];
+		long[] pairs = new long[64];
+		int[] matches = new int[64];
+		int[] totalCost = new int[64];
+		int[] keywordCost = new int[64];
+	}
+
+	private static int[] grow(int[] array, int size) {
+		return array.length >= size ? array : new int[Math.max(size, array.length * 2)];
+	}
+
+	private static long[] grow(long[] array, int size) {
+		return array.length >= size ? array : new long[Math.max(size, array.length * 2)];
+	}
+}
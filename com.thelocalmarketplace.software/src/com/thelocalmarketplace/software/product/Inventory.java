@@ -0,0 +1,325 @@
+/**
+
+ SENG 300 - ITERATION 3
+ GROUP GOLD {8}
+
+ Name                      UCID
+
+ Yotam Rojnov             30173949
+ Duncan McKay             30177857
+ Mahfuz Alam              30142265
+ Luis Trigueros Granillo  30167989
+ Lilia Skumatova          30187339
+ Abdelrahman Abbas        30110374
+ Talaal Irtija            30169780
+ Alejandro Cardona        30178941
+ Alexandre Duteau         30192082
+ Grace Johnson            30149693
+ Abil Momin               30154771
+ Tara Ghasemi M. Rad      30171212
+ Izabella Mawani          30179738
+ Binish Khalid            30061367
+ Fatima Khalid            30140757
+ Lucas Kasdorf            30173922
+ Emily Garcia-Volk        30140791
+ Yuinikoru Futamata       30173228
+ Joseph Tandyo            30182561
+ Syed Haider              30143096
+ Nami Marwah              30178528
+
+ */
+
+package com.thelocalmarketplace.software.product;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import com.thelocalmarketplace.hardware.BarcodedProduct;
+import com.thelocalmarketplace.hardware.PLUCodedProduct;
+import com.thelocalmarketplace.hardware.Product;
+import com.thelocalmarketplace.hardware.external.ProductDatabases;
+
+/**
+ * Tracks the stock of every product in ProductDatabases.INVENTORY as items are sold at any station.
+ *
+ * <p>Each entry of the inventory is a counter updated by compare-and-set, so stations selling
+ * different products never wait on each other and stations selling the same product retry
+ * rather than block. Products with no inventory entry are not tracked.</p>
+ *
+ * <p>Product objects are rebuilt whenever the catalog changes and have no equality of their own,
+ * so products are identified by barcode or PLU code. The stock of a code is kept under the first
+ * product object stocked with that code, and any product with the same code finds it.</p>
+ *
+ * <p>A sale may change several counters. Sales hold a shared lock while they do so, and a
+ * snapshot holds it exclusively while copying, so a snapshot never shows half a sale. Nothing
+ * on the scanning path touches the inventory; only paid sessions do.</p>
+ */
+public class Inventory {
+
+	// The stock at or below which a product is reported as running low, unless set per product
+	public static final int DEFAULT_LOW_STOCK_THRESHOLD = 5;
+
+	private static final Inventory SHARED = new Inventory();
+
+	// The product object the stock of each code is kept under in ProductDatabases.INVENTORY
+	private static final Map<Object, Product> stockKeys = new ConcurrentHashMap<>();
+
+	// Thresholds by barcode or PLU code
+	private final Map<Object, Integer> thresholds = new ConcurrentHashMap<>();
+	private final List<InventoryListener> listeners = new CopyOnWriteArrayList<>();
+	private final ReadWriteLock snapshotLock = new ReentrantReadWriteLock();
+	private final AtomicLong sales = new AtomicLong();
+	private volatile int defaultThreshold = DEFAULT_LOW_STOCK_THRESHOLD;
+
+	/**
+	 * Creates an inventory over ProductDatabases.INVENTORY, with its own thresholds and listeners.
+	 * Stations share the one returned by shared().
+	 */
+	public Inventory() {}
+
+	/**
+	 * Gets the inventory shared by every station of the store.
+	 *
+	 * @return The shared inventory.
+	 */
+	public static Inventory shared() {
+		return SHARED;
+	}
+
+	/**
+	 * Gets what identifies a product whatever object stands for it: its barcode or PLU code.
+	 * Other products are identified by the object itself.
+	 */
+	private static Object codeOf(Product product) {
+		if (product instanceof BarcodedProduct)
+			return ((BarcodedProduct) product).getBarcode();
+		if (product instanceof PLUCodedProduct)
+			return ((PLUCodedProduct) product).getPLUCode();
+		return product;
+	}
+
+	/**
+	 * Gets the key the stock of a product is kept under, or the product itself if it is not tracked.
+	 */
+	private static Product stockKey(Product product) {
+		Object code = codeOf(product);
+		Product key = code == null ? null : stockKeys.get(code);
+		return key != null && ProductDatabases.INVENTORY.containsKey(key) ? key : product;
+	}
+
+	/**
+	 * Registers the given listener so that it will be notified of stock level events.
+	 *
+	 * @param listener
+	 * 				The listener to be registered. No effect if it is already registered.
+	 */
+	public void register(InventoryListener listener) {
+		if (!listeners.contains(listener))
+			listeners.add(listener);
+	}
+
+	/**
+	 * De-registers the given listener so that it will no longer be notified of stock level events.
+	 *
+	 * @param listener
+	 * 				The listener to be de-registered. No effect if it is not registered.
+	 */
+	public void deregister(InventoryListener listener) {
+		listeners.remove(listener);
+	}
+
+	/**
+	 * Gets the number of items of a product in stock.
+	 *
+	 * @param product
+	 * 				The product.
+	 * @return Its stock, or 0 if it is not tracked.
+	 */
+	public int stockOf(Product product) {
+		return ProductDatabases.INVENTORY.getOrDefault(stockKey(product), 0);
+	}
+
+	/**
+	 * Adds items of a product to the stock, starting to track it if it was not.
+	 *
+	 * @param product
+	 * 				The product.
+	 * @param quantity
+	 * 				The number of items received. Cannot be negative.
+	 * @return The new stock of the product.
+	 */
+	public int restock(Product product, int quantity) {
+		if (product == null)
+			throw new IllegalArgumentException("The product cannot be null");
+		if (quantity < 0)
+			throw new IllegalArgumentException("The quantity cannot be negative");
+		snapshotLock.readLock().lock();
+		try {
+			Product key = stockKeys.compute(codeOf(product),
+					(code, known) -> known != null && ProductDatabases.INVENTORY.containsKey(known) ? known : product);
+			return ProductDatabases.INVENTORY.merge(key, quantity, Integer::sum);
+		} finally {
+			snapshotLock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Removes the items of a paid session from the stock, as one sale.
+	 * Stock never falls below zero, as it counts items known to exist.
+	 *
+	 * @param quantities
+	 * 				The number of items sold of each product. Untracked products are ignored.
+	 */
+	public void sell(Map<? extends Product, Integer> quantities) {
+		Map<Product, Integer> crossed = new HashMap<>();
+		snapshotLock.readLock().lock();
+		try {
+			for (Map.Entry<? extends Product, Integer> sold : quantities.entrySet()) {
+				if (sold.getValue() <= 0)
+					continue;
+				Product product = stockKey(sold.getKey());
+				while (true) {
+					Integer before = ProductDatabases.INVENTORY.get(product);
+					if (before == null)
+						break;
+					int after = Math.max(0, before - sold.getValue());
+					if (ProductDatabases.INVENTORY.replace(product, before, after)) {
+						int threshold = thresholdOf(product);
+						if (after <= threshold && (before > threshold || after == 0) && before != after)
+							crossed.put(product, after);
+						break;
+					}
+				}
+			}
+			sales.incrementAndGet();
+		} finally {
+			snapshotLock.readLock().unlock();
+		}
+
+		// Listeners are told outside the lock so that they may take a snapshot
+		for (Map.Entry<Product, Integer> entry : crossed.entrySet()) {
+			for (InventoryListener listener : listeners) {
+				if (entry.getValue() == 0)
+					listener.outOfStock(this, entry.getKey());
+				else
+					listener.lowStock(this, entry.getKey(), entry.getValue());
+			}
+		}
+	}
+
+	/**
+	 * Gets the stock at or below which a product is reported as running low.
+	 *
+	 * @param product
+	 * 				The product.
+	 * @return Its threshold.
+	 */
+	public int thresholdOf(Product product) {
+		return thresholds.getOrDefault(codeOf(product), defaultThreshold);
+	}
+
+	/**
+	 * Sets the stock at or below which a product is reported as running low.
+	 *
+	 * @param product
+	 * 				The product.
+	 * @param threshold
+	 * 				The threshold. Cannot be negative.
+	 */
+	public void setThreshold(Product product, int threshold) {
+		if (threshold < 0)
+			throw new IllegalArgumentException("The threshold cannot be negative");
+		thresholds.put(codeOf(product), threshold);
+	}
+
+	/**
+	 * Sets the threshold of every product without one of its own.
+	 *
+	 * @param threshold
+	 * 				The threshold. Cannot be negative.
+	 */
+	public void setDefaultThreshold(int threshold) {
+		if (threshold < 0)
+			throw new IllegalArgumentException("The threshold cannot be negative");
+		defaultThreshold = threshold;
+	}
+
+	/**
+	 * Copies the stock of every tracked product. No sale is ever partly included.
+	 *
+	 * @return The snapshot.
+	 */
+	public Snapshot snapshot() {
+		snapshotLock.writeLock().lock();
+		try {
+			return new Snapshot(new HashMap<>(ProductDatabases.INVENTORY), sales.get());
+		} finally {
+			snapshotLock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * The stock of every tracked product at one moment, for reporting.
+	 */
+	public class Snapshot {
+		private final Map<Product, Integer> stock;
+		private final Map<Object, Integer> stockByCode = new HashMap<>();
+		private final long sales;
+
+		private Snapshot(Map<Product, Integer> stock, long sales) {
+			this.stock = Collections.unmodifiableMap(stock);
+			this.sales = sales;
+			for (Map.Entry<Product, Integer> entry : stock.entrySet())
+				stockByCode.merge(codeOf(entry.getKey()), entry.getValue(), Integer::sum);
+		}
+
+		/**
+		 * Gets the stock of every tracked product.
+		 *
+		 * @return An unmodifiable map from product to stock.
+		 */
+		public Map<Product, Integer> getStock() {
+			return stock;
+		}
+
+		/**
+		 * Gets the stock of one product.
+		 *
+		 * @param product
+		 * 				The product.
+		 * @return Its stock, or 0 if it was not tracked.
+		 */
+		public int stockOf(Product product) {
+			return stockByCode.getOrDefault(codeOf(product), 0);
+		}
+
+		/**
+		 * Gets the number of sales recorded before the snapshot was taken.
+		 *
+		 * @return The number of sales.
+		 */
+		public long getSales() {
+			return sales;
+		}
+
+		/**
+		 * Gets every product at or below its low-stock threshold.
+		 *
+		 * @return The products running low, with their stock.
+		 */
+		public Map<Product, Integer> getLowStock() {
+			Map<Product, Integer> low = new HashMap<>();
+			for (Map.Entry<Product, Integer> entry : stock.entrySet()) {
+				if (entry.getValue() <= thresholdOf(entry.getKey()))
+					low.put(entry.getKey(), entry.getValue());
+			}
+			return low;
+		}
+	}
+}
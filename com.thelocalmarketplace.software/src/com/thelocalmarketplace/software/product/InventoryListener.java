@@ -0,0 +1,61 @@
+/**
+
+ SENG 300 - ITERATION 3
+ GROUP GOLD {8}
+
+ Name                      UCID
+
+ Yotam Rojnov             30173949
+ Duncan McKay             30177857
+ Mahfuz Alam              30142265
+ Luis Trigueros Granillo  30167989
+ Lilia Skumatova          30187339
+ Abdelrahman Abbas        30110374
+ Talaal Irtija            30169780
+ Alejandro Cardona        30178941
+ Alexandre Duteau         30192082
+ Grace Johnson            30149693
+ Abil Momin               30154771
+ Tara Ghasemi M. Rad      30171212
+ Izabella Mawani          30179738
+ Binish Khalid            30061367
+ Fatima Khalid            30140757
+ Lucas Kasdorf            30173922
+ Emily Garcia-Volk        30140791
+ Yuinikoru Futamata       30173228
+ Joseph Tandyo            30182561
+ Syed Haider              30143096
+ Nami Marwah              30178528
+
+ */
+
+package com.thelocalmarketplace.software.product;
+
+import com.thelocalmarketplace.hardware.Product;
+
+/**
+ * This interface defines the listeners for stock level events of the store inventory.
+ */
+public interface InventoryListener {
+	/**
+	 * Signals an event in which the stock of a product fell to or below its low-stock threshold.
+	 * 
+	 * @param inventory
+	 *            The inventory in which the event occurred.
+	 * @param product
+	 *            The product involved.
+	 * @param remaining
+	 *            The number of items of the product left in stock.
+	 */
+	default void lowStock(Inventory inventory, Product product, int remaining) {}
+
+	/**
+	 * Signals an event in which the last item of a product in stock was sold.
+	 * 
+	 * @param inventory
+	 *            The inventory in which the event occurred.
+	 * @param product
+	 *            The product involved.
+	 */
+	default void outOfStock(Inventory inventory, Product product) {}
+}
@@ -31,8 +31,6 @@
 
 package com.thelocalmarketplace.software.product;
 
-import java.math.BigDecimal;
-import java.math.BigInteger;
 import com.jjjwelectronics.IDevice;  
 import com.jjjwelectronics.IDeviceListener;
 import com.jjjwelectronics.Mass;
@@ -98,15 +96,11 @@ public class PersonalBag implements ElectronicScaleListener {
 	 * @return The weight of the bag.
 	 */
 	public double getBagWeight(AbstractElectronicScale electronicScale) {
-		double orderWeight = stationHardware.getTotalOrderWeightInGrams(); 
+		long orderWeight = stationHardware.getTotalOrderWeightInMicrograms(); 
 		double bagWeight = 0;
-		BigDecimal orderWeightDouble = new BigDecimal(Double.toString(orderWeight));
-		BigDecimal scaleWeight;
 		try {
-			Mass getMass = electronicScale.getCurrentMassOnTheScale();
-			scaleWeight = getMass.inGrams();
-			BigDecimal bagWeightGrams = scaleWeight.subtract(orderWeightDouble);
-			bagWeight = bagWeightGrams.doubleValue();  
+			long scaleWeight = electronicScale.getCurrentMassOnTheScale().inMicrogramsAsLong();
+			bagWeight = (double) (scaleWeight - orderWeight) / Mass.MICROGRAMS_PER_GRAM;  
 		} catch (OverloadedDevice e) {
 			e.printStackTrace();
 		}
@@ -125,9 +119,9 @@ public class PersonalBag implements ElectronicScaleListener {
 	 *
 	 */
 	public void addBagWeight(AbstractElectronicScale scale, double weightOfBag) {
-		BigInteger threshold = scale.getMassLimit().inMicrograms();
+		Mass threshold = scale.getMassLimit();
 		try {
-			int compareToThreshold = scale.getCurrentMassOnTheScale().compareTo(new Mass(threshold));
+			int compareToThreshold = scale.getCurrentMassOnTheScale().compareTo(threshold);
 			
 			if (compareToThreshold >= 0) {
 				this.customerStation.customerPopUp("Bags too heavy, please wait for attendant.");
@@ -0,0 +1,157 @@
+/**
+
+ SENG 300 - ITERATION 3
+ GROUP GOLD {8}
+
+ Name                      UCID
+
+ Yotam Rojnov             30173949
+ Duncan McKay             30177857
+ Mahfuz Alam              30142265
+ Luis Trigueros Granillo  30167989
+ Lilia Skumatova          30187339
+ Abdelrahman Abbas        30110374
+ Talaal Irtija            30169780
+ Alejandro Cardona        30178941
+ Alexandre Duteau         30192082
+ Grace Johnson            30149693
+ Abil Momin               30154771
+ Tara Ghasemi M. Rad      30171212
+ Izabella Mawani          30179738
+ Binish Khalid            30061367
+ Fatima Khalid            30140757
+ Lucas Kasdorf            30173922
+ Emily Garcia-Volk        30140791
+ Yuinikoru Futamata       30173228
+ Joseph Tandyo            30182561
+ Syed Haider              30143096
+ Nami Marwah              30178528
+
+ */
+
+package com.thelocalmarketplace.software.product;
+
+import java.util.function.Consumer;
+import com.thelocalmarketplace.hardware.Product;
+
+/**
+ * An open-addressing hash table from packed product codes to products.
+ * Keys are the positive longs produced by PackedDigits, so 0 marks an empty slot;
+ * lookups probe a primitive key array and never box or allocate.
+ *
+ * @param <P>
+ * 				The kind of product stored.
+ */
+public class ProductCodeTable<P extends Product> {
+	private static final long EMPTY = 0;
+
+	private long[] keys;
+	private Object[] values;
+	private int mask;
+	private int size;
+
+	/**
+	 * Creates a table sized so that the expected number of products stays below half its capacity.
+	 *
+	 * @param expectedSize
+	 * 				The number of products that will be added.
+	 */
+	public ProductCodeTable(int expectedSize) {
+		int capacity = 8;
+		while (capacity < expectedSize * 2)
+			capacity <<= 1;
+		keys = new long[capacity];
+		values = new Object[capacity];
+		mask = capacity - 1;
+	}
+
+	/**
+	 * Adds or replaces the product stored under a code.
+	 *
+	 * @param packedCode
+	 * 				The packed code. Must be positive.
+	 * @param product
+	 * 				The product.
+	 */
+	public void put(long packedCode, P product) {
+		if (packedCode <= EMPTY)
+			throw new IllegalArgumentException("The code must be packed");
+		if ((size + 1) * 2 > keys.length)
+			grow();
+		int slot = slotOf(packedCode);
+		if (keys[slot] == EMPTY) {
+			keys[slot] = packedCode;
+			size++;
+		}
+		values[slot] = product;
+	}
+
+	/**
+	 * Gets the product stored under a code.
+	 *
+	 * @param packedCode
+	 * 				The packed code.
+	 * @return The product, or null if there is none.
+	 */
+	@SuppressWarnings("unchecked")
+	public P get(long packedCode) {
+		if (packedCode <= EMPTY)
+			return null;
+		return (P) values[slotOf(packedCode)];
+	}
+
+	/**
+	 * Gets the number of products in the table.
+	 *
+	 * @return The number of products.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Passes every product in the table to an action, in no particular order.
+	 *
+	 * @param action
+	 * 				The action.
+	 */
+	@SuppressWarnings("unchecked")
+	public void forEach(Consumer<? super P> action) {
+		for (int i = 0; i < keys.length; i++) {
+			if (keys[i] != EMPTY)
+				action.accept((P) values[i]);
+		}
+	}
+
+	/**
+	 * Finds the slot holding a code, or the empty slot where it would be inserted.
+	 */
+	private int slotOf(long packedCode) {
+		int slot = mix(packedCode) & mask;
+		while (keys[slot] != EMPTY && keys[slot] != packedCode)
+			slot = (slot + 1) & mask;
+		return slot;
+	}
+
+	/**
+	 * Spreads the bits of a code so that consecutive codes do not cluster in consecutive slots.
+	 */
+	private static int mix(long packedCode) {
+		long h = packedCode * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32));
+	}
+
+	@SuppressWarnings("unchecked")
+	private void grow() {
+		long[] oldKeys = keys;
+		Object[] oldValues = values;
+		keys = new long[oldKeys.length * 2];
+		values = new Object[oldValues.length * 2];
+		mask = keys.length - 1;
+		size = 0;
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != EMPTY)
+				put(oldKeys[i], (P) oldValues[i]);
+		}
+	}
+}
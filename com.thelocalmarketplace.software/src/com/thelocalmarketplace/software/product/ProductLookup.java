@@ -0,0 +1,389 @@
+/**
+
+ SENG 300 - ITERATION 3
+ GROUP GOLD {8}
+
+ Name                      UCID
+
+ Yotam Rojnov             30173949
+ Duncan McKay             30177857
+ Mahfuz Alam              30142265
+ Luis Trigueros Granillo  30167989
+ Lilia Skumatova          30187339
+ Abdelrahman Abbas        30110374
+ Talaal Irtija            30169780
+ Alejandro Cardona        30178941
+ Alexandre Duteau         30192082
+ Grace Johnson            30149693
+ Abil Momin               30154771
+ Tara Ghasemi M. Rad      30171212
+ Izabella Mawani          30179738
+ Binish Khalid            30061367
+ Fatima Khalid            30140757
+ Lucas Kasdorf            30173922
+ Emily Garcia-Volk        30140791
+ Yuinikoru Futamata       30173228
+ Joseph Tandyo            30182561
+ Syed Haider              30143096
+ Nami Marwah              30178528
+
+ */
+
+package com.thelocalmarketplace.software.product;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import com.jjjwelectronics.PackedDigits;
+import com.jjjwelectronics.scanner.Barcode;
+import com.thelocalmarketplace.hardware.BarcodedProduct;
+import com.thelocalmarketplace.hardware.PLUCodedProduct;
+import com.thelocalmarketplace.hardware.PriceLookUpCode;
+import com.thelocalmarketplace.hardware.Product;
+import com.thelocalmarketplace.hardware.external.ProductDatabases;
+
+/**
+ * An immutable snapshot of the product databases, indexed by barcode and PLU code through
+ * primitive-keyed tables. Barcodes too long to be packed fall back to an ordinary hash map.
+ * A new snapshot is made the first time it is asked for after the databases are modified,
+ * by laying the modified entries over the tables of the previous one; the tables are only
+ * rebuilt once the overlay grows large. Snapshots already handed out never change, so reading one needs no locking and a session
+ * can keep using the same snapshot from start to finish. While a batch of changes is being
+ * applied through update, the last snapshot is handed out instead of waiting for the batch.
+ * Codes missing from the databases are then looked up in the attached BinaryCatalog, if any,
+ * so that entries put in the databases override the catalog.
+ */
+public class ProductLookup {
+
+	private static volatile ProductLookup shared;
+	private static volatile BinaryCatalog catalog;
+	// Held while a snapshot is made or a batch of changes is applied
+	private static final ReentrantLock lock = new ReentrantLock();
+	private static volatile boolean batchInProgress;
+
+	/**
+	 * The fewest overlaid entries that lead to a rebuild, whatever the size of the tables.
+	 */
+	private static final int MIN_OVERLAY_LIMIT = 64;
+
+	private final long version;
+	private final BinaryCatalog fallback;
+	private final ProductCodeTable<BarcodedProduct> barcoded;
+	private final ProductCodeTable<PLUCodedProduct> pluCoded;
+	private final Map<Barcode, BarcodedProduct> longBarcodes;
+	// Entries modified since the tables were built, by barcode and by packed PLU code;
+	// a null value means the entry was removed
+	private final Map<Barcode, BarcodedProduct> barcodeOverlay;
+	private final Map<Long, PLUCodedProduct> pluOverlay;
+
+	/**
+	 * Gets the snapshot of the current contents of the product databases.
+	 *
+	 * @return The snapshot shared by every station.
+	 */
+	public static ProductLookup current() {
+		ProductLookup lookup = shared;
+		if (lookup != null && lookup.version == ProductDatabases.modificationCount())
+			return lookup;
+		return rebuild();
+	}
+
+	private static ProductLookup rebuild() {
+		if (!lock.tryLock()) {
+			ProductLookup last = shared;
+			if (last != null && batchInProgress)
+				return last;
+			// Another thread is making a snapshot, which does not take long
+			lock.lock();
+		}
+		try {
+			return snapshot();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private static ProductLookup snapshot() {
+		long modifications = ProductDatabases.modificationCount();
+		ProductLookup previous = shared;
+		if (previous != null && previous.version == modifications)
+			return previous;
+
+		List<Object> keys = previous == null ? null : ProductDatabases.keysModifiedBetween(previous.version, modifications);
+		if (keys != null && previous.overlaySize() + keys.size() <= previous.overlayLimit())
+			shared = new ProductLookup(previous, modifications, keys);
+		else
+			shared = new ProductLookup(modifications, catalog);
+		return shared;
+	}
+
+	/**
+	 * Applies several changes to the product databases as one update: no snapshot will
+	 * contain some of the changes but not the others. Single puts and removals are always
+	 * seen whole and need not go through this method.
+	 *
+	 * @param changes
+	 * 				The changes, made directly to the ProductDatabases maps.
+	 */
+	public static void update(Runnable changes) {
+		lock.lock();
+		boolean outer = !batchInProgress;
+		batchInProgress = true;
+		try {
+			changes.run();
+		} finally {
+			if (outer)
+				batchInProgress = false;
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Attaches the catalog consulted for codes that are not in the product databases.
+	 *
+	 * @param binaryCatalog
+	 * 				The catalog, or null to detach the current one.
+	 */
+	public static void attachCatalog(BinaryCatalog binaryCatalog) {
+		lock.lock();
+		try {
+			catalog = binaryCatalog;
+			shared = null;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Gets the catalog consulted for codes that are not in the product databases.
+	 *
+	 * @return The attached catalog, or null if there is none.
+	 */
+	public static BinaryCatalog attachedCatalog() {
+		return catalog;
+	}
+
+	/**
+	 * Builds a snapshot of the product databases.
+	 *
+	 * @param version
+	 * 				The modification count of the databases at the time of the build.
+	 * @param fallback
+	 * 				The catalog attached at the time of the build, or null.
+	 */
+	private ProductLookup(long version, BinaryCatalog fallback) {
+		this.version = version;
+		this.fallback = fallback;
+		longBarcodes = new HashMap<>();
+		barcodeOverlay = new HashMap<>();
+		pluOverlay = new HashMap<>();
+
+		barcoded = new ProductCodeTable<>(ProductDatabases.BARCODED_PRODUCT_DATABASE.size());
+		for (Map.Entry<Barcode, BarcodedProduct> entry : ProductDatabases.BARCODED_PRODUCT_DATABASE.entrySet()) {
+			long packed = entry.getKey().getPackedDigits();
+			if (packed == PackedDigits.NOT_PACKABLE)
+				longBarcodes.put(entry.getKey(), entry.getValue());
+			else
+				barcoded.put(packed, entry.getValue());
+		}
+
+		pluCoded = new ProductCodeTable<>(ProductDatabases.PLU_PRODUCT_DATABASE.size());
+		for (Map.Entry<PriceLookUpCode, PLUCodedProduct> entry : ProductDatabases.PLU_PRODUCT_DATABASE.entrySet())
+			pluCoded.put(entry.getKey().getPackedDigits(), entry.getValue());
+	}
+
+	/**
+	 * Makes a snapshot of the product databases that shares the tables of an earlier one
+	 * and overlays the entries modified since.
+	 *
+	 * @param previous
+	 * 				The earlier snapshot.
+	 * @param version
+	 * 				The modification count of the databases now.
+	 * @param modifiedKeys
+	 * 				The keys modified since the earlier snapshot was made.
+	 */
+	private ProductLookup(ProductLookup previous, long version, List<Object> modifiedKeys) {
+		this.version = version;
+		fallback = previous.fallback;
+		barcoded = previous.barcoded;
+		pluCoded = previous.pluCoded;
+		longBarcodes = previous.longBarcodes;
+		barcodeOverlay = new HashMap<>(previous.barcodeOverlay);
+		pluOverlay = new HashMap<>(previous.pluOverlay);
+
+		for (Object key : modifiedKeys) {
+			if (key instanceof Barcode)
+				barcodeOverlay.put((Barcode) key, ProductDatabases.BARCODED_PRODUCT_DATABASE.get(key));
+			else if (key instanceof PriceLookUpCode)
+				pluOverlay.put(((PriceLookUpCode) key).getPackedDigits(), ProductDatabases.PLU_PRODUCT_DATABASE.get(key));
+		}
+	}
+
+	private int overlaySize() {
+		return barcodeOverlay.size() + pluOverlay.size();
+	}
+
+	private int overlayLimit() {
+		return Math.max(MIN_OVERLAY_LIMIT, (barcoded.size() + longBarcodes.size() + pluCoded.size()) / 8);
+	}
+
+	/**
+	 * Gets the version of the product databases this snapshot was built from.
+	 * Later snapshots have greater versions.
+	 *
+	 * @return The version.
+	 */
+	public long version() {
+		return version;
+	}
+
+	/**
+	 * Finds the product with a barcode in the current snapshot.
+	 *
+	 * @param barcode
+	 * 				The barcode.
+	 * @return The product, or null if there is none.
+	 */
+	public static BarcodedProduct findBarcodedProduct(Barcode barcode) {
+		return current().barcodedProduct(barcode);
+	}
+
+	/**
+	 * Finds the product with a PLU code in the current snapshot.
+	 *
+	 * @param code
+	 * 				The PLU code.
+	 * @return The product, or null if there is none.
+	 */
+	public static PLUCodedProduct findPLUCodedProduct(PriceLookUpCode code) {
+		return current().pluCodedProduct(code);
+	}
+
+	/**
+	 * Finds the product with a PLU code typed as text in the current snapshot.
+	 *
+	 * @param code
+	 * 				The digits of the PLU code.
+	 * @return The product, or null if there is none or the text is not a string of digits.
+	 */
+	public static PLUCodedProduct findPLUCodedProduct(CharSequence code) {
+		return current().pluCodedProduct(code);
+	}
+
+	/**
+	 * Finds the product with a barcode in this snapshot.
+	 *
+	 * @param barcode
+	 * 				The barcode.
+	 * @return The product, or null if there is none.
+	 */
+	public BarcodedProduct barcodedProduct(Barcode barcode) {
+		BarcodedProduct product = databaseBarcodedProduct(barcode);
+		if (product == null && fallback != null)
+			product = fallback.findBarcodedProduct(barcode);
+		return product;
+	}
+
+	private BarcodedProduct databaseBarcodedProduct(Barcode barcode) {
+		if (barcodeOverlay.containsKey(barcode))
+			return barcodeOverlay.get(barcode);
+		long packed = barcode.getPackedDigits();
+		return packed == PackedDigits.NOT_PACKABLE ? longBarcodes.get(barcode) : barcoded.get(packed);
+	}
+
+	/**
+	 * Finds the product with a PLU code in this snapshot.
+	 *
+	 * @param code
+	 * 				The PLU code.
+	 * @return The product, or null if there is none.
+	 */
+	public PLUCodedProduct pluCodedProduct(PriceLookUpCode code) {
+		return pluCodedProduct(code.getPackedDigits());
+	}
+
+	/**
+	 * Finds the product with a PLU code typed as text in this snapshot, without parsing it
+	 * into a PriceLookUpCode.
+	 *
+	 * @param code
+	 * 				The digits of the PLU code.
+	 * @return The product, or null if there is none or the text is not a string of digits.
+	 */
+	public PLUCodedProduct pluCodedProduct(CharSequence code) {
+		return pluCodedProduct(PackedDigits.pack(code));
+	}
+
+	private PLUCodedProduct pluCodedProduct(long packedCode) {
+		PLUCodedProduct product = databasePLUCodedProduct(packedCode);
+		if (product == null && fallback != null)
+			product = fallback.findPLUCodedProduct(packedCode);
+		return product;
+	}
+
+	private PLUCodedProduct databasePLUCodedProduct(long packedCode) {
+		if (pluOverlay.containsKey(packedCode))
+			return pluOverlay.get(packedCode);
+		return pluCoded.get(packedCode);
+	}
+
+	/**
+	 * Lists every product of this snapshot: the barcoded products, the PLU coded products,
+	 * then the products of the attached catalog that no entry of the databases overrides.
+	 * Each group is in code order, so searches that take the first match do not depend on
+	 * how the tables happen to be laid out.
+	 * The whole catalog is read, so this is meant for building search indices rather than
+	 * for lookups.
+	 *
+	 * @return The products.
+	 */
+	public List<Product> products() {
+		List<BarcodedProduct> barcodedProducts = new ArrayList<>();
+		barcoded.forEach(product -> {
+			if (!barcodeOverlay.containsKey(product.getBarcode()))
+				barcodedProducts.add(product);
+		});
+		for (BarcodedProduct product : longBarcodes.values()) {
+			if (!barcodeOverlay.containsKey(product.getBarcode()))
+				barcodedProducts.add(product);
+		}
+		for (BarcodedProduct product : barcodeOverlay.values()) {
+			if (product != null)
+				barcodedProducts.add(product);
+		}
+		// Barcodes too long to be packed go last
+		barcodedProducts.sort((a, b) -> Long.compareUnsigned(a.getBarcode().getPackedDigits(), b.getBarcode().getPackedDigits()));
+
+		List<PLUCodedProduct> pluProducts = new ArrayList<>();
+		pluCoded.forEach(product -> {
+			if (!pluOverlay.containsKey(product.getPLUCode().getPackedDigits()))
+				pluProducts.add(product);
+		});
+		for (PLUCodedProduct product : pluOverlay.values()) {
+			if (product != null)
+				pluProducts.add(product);
+		}
+		pluProducts.sort((a, b) -> Long.compare(a.getPLUCode().getPackedDigits(), b.getPLUCode().getPackedDigits()));
+
+		List<Product> all = new ArrayList<>(barcodedProducts.size() + pluProducts.size());
+		all.addAll(barcodedProducts);
+		all.addAll(pluProducts);
+
+		if (fallback != null) {
+			for (int i = 0; i < fallback.barcodedCount(); i++) {
+				BarcodedProduct product = fallback.barcodedProduct(i);
+				if (databaseBarcodedProduct(product.getBarcode()) == null)
+					all.add(product);
+			}
+			for (int i = 0; i < fallback.pluCount(); i++) {
+				PLUCodedProduct product = fallback.pluCodedProduct(i);
+				if (databasePLUCodedProduct(product.getPLUCode().getPackedDigits()) == null)
+					all.add(product);
+			}
+		}
+		return all;
+	}
+}
@@ -0,0 +1,247 @@
+/**
+
+ SENG 300 - ITERATION 3
+ GROUP GOLD {8}
+
+ Name                      UCID
+
+ Yotam Rojnov             30173949
+ Duncan McKay             30177857
+ Mahfuz Alam              30142265
+ Luis Trigueros Granillo  30167989
+ Lilia Skumatova          30187339
+ Abdelrahman Abbas        30110374
+ Talaal Irtija            30169780
+ Alejandro Cardona        30178941
+ Alexandre Duteau         30192082
+ Grace Johnson            30149693
+ Abil Momin               30154771
+ Tara Ghasemi M. Rad      30171212
+ Izabella Mawani          30179738
+ Binish Khalid            30061367
+ Fatima Khalid            30140757
+ Lucas Kasdorf            30173922
+ Emily Garcia-Volk        30140791
+ Yuinikoru Futamata       30173228
+ Joseph Tandyo            30182561
+ Syed Haider              30143096
+ Nami Marwah              30178528
+
+ */
+
+package com.thelocalmarketplace.software.product;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import com.thelocalmarketplace.hardware.Product;
+
+/**
+ * A sorted-array prefix index over the descriptions of every product in the catalog.
+ * Products are sorted by lower-cased description, so all products whose description starts
+ * with a given prefix occupy one contiguous range that can be found by binary search.
+ */
+public class ProductPrefixIndex {
+
+	private static ProductPrefixIndex shared;
+
+	private final ProductLookup source;
+	private final String[] keys;
+	private final Product[] products;
+
+	/**
+	 * Gets the index for the current snapshot of the product databases and attached catalog,
+	 * building it again only if a new snapshot has been published since the last build.
+	 *
+	 * @return The index shared by every station.
+	 */
+	public static synchronized ProductPrefixIndex current() {
+		ProductLookup lookup = ProductLookup.current();
+		if (shared == null || shared.source != lookup)
+			shared = new ProductPrefixIndex(lookup);
+		return shared;
+	}
+
+	/**
+	 * Builds the index from a snapshot of the product databases, so that it never sees a
+	 * batch of changes half applied.
+	 *
+	 * @param source
+	 * 				The snapshot.
+	 */
+	private ProductPrefixIndex(ProductLookup source) {
+		this.source = source;
+
+		List<Product> all = source.products();
+
+		Product[] sorted = all.toArray(new Product[0]);
+		String[] lowered = new String[sorted.length];
+		Integer[] order = new Integer[sorted.length];
+		for (int i = 0; i < sorted.length; i++) {
+			lowered[i] = ProductSearchIndex.descriptionOf(sorted[i]).toLowerCase();
+			order[i] = i;
+		}
+		Arrays.sort(order, Comparator.comparing(i -> lowered[i]));
+
+		keys = new String[sorted.length];
+		products = new Product[sorted.length];
+		for (int i = 0; i < order.length; i++) {
+			keys[i] = lowered[order[i]];
+			products[i] = sorted[order[i]];
+		}
+	}
+
+	/**
+	 * Gets the number of products in the index.
+	 *
+	 * @return The number of indexed products.
+	 */
+	public int size() {
+		return keys.length;
+	}
+
+	/**
+	 * Gets the product at a position of the sorted index.
+	 *
+	 * @param position
+	 * 				The position, between 0 and the size of the index.
+	 * @return The product at that position.
+	 */
+	public Product get(int position) {
+		return products[position];
+	}
+
+	/**
+	 * Finds the first position within [from, to) whose key is not ordered before the prefix,
+	 * comparing keys only up to the length of the prefix.
+	 */
+	int lowerBound(String prefix, int from, int to) {
+		while (from < to) {
+			int middle = (from + to) >>> 1;
+			if (comparePrefix(keys[middle], prefix) < 0)
+				from = middle + 1;
+			else
+				to = middle;
+		}
+		return from;
+	}
+
+	/**
+	 * Finds the first position within [from, to) whose key is ordered after every key
+	 * starting with the prefix.
+	 */
+	int upperBound(String prefix, int from, int to) {
+		while (from < to) {
+			int middle = (from + to) >>> 1;
+			if (comparePrefix(keys[middle], prefix) <= 0)
+				from = middle + 1;
+			else
+				to = middle;
+		}
+		return from;
+	}
+
+	/**
+	 * Compares a key against a prefix, treating every key that starts with the prefix as equal to it.
+	 */
+	private static int comparePrefix(String key, String prefix) {
+		int length = Math.min(key.length(), prefix.length());
+		for (int i = 0; i < length; i++) {
+			char a = key.charAt(i);
+			char b = prefix.charAt(i);
+			if (a != b)
+				return a < b ? -1 : 1;
+		}
+		return key.length() < prefix.length() ? -1 : 0;
+	}
+
+	/**
+	 * Creates a new type-ahead session over this index.
+	 *
+	 * @param limit
+	 * 				The maximum number of suggestions to return per query.
+	 * @return The new session.
+	 */
+	public static TypeAhead typeAhead(int limit) {
+		return new TypeAhead(limit);
+	}
+
+	/**
+	 * Tracks the query typed so far and narrows the previous result range as characters are
+	 * appended, instead of searching the whole catalog again on every keystroke.
+	 * Instances are not thread-safe; each search screen owns its own.
+	 */
+	public static class TypeAhead {
+		private final int limit;
+		private ProductPrefixIndex index;
+		private String query = "";
+		// from[i] and to[i] delimit the matches of the first i characters of the query
+		private int[] from = new int[16];
+		private int[] to = new int[16];
+
+		private TypeAhead(int limit) {
+			if (limit <= 0)
+				throw new IllegalArgumentException("The limit must be positive");
+			this.limit = limit;
+		}
+
+		/**
+		 * Updates the query and gets the best suggestions for it, in alphabetical order.
+		 *
+		 * @param text
+		 * 				The full text typed so far.
+		 * @return At most limit products whose description starts with the text.
+		 */
+		public List<Product> update(String text) {
+			String next = text.toLowerCase();
+			ProductPrefixIndex latest = ProductPrefixIndex.current();
+
+			int common = 0;
+			if (latest == index) {
+				int max = Math.min(query.length(), next.length());
+				while (common < max && query.charAt(common) == next.charAt(common))
+					common++;
+			} else {
+				index = latest;
+				from[0] = 0;
+				to[0] = index.size();
+			}
+
+			ensureCapacity(next.length() + 1);
+			for (int i = common; i < next.length(); i++) {
+				String prefix = next.substring(0, i + 1);
+				int lo = index.lowerBound(prefix, from[i], to[i]);
+				from[i + 1] = lo;
+				to[i + 1] = index.upperBound(prefix, lo, to[i]);
+			}
+			query = next;
+
+			int start = from[next.length()];
+			int end = Math.min(to[next.length()], start + limit);
+			List<Product> suggestions = new ArrayList<>(end - start);
+			for (int i = start; i < end; i++)
+				suggestions.add(index.get(i));
+			return suggestions;
+		}
+
+		/**
+		 * Gets the number of products matching the current query, not only those returned.
+		 *
+		 * @return The number of matches.
+		 */
+		public int matchCount() {
+			if (index == null)
+				return 0;
+			return to[query.length()] - from[query.length()];
+		}
+
+		private void ensureCapacity(int length) {
+			if (from.length < length) {
+				int size = Math.max(length, from.length * 2);
+				from = Arrays.copyOf(from, size);
+				to = Arrays.copyOf(to, size);
+			}
+		}
+	}
+}
@@ -0,0 +1,322 @@
+/**
+
+ SENG 300 - ITERATION 3
+ GROUP GOLD {8}
+
+ Name                      UCID
+
+ Yotam Rojnov             30173949
+ Duncan McKay             30177857
+ Mahfuz Alam              30142265
+ Luis Trigueros Granillo  30167989
+ Lilia Skumatova          30187339
+ Abdelrahman Abbas        30110374
+ Talaal Irtija            30169780
+ Alejandro Cardona        30178941
+ Alexandre Duteau         30192082
+ Grace Johnson            30149693
+ Abil Momin               30154771
+ Tara Ghasemi M. Rad      30171212
+ Izabella Mawani          30179738
+ Binish Khalid            30061367
+ Fatima Khalid            30140757
+ Lucas Kasdorf            30173922
+ Emily Garcia-Volk        30140791
+ Yuinikoru Futamata       30173228
+ Joseph Tandyo            30182561
+ Syed Haider              30143096
+ Nami Marwah              30178528
+
+ */
+
+package com.thelocalmarketplace.software.product;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import com.thelocalmarketplace.hardware.BarcodedProduct;
+import com.thelocalmarketplace.hardware.PLUCodedProduct;
+import com.thelocalmarketplace.hardware.Product;
+
+/**
+ * An inverted keyword index over the descriptions of every barcoded and PLU coded product.
+ * Each product is given an ordinal (barcoded products first, then PLU products) and every
+ * whitespace separated token of its lower-cased description maps to a sorted posting list
+ * of those ordinals. Multi-keyword queries are answered by intersecting posting lists.
+ * Every suffix of every token is kept in a sorted array, so the tokens containing a keyword
+ * are found by binary search rather than by scanning the vocabulary.
+ */
+public class ProductSearchIndex {
+
+	private static final int MAX_CACHED_KEYWORDS = 1024;
+	private static ProductSearchIndex shared;
+
+	private final ProductLookup source;
+	private final Product[] products;
+	// The posting list of each token, in the order of the sorted vocabulary
+	private final int[][] postings;
+	// Every suffix of every token in sorted order, and the token each one belongs to
+	private final String[] suffixes;
+	private final int[] suffixOwners;
+	// The least recently used keywords are forgotten first; guarded by itself
+	@SuppressWarnings("serial")
+	private final Map<String, int[]> keywordCache = new LinkedHashMap<String, int[]>(16, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, int[]> eldest) {
+			return size() > MAX_CACHED_KEYWORDS;
+		}
+	};
+
+	/**
+	 * Gets the index for the current snapshot of the product databases and attached catalog,
+	 * building it again only if a new snapshot has been published since the last build.
+	 *
+	 * @return The index shared by every station.
+	 */
+	public static synchronized ProductSearchIndex current() {
+		ProductLookup lookup = ProductLookup.current();
+		if (shared == null || shared.source != lookup)
+			shared = new ProductSearchIndex(lookup);
+		return shared;
+	}
+
+	/**
+	 * Builds the index from a snapshot of the product databases, so that it never sees a
+	 * batch of changes half applied.
+	 *
+	 * @param source
+	 * 				The snapshot.
+	 */
+	private ProductSearchIndex(ProductLookup source) {
+		this.source = source;
+
+		List<Product> all = source.products();
+		products = all.toArray(new Product[0]);
+
+		Map<String, IntList> building = new HashMap<>();
+		for (int ordinal = 0; ordinal < products.length; ordinal++) {
+			for (String token : tokenize(descriptionOf(products[ordinal]))) {
+				IntList list = building.computeIfAbsent(token, t -> new IntList());
+				// The same token may appear twice in one description
+				if (list.size == 0 || list.values[list.size - 1] != ordinal)
+					list.add(ordinal);
+			}
+		}
+
+		String[] vocabulary = building.keySet().toArray(new String[0]);
+		Arrays.sort(vocabulary);
+		postings = new int[vocabulary.length][];
+		int suffixCount = 0;
+		for (int token = 0; token < vocabulary.length; token++) {
+			postings[token] = building.get(vocabulary[token]).toArray();
+			suffixCount += vocabulary[token].length();
+		}
+
+		String[] unsorted = new String[suffixCount];
+		int[] owners = new int[suffixCount];
+		int next = 0;
+		for (int token = 0; token < vocabulary.length; token++) {
+			for (int start = 0; start < vocabulary[token].length(); start++) {
+				unsorted[next] = vocabulary[token].substring(start);
+				owners[next++] = token;
+			}
+		}
+		Integer[] order = new Integer[suffixCount];
+		for (int i = 0; i < suffixCount; i++)
+			order[i] = i;
+		Arrays.sort(order, (a, b) -> unsorted[a].compareTo(unsorted[b]));
+		suffixes = new String[suffixCount];
+		suffixOwners = new int[suffixCount];
+		for (int i = 0; i < suffixCount; i++) {
+			suffixes[i] = unsorted[order[i]];
+			suffixOwners[i] = owners[order[i]];
+		}
+	}
+
+	/**
+	 * Finds the first product whose description contains every keyword of the search text,
+	 * preferring barcoded products over PLU coded products.
+	 *
+	 * @param searchText
+	 * 				The keywords, separated by whitespace.
+	 * @return The matching product, or null if there is none.
+	 */
+	public Product findFirst(String searchText) {
+		int[] matches = match(searchText);
+		return matches.length == 0 ? null : products[matches[0]];
+	}
+
+	/**
+	 * Finds every product whose description contains every keyword of the search text.
+	 *
+	 * @param searchText
+	 * 				The keywords, separated by whitespace.
+	 * @return The matching products, barcoded products first.
+	 */
+	public List<Product> findAll(String searchText) {
+		int[] matches = match(searchText);
+		List<Product> result = new ArrayList<>(matches.length);
+		for (int ordinal : matches)
+			result.add(products[ordinal]);
+		return result;
+	}
+
+	/**
+	 * Gets the number of products in the index.
+	 *
+	 * @return The number of indexed products.
+	 */
+	public int size() {
+		return products.length;
+	}
+
+	/**
+	 * Computes the ordinals of every product containing all keywords of the search text.
+	 * A keyword contains no whitespace, so it can only occur inside a single token;
+	 * the postings of every token containing it are therefore exactly its matches.
+	 */
+	private int[] match(String searchText) {
+		String[] keywords = searchText.toLowerCase().split("\\s+");
+		List<int[]> perKeyword = new ArrayList<>(keywords.length);
+		for (String keyword : keywords) {
+			if (keyword.isEmpty())
+				continue;
+			int[] list = postingsContaining(keyword);
+			if (list.length == 0)
+				return list;
+			perKeyword.add(list);
+		}
+
+		if (perKeyword.isEmpty()) {
+			int[] everything = new int[products.length];
+			for (int i = 0; i < everything.length; i++)
+				everything[i] = i;
+			return everything;
+		}
+
+		// Intersect the shortest lists first so the candidate set shrinks as fast as possible
+		perKeyword.sort((a, b) -> Integer.compare(a.length, b.length));
+		int[] result = perKeyword.get(0);
+		for (int i = 1; i < perKeyword.size() && result.length > 0; i++)
+			result = intersect(result, perKeyword.get(i));
+		return result;
+	}
+
+	/**
+	 * Gets the sorted union of the posting lists of every token containing the keyword.
+	 * Attendants tend to repeat the same few keywords, so results are remembered.
+	 */
+	private int[] postingsContaining(String keyword) {
+		synchronized (keywordCache) {
+			int[] cached = keywordCache.get(keyword);
+			if (cached != null)
+				return cached;
+		}
+		// A token contains the keyword iff one of its suffixes starts with it
+		BitSet seen = new BitSet();
+		BitSet matching = new BitSet(products.length);
+		int tokens = 0, onlyToken = -1;
+		for (int i = firstSuffixNotBefore(keyword); i < suffixes.length && suffixes[i].startsWith(keyword); i++) {
+			int token = suffixOwners[i];
+			if (!seen.get(token)) {
+				seen.set(token);
+				tokens++;
+				onlyToken = token;
+				for (int ordinal : postings[token])
+					matching.set(ordinal);
+			}
+		}
+		int[] result;
+		if (tokens == 1)
+			result = postings[onlyToken];
+		else {
+			result = new int[matching.cardinality()];
+			for (int ordinal = matching.nextSetBit(0), n = 0; ordinal >= 0; ordinal = matching.nextSetBit(ordinal + 1))
+				result[n++] = ordinal;
+		}
+		synchronized (keywordCache) {
+			keywordCache.put(keyword, result);
+		}
+		return result;
+	}
+
+	private int firstSuffixNotBefore(String keyword) {
+		int low = 0, high = suffixes.length;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (suffixes[middle].compareTo(keyword) < 0)
+				low = middle + 1;
+			else
+				high = middle;
+		}
+		return low;
+	}
+
+	private static int[] intersect(int[] a, int[] b) {
+		int[] out = new int[Math.min(a.length, b.length)];
+		int i = 0, j = 0, n = 0;
+		while (i < a.length && j < b.length) {
+			if (a[i] < b[j])
+				i++;
+			else if (a[i] > b[j])
+				j++;
+			else {
+				out[n++] = a[i];
+				i++;
+				j++;
+			}
+		}
+		return Arrays.copyOf(out, n);
+	}
+
+	/**
+	 * Splits a description into its lower-case tokens.
+	 *
+	 * @param description
+	 * 				The description of a product.
+	 * @return The tokens of the description.
+	 */
+	static String[] tokenize(String description) {
+		String trimmed = description.toLowerCase().trim();
+		if (trimmed.isEmpty())
+			return new String[0];
+		return trimmed.split("\\s+");
+	}
+
+	/**
+	 * Gets the description of a barcoded or PLU coded product.
+	 *
+	 * @param product
+	 * 				The product.
+	 * @return Its description, or an empty string for other kinds of product.
+	 */
+	static String descriptionOf(Product product) {
+		if (product instanceof BarcodedProduct)
+			return ((BarcodedProduct) product).getDescription();
+		if (product instanceof PLUCodedProduct)
+			return ((PLUCodedProduct) product).getDescription();
+		return "";
+	}
+
+	/**
+	 * A growable list of primitive ints, used while building the posting lists.
+	 */
+	static class IntList {
+		int[] values = new int[4];
+		int size;
+
+		void add(int value) {
+			if (size == values.length)
+				values = Arrays.copyOf(values, size * 2);
+			values[size++] = value;
+		}
+
+		int[] toArray() {
+			return Arrays.copyOf(values, size);
+		}
+	}
+}
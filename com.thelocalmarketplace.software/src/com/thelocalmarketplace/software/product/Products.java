@@ -31,10 +31,8 @@
 
 package com.thelocalmarketplace.software.product;
 
-import java.math.BigDecimal;
-import java.util.ArrayList;
 import java.util.HashSet;
-import java.util.Map;
+import java.util.List;
 import java.util.Set;
 import com.jjjwelectronics.EmptyDevice;
 import com.jjjwelectronics.Item;
@@ -42,12 +40,14 @@ import com.jjjwelectronics.Mass;
 import com.jjjwelectronics.OverloadedDevice;
 import com.jjjwelectronics.bag.IReusableBagDispenser;
 import com.jjjwelectronics.bag.ReusableBag;
+import com.jjjwelectronics.scale.ElectronicScaleListener;
 import com.jjjwelectronics.scale.IElectronicScale;
 import com.jjjwelectronics.scanner.Barcode;
+import com.jjjwelectronics.scanner.BarcodeScannerListener;
 import com.jjjwelectronics.scanner.BarcodedItem;
 import com.jjjwelectronics.scanner.IBarcodeScanner;
 import com.thelocalmarketplace.hardware.*;
-import com.thelocalmarketplace.hardware.external.ProductDatabases;
+import com.thelocalmarketplace.software.DeviceEventPipeline;
 import com.thelocalmarketplace.software.SelfCheckoutStationSoftware;
 import com.thelocalmarketplace.software.communication.GUI.AttendantStation.AttendantPageGUI;
 
@@ -65,7 +65,9 @@ public class Products {
 	public ScaleListener scaleListener;
 	public ScannerListener scannerListener;
 	public Set<ProductsListener> listeners = new HashSet<>();
-	private final ArrayList<Item> bulkyItems;
+	// What is registered with the devices: the listeners, or adapters to a pipeline
+	private BarcodeScannerListener registeredScannerListener;
+	private ElectronicScaleListener registeredScaleListener;
 
 	/**
 	 * Basic constructor
@@ -82,10 +84,30 @@ public class Products {
 		this.reusableBagDispenser = station.getReusableBagDispenser();
 		this.scannerListener = new ScannerListener(this);
 		this.scaleListener = new ScaleListener(software);
+		this.registeredScannerListener = scannerListener;
+		this.registeredScaleListener = scaleListener;
 		mainScanner.register(scannerListener);
 		handheldScanner.register(scannerListener);
 		baggingArea.register(scaleListener);
-		bulkyItems = new ArrayList<Item>();
+	}
+
+	/**
+	 * Routes the events of the scanners and the bagging area through a pipeline, or back to
+	 * the listeners directly.
+	 * 
+	 * @param pipeline
+	 * 				The pipeline to deliver the events, or null to deliver them on the device's thread.
+	 */
+	public void routeDeviceEvents(DeviceEventPipeline pipeline) {
+		mainScanner.deregister(registeredScannerListener);
+		handheldScanner.deregister(registeredScannerListener);
+		baggingArea.deregister(registeredScaleListener);
+
+		registeredScannerListener = pipeline == null ? scannerListener : pipeline.barcodeScannerListener(scannerListener);
+		registeredScaleListener = pipeline == null ? scaleListener : pipeline.electronicScaleListener(scaleListener);
+		mainScanner.register(registeredScannerListener);
+		handheldScanner.register(registeredScannerListener);
+		baggingArea.register(registeredScaleListener);
 	}
 
 	/**
@@ -109,13 +131,10 @@ public class Products {
 	 * 				The weight of the bulky item.
 	 */
 	public void handleBulkyItem(double productWeight) {
-		double currentWeight = software.getTotalOrderWeightInGrams();
-		double finalWeight = currentWeight-productWeight;
-		if (finalWeight >= 0)
-			software.addTotalOrderWeightInGrams(-productWeight);
-		ArrayList<Item> order = software.getOrder();
-		Item item = order.get(order.size() - 1);
-		bulkyItems.add(item);
+		long weight = Math.round(productWeight * Mass.MICROGRAMS_PER_GRAM);
+		if (software.getTotalOrderWeightInMicrograms() - weight >= 0)
+			software.addTotalOrderWeightInMicrograms(-weight);
+		software.getCurrentOrder().markBulky(software.getCurrentOrder().last());
 		software.setStationUnblock();
 	}
 
@@ -128,15 +147,19 @@ public class Products {
 	 * @return true if the item is removed from the order, false otherwise.
 	 */
     public boolean removeItemFromOrder(Item item) {
-        if (software.getOrder().contains(item)) {
-            software.getOrder().remove(item);
+        boolean bulky = software.getCurrentOrder().isBulky(item);
+        // The weight the item was found to add, beyond its catalogue weight
+        long weightCorrection = software.getCurrentOrder().weightCorrectionOf(item);
+        if (software.removeFromOrder(item)) {
             software.setStationBlock();
+            if (!bulky && weightCorrection != 0)
+            	software.addTotalOrderWeightInMicrograms(-weightCorrection);
             if (item instanceof BarcodedItem) {
-            	removeBarcodedItemFromOrder(item);
+            	removeBarcodedItemFromOrder(item, bulky);
                 return true;
             }
             if (item instanceof PLUCodedItem) {
-                removePLUCodedItemFromOrder(item);
+                removePLUCodedItemFromOrder(item, bulky);
                 return true;
             }
         }
@@ -144,40 +167,63 @@ public class Products {
     }
 
     /**
-     * Removes a barcoded item from the order.
+     * Takes a barcoded item that was removed from the order out of the order totals.
+     * Whether the item was bulky is read from the order, so the item must still be in it.
      * 
      * @param item
      * 				The barcoded item being removed.
      */
     public void removeBarcodedItemFromOrder(Item item) {
+    	removeBarcodedItemFromOrder(item, software.getCurrentOrder().isBulky(item));
+    }
+
+    /**
+     * Removes a barcoded item from the order.
+     * 
+     * @param item
+     * 				The barcoded item being removed.
+     * @param bulky
+     * 				Whether the item was marked as bulky, so its weight was never expected.
+     */
+    public void removeBarcodedItemFromOrder(Item item, boolean bulky) {
     	Barcode barcode = ((BarcodedItem) item).getBarcode();
-        BarcodedProduct product = ProductDatabases.BARCODED_PRODUCT_DATABASE.get(barcode);
+        BarcodedProduct product = software.findBarcodedProduct(barcode);
 		if (product == null)
 			return;
-		double productWeight = product.getExpectedWeight();
 		long productPrice = product.getPrice();
-		if (!bulkyItems.contains(item))
-			software.addTotalOrderWeightInGrams(-productWeight);
+		if (!bulky)
+			software.addTotalOrderWeightInMicrograms(-item.getMass().inMicrogramsAsLong());
 		software.addTotalOrderPrice(-productPrice);
 		notifyProductRemoved(product);
     }
 
     /**
-     * Removes a PLU coded item from the order.
+     * Takes a PLU coded item that was removed from the order out of the order totals.
+     * Whether the item was bulky is read from the order, so the item must still be in it.
      * 
      * @param item
      * 				The PLU coded item being removed from the order.
      */
     public void removePLUCodedItemFromOrder(Item item) {
+    	removePLUCodedItemFromOrder(item, software.getCurrentOrder().isBulky(item));
+    }
+
+    /**
+     * Removes a PLU coded item from the order.
+     * 
+     * @param item
+     * 				The PLU coded item being removed from the order.
+     * @param bulky
+     * 				Whether the item was marked as bulky, so its weight was never expected.
+     */
+    public void removePLUCodedItemFromOrder(Item item, boolean bulky) {
     	PriceLookUpCode PLUCode = ((PLUCodedItem) item).getPLUCode();
-        PLUCodedProduct product = ProductDatabases.PLU_PRODUCT_DATABASE.get(PLUCode);
+        PLUCodedProduct product = software.findPLUCodedProduct(PLUCode);
 		if (product == null)
 			return;
-		Mass itemMass = item.getMass();
-		double productWeight = itemMass.inGrams().doubleValue();
 		long productPrice = product.getPrice();
-		if (!bulkyItems.contains(item))
-			software.addTotalOrderWeightInGrams(-productWeight);
+		if (!bulky)
+			software.addTotalOrderWeightInMicrograms(-item.getMass().inMicrogramsAsLong());
 		software.addTotalOrderPrice(-productPrice);
 		notifyProductRemoved(product);
     }
@@ -195,15 +241,15 @@ public class Products {
 		if (!software.getStationActive() || software.getStationBlock())
 			return false;
 		software.setStationBlock();
-		double itemWeightInGrams = pluItem.getMass().inGrams().doubleValue();
 		PriceLookUpCode PLUCode = pluItem.getPLUCode();
-		PLUCodedProduct product = ProductDatabases.PLU_PRODUCT_DATABASE.get(PLUCode);
+		PLUCodedProduct product = software.findPLUCodedProduct(PLUCode);
 		if (product == null)
 			return true;
+		if (!software.addItemToOrder(pluItem))
+			return true;
 		long productPrice = product.getPrice();
-		software.addTotalOrderWeightInGrams(itemWeightInGrams);
+		software.addTotalOrderWeightInMicrograms(pluItem.getMass().inMicrogramsAsLong());
 		software.addTotalOrderPrice(productPrice);
-		software.addItemToOrder(pluItem);
 		notifyProductAdded(product);
 		return true;
 	}
@@ -218,16 +264,16 @@ public class Products {
 		if (!software.getStationActive() || software.getStationBlock())
 			return;
 		software.setStationBlock();
-		BarcodedProduct product = ProductDatabases.BARCODED_PRODUCT_DATABASE.get(barcode);
+		BarcodedProduct product = software.findBarcodedProduct(barcode);
 		if (product == null)
 			return;
-		double productWeight = product.getExpectedWeight();
+		Mass mass = new Mass(product.getExpectedWeight());
+		BarcodedItem barcodedItem = new BarcodedItem(barcode, mass);
+		if (!software.addItemToOrder(barcodedItem))
+			return;
 		long productPrice = product.getPrice();
-		software.addTotalOrderWeightInGrams(productWeight);
+		software.addTotalOrderWeightInMicrograms(mass.inMicrogramsAsLong());
 		software.addTotalOrderPrice(productPrice);
-		Mass mass = new Mass(productWeight);
-		BarcodedItem barcodedItem = new BarcodedItem(barcode, mass);
-		software.addItemToOrder(barcodedItem);
 		notifyProductAdded(product);
 	}
 	
@@ -238,7 +284,16 @@ public class Products {
      * 				The text to search for the product.
      */
     public void addItemByTextSearch(String searchText) {
-        Product product = findProductByTextSearch(searchText);
+        addSearchedProduct(findProductByTextSearch(searchText));
+    }
+
+	/**
+	 * Adds a product that the customer or attendant picked from search results to the order.
+	 *
+	 * @param product
+	 * 				The product that was found. No effect if null.
+	 */
+	public void addSearchedProduct(Product product) {
 		if (product == null)
 			return;
 		if (!software.getStationActive() || software.getStationBlock())
@@ -249,7 +304,7 @@ public class Products {
 		} else {
 			handleAddingTextSearchPLUProduct(product);
 		}
-    }
+	}
 
 	/**
 	 * Handles adding a barcoded product via text search.
@@ -259,13 +314,13 @@ public class Products {
 	 */
 	public void handleAddingTextSearchBarcodedProduct(Product product) {
 		BarcodedProduct barcodedProduct = (BarcodedProduct) product;
-		double productWeight = barcodedProduct.getExpectedWeight();
+		Mass mass = new Mass(barcodedProduct.getExpectedWeight());
+		BarcodedItem barcodedItem = new BarcodedItem(barcodedProduct.getBarcode(), mass);
+		if (!software.addItemToOrder(barcodedItem))
+			return;
 		long productPrice = product.getPrice();
-		software.addTotalOrderWeightInGrams(productWeight);
+		software.addTotalOrderWeightInMicrograms(mass.inMicrogramsAsLong());
 		software.addTotalOrderPrice(productPrice);
-		Mass mass = new Mass(productWeight);
-		BarcodedItem barcodedItem = new BarcodedItem(barcodedProduct.getBarcode(), mass);
-		software.addItemToOrder(barcodedItem);
 		notifyProductAdded(product);
 		notifyAddProductToBaggingArea(product);
 	}
@@ -280,10 +335,12 @@ public class Products {
 		PLUCodedProduct pluProduct = (PLUCodedProduct) product;
 		PLUCodedItem pluItem = new PLUCodedItem(pluProduct.getPLUCode(), new Mass(1.0));
 		addItemByPLUCode(pluItem);
-		software.addItemToOrder(pluItem);
-		software.addTotalOrderWeightInGrams(1);
-		software.addTotalOrderPrice(pluProduct.getPrice());
-		notifyProductAdded(product);
+		// Already counted if addItemByPLUCode could add the item
+		if (software.addItemToOrder(pluItem)) {
+			software.addTotalOrderWeightInGrams(1);
+			software.addTotalOrderPrice(pluProduct.getPrice());
+			notifyProductAdded(product);
+		}
 		notifyAddProductToBaggingArea(product);
 	}
 
@@ -296,39 +353,21 @@ public class Products {
      * @return a BarcodedProduct or PLUCodedProduct if found, otherwise null.
      */
     public Product findProductByTextSearch(String searchText) {
-        String[] keywords = searchText.toLowerCase().split("\\s+");
-        for (Map.Entry<Barcode, BarcodedProduct> entry : ProductDatabases.BARCODED_PRODUCT_DATABASE.entrySet()) {
-            BarcodedProduct product = entry.getValue();
-            if (containsAllKeywords(product.getDescription().toLowerCase(), keywords)) {
-                return product;
-            }
-        }
-        for (Map.Entry<PriceLookUpCode, PLUCodedProduct> entry : ProductDatabases.PLU_PRODUCT_DATABASE.entrySet()) {
-            PLUCodedProduct product = entry.getValue();
-            if (containsAllKeywords(product.getDescription().toLowerCase(), keywords)) {
-                return product;
-            }
-        }
-        return null;
+        return ProductSearchIndex.current().findFirst(searchText);
     }
 
     /**
-     * Checks if the product text search contains all the keywords.
+     * Searches for the products best matching the provided text, tolerating typos.
      * 
-     * @param text 
-     * 				The text to search in.
-     * @param keywords 
-     * 				The keywords to search for.
-	 *
-     * @return true if all keywords are found in the text, false otherwise.
+     * @param searchText
+     * 				The string containing the text used to find products.
+     * @param limit
+     * 				The maximum number of products to return.
+     * 
+     * @return The matching products, best match first.
      */
-    private boolean containsAllKeywords(String text, String[] keywords) {
-        for (String keyword : keywords) {
-            if (!text.contains(keyword)) {
-                return false;
-            }
-        }
-        return true;
+    public List<Product> searchProducts(String searchText, int limit) {
+        return FuzzyProductSearch.current().search(searchText, limit);
     }
 
 	/**
@@ -341,14 +380,13 @@ public class Products {
 		if (!software.getStationActive() || software.getStationBlock())
 			return;
 		software.setStationBlock();
-		double itemWeightInGrams = visualCatalogueItem.getMass().inGrams().doubleValue();
+		Mass mass = visualCatalogueItem.getMass();
 		PriceLookUpCode PLUCode = visualCatalogueItem.getPLUCode();
-		PLUCodedProduct PLUProduct = ProductDatabases.PLU_PRODUCT_DATABASE.get(PLUCode);
+		PLUCodedProduct PLUProduct = software.findPLUCodedProduct(PLUCode);
 		if (PLUProduct != null) {
 			long productPrice = PLUProduct.getPrice();
-			software.addTotalOrderWeightInGrams(itemWeightInGrams);
+			software.addTotalOrderWeightInMicrograms(mass.inMicrogramsAsLong());
 			software.addTotalOrderPrice(productPrice);
-			Mass mass = new Mass(itemWeightInGrams);
 			PLUCodedItem newVisualCatalogueItem = new PLUCodedItem(PLUCode, mass);
 			software.addItemToOrder(newVisualCatalogueItem);
 		}
@@ -411,13 +449,12 @@ public class Products {
 	 *				The reusable bags purchased.
 	 */
 	public void addBagsToOrder(ReusableBag...bags) {
-		double reusableBagWeight;
 		long reusableBagPrice = 1;
 		for(ReusableBag bag: bags) {
-			reusableBagWeight = bag.getMass().inGrams().doubleValue();
+			if (!software.addItemToOrder(bag))
+				continue;
 			software.addTotalOrderPrice(reusableBagPrice);
-			software.addTotalOrderWeightInGrams(reusableBagWeight);
-			software.addItemToOrder(bag);
+			software.addTotalOrderWeightInMicrograms(bag.getMass().inMicrogramsAsLong());
 			notifyBagsPurchased(reusableBagPrice);
 			software.getStationHardware().getBaggingArea().addAnItem(bag);
 		}
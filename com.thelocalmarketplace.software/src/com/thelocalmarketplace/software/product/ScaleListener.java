@@ -31,32 +31,106 @@
 
 package com.thelocalmarketplace.software.product;
 
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import com.jjjwelectronics.IDevice;
 import com.jjjwelectronics.IDeviceListener;
+import com.jjjwelectronics.Item;
 import com.jjjwelectronics.Mass;
 import com.jjjwelectronics.OverloadedDevice;
+import com.jjjwelectronics.PackedDigits;
 import com.jjjwelectronics.scale.AbstractElectronicScale;
 import com.jjjwelectronics.scale.ElectronicScaleListener;
 import com.jjjwelectronics.scale.IElectronicScale;
+import com.jjjwelectronics.scanner.BarcodedItem;
 import com.thelocalmarketplace.software.SelfCheckoutStationSoftware;
+import com.thelocalmarketplace.software.communication.StationUI;
+import com.thelocalmarketplace.software.communication.UIEventBridge;
+import com.thelocalmarketplace.software.order.Order;
 
 
 /**
  * This class represents a listener for changes in an electronic scale attached to a self-checkout station,
  * managing events related to weight discrepancies and device status.
+ * <p>
+ * A weight that matches the order unblocks the station at once. A weight that does not is only
+ * reported as a discrepancy once it has settled, so the readings of a bag being set down do not
+ * block the station and call the attendant.
+ * </p>
+ * <p>
+ * When a weight is verified with exactly one new barcoded item in the order, the weight that
+ * item added is learned into its product's profile once the scale has settled on it, so the
+ * readings of a bag being set down are not learned. A discrepancy the attendant approved may be
+ * anything at all, so its weight is handed to the profiles as an approval, which they only learn
+ * once several agree. A weight that does not match the catalogue is still accepted if the new
+ * item's learned profile explains it; the difference is then recorded against the item so the
+ * order's weight stays right.
+ * </p>
  */
 public class ScaleListener implements ElectronicScaleListener {
 
+	// Checks unsettled discrepancies again later; shared by every station
+	private static final ScheduledExecutorService SETTLE_TIMER = Executors.newSingleThreadScheduledExecutor(task -> {
+		Thread thread = new Thread(task, "scale-settle-timer");
+		thread.setDaemon(true);
+		return thread;
+	});
+	// The least time between two checks of a weight that has not settled yet
+	private static final long MIN_RECHECK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
 	private final SelfCheckoutStationSoftware software;
+	private final WeightStabilizer stabilizer;
+	private final WeightProfiles profiles;
+	private ScheduledFuture<?> pendingCheck;
+	// Advanced whenever a check is cancelled, so a check already running can tell it is stale
+	private long checkGeneration;
+	// The weight on the scale and the size of the order when a weight was last verified
+	private long lastVerifiedWeight;
+	private int lastVerifiedOrderSize = -1;
+	// Counts the verified weights, so a late approval can tell it has been overtaken
+	private long verifications;
+	// The item whose weight is learned once the scale settles, and the weight before it was added
+	private Item learning;
+	private long learningBase;
 	
 	/**
-	 * Constructor for the listener.
+	 * Constructor for the listener, settling weights with the default filter.
 	 * 
 	 * @param software
 	 * 				The instance of the self-checkout station software.
 	 */
 	public ScaleListener (SelfCheckoutStationSoftware software) {
+		this(software, new WeightStabilizer());
+	}
+
+	/**
+	 * Constructor for the listener.
+	 * 
+	 * @param software
+	 * 				The instance of the self-checkout station software.
+	 * @param stabilizer
+	 * 				The filter deciding when a discrepant weight has settled.
+	 */
+	public ScaleListener (SelfCheckoutStationSoftware software, WeightStabilizer stabilizer) {
+		this(software, stabilizer, WeightProfiles.shared());
+	}
+
+	/**
+	 * Constructor for the listener.
+	 * 
+	 * @param software
+	 * 				The instance of the self-checkout station software.
+	 * @param stabilizer
+	 * 				The filter deciding when a discrepant weight has settled.
+	 * @param profiles
+	 * 				The learned weights of products, usually shared by every station.
+	 */
+	public ScaleListener (SelfCheckoutStationSoftware software, WeightStabilizer stabilizer, WeightProfiles profiles) {
 		this.software = software;	
+		this.stabilizer = stabilizer;
+		this.profiles = profiles;
 	}
 	
 	/**
@@ -69,33 +143,249 @@ public class ScaleListener implements ElectronicScaleListener {
 	 */
 	@Override
 	public void theMassOnTheScaleHasChanged(IElectronicScale scale, Mass mass) {
-	    try {
-	    	AbstractElectronicScale allScales = (AbstractElectronicScale) scale;
-			Mass actualMass = allScales.getCurrentMassOnTheScale();
-			Mass expectedMass = new Mass(software.getTotalOrderWeightInGrams());
-			long weightTolerance = allScales.getSensitivityLimit().inMicrograms().longValue() / 2;
+		AbstractElectronicScale allScales = (AbstractElectronicScale) scale;
+		long actualInMicrograms;
+		try {
+			// Read before locking: the scale holds its own lock while it notifies us
+			actualInMicrograms = allScales.getCurrentMassOnTheScale().inMicrogramsAsLong();
+		} catch (OverloadedDevice e) {
+			synchronized (this) {
+				cancelPendingCheck();
+				software.setStationBlock();
+			}
+			return;
+		}
+
+		boolean report;
+		synchronized (this) {
+			long weightTolerance = toleranceOf(allScales);
+			long now = System.nanoTime();
+			if (verify(actualInMicrograms, weightTolerance)) {
+				software.setStationUnblock();
+				if (learning == null) {
+					cancelPendingCheck();
+					return;
+				}
+				// Keep reading until the weight settles, then learn it
+				stabilizer.offer(actualInMicrograms, 2 * weightTolerance, now);
+				if (stabilizer.isSettled(now)) {
+					learn(stabilizer.settledWeight());
+					cancelPendingCheck();
+				} else if (pendingCheck == null)
+					scheduleCheck(allScales, stabilizer.nanosUntilSettled(now));
+				return;
+			}
+
+			stabilizer.offer(actualInMicrograms, 2 * weightTolerance, now);
+			report = stabilizer.isSettled(now);
+			if (report)
+				cancelPendingCheck();
+			else if (pendingCheck == null)
+				scheduleCheck(allScales, stabilizer.nanosUntilSettled(now));
+		}
+		if (report)
+			reportDiscrepancy(actualInMicrograms, toleranceOf(allScales));
+	}
+
+	/**
+	 * Reads the scale again once a discrepant weight may have settled, and reports the
+	 * discrepancy if it has.
+	 */
+	private void checkSettled(AbstractElectronicScale scale, long generation) {
+		long actualInMicrograms;
+		try {
+			actualInMicrograms = scale.getCurrentMassOnTheScale().inMicrogramsAsLong();
+		} catch (OverloadedDevice e) {
+			synchronized (this) {
+				if (generation == checkGeneration) {
+					pendingCheck = null;
+					software.setStationBlock();
+				}
+			}
+			return;
+		}
 
-	        long actualInMicrograms = actualMass.inMicrograms().longValue();
-	        long expectedInMicrograms = expectedMass.inMicrograms().longValue();
+		long settledWeight;
+		long weightTolerance;
+		synchronized (this) {
+			if (generation != checkGeneration)
+				return;
+			pendingCheck = null;
+			weightTolerance = toleranceOf(scale);
+			long now = System.nanoTime();
+			stabilizer.offer(actualInMicrograms, 2 * weightTolerance, now);
+			if (!stabilizer.isSettled(now)) {
+				scheduleCheck(scale, stabilizer.nanosUntilSettled(now));
+				return;
+			}
+			settledWeight = stabilizer.settledWeight();
+			stabilizer.reset();
+			if (verify(settledWeight, weightTolerance)) {
+				learn(settledWeight);
+				software.setStationUnblock();
+				return;
+			}
+		}
+		reportDiscrepancy(settledWeight, weightTolerance);
+	}
+
+	/**
+	 * Reports a discrepancy. It is reported without holding the lock of the listener. The
+	 * attendant approves the weight by unblocking the station, which is checked on the event
+	 * dispatch thread after the pop-ups of the report: the bridge does not start the check
+	 * until they have returned, and as they are modal, until they have been answered.
+	 */
+	private void reportDiscrepancy(long actualInMicrograms, long weightTolerance) {
+		long reportedAfter;
+		synchronized (this) {
+			reportedAfter = verifications;
+		}
+		detectedWeightDiscrepancy();
+		software.getUIEvents().post(UIEventBridge.event(() -> {
+			if (!software.getStationBlock())
+				approved(actualInMicrograms, weightTolerance, reportedAfter);
+		}));
+	}
+
+	private synchronized void approved(long actualInMicrograms, long weightTolerance, long reportedAfter) {
+		// The weight was fixed before the attendant answered
+		if (verifications != reportedAfter)
+			return;
+		Item item = newItem();
+		if (item != null) {
+			long added = actualInMicrograms - lastVerifiedWeight;
+			correct(item, added);
+			// Reported weights have settled, so the approved one is what the item really added
+			profiles.recordApproved(keyOf(item), item.getMass().inMicrogramsAsLong(), added, weightTolerance);
+		}
+		verified(actualInMicrograms, false);
+	}
 
-	        long absoluteDifference = Math.abs(actualInMicrograms - expectedInMicrograms);
+	/**
+	 * Checks a weight against the order. A weight that does not match is still accepted if it
+	 * is explained by the learned weight of the one item added since the last verified weight.
+	 *
+	 * @return true if the weight was accepted.
+	 */
+	private boolean verify(long actualInMicrograms, long weightTolerance) {
+		if (matchesOrder(actualInMicrograms, weightTolerance)) {
+			verified(actualInMicrograms, true);
+			return true;
+		}
+		Item item = newItem();
+		if (item != null) {
+			long added = actualInMicrograms - lastVerifiedWeight;
+			WeightProfiles.Profile profile = profiles.get(keyOf(item));
+			if (profile != null && profile.accepts(added, weightTolerance)) {
+				correct(item, added);
+				verified(actualInMicrograms, true);
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private boolean matchesOrder(long actualInMicrograms, long weightTolerance) {
+		long expectedInMicrograms = software.getTotalOrderWeightInMicrograms();
+		return Math.abs(actualInMicrograms - expectedInMicrograms) <= weightTolerance;
+	}
+
+	/**
+	 * Remembers a verified weight. If exactly one item was added since the last one, and the
+	 * software verified the weight itself, the item's weight is learned once the scale settles;
+	 * an approved weight has already been handed to the profiles.
+	 *
+	 * @param matched
+	 * 				false if the attendant approved the weight.
+	 */
+	private void verified(long actualInMicrograms, boolean matched) {
+		Item item = newItem();
+		if (item != null) {
+			learning = matched ? item : null;
+			learningBase = lastVerifiedWeight;
+		} else if (!matched || software.getCurrentOrder().size() != lastVerifiedOrderSize)
+			learning = null;
+		lastVerifiedWeight = actualInMicrograms;
+		lastVerifiedOrderSize = software.getCurrentOrder().size();
+		verifications++;
+	}
+
+	/**
+	 * Learns the weight the item being learned added, now that the scale has settled on a
+	 * weight that was verified, if the item is still the last one in the order.
+	 */
+	private void learn(long settledInMicrograms) {
+		Item item = learning;
+		learning = null;
+		Order order = software.getCurrentOrder();
+		if (item == null || order.size() != lastVerifiedOrderSize || order.last() != item)
+			return;
+		profiles.record(keyOf(item), item.getMass().inMicrogramsAsLong(), settledInMicrograms - learningBase);
+	}
+
+	/**
+	 * Gets the one item added to the order since the last verified weight, if it is a barcoded
+	 * item whose weight is expected in the bagging area.
+	 *
+	 * @return The item, or null if there is no such single item.
+	 */
+	private Item newItem() {
+		Order order = software.getCurrentOrder();
+		if (lastVerifiedOrderSize < 0 || order.size() != lastVerifiedOrderSize + 1)
+			return null;
+		Item item = order.last();
+		if (!(item instanceof BarcodedItem) || order.isBulky(item) || keyOf(item) == PackedDigits.NOT_PACKABLE)
+			return null;
+		return item;
+	}
+
+	private static long keyOf(Item item) {
+		return ((BarcodedItem) item).getBarcode().getPackedDigits();
+	}
+
+	/**
+	 * Records the weight an item was found to add in place of its catalogue weight.
+	 */
+	private void correct(Item item, long addedInMicrograms) {
+		long correction = addedInMicrograms - item.getMass().inMicrogramsAsLong();
+		if (software.getCurrentOrder().correctWeight(item, correction))
+			software.addTotalOrderWeightInMicrograms(correction);
+	}
+
+	private static long toleranceOf(AbstractElectronicScale scale) {
+		return scale.getSensitivityLimit().inMicrogramsAsLong() / 2;
+	}
+
+	private void scheduleCheck(AbstractElectronicScale scale, long delayNanos) {
+		long generation = checkGeneration;
+		pendingCheck = SETTLE_TIMER.schedule(() -> checkSettled(scale, generation),
+				Math.max(delayNanos, MIN_RECHECK_NANOS), TimeUnit.NANOSECONDS);
+	}
 
-	        if (absoluteDifference <= weightTolerance)
-	            software.setStationUnblock();
-	        else
-	        	detectedWeightDiscrepancy();
-	    } catch (OverloadedDevice e) {
-	        software.setStationBlock();
-	    } 	
+	private void cancelPendingCheck() {
+		learning = null;
+		stabilizer.reset();
+		checkGeneration++;
+		if (pendingCheck != null) {
+			pendingCheck.cancel(false);
+			pendingCheck = null;
+		}
 	}
 
 	/**
 	 * Handles the event when a weight discrepancy is detected.
+	 * The station is blocked at once; the customer and the attendant are told on the event
+	 * dispatch thread, so the scale does not wait for them.
 	 */
 	public void detectedWeightDiscrepancy() {
 		software.setStationBlock();
-		software.getGUI().customerPopUp("Weight discrepancy detected. Add or remove the item." );
-		software.getGUI().getAttendantGUI().weightDiscpreancydNotify(software);
+		StationUI ui = software.getUI();
+		if (ui == null)
+			return;
+		software.getUIEvents().post(UIEventBridge.event(() -> {
+			ui.notifyCustomer("Weight discrepancy detected. Add or remove the item." );
+			ui.weightDiscrepancyDetected(software);
+		}));
 	}
 
 
@@ -108,6 +398,9 @@ public class ScaleListener implements ElectronicScaleListener {
 	 */
 	@Override
 	public void theMassOnTheScaleHasExceededItsLimit(IElectronicScale scale) {
+		synchronized (this) {
+			cancelPendingCheck();
+		}
 		software.setStationBlock();
 		software.notifyUserOfOverload();
 	}
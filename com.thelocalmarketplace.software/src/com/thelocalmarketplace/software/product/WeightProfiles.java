@@ -0,0 +1,574 @@
+/**
+
+ SENG 300 - ITERATION 3
+ GROUP GOLD {8}
+
+ Name                      UCID
+
+ Yotam Rojnov             30173949
+ Duncan McKay             30177857
+ Mahfuz Alam              30142265
+ Luis Trigueros Granillo  30167989
+ Lilia Skumatova          30187339
+ Abdelrahman Abbas        30110374
+ Talaal Irtija            30169780
+ Alejandro Cardona        30178941
+ Alexandre Duteau         30192082
+ Grace Johnson            30149693
+ Abil Momin               30154771
+ Tara Ghasemi M. Rad      30171212
+ Izabella Mawani          30179738
+ Binish Khalid            30061367
+ Fatima Khalid            30140757
+ Lucas Kasdorf            30173922
+ Emily Garcia-Volk        30140791
+ Yuinikoru Futamata       30173228
+ Joseph Tandyo            30182561
+ Syed Haider              30143096
+ Nami Marwah              30178528
+
+ */
+
+package com.thelocalmarketplace.software.product;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Learns how much the items of each barcoded product really weigh, from the weights verified
+ * at every station, so that a product whose catalogue weight is wrong (produce, deli items)
+ * stops blocking stations once enough of its items have been bagged.
+ *
+ * <p>Each product has a profile holding the count, running mean and variance of its observed
+ * weights, the lightest and heaviest of them, and a small histogram of how far they strayed
+ * from its catalogue weight, from which quantiles are estimated. An observation is added to
+ * its profile in place, holding the profile's lock for a few arithmetic operations; only
+ * claiming a slot for a new profile goes through compare-and-set. Profiles are deliberately
+ * not immutable snapshots swapped in by compare-and-set: that copied the histogram on every
+ * observation, and retried the copy whenever two stations bagged the same product at once,
+ * whereas the lock is held so briefly that it is almost never contended.</p>
+ *
+ * <p>Weights the attendant approved are trusted less than weights the software verified, as
+ * an approval may be for anything at all. They are kept apart, per product, and only recorded
+ * once enough approvals in a row agree with each other, so that a product whose catalogue
+ * weight is simply wrong still comes to be learned.</p>
+ *
+ * <p>Profiles live in a fixed number of slots, so memory stays bounded however many products
+ * the store sells. A product is looked for in a few slots near its hash; when they are all
+ * taken by other products, the least observed one that has not yet learned anything useful is
+ * evicted, and if there is none the observation is dropped.</p>
+ */
+public class WeightProfiles {
+
+	/**
+	 * The system property holding the file the shared profiles are loaded from and saved to.
+	 */
+	public static final String FILE_PROPERTY = "thelocalmarketplace.weightprofiles";
+
+	/**
+	 * The default number of slots of a store.
+	 */
+	public static final int DEFAULT_CAPACITY = 1 << 14;
+
+	/**
+	 * The number of observations a profile needs before its bounds are used.
+	 */
+	public static final int MIN_OBSERVATIONS = 8;
+
+	/**
+	 * The number of approved weights in a row that must agree before they are recorded.
+	 */
+	public static final int APPROVALS_TO_LEARN = 3;
+
+	// The histogram has BUCKETS buckets of BUCKET_WIDTH each, centred on the catalogue weight,
+	// so it covers deviations of up to 40% either way. Larger ones fall in the end buckets,
+	// which stretch out to the lightest and heaviest weights observed
+	static final int BUCKETS = 32;
+	static final double BUCKET_WIDTH = 0.025;
+	private static final int PROBES = 8;
+	// How many standard deviations from the mean a weight may be and still be accepted
+	private static final double DEVIATIONS = 3;
+	private static final double LOW_QUANTILE = 0.01;
+	private static final double HIGH_QUANTILE = 0.99;
+	// How far, as a fraction of their mean, approved weights may stray and still agree
+	private static final double APPROVAL_SPREAD = 0.05;
+	private static final long[] NONE = new long[0];
+	private static final int MAGIC = 0x57505246;
+	private static final int VERSION = 2;
+
+	private static WeightProfiles shared;
+
+	private final AtomicReferenceArray<Profile> slots;
+	// The approved weights waiting to agree, at most one product per slot
+	private final AtomicReferenceArray<Approvals> approvals;
+	private final int mask;
+
+	/**
+	 * Gets the profiles shared by every station, loading them from the file named by
+	 * FILE_PROPERTY the first time they are asked for, and saving them there when the
+	 * program exits.
+	 *
+	 * @return The shared profiles.
+	 */
+	public static synchronized WeightProfiles shared() {
+		if (shared == null) {
+			String file = System.getProperty(FILE_PROPERTY);
+			if (file == null)
+				shared = new WeightProfiles(DEFAULT_CAPACITY);
+			else {
+				Path path = Paths.get(file);
+				try {
+					shared = Files.exists(path) ? load(path, DEFAULT_CAPACITY) : new WeightProfiles(DEFAULT_CAPACITY);
+				} catch (IOException e) {
+					System.err.println("Cannot load the weight profiles " + path + ": " + e.getMessage());
+					shared = new WeightProfiles(DEFAULT_CAPACITY);
+				}
+				WeightProfiles profiles = shared;
+				Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+					try {
+						profiles.save(path);
+					} catch (IOException e) {
+						System.err.println("Cannot save the weight profiles " + path + ": " + e.getMessage());
+					}
+				}, "weight-profiles-saver"));
+			}
+		}
+		return shared;
+	}
+
+	/**
+	 * Creates an empty store.
+	 *
+	 * @param capacity
+	 * 				The most products the store can hold profiles for, rounded up to a power of two.
+	 */
+	public WeightProfiles(int capacity) {
+		if (capacity < 1 || capacity > 1 << 30)
+			throw new IllegalArgumentException("The capacity must be between 1 and 2^30");
+		int size = Integer.highestOneBit(capacity);
+		if (size < capacity)
+			size <<= 1;
+		size = Math.max(size, PROBES);
+		slots = new AtomicReferenceArray<>(size);
+		approvals = new AtomicReferenceArray<>(size);
+		mask = size - 1;
+	}
+
+	/**
+	 * Records the weight of an item of a product.
+	 *
+	 * @param key
+	 * 				The key of the product, such as its packed barcode.
+	 * @param expected
+	 * 				The catalogue weight of the product, in micrograms. Must be positive.
+	 * @param observed
+	 * 				The weight of the item, in micrograms.
+	 * @return true if the observation was recorded, false if there was no room for the product.
+	 */
+	public boolean record(long key, long expected, long observed) {
+		if (expected <= 0)
+			throw new IllegalArgumentException("The expected weight must be positive");
+		int home = hash(key);
+		while (true) {
+			int victim = -1;
+			Profile victimProfile = null;
+			boolean raced = false;
+			for (int i = 0; i < PROBES && !raced; i++) {
+				int slot = (home + i) & mask;
+				Profile profile = slots.get(slot);
+				if (profile == null) {
+					if (slots.compareAndSet(slot, null, new Profile(key, expected, observed)))
+						return true;
+					raced = true;
+				} else if (profile.key == key) {
+					synchronized (profile) {
+						if (!profile.evicted) {
+							profile.add(observed);
+							return true;
+						}
+					}
+					raced = true;
+				} else {
+					int count = profile.getCount();
+					if (count < MIN_OBSERVATIONS && (victimProfile == null || count < victimProfile.getCount())) {
+						victim = slot;
+						victimProfile = profile;
+					}
+				}
+			}
+			if (raced)
+				continue;
+			if (victimProfile == null)
+				return false;
+			// Observations added to the victim meanwhile must not be lost with it
+			synchronized (victimProfile) {
+				if (victimProfile.count < MIN_OBSERVATIONS && !victimProfile.evicted
+						&& slots.compareAndSet(victim, victimProfile, new Profile(key, expected, observed))) {
+					victimProfile.evicted = true;
+					return true;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Records the weight of an item of a product that the attendant approved. It is only
+	 * recorded once APPROVALS_TO_LEARN approved weights in a row agree, and from then on as
+	 * long as they keep agreeing; one that does not agree starts the count again.
+	 *
+	 * @param key
+	 * 				The key of the product, such as its packed barcode.
+	 * @param expected
+	 * 				The catalogue weight of the product, in micrograms. Must be positive.
+	 * @param observed
+	 * 				The weight of the item, in micrograms.
+	 * @param tolerance
+	 * 				The tolerance of the scale, in micrograms.
+	 * @return true if the observation was recorded, false if it is waiting for more approvals
+	 * 				or there was no room for the product.
+	 */
+	public boolean recordApproved(long key, long expected, long observed, long tolerance) {
+		if (expected <= 0)
+			throw new IllegalArgumentException("The expected weight must be positive");
+		int slot = hash(key) & mask;
+		long[] agreed;
+		while (true) {
+			Approvals tally = approvals.get(slot);
+			if (tally != null && tally.key == key) {
+				synchronized (tally) {
+					agreed = tally.add(observed, tolerance);
+				}
+				break;
+			}
+			// Another product's approvals are forgotten; they only cost that product a few more
+			if (approvals.compareAndSet(slot, tally, new Approvals(key, observed)))
+				return false;
+		}
+		boolean recorded = agreed.length > 0;
+		for (long weight : agreed)
+			recorded &= record(key, expected, weight);
+		return recorded;
+	}
+
+	/**
+	 * Gets the profile of a product.
+	 *
+	 * @param key
+	 * 				The key of the product.
+	 * @return Its profile, or null if nothing has been learned about it.
+	 */
+	public Profile get(long key) {
+		int home = hash(key);
+		for (int i = 0; i < PROBES; i++) {
+			Profile profile = slots.get((home + i) & mask);
+			if (profile != null && profile.key == key)
+				return profile;
+		}
+		return null;
+	}
+
+	/**
+	 * Counts the products with a profile.
+	 *
+	 * @return The number of profiles.
+	 */
+	public int size() {
+		int size = 0;
+		for (int i = 0; i < slots.length(); i++)
+			if (slots.get(i) != null)
+				size++;
+		return size;
+	}
+
+	private int hash(long key) {
+		long h = key * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32));
+	}
+
+	/**
+	 * Writes every profile to a file, replacing it only once the new copy is complete.
+	 * Each profile takes 116 bytes.
+	 *
+	 * @param file
+	 * 				The file.
+	 * @throws IOException
+	 * 				If the file cannot be written.
+	 */
+	public void save(Path file) throws IOException {
+		Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+		if (file.getParent() != null)
+			Files.createDirectories(file.getParent());
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(size());
+			for (int i = 0; i < slots.length(); i++) {
+				Profile profile = slots.get(i);
+				if (profile == null)
+					continue;
+				synchronized (profile) {
+					out.writeLong(profile.key);
+					out.writeLong(profile.expected);
+					out.writeInt(profile.count);
+					out.writeDouble(profile.mean);
+					out.writeDouble(profile.m2);
+					out.writeLong(profile.lightest);
+					out.writeLong(profile.heaviest);
+					for (short bucket : profile.buckets)
+						out.writeShort(bucket);
+				}
+			}
+		}
+		Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Reads profiles written by save into a new store.
+	 *
+	 * @param file
+	 * 				The file.
+	 * @param capacity
+	 * 				The capacity of the new store. Profiles that do not fit are dropped.
+	 * @return The new store.
+	 * @throws IOException
+	 * 				If the file cannot be read or is not a profile file.
+	 */
+	public static WeightProfiles load(Path file, int capacity) throws IOException {
+		WeightProfiles profiles = new WeightProfiles(capacity);
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+			if (in.readInt() != MAGIC)
+				throw new IOException("Not a weight profile file: " + file);
+			int version = in.readInt();
+			if (version != 1 && version != VERSION)
+				throw new IOException("Unknown weight profile file version " + version + ": " + file);
+			int count = in.readInt();
+			for (int n = 0; n < count; n++) {
+				long key = in.readLong();
+				long expected = in.readLong();
+				int observations = in.readInt();
+				double mean = in.readDouble();
+				double m2 = in.readDouble();
+				// The first version kept no extremes; its end buckets ended where the histogram does
+				long lightest = version == 1 ? Math.round(expected * (1 - BUCKETS / 2 * BUCKET_WIDTH)) : in.readLong();
+				long heaviest = version == 1 ? Math.round(expected * (1 + BUCKETS / 2 * BUCKET_WIDTH)) : in.readLong();
+				short[] buckets = new short[BUCKETS];
+				for (int i = 0; i < BUCKETS; i++)
+					buckets[i] = in.readShort();
+				profiles.put(new Profile(key, expected, observations, mean, m2, lightest, heaviest, buckets));
+			}
+		}
+		return profiles;
+	}
+
+	private void put(Profile profile) {
+		int home = hash(profile.key);
+		for (int i = 0; i < PROBES; i++) {
+			int slot = (home + i) & mask;
+			if (slots.get(slot) == null) {
+				slots.set(slot, profile);
+				return;
+			}
+		}
+	}
+
+	/**
+	 * The approved weights of one product since the last that disagreed. Guarded by its lock.
+	 */
+	private static final class Approvals {
+		private final long key;
+		// The weights not recorded yet, until enough agree
+		private final long[] waiting = new long[APPROVALS_TO_LEARN];
+		private int count;
+		private double mean;
+
+		private Approvals(long key, long observed) {
+			this.key = key;
+			restart(observed);
+		}
+
+		private void restart(long observed) {
+			waiting[0] = observed;
+			count = 1;
+			mean = observed;
+		}
+
+		/**
+		 * Adds an approved weight, starting again from it if it does not agree with the
+		 * weights before it.
+		 *
+		 * @return The weights to record now: none until enough agree, then every one of them.
+		 */
+		private long[] add(long observed, long tolerance) {
+			if (Math.abs(observed - mean) > Math.max(tolerance, Math.abs(mean) * APPROVAL_SPREAD)) {
+				restart(observed);
+				return NONE;
+			}
+			count = count == Integer.MAX_VALUE ? count : count + 1;
+			mean += (observed - mean) / count;
+			if (count > APPROVALS_TO_LEARN)
+				return new long[] { observed };
+			waiting[count - 1] = observed;
+			return count == APPROVALS_TO_LEARN ? waiting.clone() : NONE;
+		}
+	}
+
+	/**
+	 * What has been learned about the weight of one product. Its state is guarded by its lock.
+	 */
+	public static final class Profile {
+		private final long key;
+		private final long expected;
+		private int count;
+		private double mean;
+		// The sum of squared differences from the mean (Welford's method)
+		private double m2;
+		private long lightest;
+		private long heaviest;
+		private final short[] buckets;
+		// Set once the profile has lost its slot to another product
+		private boolean evicted;
+
+		private Profile(long key, long expected, long observed) {
+			this(key, expected, 0, 0, 0, observed, observed, new short[BUCKETS]);
+			add(observed);
+		}
+
+		private Profile(long key, long expected, int count, double mean, double m2, long lightest, long heaviest, short[] buckets) {
+			this.key = key;
+			this.expected = expected;
+			this.count = count;
+			this.mean = mean;
+			this.m2 = m2;
+			this.lightest = lightest;
+			this.heaviest = heaviest;
+			this.buckets = buckets;
+		}
+
+		/**
+		 * Adds an observation. Must be called holding the lock of the profile.
+		 */
+		private void add(long observed) {
+			int n = count == Integer.MAX_VALUE ? count : count + 1;
+			double delta = observed - mean;
+			mean += delta / n;
+			m2 += delta * (observed - mean);
+			count = n;
+			lightest = Math.min(lightest, observed);
+			heaviest = Math.max(heaviest, observed);
+
+			int bucket = bucketOf(observed);
+			if (buckets[bucket] == Short.MAX_VALUE) {
+				// Halve every bucket, which keeps the shape and favours recent weights
+				for (int i = 0; i < BUCKETS; i++)
+					buckets[i] >>= 1;
+			}
+			buckets[bucket]++;
+		}
+
+		private int bucketOf(long observed) {
+			int bucket = (int) Math.floor(deviationOf(observed) / BUCKET_WIDTH) + BUCKETS / 2;
+			return Math.max(0, Math.min(BUCKETS - 1, bucket));
+		}
+
+		private double deviationOf(long observed) {
+			return (double) (observed - expected) / expected;
+		}
+
+		/**
+		 * Gets the number of observations.
+		 *
+		 * @return The number of observations.
+		 */
+		public synchronized int getCount() {
+			return count;
+		}
+
+		/**
+		 * Gets the catalogue weight the histogram is centred on.
+		 *
+		 * @return The catalogue weight, in micrograms.
+		 */
+		public long getExpected() {
+			return expected;
+		}
+
+		/**
+		 * Gets the mean observed weight.
+		 *
+		 * @return The mean, in micrograms.
+		 */
+		public synchronized double getMean() {
+			return mean;
+		}
+
+		/**
+		 * Gets the standard deviation of the observed weights.
+		 *
+		 * @return The sample standard deviation, in micrograms, or 0 with fewer than two observations.
+		 */
+		public synchronized double getStandardDeviation() {
+			return count < 2 ? 0 : Math.sqrt(m2 / (count - 1));
+		}
+
+		/**
+		 * Estimates a quantile of the observed weights from the histogram, interpolating
+		 * within the bucket it falls in.
+		 *
+		 * @param q
+		 * 				The quantile, between 0 and 1.
+		 * @return The estimated weight, in micrograms, or the catalogue weight if nothing was observed.
+		 */
+		public synchronized long quantile(double q) {
+			long total = 0;
+			for (short bucket : buckets)
+				total += bucket;
+			if (total == 0)
+				return expected;
+			double target = q * total;
+			double seen = 0;
+			for (int i = 0; i < BUCKETS; i++) {
+				if (buckets[i] > 0 && seen + buckets[i] >= target) {
+					double fraction = (target - seen) / buckets[i];
+					double low = (i - BUCKETS / 2) * BUCKET_WIDTH;
+					double high = low + BUCKET_WIDTH;
+					if (i == 0)
+						low = Math.min(low, deviationOf(lightest));
+					if (i == BUCKETS - 1)
+						high = Math.max(high, deviationOf(heaviest));
+					return Math.round(expected * (1 + low + fraction * (high - low)));
+				}
+				seen += buckets[i];
+			}
+			return heaviest;
+		}
+
+		/**
+		 * Checks whether a weight is plausible for an item of this product. Once the profile
+		 * has enough observations, a weight is accepted if it lies within three standard
+		 * deviations of the mean or between the 1st and 99th percentiles, give or take the
+		 * tolerance of the scale.
+		 *
+		 * @param observed
+		 * 				The weight, in micrograms.
+		 * @param tolerance
+		 * 				The tolerance of the scale, in micrograms.
+		 * @return true if the weight is plausible; false if it is not, or too little is known.
+		 */
+		public synchronized boolean accepts(long observed, long tolerance) {
+			if (count < MIN_OBSERVATIONS)
+				return false;
+			double spread = DEVIATIONS * getStandardDeviation();
+			double low = Math.min(mean - spread, quantile(LOW_QUANTILE)) - tolerance;
+			double high = Math.max(mean + spread, quantile(HIGH_QUANTILE)) + tolerance;
+			return observed >= low && observed <= high;
+		}
+	}
+}
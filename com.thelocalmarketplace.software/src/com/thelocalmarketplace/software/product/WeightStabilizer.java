@@ -0,0 +1,167 @@
+/**
+
+ SENG 300 - ITERATION 3
+ GROUP GOLD {8}
+
+ Name                      UCID
+
+ Yotam Rojnov             30173949
+ Duncan McKay             30177857
+ Mahfuz Alam              30142265
+ Luis Trigueros Granillo  30167989
+ Lilia Skumatova          30187339
+ Abdelrahman Abbas        30110374
+ Talaal Irtija            30169780
+ Alejandro Cardona        30178941
+ Alexandre Duteau         30192082
+ Grace Johnson            30149693
+ Abil Momin               30154771
+ Tara Ghasemi M. Rad      30171212
+ Izabella Mawani          30179738
+ Binish Khalid            30061367
+ Fatima Khalid            30140757
+ Lucas Kasdorf            30173922
+ Emily Garcia-Volk        30140791
+ Yuinikoru Futamata       30173228
+ Joseph Tandyo            30182561
+ Syed Haider              30143096
+ Nami Marwah              30178528
+
+ */
+
+package com.thelocalmarketplace.software.product;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filters the readings of a scale down to settled weights. A customer setting a bag down
+ * produces a burst of readings before the scale comes to rest, and acting on each of them
+ * blocks and unblocks the station and interrupts the attendant for nothing.
+ * <p>
+ * Readings are grouped into plateaus: a reading within the band of the first reading of the
+ * current plateau extends it, and any other reading starts a new one. The weight is settled
+ * once its plateau has lasted the settle time and holds the required number of readings.
+ * Times are supplied by the caller, in nanoseconds, so the filter can be driven by any clock.
+ * </p>
+ * Instances are not thread-safe.
+ */
+public class WeightStabilizer {
+
+	/**
+	 * The default time a weight must hold before it is settled.
+	 */
+	public static final long DEFAULT_SETTLE_MILLIS = 500;
+
+	/**
+	 * The default number of readings a settled plateau must hold.
+	 */
+	public static final int DEFAULT_REQUIRED_READINGS = 2;
+
+	private final long settleNanos;
+	private final int requiredReadings;
+
+	private boolean empty = true;
+	private long plateauStart;
+	private long plateauBase;
+	private int plateauReadings;
+	private long latest;
+
+	/**
+	 * Creates a filter with the default settle time and number of readings.
+	 */
+	public WeightStabilizer() {
+		this(DEFAULT_SETTLE_MILLIS, DEFAULT_REQUIRED_READINGS);
+	}
+
+	/**
+	 * Creates a filter.
+	 *
+	 * @param settleMillis
+	 * 				How long a weight must hold before it is settled. Zero settles every reading at once.
+	 * @param requiredReadings
+	 * 				How many readings a settled plateau must hold, at least 1.
+	 */
+	public WeightStabilizer(long settleMillis, int requiredReadings) {
+		if (settleMillis < 0)
+			throw new IllegalArgumentException("The settle time cannot be negative");
+		if (requiredReadings < 1)
+			throw new IllegalArgumentException("At least one reading is required");
+		this.settleNanos = TimeUnit.MILLISECONDS.toNanos(settleMillis);
+		this.requiredReadings = requiredReadings;
+	}
+
+	/**
+	 * Adds a reading.
+	 *
+	 * @param micrograms
+	 * 				The weight read from the scale.
+	 * @param band
+	 * 				How far a reading may stray from the start of the plateau and still extend it.
+	 * @param nanos
+	 * 				The time of the reading.
+	 */
+	public void offer(long micrograms, long band, long nanos) {
+		if (empty || Math.abs(micrograms - plateauBase) > band) {
+			empty = false;
+			plateauStart = nanos;
+			plateauBase = micrograms;
+			plateauReadings = 0;
+		}
+		plateauReadings++;
+		latest = micrograms;
+	}
+
+	/**
+	 * Determines whether the weight has settled.
+	 *
+	 * @param nanos
+	 * 				The current time.
+	 * @return true if the current plateau has lasted long enough and holds enough readings.
+	 */
+	public boolean isSettled(long nanos) {
+		if (empty)
+			return false;
+		if (settleNanos == 0)
+			return true;
+		return nanos - plateauStart >= settleNanos && plateauReadings >= requiredReadings;
+	}
+
+	/**
+	 * Gets how long until the current plateau has lasted the settle time.
+	 *
+	 * @param nanos
+	 * 				The current time.
+	 * @return The time left, in nanoseconds, or 0 if it has already lasted long enough.
+	 */
+	public long nanosUntilSettled(long nanos) {
+		if (empty)
+			return settleNanos;
+		return Math.max(settleNanos - (nanos - plateauStart), 0);
+	}
+
+	/**
+	 * Gets the latest reading, which is the settled weight once {@link #isSettled(long)} holds.
+	 *
+	 * @return The latest reading, in micrograms.
+	 */
+	public long settledWeight() {
+		return latest;
+	}
+
+	/**
+	 * Gets the settle time.
+	 *
+	 * @return The settle time, in nanoseconds.
+	 */
+	public long getSettleNanos() {
+		return settleNanos;
+	}
+
+	/**
+	 * Forgets every reading.
+	 */
+	public void reset() {
+		empty = true;
+		plateauReadings = 0;
+	}
+}